@@ -0,0 +1,154 @@
+package shopeazy.com.ecommerce_app.events.codec;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import shopeazy.com.ecommerce_app.common.model.Address;
+import shopeazy.com.ecommerce_app.events.handler.InventoryEvent;
+import shopeazy.com.ecommerce_app.events.handler.OrderEvent;
+import shopeazy.com.ecommerce_app.events.handler.OrderSnapshot;
+import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
+import shopeazy.com.ecommerce_app.order.enums.PaymentStatus;
+import shopeazy.com.ecommerce_app.order.model.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON path used by the Kafka producers and consumers with the binary event codec,
+ * for an order event carrying a snapshot and for an inventory event.
+ * Encoded sizes are reported as the encodedBytes secondary result of the serialize benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventCodecBenchmark {
+
+    private static final String TOPIC = "benchmark-events";
+
+    @Param({"order", "inventory"})
+    public String eventType;
+
+    private final EventCodecRegistry registry = EventCodecRegistry.defaultRegistry();
+    private JsonSerializer<Object> jsonSerializer;
+    private JsonDeserializer<Object> jsonDeserializer;
+    private BinaryEventSerializer binarySerializer;
+
+    private Object event;
+    private RecordHeaders jsonHeaders;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jsonSerializer = new JsonSerializer<>();
+        jsonDeserializer = new JsonDeserializer<>();
+        jsonDeserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "*"), false);
+        binarySerializer = new BinaryEventSerializer(registry, Set.of(TOPIC), new JsonSerializer<>(), null);
+
+        event = "order".equals(eventType) ? orderEvent() : inventoryEvent();
+        jsonHeaders = new RecordHeaders();
+        json = jsonSerializer.serialize(TOPIC, jsonHeaders, event);
+        binary = binarySerializer.serialize(TOPIC, new RecordHeaders(), event);
+        if (!event.equals(BinaryEventDeserializer.decode(registry, binary))) {
+            throw new IllegalStateException("Binary round trip changed the " + eventType + " event");
+        }
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize(EncodedSize size) {
+        byte[] encoded = jsonSerializer.serialize(TOPIC, new RecordHeaders(), event);
+        size.encodedBytes = encoded.length;
+        return encoded;
+    }
+
+    @Benchmark
+    public byte[] binarySerialize(EncodedSize size) {
+        byte[] encoded = binarySerializer.serialize(TOPIC, new RecordHeaders(), event);
+        size.encodedBytes = encoded.length;
+        return encoded;
+    }
+
+    @Benchmark
+    public Object jsonDeserialize() {
+        // the deserializer strips the type headers it reads, so every call gets its own copy
+        return jsonDeserializer.deserialize(TOPIC, new RecordHeaders(jsonHeaders.toArray()), json);
+    }
+
+    @Benchmark
+    public Object binaryDeserialize() {
+        return BinaryEventDeserializer.decode(registry, binary);
+    }
+
+    /**
+     * Size of the last encoded event; set rather than summed, so the reported value is the size itself
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+        public long encodedBytes;
+    }
+
+    private static OrderEvent orderEvent() {
+        Order order = new Order();
+        order.setId("6650f0c2a1b2c3d4e5f60718");
+        order.setOrderNumber("ORD-20240524-000123");
+        order.setUserId("6650f0c2a1b2c3d4e5f60001");
+        order.setCustomerEmail("jane.doe@example.com");
+        order.setCustomerName("Jane Doe");
+        order.setStatus(OrderStatus.CONFIRMED);
+        order.setPaymentStatus(PaymentStatus.PAID);
+        order.setPaymentTransactionId("txn_3PJk2L9x");
+
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            OrderItem item = new OrderItem();
+            item.setProductId("6650f0c2a1b2c3d4e5f6010" + i);
+            item.setProductName("Product " + i);
+            item.setQuantity(i + 1);
+            item.setPriceAtTime(new BigDecimal("19.99"));
+            item.setTotalPrice(new BigDecimal("19.99").multiply(BigDecimal.valueOf(i + 1L)));
+            item.setSellerId("6650f0c2a1b2c3d4e5f60200");
+            item.setSellerName("Acme Store");
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        order.setPricing(new OrderPricing(new BigDecimal("119.94"), new BigDecimal("22.79"), new BigDecimal("4.99"),
+                BigDecimal.ZERO, new BigDecimal("147.72"), "EUR"));
+
+        Address address = new Address();
+        address.setStreet("Hauptstrasse 1");
+        address.setCity("Berlin");
+        address.setZip("10115");
+        address.setCountry("Germany");
+        order.setShippingAddress(address);
+        order.setBillingAddress(address);
+
+        OrderTimestamps timestamps = new OrderTimestamps();
+        timestamps.setCreated(Instant.parse("2024-05-24T10:15:30Z"));
+        timestamps.setConfirmed(Instant.parse("2024-05-24T10:16:02Z"));
+        order.setTimestamps(timestamps);
+        order.setCreatedAt(timestamps.getCreated());
+
+        Map<String, Object> eventData = new HashMap<>();
+        eventData.put("itemCount", 3);
+        eventData.put("paymentMethod", "CARD");
+        eventData.put("confirmedBy", "SYSTEM");
+
+        OrderEvent event = OrderEvent.orderConfirmed(order.getId(), order.getOrderNumber(), order.getUserId(),
+                order.getCustomerEmail(), order.getPricing().getTotal(), "EUR", eventData);
+        event.setSnapshot(OrderSnapshot.of(order));
+        return event;
+    }
+
+    private static InventoryEvent inventoryEvent() {
+        Map<String, Object> eventData = new HashMap<>();
+        eventData.put("cartId", "6650f0c2a1b2c3d4e5f60300");
+        eventData.put("reservationExpiresAt", Instant.parse("2024-05-24T10:45:30Z"));
+        return InventoryEvent.stockReserved("6650f0c2a1b2c3d4e5f60100", "6650f0c2a1b2c3d4e5f60001", 2,
+                "Added to cart", eventData);
+    }
+}
@@ -0,0 +1,134 @@
+package shopeazy.com.ecommerce_app.notification.template;
+
+import org.openjdk.jmh.annotations.*;
+import shopeazy.com.ecommerce_app.common.model.Address;
+import shopeazy.com.ecommerce_app.order.enums.CancellationReason;
+import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
+import shopeazy.com.ecommerce_app.order.model.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.*;
+
+/**
+ * Rendering cost of one order email: template lookup plus rendering, per status.
+ * legacyConfirmation is the former confirmation builder, which scanned all builders for the status and
+ * appended every constant into an unsized StringBuilder; compare it with render at status CONFIRMED.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EmailTemplateBenchmark {
+
+    @Param({"CONFIRMED", "SHIPPED", "CANCELLED", "DELIVERED"})
+    public OrderStatus status;
+
+    private List<EmailTemplateBuilder> builders;
+    private EmailTemplateFactory factory;
+    private Order order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        builders = List.of(new OrderConfirmationTemplateBuilder(), new OrderShippedTemplateBuilder(),
+                new OrderCancelledTemplateBuilder(), new OrderDeliveredTemplateBuilder());
+        factory = new EmailTemplateFactory(builders);
+        order = order(status);
+
+        if (status == OrderStatus.CONFIRMED && !legacyConfirmation().equals(render())) {
+            throw new IllegalStateException("Compiled confirmation template renders differently");
+        }
+    }
+
+    @Benchmark
+    public String render() {
+        return factory.getTemplate(order.getStatus().name()).buildEmailBody(order);
+    }
+
+    @Benchmark
+    public String legacyConfirmation() {
+        builders.stream().filter(builder -> builder.supports(OrderStatus.CONFIRMED.name())).toList();
+
+        Order order = this.order;
+        StringBuilder html = new StringBuilder();
+        html.append(HTML_START).append("Order Confirmation</title><style>")
+                .append(FONT_STYLE).append(STYLE_GREEN_HEADER).append(ORDER_DETAILS_STYLE).append(FOOTER_STYLE)
+                .append("</style></head><body>");
+        html.append(DIV_HEADER_OPEN).append("<h1>Order Confirmation</h1>").append(DIV_HEADER_CLOSE);
+        html.append(DIV_CONTENT_OPEN)
+                .append(GREETING).append(order.getCustomerName()).append(",</h2>")
+                .append(THANK_YOU_MESSAGE);
+        html.append(ORDER_DETAILS_SECTION)
+                .append("<h3>Order Details</h3>")
+                .append(STRONG_ORDER_NUMBER).append(order.getOrderNumber()).append("</p>")
+                .append(STRONG_ORDER_DATE).append(order.getCreatedAt()).append("</p>")
+                .append(STRONG_TOTAL_AMOUNT).append(order.getPricing().getTotal()).append("</p>")
+                .append(STRONG_STATUS).append(OrderStatus.CONFIRMED).append("</p>")
+                .append(DIV_CONTENT_CLOSE);
+        html.append("<h3>Items Ordered:</h3><ul>");
+        order.getOrderItems().forEach(item -> html.append("<li>")
+                .append(item.getProductName())
+                .append(" (Qty: ").append(item.getQuantity()).append(")")
+                .append(" - $").append(item.getTotalPrice())
+                .append("</li>"));
+        html.append("</ul>");
+        html.append("<h3>Shipping Address:</h3><p>")
+                .append(order.getShippingAddress().getStreet()).append("<br>")
+                .append(order.getShippingAddress().getCity()).append(", ")
+                .append(order.getShippingAddress().getState()).append(" ")
+                .append(order.getShippingAddress().getZip()).append("<br>")
+                .append(order.getShippingAddress().getCountry()).append("</p>");
+        html.append("<p>We'll send you another email when your order ships!</p>").append(DIV_CONTENT_CLOSE);
+        html.append(DIV_FOOTER_OPEN).append(EMAIL_FOOTER).append(CONTACT_INFO).append(DIV_FOOTER_CLOSE);
+        html.append(HTML_END);
+        return html.toString();
+    }
+
+    private static Order order(OrderStatus status) {
+        Order order = new Order();
+        order.setId("6650f0c2a1b2c3d4e5f60718");
+        order.setOrderNumber("ORD-20240524-000123");
+        order.setCustomerEmail("jane.doe@example.com");
+        order.setCustomerName("Jane Doe");
+        order.setStatus(status);
+
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            OrderItem item = new OrderItem();
+            item.setProductName("Product " + i);
+            item.setQuantity(i + 1);
+            item.setTotalPrice(new BigDecimal("19.99").multiply(BigDecimal.valueOf(i + 1L)));
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        order.setPricing(new OrderPricing(new BigDecimal("119.94"), new BigDecimal("22.79"), new BigDecimal("4.99"),
+                BigDecimal.ZERO, new BigDecimal("147.72"), "EUR"));
+
+        Address address = new Address();
+        address.setStreet("Hauptstrasse 1");
+        address.setCity("Berlin");
+        address.setState("Berlin");
+        address.setZip("10115");
+        address.setCountry("Germany");
+        order.setShippingAddress(address);
+        order.setCreatedAt(Instant.parse("2024-05-24T10:15:30Z"));
+
+        TrackingInfo trackingInfo = new TrackingInfo();
+        trackingInfo.setTrackingNumber("1Z999AA10123456784");
+        trackingInfo.setCarrier("DHL");
+        trackingInfo.setEstimatedDelivery(Instant.parse("2024-05-27T12:00:00Z"));
+        trackingInfo.setActualDelivery(Instant.parse("2024-05-26T15:42:00Z"));
+        trackingInfo.setReceivedBy("Jane Doe");
+        order.setTrackingInfo(trackingInfo);
+
+        CancellationInfo cancellationInfo = new CancellationInfo();
+        cancellationInfo.setReason(CancellationReason.values()[0]);
+        cancellationInfo.setDetails("Ordered the wrong size");
+        cancellationInfo.setRefundAmount(new BigDecimal("147.72"));
+        order.setCancellationInfo(cancellationInfo);
+        return order;
+    }
+}
@@ -0,0 +1,85 @@
+package shopeazy.com.ecommerce_app.pdf.service;
+
+import org.openjdk.jmh.annotations.*;
+import shopeazy.com.ecommerce_app.common.model.Address;
+import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
+import shopeazy.com.ecommerce_app.order.enums.PaymentStatus;
+import shopeazy.com.ecommerce_app.order.model.Order;
+import shopeazy.com.ecommerce_app.order.model.OrderItem;
+import shopeazy.com.ecommerce_app.order.model.OrderPricing;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoices rendered per second for orders with 1, 10 and 100 line items.
+ * Run with the GC profiler to get the bytes allocated per invoice (gc.alloc.rate.norm):
+ * java -jar build/libs/E-CommerceApp-0.0.1-SNAPSHOT-jmh.jar PdfGenerationBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PdfGenerationBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int items;
+
+    private PdfGenerationService pdfService;
+    private Order order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pdfService = new PdfGenerationService();
+        order = order(items);
+    }
+
+    @Benchmark
+    public byte[] invoice() {
+        return pdfService.generateInvoicePdf(order);
+    }
+
+    private static Order order(int items) {
+        Order order = new Order();
+        order.setId("6650f0c2a1b2c3d4e5f60718");
+        order.setOrderNumber("ORD-20240524-000123");
+        order.setCustomerEmail("jane.doe@example.com");
+        order.setCustomerName("Jane Doe");
+        order.setStatus(OrderStatus.CONFIRMED);
+        order.setPaymentStatus(PaymentStatus.values()[0]);
+        order.setPaymentTransactionId("txn_3PJk2LQ0a1b2c3d4");
+        order.setCreatedAt(Instant.parse("2024-05-24T10:15:30Z"));
+
+        List<OrderItem> orderItems = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            OrderItem item = new OrderItem();
+            item.setProductName("Product " + i);
+            item.setQuantity(i % 3 + 1);
+            item.setPriceAtTime(new BigDecimal("19.99"));
+            item.setTotalPrice(new BigDecimal("19.99").multiply(BigDecimal.valueOf(i % 3 + 1L)));
+            orderItems.add(item);
+        }
+        order.setOrderItems(orderItems);
+        order.setPricing(new OrderPricing(new BigDecimal("119.94"), new BigDecimal("22.79"), new BigDecimal("4.99"),
+                BigDecimal.ZERO, new BigDecimal("147.72"), "EUR"));
+
+        Address billing = new Address();
+        billing.setStreet("Hauptstrasse 1");
+        billing.setCity("Berlin");
+        billing.setState("Berlin");
+        billing.setZip("10115");
+        billing.setCountry("Germany");
+        order.setBillingAddress(billing);
+
+        Address shipping = new Address();
+        shipping.setStreet("Friedrichstrasse 20");
+        shipping.setCity("Berlin");
+        shipping.setState("Berlin");
+        shipping.setZip("10117");
+        shipping.setCountry("Germany");
+        order.setShippingAddress(shipping);
+        return order;
+    }
+}
@@ -10,6 +10,7 @@ public final class EndpointPaths {
     public static final String PRODUCTS = "/api/products";
     public static final String SELLERS_WILDCARD = "/api/sellers/**";
     public static final String PRODUCT_IMAGES_WILDCARD = "/api/products/*/images/**";
+    public static final String FILES_WILDCARD = "/api/files/**";
 
     // Public (no authentication required)
     public static final String[] PUBLIC_ENDPOINTS = {
@@ -22,6 +23,11 @@ public final class EndpointPaths {
             PRODUCTS
     };
 
+    // Public GET (uploaded files such as product images)
+    public static final String[] PUBLIC_GET_ENDPOINTS = {
+            FILES_WILDCARD
+    };
+
     public static final String[] USER_ENDPOINTS = {
             "/api/users/me/profile",
     };
@@ -17,21 +17,6 @@ import org.springframework.mail.javamail.JavaMailSender;
 @Configuration
 public class ConditionalServiceConfig {
 
-    /**
-     * Mock Kafka service for when Kafka is disabled
-     * Logs messages instead of sending to Kafka
-     */
-    @Configuration
-    @ConditionalOnProperty(name = "app.features.kafka.enabled", havingValue = "false", matchIfMissing = false)
-    static class MockKafkaConfig {
-
-        @Bean
-        public MockKafkaService mockKafkaService() {
-            log.info("🔧 Kafka is disabled - using mock implementation");
-            return new MockKafkaService();
-        }
-    }
-
     /**
      * Mock Email service for when Email is disabled
      * Logs emails instead of sending them
@@ -63,25 +48,6 @@ public class ConditionalServiceConfig {
     }
 }
 
-/**
- * Mock Kafka service that logs messages instead of sending to Kafka
- */
-@Slf4j
-class MockKafkaService {
-
-    public void sendMessage(String topic, Object message) {
-        log.info("🎯 [MOCK KAFKA] Would send to topic '{}': {}", topic, message);
-    }
-
-    public void sendOrderEvent(String orderId, String status) {
-        log.info("📦 [MOCK KAFKA] Order Event - ID: {}, Status: {}", orderId, status);
-    }
-
-    public void sendUserEvent(String userId, String event) {
-        log.info("👤 [MOCK KAFKA] User Event - ID: {}, Event: {}", userId, event);
-    }
-}
-
 /**
  * Mock Email service that logs emails instead of sending them
  */
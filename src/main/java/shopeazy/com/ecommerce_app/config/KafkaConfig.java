@@ -1,70 +1,50 @@
 package shopeazy.com.ecommerce_app.config;
 
+import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+import shopeazy.com.ecommerce_app.events.topic.EventTopic;
+
+import java.util.stream.Stream;
 
 /**
  * Kafka configuration for my e-commerce-app order management system.
- * Defines all the topics used for event-driven architecture.
+ * Declares every topic of the {@link EventTopic} registry with its configured partition count,
+ * app.kafka.topics.{name}.partitions (default 3) and .replicas (default 1), plus the topic failed
+ * events are forwarded to for retries. Its backoff and dead-letter topics are created by the retry listeners.
  */
 @Configuration
+@RequiredArgsConstructor
 public class KafkaConfig {
 
-    // Topic names as constants
-    public static final String ORDER_EVENTS_TOPIC = "order-event";
-    public static final String INVENTORY_EVENTS_TOPIC = "inventory-event";
-    public static final String NOTIFICATION_EVENTS_TOPIC = "notification-event";
-    public static final String PAYMENT_EVENTS_TOPIC = "payment-event";
-    public static final String CART_EVENTS_TOPIC = "cart-event";
-    public static final String WISHLIST_EVENTS_TOPIC = "wishlist-event";
+    private static final int DEFAULT_PARTITIONS = 3;
+    private static final int DEFAULT_REPLICAS = 1;
 
-    @Bean
-    public NewTopic orderEventsTopic() {
-        return TopicBuilder.name(ORDER_EVENTS_TOPIC)
-                .partitions(3)
-                .replicas(1)
-                .build();
-    }
+    private final Environment environment;
 
     @Bean
-    public NewTopic inventoryEventsTopic() {
-        return TopicBuilder.name(INVENTORY_EVENTS_TOPIC)
-                .partitions(3)
-                .replicas(1)
-                .build();
+    public KafkaAdmin.NewTopics eventTopics() {
+        return new KafkaAdmin.NewTopics(EventTopic.all().stream()
+                .flatMap(topic -> Stream.of(newTopic(topic), newRetryTopic(topic)))
+                .toArray(NewTopic[]::new));
     }
 
-    @Bean
-    public NewTopic notificationEventsTopic() {
-        return TopicBuilder.name(NOTIFICATION_EVENTS_TOPIC)
-                .partitions(3)
-                .replicas(1)
+    private NewTopic newTopic(EventTopic<?> topic) {
+        String prefix = "app.kafka.topics." + topic.name();
+        return TopicBuilder.name(topic.name())
+                .partitions(environment.getProperty(prefix + ".partitions", Integer.class, DEFAULT_PARTITIONS))
+                .replicas(environment.getProperty(prefix + ".replicas", Integer.class, DEFAULT_REPLICAS))
                 .build();
     }
 
-    @Bean
-    public NewTopic paymentEventsTopic() {
-        return TopicBuilder.name(PAYMENT_EVENTS_TOPIC)
-                .partitions(3)
-                .replicas(1)
-                .build();
-    }
-
-    @Bean
-    public NewTopic cartEventsTopic() {
-        return TopicBuilder.name(CART_EVENTS_TOPIC)
-                .partitions(3)
-                .replicas(1)
-                .build();
-    }
-
-    @Bean
-    public NewTopic wishlistEventsTopic() {
-        return TopicBuilder.name(WISHLIST_EVENTS_TOPIC)
-                .partitions(3)
-                .replicas(1)
+    private NewTopic newRetryTopic(EventTopic<?> topic) {
+        return TopicBuilder.name(topic.retryTopic())
+                .partitions(environment.getProperty("app.kafka.retry.partitions", Integer.class, DEFAULT_PARTITIONS))
+                .replicas(environment.getProperty("app.kafka.topics." + topic.name() + ".replicas", Integer.class, DEFAULT_REPLICAS))
                 .build();
     }
 }
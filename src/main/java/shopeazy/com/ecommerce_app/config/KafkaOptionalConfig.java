@@ -1,11 +1,14 @@
 package shopeazy.com.ecommerce_app.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Conditional;
@@ -13,11 +16,16 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import shopeazy.com.ecommerce_app.events.codec.BinaryEventDeserializer;
+import shopeazy.com.ecommerce_app.events.codec.BinaryEventSerializer;
+import shopeazy.com.ecommerce_app.events.codec.EventCodecRegistry;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Optional Kafka configuration that only activates when Kafka is enabled AND available
@@ -29,14 +37,26 @@ import java.util.Map;
 @Configuration
 @EnableKafka
 @Conditional(KafkaAvailableCondition.class)
+@RequiredArgsConstructor
 public class KafkaOptionalConfig {
 
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
     @Value("${spring.kafka.consumer.group-id:ecommerce-order-group}")
     private String groupId;
 
+    @Value("${app.kafka.consumer.batch-max-poll-records:500}")
+    private int batchMaxPollRecords;
+
+    /**
+     * Topics whose events are written in the binary event format instead of JSON
+     */
+    @Value("${app.kafka.binary-codec.topics:}")
+    private Set<String> binaryCodecTopics;
+
     /**
      * Kafka Producer Configuration
      */
@@ -47,14 +67,23 @@ public class KafkaOptionalConfig {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         
         // Reduce timeouts to fail fast if Kafka is unavailable
         configProps.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, 5000);
         configProps.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 10000);
         configProps.put(ProducerConfig.RETRIES_CONFIG, 1);
+
+        // Outbox relay retries must not duplicate or reorder events within a partition
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
         
-        return new DefaultKafkaProducerFactory<>(configProps);
+        if (!binaryCodecTopics.isEmpty()) {
+            log.info("Writing binary events to topics: {}", binaryCodecTopics);
+        }
+        BinaryEventSerializer valueSerializer = new BinaryEventSerializer(EventCodecRegistry.defaultRegistry(),
+                binaryCodecTopics, new JsonSerializer<>(), meterRegistry.getIfAvailable());
+
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(), valueSerializer);
     }
 
     @Bean
@@ -74,7 +103,8 @@ public class KafkaOptionalConfig {
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        // Reads binary events and falls back to JSON, so topics can switch format while records are in flight
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, BinaryEventDeserializer.class);
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         
         // Reduce timeouts
@@ -91,6 +121,22 @@ public class KafkaOptionalConfig {
         return factory;
     }
 
+    /**
+     * Listener container factory for batch consumers.
+     * Each poll is delivered as one list and its offsets are committed together after the listener returns.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory() {
+        Map<String, Object> props = new HashMap<>(consumerFactory().getConfigurationProperties());
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxPollRecords);
+
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        return factory;
+    }
+
     /**
      * Kafka Admin Configuration with reduced timeouts
      */
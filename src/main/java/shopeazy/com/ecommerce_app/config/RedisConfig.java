@@ -0,0 +1,17 @@
+package shopeazy.com.ecommerce_app.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisKeyValueAdapter.EnableKeyspaceEvents;
+import org.springframework.data.redis.repository.configuration.EnableRedisRepositories;
+
+/**
+ * Redis repository configuration.
+ * Keyspace events are enabled so that expired reservations publish a
+ * RedisKeyExpiredEvent carrying the expired entity.
+ */
+@Configuration
+@EnableRedisRepositories(
+        basePackages = "shopeazy.com.ecommerce_app",
+        enableKeyspaceEvents = EnableKeyspaceEvents.ON_DEMAND)
+public class RedisConfig {
+}
@@ -44,6 +44,7 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(PUBLIC_ENDPOINTS).permitAll()
+                        .requestMatchers(HttpMethod.GET, PUBLIC_GET_ENDPOINTS).permitAll()
                         .requestMatchers(HttpMethod.GET,USER_ENDPOINTS).hasAuthority("ROLE_USER")
                         .requestMatchers(HttpMethod.PATCH,USER_ENDPOINTS).hasAuthority("ROLE_USER")
                         .requestMatchers(HttpMethod.GET, SELLER_ENDPOINTS).hasAuthority("ROLE_SELLER")
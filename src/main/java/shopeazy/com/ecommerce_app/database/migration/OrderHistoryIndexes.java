@@ -0,0 +1,47 @@
+package shopeazy.com.ecommerce_app.database.migration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+import shopeazy.com.ecommerce_app.order.model.Order;
+
+/**
+ * Indexes backing the user and seller order history queries.
+ * Each ends in (createdAt, _id) descending so cursor pages are bounded index range
+ * scans with the sort served by the index. Automatic index creation is off, so they are
+ * ensured on startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderHistoryIndexes {
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(Order.class);
+            indexOps.ensureIndex(historyIndex("userId", false).named("userId_createdAt_id"));
+            indexOps.ensureIndex(historyIndex("userId", true).named("userId_status_createdAt_id"));
+            indexOps.ensureIndex(historyIndex("sellerIds", false).named("sellerIds_createdAt_id"));
+            indexOps.ensureIndex(historyIndex("sellerIds", true).named("sellerIds_status_createdAt_id"));
+        } catch (Exception e) {
+            log.error("Failed to ensure order history indexes: {}", e.getMessage(), e);
+        }
+    }
+
+    private static Index historyIndex(String ownerField, boolean withStatus) {
+        Index index = new Index().on(ownerField, Sort.Direction.ASC);
+        if (withStatus) {
+            index.on("status", Sort.Direction.ASC);
+        }
+        return index.on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC);
+    }
+}
@@ -0,0 +1,59 @@
+package shopeazy.com.ecommerce_app.database.migration;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import shopeazy.com.ecommerce_app.order.model.Order;
+
+import java.util.List;
+
+/**
+ * Backfills {@code sellerIds} on orders created before the field existed.
+ * The backfill is a single server-side pipeline update, so no orders are loaded
+ * into the application. Safe to run on every startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderSellerIdsMigration {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.migrations.order-seller-ids.enabled:true}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            long updated = backfillSellerIds();
+            if (updated > 0) {
+                log.info("Backfilled sellerIds on {} orders", updated);
+            }
+        } catch (Exception e) {
+            log.error("Order sellerIds migration failed: {}", e.getMessage(), e);
+        }
+    }
+
+    long backfillSellerIds() {
+        // sellerIds = distinct orderItems.sellerId, computed by MongoDB
+        Document setSellerIds = new Document("$set", new Document("sellerIds",
+                new Document("$setUnion", List.of(
+                        new Document("$ifNull", List.of("$orderItems.sellerId", List.of())),
+                        List.of()))));
+
+        UpdateResult result = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Order.class))
+                .updateMany(Filters.exists("sellerIds", false), List.of(setSellerIds));
+        return result.getModifiedCount();
+    }
+}
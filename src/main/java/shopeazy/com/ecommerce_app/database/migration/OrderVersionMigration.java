@@ -0,0 +1,52 @@
+package shopeazy.com.ecommerce_app.database.migration;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import shopeazy.com.ecommerce_app.order.model.Order;
+
+/**
+ * Initializes the optimistic lock {@code version} on orders created before the field existed.
+ * Spring Data treats an order without a version as new and would insert it on save,
+ * which fails with a duplicate key for an order that is already stored.
+ * Safe to run on every startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderVersionMigration {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.migrations.order-version.enabled:true}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            long updated = initializeVersions();
+            if (updated > 0) {
+                log.info("Initialized version on {} orders", updated);
+            }
+        } catch (Exception e) {
+            log.error("Order version migration failed: {}", e.getMessage(), e);
+        }
+    }
+
+    long initializeVersions() {
+        UpdateResult result = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Order.class))
+                .updateMany(Filters.exists("version", false), Updates.set("version", 0L));
+        return result.getModifiedCount();
+    }
+}
@@ -0,0 +1,18 @@
+package shopeazy.com.ecommerce_app.events.bus;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes events to a topic.
+ * The returned future completes once the event is durably accepted, either acknowledged by Kafka
+ * or written to the local spool; it fails only if neither was possible.
+ */
+public interface EventBus {
+
+    default CompletableFuture<?> publish(String topic, String key, Object payload) {
+        return publish(topic, key, payload, Map.of());
+    }
+
+    CompletableFuture<?> publish(String topic, String key, Object payload, Map<String, String> headers);
+}
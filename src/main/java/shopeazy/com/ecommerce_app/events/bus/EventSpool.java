@@ -0,0 +1,307 @@
+package shopeazy.com.ecommerce_app.events.bus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import shopeazy.com.ecommerce_app.events.codec.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only event log on local disk.
+ * The log is split into fixed-size segment files that are memory-mapped, so appends are plain memory
+ * writes that survive a crash of the process. Each record is stored as length, CRC32 and body; the length
+ * is written last, so a record torn by a crash reads as the end of the log.
+ * Readers are named cursors whose committed positions are kept next to the segments. A segment is deleted
+ * once every registered cursor has moved past it.
+ * Event bodies use the binary event codec, other payloads, and events the codec can't encode, are stored
+ * as JSON with their class name.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EventSpool {
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CURSOR_SUFFIX = ".cursor";
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final EventCodecRegistry codecs = EventCodecRegistry.defaultRegistry();
+
+    @Value("${app.events.spool.dir:data/event-spool}")
+    private String directory;
+
+    @Value("${app.events.spool.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${app.events.spool.force-on-append:false}")
+    private boolean forceOnAppend;
+
+    private Path spoolDirectory;
+    private final NavigableMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private final Map<String, SpoolPosition> committed = new HashMap<>();
+    private final Set<String> registeredCursors = new HashSet<>();
+    private long writeSegment;
+    private int writeOffset;
+
+    @PostConstruct
+    synchronized void open() {
+        try {
+            spoolDirectory = Path.of(directory);
+            Files.createDirectories(spoolDirectory);
+
+            try (Stream<Path> files = Files.list(spoolDirectory)) {
+                for (Path file : files.toList()) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(SEGMENT_SUFFIX)) {
+                        long segment = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                        segments.put(segment, map(file));
+                    } else if (name.endsWith(CURSOR_SUFFIX)) {
+                        committed.put(name.substring(0, name.length() - CURSOR_SUFFIX.length()),
+                                SpoolPosition.parse(Files.readString(file)));
+                    }
+                }
+            }
+
+            if (segments.isEmpty()) {
+                segments.put(0L, map(segmentPath(0)));
+            }
+            writeSegment = segments.lastKey();
+            writeOffset = recover(segments.lastEntry().getValue());
+            log.info("Opened event spool at {} with {} segments", spoolDirectory, segments.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open event spool at " + directory, e);
+        }
+    }
+
+    /**
+     * Register a reader; segments are kept until all registered readers have committed past them
+     */
+    public synchronized void registerCursor(String cursor) {
+        if (registeredCursors.add(cursor)) {
+            Gauge.builder("event.spool.backlog", this, spool -> spool.backlogBytes(cursor))
+                    .description("Bytes of spooled events the reader has not committed yet")
+                    .baseUnit("bytes")
+                    .tag("cursor", cursor)
+                    .register(meterRegistry);
+        }
+    }
+
+    public synchronized SpoolPosition append(SpoolRecord record) {
+        byte[] body = encode(record);
+        int size = RECORD_HEADER_BYTES + body.length;
+
+        MappedByteBuffer buffer = segments.get(writeSegment);
+        if (writeOffset + size > buffer.capacity()) {
+            if (size > segmentBytes()) {
+                throw new IllegalArgumentException("Event of " + size + " bytes does not fit into a spool segment");
+            }
+            writeSegment++;
+            writeOffset = 0;
+            buffer = map(segmentPath(writeSegment));
+            segments.put(writeSegment, buffer);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        buffer.put(writeOffset + RECORD_HEADER_BYTES, body);
+        buffer.putInt(writeOffset + 4, (int) crc.getValue());
+        buffer.putInt(writeOffset, body.length);
+        if (forceOnAppend) {
+            buffer.force(writeOffset, size);
+        }
+
+        SpoolPosition position = new SpoolPosition(writeSegment, writeOffset);
+        writeOffset += size;
+        return position;
+    }
+
+    /**
+     * Read up to max records starting at a position. Records that cannot be decoded are logged and skipped.
+     */
+    public synchronized List<SpooledEvent> read(SpoolPosition from, int max) {
+        List<SpooledEvent> events = new ArrayList<>();
+        long segment = from.segment();
+        int offset = from.offset();
+
+        while (events.size() < max && (segment < writeSegment || (segment == writeSegment && offset < writeOffset))) {
+            MappedByteBuffer buffer = segments.get(segment);
+            if (buffer == null) {
+                // the segment was already deleted, continue with the oldest one left
+                segment = segments.ceilingKey(segment);
+                offset = 0;
+                continue;
+            }
+
+            int length = offset + RECORD_HEADER_BYTES <= buffer.capacity() ? buffer.getInt(offset) : 0;
+            if (length <= 0) {
+                segment++;
+                offset = 0;
+                continue;
+            }
+
+            byte[] body = new byte[length];
+            buffer.get(offset + RECORD_HEADER_BYTES, body);
+            offset += RECORD_HEADER_BYTES + length;
+            try {
+                events.add(new SpooledEvent(decode(body), new SpoolPosition(segment, offset)));
+            } catch (Exception e) {
+                log.error("Skipping unreadable spooled event before {}:{}: {}", segment, offset, e.getMessage(), e);
+            }
+        }
+        return events;
+    }
+
+    public synchronized SpoolPosition position(String cursor) {
+        return committed.getOrDefault(cursor, new SpoolPosition(segments.firstKey(), 0));
+    }
+
+    public synchronized boolean hasPending(String cursor) {
+        return position(cursor).compareTo(new SpoolPosition(writeSegment, writeOffset)) < 0;
+    }
+
+    /**
+     * Store a reader's position and delete the segments no registered reader needs any more
+     */
+    public synchronized void commit(String cursor, SpoolPosition position) {
+        committed.put(cursor, position);
+        try {
+            Path file = spoolDirectory.resolve(cursor + CURSOR_SUFFIX);
+            Path temp = spoolDirectory.resolve(cursor + CURSOR_SUFFIX + ".tmp");
+            Files.writeString(temp, position.toString(), StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to store spool position of {}: {}", cursor, e.getMessage());
+        }
+        deleteConsumedSegments();
+    }
+
+    private void deleteConsumedSegments() {
+        long oldestNeeded = registeredCursors.stream()
+                .mapToLong(cursor -> position(cursor).segment())
+                .min()
+                .orElse(writeSegment);
+
+        while (segments.firstKey() < Math.min(oldestNeeded, writeSegment)) {
+            long segment = segments.pollFirstEntry().getKey();
+            try {
+                Files.deleteIfExists(segmentPath(segment));
+                log.debug("Deleted consumed spool segment {}", segment);
+            } catch (IOException e) {
+                log.warn("Failed to delete spool segment {}: {}", segment, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Offset just after the last complete record of the newest segment
+     */
+    private int recover(MappedByteBuffer buffer) {
+        int offset = 0;
+        while (offset + RECORD_HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + RECORD_HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            byte[] body = new byte[length];
+            buffer.get(offset + RECORD_HEADER_BYTES, body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                log.warn("Truncating event spool at corrupt record {}:{}", writeSegment, offset);
+                buffer.putInt(offset, 0);
+                break;
+            }
+            offset += RECORD_HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    private long backlogBytes(String cursor) {
+        SpoolPosition position = position(cursor);
+        long segmentsBehind = Math.max(0, writeSegment - position.segment());
+        return segmentsBehind * segmentBytes() + writeOffset - position.offset();
+    }
+
+    private MappedByteBuffer map(Path file) {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size() > 0 ? channel.size() : segmentBytes();
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map spool segment " + file, e);
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return spoolDirectory.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    private int segmentBytes() {
+        return segmentSizeMb * 1024 * 1024;
+    }
+
+    private byte[] encode(SpoolRecord record) {
+        BinaryEventWriter writer = new BinaryEventWriter();
+        writer.writeString(record.topic());
+        writer.writeString(record.key());
+        writer.writeMap(record.headers());
+
+        Optional<? extends EventCodec<?>> codec = codecs.forType(record.payload().getClass());
+        if (codec.isPresent()) {
+            try {
+                byte[] binary = BinaryEventSerializer.encode(codec.get(), record.payload());
+                writer.writeString(null);
+                writer.writeBytes(binary);
+                return writer.toByteArray();
+            } catch (SerializationException e) {
+                log.warn("Spooling {} as JSON, binary encoding failed: {}", record.payload().getClass().getSimpleName(), e.getMessage());
+            }
+        }
+        try {
+            writer.writeString(record.payload().getClass().getName());
+            writer.writeBytes(objectMapper.writeValueAsBytes(record.payload()));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Can't spool " + record.payload().getClass().getName(), e);
+        }
+        return writer.toByteArray();
+    }
+
+    private SpoolRecord decode(byte[] body) throws IOException, ClassNotFoundException {
+        BinaryEventReader reader = new BinaryEventReader(body);
+        String topic = reader.readString();
+        String key = reader.readString();
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        Map<String, Object> storedHeaders = reader.readMap();
+        if (storedHeaders != null) {
+            storedHeaders.forEach((name, value) -> headers.put(name, value != null ? value.toString() : null));
+        }
+
+        String type = reader.readString();
+        byte[] payload = reader.readBytes();
+        Object event = type == null
+                ? BinaryEventDeserializer.decode(codecs, payload)
+                : objectMapper.readValue(payload, Class.forName(type));
+        return new SpoolRecord(topic, key, event, headers);
+    }
+}
@@ -0,0 +1,337 @@
+package shopeazy.com.ecommerce_app.events.bus;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.annotation.DltHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import shopeazy.com.ecommerce_app.events.retry.LocalDeadLetterStore;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.*;
+
+/**
+ * Runs the application's Kafka listeners in-process on events from the local spool, so notifications
+ * and inventory processing keep working while Kafka is disabled or unreachable.
+ * Listener methods are discovered from their {@link KafkaListener} annotations: batch listeners get the
+ * spooled events of their topic as one list, record listeners get them one by one, with their {@link Header}
+ * parameters taken from the record headers. A failing record listener
+ * is retried by publishing the event again, up to app.kafka.retry.attempts, after which it goes to the
+ * dead-letter topic and, locally, to the bean's {@link DltHandler}. Retries are delayed with the backoff of
+ * the Kafka retry topics; a retry that is not due yet is appended to the spool again, together with the later
+ * events of the same key, so only that key waits for it.
+ * Without Kafka to keep the dead-letter topic, dead letters are also stored in the {@link LocalDeadLetterStore}.
+ * The local position only moves past a batch once every batch listener handled it; a failed batch is
+ * dispatched again after the same backoff.
+ * Events that are later drained to Kafka as well, or dispatched again, are skipped by the consumers' processed-event check.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocalEventDispatcher {
+
+    static final String LOCAL_CURSOR = "local";
+    static final String ATTEMPT_HEADER = "local-retry-attempt";
+    static final String NOT_BEFORE_HEADER = "local-retry-not-before";
+
+    private final ApplicationContext applicationContext;
+    private final Environment environment;
+    private final EventSpool spool;
+    private final SpoolingEventBus eventBus;
+    private final LocalDeadLetterStore deadLetters;
+
+    @Value("${app.events.spool.local-dispatch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.events.spool.dispatch-interval-ms:200}")
+    private long dispatchIntervalMs;
+
+    @Value("${app.events.spool.dispatch-batch-size:500}")
+    private int dispatchBatchSize;
+
+    @Value("${app.kafka.retry.attempts:4}")
+    private int retryAttempts;
+
+    @Value("${app.kafka.retry.initial-delay-ms:1000}")
+    private long retryInitialDelayMs;
+
+    @Value("${app.kafka.retry.multiplier:2.0}")
+    private double retryMultiplier;
+
+    @Value("${app.kafka.retry.max-delay-ms:60000}")
+    private long retryMaxDelayMs;
+
+    private final Map<String, List<Listener>> listenersByTopic = new HashMap<>();
+    private volatile boolean running;
+    private Thread dispatchThread;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        discoverListeners();
+        spool.registerCursor(LOCAL_CURSOR);
+
+        running = true;
+        dispatchThread = new Thread(this::run, "local-event-dispatch");
+        dispatchThread.setDaemon(true);
+        dispatchThread.start();
+        log.info("Dispatching spooled events locally to {} topics", listenersByTopic.size());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (dispatchThread != null) {
+            dispatchThread.interrupt();
+            dispatchThread.join(5000);
+        }
+    }
+
+    private void run() {
+        int failedRuns = 0;
+        while (running) {
+            try {
+                List<SpooledEvent> events = spool.read(spool.position(LOCAL_CURSOR), dispatchBatchSize);
+                DueEvents due = dueEvents(events, System.currentTimeMillis());
+                // nothing due yet: wait, unless held back retries fill a whole batch and would block everything behind them
+                if (due.events().isEmpty() && events.size() < dispatchBatchSize) {
+                    Thread.sleep(dispatchIntervalMs);
+                    continue;
+                }
+                if (dispatch(due.events())) {
+                    due.deferred().forEach(spool::append);
+                    spool.commit(LOCAL_CURSOR, events.get(events.size() - 1).next());
+                    failedRuns = 0;
+                } else {
+                    Thread.sleep(retryDelay(++failedRuns));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Error dispatching spooled events: {}", e.getMessage(), e);
+                try {
+                    Thread.sleep(retryDelay(++failedRuns));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Split events into the ones to dispatch now and the ones held back: retries that are not due yet
+     * and, so each key stays in order, the later events with the same topic and key
+     */
+    static DueEvents dueEvents(List<SpooledEvent> events, long now) {
+        List<SpooledEvent> due = new ArrayList<>(events.size());
+        List<SpoolRecord> deferred = new ArrayList<>();
+        Set<List<String>> heldKeys = new HashSet<>();
+        for (SpooledEvent event : events) {
+            SpoolRecord record = event.record();
+            List<String> key = Arrays.asList(record.topic(), record.key());
+            String notBefore = record.headers().get(NOT_BEFORE_HEADER);
+            if (heldKeys.contains(key) || (notBefore != null && Long.parseLong(notBefore) > now)) {
+                heldKeys.add(key);
+                deferred.add(record);
+            } else {
+                due.add(event);
+            }
+        }
+        return new DueEvents(due, deferred);
+    }
+
+    /**
+     * Hand the events to their listeners
+     *
+     * @return false if a batch listener failed, the events are then dispatched again
+     */
+    private boolean dispatch(List<SpooledEvent> events) {
+        Map<String, List<SpoolRecord>> recordsByTopic = new LinkedHashMap<>();
+        events.forEach(event -> recordsByTopic.computeIfAbsent(event.record().topic(), topic -> new ArrayList<>()).add(event.record()));
+
+        boolean dispatched = true;
+        for (Map.Entry<String, List<SpoolRecord>> topicRecords : recordsByTopic.entrySet()) {
+            for (Listener listener : listenersByTopic.getOrDefault(topicRecords.getKey(), List.of())) {
+                if (listener.batch()) {
+                    dispatched &= invokeBatch(listener, topicRecords.getValue());
+                } else {
+                    topicRecords.getValue().forEach(record -> invokeRecord(listener, record));
+                }
+            }
+        }
+        return dispatched;
+    }
+
+    private boolean invokeBatch(Listener listener, List<SpoolRecord> records) {
+        try {
+            invoke(listener, records.stream().map(SpoolRecord::payload).toList());
+            return true;
+        } catch (Exception e) {
+            // batch listeners forward failed events themselves, this is a failure of the whole batch
+            log.error("Local listener {} failed for {} events, dispatching them again: {}", listener, records.size(), e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private void invokeRecord(Listener listener, SpoolRecord record) {
+        try {
+            invoke(listener, arguments(listener, record));
+        } catch (Exception e) {
+            if (listener.deadLetterTopic() == null) {
+                log.error("Local listener {} failed for event on {}: {}", listener, record.topic(), e.getMessage(), e);
+                return;
+            }
+
+            int attempt = Integer.parseInt(record.headers().getOrDefault(ATTEMPT_HEADER, "1"));
+            Map<String, String> headers = new HashMap<>(record.headers());
+            headers.put(KafkaHeaders.EXCEPTION_MESSAGE, String.valueOf(e.getMessage()));
+            headers.put(ATTEMPT_HEADER, String.valueOf(attempt + 1));
+
+            if (attempt < retryAttempts) {
+                headers.put(NOT_BEFORE_HEADER, String.valueOf(System.currentTimeMillis() + retryDelay(attempt)));
+                log.warn("Local listener {} failed on attempt {}, retrying event on {}: {}", listener, attempt, record.topic(), e.getMessage());
+                eventBus.publish(record.topic(), record.key(), record.payload(), headers).join();
+                return;
+            }
+
+            headers.remove(NOT_BEFORE_HEADER);
+            log.warn("Local listener {} failed on attempt {}, publishing event to {}: {}", listener, attempt, listener.deadLetterTopic(), e.getMessage());
+            if (!eventBus.forwardsToKafka()) {
+                // no Kafka dead-letter topic will keep it, store it for replays
+                deadLetters.save(listener.deadLetterTopic(), record.key(), record.payload(), headers);
+            }
+            eventBus.publish(listener.deadLetterTopic(), record.key(), record.payload(), headers).join();
+        }
+    }
+
+    /**
+     * Backoff before the next attempt, as for the Kafka retry topics
+     */
+    private long retryDelay(int attempt) {
+        double delay = retryInitialDelayMs * Math.pow(retryMultiplier, Math.max(0, attempt - 1));
+        return (long) Math.min(delay, retryMaxDelayMs);
+    }
+
+    /**
+     * The record's payload, and its headers for the parameters annotated with {@link Header}
+     */
+    private static Object[] arguments(Listener listener, SpoolRecord record) {
+        Object[] arguments = new Object[listener.headerParameters().size()];
+        for (int i = 0; i < arguments.length; i++) {
+            String header = listener.headerParameters().get(i);
+            arguments[i] = header != null ? record.headers().get(header) : record.payload();
+        }
+        return arguments;
+    }
+
+    private void invoke(Listener listener, Object... arguments) throws Exception {
+        Object[] args = Arrays.copyOf(arguments, listener.method().getParameterCount());
+        try {
+            listener.method().invoke(listener.bean(), args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void discoverListeners() {
+        for (String beanName : applicationContext.getBeanDefinitionNames()) {
+            Class<?> beanType = applicationContext.getType(beanName);
+            if (beanType == null) {
+                continue;
+            }
+            Class<?> userType = ClassUtils.getUserClass(beanType);
+
+            List<Method> listenerMethods = new ArrayList<>();
+            Method[] dltHandler = new Method[1];
+            ReflectionUtils.doWithMethods(userType, method -> {
+                if (AnnotatedElementUtils.hasAnnotation(method, KafkaListener.class)) {
+                    listenerMethods.add(method);
+                } else if (AnnotatedElementUtils.hasAnnotation(method, DltHandler.class)) {
+                    dltHandler[0] = method;
+                }
+            }, ReflectionUtils.USER_DECLARED_METHODS);
+            if (listenerMethods.isEmpty()) {
+                continue;
+            }
+
+            Object bean = applicationContext.getBean(beanName);
+            for (Method method : listenerMethods) {
+                KafkaListener kafkaListener = AnnotatedElementUtils.findMergedAnnotation(method, KafkaListener.class);
+                RetryableTopic retryableTopic = AnnotatedElementUtils.findMergedAnnotation(method, RetryableTopic.class);
+                boolean batch = method.getParameterCount() > 0 && List.class.isAssignableFrom(method.getParameterTypes()[0]);
+
+                for (String topicExpression : kafkaListener.topics()) {
+                    String topic = environment.resolvePlaceholders(topicExpression);
+                    String deadLetterTopic = retryableTopic != null ? topic + retryableTopic.dltTopicSuffix() : null;
+                    register(topic, new Listener(bean, invocable(method, bean), headerParameters(method), batch, deadLetterTopic));
+
+                    if (deadLetterTopic != null && dltHandler[0] != null) {
+                        register(deadLetterTopic, new Listener(bean, invocable(dltHandler[0], bean), headerParameters(dltHandler[0]), false, null));
+                    }
+                }
+            }
+        }
+    }
+
+    private void register(String topic, Listener listener) {
+        listenersByTopic.computeIfAbsent(topic, key -> new ArrayList<>()).add(listener);
+        log.debug("Local listener {} registered for {}", listener, topic);
+    }
+
+    /**
+     * Header name for each parameter annotated with {@link Header}, null for the payload
+     */
+    private static List<String> headerParameters(Method method) {
+        List<String> headers = new ArrayList<>();
+        for (Parameter parameter : method.getParameters()) {
+            Header header = AnnotatedElementUtils.findMergedAnnotation(parameter, Header.class);
+            headers.add(header != null ? header.name() : null);
+        }
+        return headers;
+    }
+
+    private static Method invocable(Method method, Object bean) {
+        Method invocable = AopUtils.selectInvocableMethod(method, bean.getClass());
+        ReflectionUtils.makeAccessible(invocable);
+        return invocable;
+    }
+
+    /**
+     * Events to dispatch now, and the records to append to the spool again for later
+     */
+    record DueEvents(List<SpooledEvent> events, List<SpoolRecord> deferred) {
+    }
+
+    /**
+     * A listener method; deadLetterTopic is set for listeners whose failures are retried and dead-lettered
+     */
+    private record Listener(Object bean, Method method, List<String> headerParameters, boolean batch, String deadLetterTopic) {
+
+        @Override
+        public String toString() {
+            return ClassUtils.getUserClass(bean).getSimpleName() + "." + method.getName();
+        }
+    }
+}
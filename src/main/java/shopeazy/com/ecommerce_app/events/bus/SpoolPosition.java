@@ -0,0 +1,23 @@
+package shopeazy.com.ecommerce_app.events.bus;
+
+/**
+ * Position in the spool: a segment number and a byte offset within that segment
+ */
+public record SpoolPosition(long segment, int offset) implements Comparable<SpoolPosition> {
+
+    static SpoolPosition parse(String value) {
+        String[] parts = value.trim().split(":");
+        return new SpoolPosition(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+    }
+
+    @Override
+    public int compareTo(SpoolPosition other) {
+        int bySegment = Long.compare(segment, other.segment);
+        return bySegment != 0 ? bySegment : Integer.compare(offset, other.offset);
+    }
+
+    @Override
+    public String toString() {
+        return segment + ":" + offset;
+    }
+}
@@ -0,0 +1,9 @@
+package shopeazy.com.ecommerce_app.events.bus;
+
+import java.util.Map;
+
+/**
+ * One event in the local spool, with the topic and key it is published under
+ */
+public record SpoolRecord(String topic, String key, Object payload, Map<String, String> headers) {
+}
@@ -0,0 +1,7 @@
+package shopeazy.com.ecommerce_app.events.bus;
+
+/**
+ * A record read from the spool and the position right after it, which is what a reader commits
+ */
+public record SpooledEvent(SpoolRecord record, SpoolPosition next) {
+}
@@ -0,0 +1,187 @@
+package shopeazy.com.ecommerce_app.events.bus;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RetriableException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Event bus that publishes to Kafka while it is reachable and to the local {@link EventSpool} otherwise.
+ * The first send that fails because the brokers are unreachable switches to spooling; from then on every
+ * event is appended to the spool until the drain job has sent the whole spool to Kafka in order, so events
+ * of a key are never overtaken.
+ * Without Kafka configured at all, events stay in the spool and are only handled by the {@link LocalEventDispatcher}.
+ * The spool only keeps events for Kafka when Kafka is both enabled and configured, otherwise nothing would drain them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SpoolingEventBus implements EventBus {
+
+    static final String KAFKA_CURSOR = "kafka";
+
+    private final EventSpool spool;
+    private final ObjectProvider<KafkaTemplate<String, Object>> kafkaTemplate;
+
+    private final Object modeLock = new Object();
+    private volatile boolean spooling;
+
+    @Value("${app.features.kafka.enabled:false}")
+    private boolean kafkaEnabled;
+
+    @Value("${app.events.spool.drain-batch-size:500}")
+    private int drainBatchSize;
+
+    @Value("${app.events.spool.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @PostConstruct
+    void init() {
+        if (forwardsToKafka()) {
+            // keep spooled events until they reach Kafka, even across restarts without a broker
+            spool.registerCursor(KAFKA_CURSOR);
+        } else if (kafkaEnabled) {
+            log.warn("Kafka is enabled but no KafkaTemplate is configured, spooled events are only dispatched locally");
+        }
+        spooling = !forwardsToKafka() || spool.hasPending(KAFKA_CURSOR);
+        if (spooling) {
+            log.info("Kafka is not available, events are written to the local spool");
+        }
+    }
+
+    @Override
+    public CompletableFuture<?> publish(String topic, String key, Object payload, Map<String, String> headers) {
+        KafkaTemplate<String, Object> kafka = kafkaTemplate.getIfAvailable();
+        synchronized (modeLock) {
+            if (kafka == null || spooling) {
+                return append(topic, key, payload, headers);
+            }
+        }
+
+        CompletableFuture<?> send;
+        try {
+            send = kafka.send(producerRecord(topic, key, payload, headers));
+        } catch (Exception e) {
+            send = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<CompletableFuture<?>> handled = send.handle((result, error) -> {
+            if (error == null) {
+                return CompletableFuture.completedFuture(result);
+            }
+            if (!isBrokerUnavailable(error)) {
+                // the event itself can't be sent, spooling it would not help
+                return CompletableFuture.failedFuture(error);
+            }
+            synchronized (modeLock) {
+                if (!spooling) {
+                    log.warn("Kafka send to {} failed, spooling events locally until it recovers: {}", topic, error.getMessage());
+                    spooling = true;
+                }
+                return append(topic, key, payload, headers);
+            }
+        });
+        return handled.thenCompose(future -> future.thenApply(value -> (Object) value));
+    }
+
+    /**
+     * Whether spooled events are eventually drained to Kafka
+     */
+    public boolean forwardsToKafka() {
+        return kafkaEnabled && kafkaTemplate.getIfAvailable() != null;
+    }
+
+    /**
+     * Send spooled events to Kafka in order; the position only moves past acknowledged events
+     */
+    @Scheduled(fixedDelayString = "${app.events.spool.drain-interval-ms:1000}")
+    public void drain() {
+        KafkaTemplate<String, Object> kafka = kafkaTemplate.getIfAvailable();
+        if (!forwardsToKafka() || !spooling) {
+            return;
+        }
+
+        try {
+            List<SpooledEvent> events = spool.read(spool.position(KAFKA_CURSOR), drainBatchSize);
+            if (events.isEmpty()) {
+                synchronized (modeLock) {
+                    if (!spool.hasPending(KAFKA_CURSOR)) {
+                        spooling = false;
+                        log.info("Event spool drained, publishing to Kafka directly again");
+                    }
+                }
+                return;
+            }
+
+            List<CompletableFuture<?>> sends = new ArrayList<>();
+            for (SpooledEvent event : events) {
+                SpoolRecord record = event.record();
+                sends.add(kafka.send(producerRecord(record.topic(), record.key(), record.payload(), record.headers())));
+            }
+
+            SpoolPosition delivered = null;
+            try {
+                for (int i = 0; i < sends.size(); i++) {
+                    sends.get(i).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                    delivered = events.get(i).next();
+                }
+            } finally {
+                if (delivered != null) {
+                    spool.commit(KAFKA_CURSOR, delivered);
+                }
+            }
+            log.info("Drained {} spooled events to Kafka", events.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Kafka still unavailable, keeping events in the spool: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Whether a send failed because the brokers could not be reached in time, as opposed to a problem
+     * with the event such as a serialization error
+     */
+    static boolean isBrokerUnavailable(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private CompletableFuture<?> append(String topic, String key, Object payload, Map<String, String> headers) {
+        try {
+            spool.append(new SpoolRecord(topic, key, payload, headers));
+            return CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            log.error("Failed to spool event for {}: {}", topic, e.getMessage(), e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static ProducerRecord<String, Object> producerRecord(String topic, String key, Object payload,
+                                                                 Map<String, String> headers) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(topic, key, payload);
+        headers.forEach((name, value) -> {
+            if (value != null) {
+                record.headers().add(name, value.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        return record;
+    }
+}
@@ -0,0 +1,226 @@
+package shopeazy.com.ecommerce_app.events.coalescing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import shopeazy.com.ecommerce_app.events.handler.OrderEvent;
+import shopeazy.com.ecommerce_app.events.retry.FailureHandler;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Holds order notification events per order for a short window and sends only the most relevant one.
+ * An order that is created, confirmed and shipped within the window gets the confirmation and the shipped email;
+ * the confirmation carries the invoice and is never dropped. A cancellation or delivery ends the window at once. The held events are stored in Mongo, so they
+ * survive a restart after their Kafka offsets were committed. Flushing claims a due order for lease-ms
+ * and removes its events once the notification was handled; a failed notification goes the usual retry way.
+ * Held events are not marked processed by the consumer until they are flushed, so the retry of a failed
+ * notification is not skipped as a duplicate.
+ * Disabled by default, in which case every event is handled right away.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderNotificationCoalescer {
+
+    /**
+     * Event types in increasing relevance; later lifecycle steps replace earlier ones
+     */
+    private static final List<String> RELEVANCE = List.of(
+            "ORDER_CREATED", "ORDER_CONFIRMED", "ORDER_SHIPPED", "ORDER_DELIVERED", "ORDER_CANCELLED");
+    private static final Set<String> TERMINAL = Set.of("ORDER_DELIVERED", "ORDER_CANCELLED");
+    /**
+     * Sends the invoice PDF, so it is sent alongside a more relevant event instead of being replaced
+     */
+    private static final String CONFIRMED = "ORDER_CONFIRMED";
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.notifications.coalescing.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.notifications.coalescing.window-ms:120000}")
+    private long windowMs;
+
+    @Value("${app.notifications.coalescing.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${app.notifications.coalescing.batch-size:100}")
+    private int batchSize;
+
+    private Counter held;
+    private Counter superseded;
+
+    @PostConstruct
+    void registerMetrics() {
+        held = Counter.builder("notifications.coalescing.held")
+                .description("Order events held back for coalescing")
+                .register(meterRegistry);
+        superseded = Counter.builder("notifications.coalescing.superseded")
+                .description("Order notifications dropped in favour of a more relevant one")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            mongoTemplate.indexOps(PendingOrderNotification.class).ensureIndex(new Index()
+                    .on("flushAt", Sort.Direction.ASC)
+                    .named("flushAt"));
+        } catch (Exception e) {
+            log.error("Failed to ensure pending notification indexes: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Store the events that can be coalesced and return the ones to handle right away.
+     * A failure to store fails the whole batch, so it is redelivered.
+     */
+    public List<OrderEvent> hold(List<OrderEvent> events) {
+        if (!enabled) {
+            return events;
+        }
+
+        Instant now = Instant.now();
+        List<OrderEvent> immediate = new ArrayList<>();
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, PendingOrderNotification.class);
+        int count = 0;
+        for (OrderEvent event : events) {
+            if (event == null || event.getOrderId() == null || !RELEVANCE.contains(event.getEventType())) {
+                immediate.add(event);
+                continue;
+            }
+            Instant flushAt = TERMINAL.contains(event.getEventType()) ? now : now.plusMillis(windowMs);
+            bulkOps.upsert(Query.query(Criteria.where("_id").is(event.getOrderId())), new Update()
+                    .push("events", event)
+                    .min("flushAt", flushAt)
+                    .setOnInsert("firstQueuedAt", now));
+            count++;
+        }
+
+        if (count > 0) {
+            bulkOps.execute();
+            held.increment(count);
+            log.debug("Holding {} order events for coalescing", count);
+        }
+        return immediate;
+    }
+
+    /**
+     * Hand the most relevant event of every due order to process, preceded by its confirmation if one was held,
+     * then drop the held events.
+     * Events process fails are passed to onFailure and dropped as well, their retry is not coalesced.
+     *
+     * @return the held events that were dropped in favour of a more relevant one
+     */
+    public List<OrderEvent> flushDue(BiConsumer<List<OrderEvent>, FailureHandler<OrderEvent>> process, FailureHandler<OrderEvent> onFailure) {
+        if (!enabled) {
+            return List.of();
+        }
+
+        Instant now = Instant.now();
+        Query due = Query.query(Criteria.where("flushAt").lte(now))
+                .with(Sort.by(Sort.Direction.ASC, "flushAt"))
+                .limit(batchSize);
+        due.fields().include("_id");
+
+        List<PendingOrderNotification> claimed = new ArrayList<>();
+        for (PendingOrderNotification candidate : mongoTemplate.find(due, PendingOrderNotification.class)) {
+            PendingOrderNotification pending = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(candidate.getId()).and("flushAt").lte(now)),
+                    new Update().set("flushAt", now.plusMillis(leaseMs)),
+                    FindAndModifyOptions.options().returnNew(true),
+                    PendingOrderNotification.class);
+            if (pending != null && !pending.getEvents().isEmpty()) {
+                claimed.add(pending);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return List.of();
+        }
+
+        List<OrderEvent> notifications = claimed.stream().flatMap(pending -> notifications(pending).stream()).toList();
+        process.accept(notifications, onFailure);
+        release(claimed);
+        log.info("Flushed coalesced notifications for {} orders", claimed.size());
+
+        // compared by ID, a redelivered event can be held twice
+        Set<String> sent = new HashSet<>();
+        notifications.forEach(notification -> sent.add(notification.getEventId()));
+        return claimed.stream()
+                .flatMap(pending -> pending.getEvents().stream())
+                .filter(event -> !sent.contains(event.getEventId()))
+                .toList();
+    }
+
+    private List<OrderEvent> notifications(PendingOrderNotification pending) {
+        List<OrderEvent> events = pending.getEvents();
+        OrderEvent winner = mostRelevant(events);
+        List<OrderEvent> notifications = new ArrayList<>(2);
+        if (!CONFIRMED.equals(winner.getEventType())) {
+            events.stream().filter(event -> CONFIRMED.equals(event.getEventType())).findFirst().ifPresent(notifications::add);
+        }
+        notifications.add(winner);
+
+        superseded.increment(events.size() - notifications.size());
+        if (events.size() > notifications.size()) {
+            log.debug("Coalesced {} notifications for order {} into {}", events.size(), winner.getOrderNumber(),
+                    notifications.stream().map(OrderEvent::getEventType).toList());
+        }
+        return notifications;
+    }
+
+    private static OrderEvent mostRelevant(List<OrderEvent> events) {
+        OrderEvent winner = events.get(0);
+        for (OrderEvent event : events) {
+            int relevance = RELEVANCE.indexOf(event.getEventType());
+            int winnerRelevance = RELEVANCE.indexOf(winner.getEventType());
+            if (relevance > winnerRelevance
+                    || (relevance == winnerRelevance && isLater(event, winner))) {
+                winner = event;
+            }
+        }
+        return winner;
+    }
+
+    private static boolean isLater(OrderEvent event, OrderEvent other) {
+        return event.getEventTimestamp() != null && other.getEventTimestamp() != null
+                && event.getEventTimestamp().isAfter(other.getEventTimestamp());
+    }
+
+    /**
+     * Remove the flushed events; events held after the claim stay for the next flush
+     */
+    private void release(List<PendingOrderNotification> flushed) {
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, PendingOrderNotification.class);
+        for (PendingOrderNotification pending : flushed) {
+            List<String> eventIds = pending.getEvents().stream().map(OrderEvent::getEventId).toList();
+            bulkOps.updateOne(Query.query(Criteria.where("_id").is(pending.getId())),
+                    new Update().pull("events", new Document("eventId", new Document("$in", eventIds))));
+        }
+        bulkOps.remove(Query.query(Criteria.where("_id").in(flushed.stream().map(PendingOrderNotification::getId).toList())
+                .and("events").size(0)));
+        bulkOps.execute();
+    }
+}
@@ -0,0 +1,35 @@
+package shopeazy.com.ecommerce_app.events.coalescing;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import shopeazy.com.ecommerce_app.events.handler.OrderEvent;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Order notifications held back by the {@link OrderNotificationCoalescer}, one document per order
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "pending_order_notifications")
+public class PendingOrderNotification {
+
+    /**
+     * ID of the order the notifications are for
+     */
+    @Id
+    private String id;
+
+    private List<OrderEvent> events = new ArrayList<>();
+
+    private Instant firstQueuedAt;
+
+    /**
+     * When the notifications are sent; moved forward while a flush holds the document
+     */
+    private Instant flushAt;
+}
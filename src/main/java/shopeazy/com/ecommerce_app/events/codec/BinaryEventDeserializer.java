@@ -0,0 +1,75 @@
+package shopeazy.com.ecommerce_app.events.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Kafka value deserializer for values written by {@link BinaryEventSerializer}.
+ * Values starting with the binary marker are decoded with the codec of their type id;
+ * everything else is handed to a {@link JsonDeserializer} configured from the same consumer properties,
+ * so topics can be switched between formats without draining them first.
+ */
+public class BinaryEventDeserializer implements Deserializer<Object> {
+
+    private final EventCodecRegistry registry;
+    private final JsonDeserializer<Object> jsonDeserializer;
+
+    public BinaryEventDeserializer() {
+        this(EventCodecRegistry.defaultRegistry(), new JsonDeserializer<>());
+    }
+
+    public BinaryEventDeserializer(EventCodecRegistry registry, JsonDeserializer<Object> jsonDeserializer) {
+        this.registry = registry;
+        this.jsonDeserializer = jsonDeserializer;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return isBinary(data) ? decode(registry, data) : jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        return isBinary(data) ? decode(registry, data) : jsonDeserializer.deserialize(topic, headers, data);
+    }
+
+    /**
+     * Decode a binary value; versions outside the codec's readable range are rejected
+     */
+    public static Object decode(EventCodecRegistry registry, byte[] data) {
+        try {
+            BinaryEventReader reader = new BinaryEventReader(data, 1);
+            int typeId = reader.readVarInt();
+            int version = reader.readVarInt();
+            EventCodec<?> codec = registry.forTypeId(typeId)
+                    .orElseThrow(() -> new SerializationException("Unknown event type id " + typeId));
+            if (version < codec.minReadableVersion() || version > codec.schemaVersion()) {
+                throw new SerializationException("Can't read " + codec.type().getSimpleName() + " version " + version
+                        + ", supported versions are " + codec.minReadableVersion() + " to " + codec.schemaVersion());
+            }
+            return codec.read(reader, version);
+        } catch (SerializationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new SerializationException("Can't deserialize binary event", e);
+        }
+    }
+
+    private static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == BinaryEventSerializer.MAGIC;
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
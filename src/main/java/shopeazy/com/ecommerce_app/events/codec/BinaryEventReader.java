@@ -0,0 +1,171 @@
+package shopeazy.com.ecommerce_app.events.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads fields written by {@link BinaryEventWriter}, in the same order
+ */
+public final class BinaryEventReader {
+
+    private final byte[] buffer;
+    private int position;
+
+    public BinaryEventReader(byte[] buffer) {
+        this(buffer, 0);
+    }
+
+    public BinaryEventReader(byte[] buffer, int offset) {
+        this.buffer = buffer;
+        this.position = offset;
+    }
+
+    public int readByte() {
+        if (position >= buffer.length) {
+            throw new IllegalStateException("Unexpected end of event data at byte " + position);
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    public int readVarInt() {
+        return (int) readVarLong();
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint at byte " + position);
+    }
+
+    public long readSignedVarLong() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public double readDouble() {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | readByte();
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    public byte[] readBytes() {
+        int length = readVarInt();
+        checkRemaining(length);
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    public String readString() {
+        int length = readVarInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        checkRemaining(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public Integer readNullableInt() {
+        return readBoolean() ? (int) readSignedVarLong() : null;
+    }
+
+    public Instant readInstant() {
+        if (!readBoolean()) {
+            return null;
+        }
+        long seconds = readSignedVarLong();
+        return Instant.ofEpochSecond(seconds, readVarInt());
+    }
+
+    public BigDecimal readDecimal() {
+        if (!readBoolean()) {
+            return null;
+        }
+        int scale = (int) readSignedVarLong();
+        return new BigDecimal(new BigInteger(readBytes()), scale);
+    }
+
+    public <E extends Enum<E>> E readEnum(Class<E> type) {
+        String name = readString();
+        return name == null ? null : Enum.valueOf(type, name);
+    }
+
+    public Object readValue() {
+        int tag = readByte();
+        return switch (tag) {
+            case ValueTag.NULL -> null;
+            case ValueTag.STRING -> readString();
+            case ValueTag.INT -> (int) readSignedVarLong();
+            case ValueTag.LONG -> readSignedVarLong();
+            case ValueTag.DOUBLE -> readDouble();
+            case ValueTag.BOOLEAN -> readBoolean();
+            case ValueTag.DECIMAL -> readDecimal();
+            case ValueTag.INSTANT -> readInstant();
+            case ValueTag.MAP -> readMap();
+            case ValueTag.LIST -> {
+                int size = checkCount(readVarInt(), 1);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue());
+                }
+                yield list;
+            }
+            default -> throw new IllegalStateException("Unknown value tag " + tag + " at byte " + (position - 1));
+        };
+    }
+
+    public Map<String, Object> readMap() {
+        int size = readVarInt() - 1;
+        if (size < 0) {
+            return null;
+        }
+        // every entry takes at least a key length and a value tag
+        checkCount(size, 2);
+        Map<String, Object> map = new LinkedHashMap<>(Math.max(4, size * 2));
+        for (int i = 0; i < size; i++) {
+            String key = readString();
+            map.put(key, readValue());
+        }
+        return map;
+    }
+
+    /**
+     * Check that a collection size read from the data can be backed by the bytes left,
+     * each element taking at least minElementBytes, before anything is allocated for it
+     *
+     * @return the size
+     */
+    public int checkCount(int count, int minElementBytes) {
+        if (count < 0 || (long) count * minElementBytes > buffer.length - position) {
+            throw new IllegalStateException("Invalid element count " + count + " at byte " + position);
+        }
+        return count;
+    }
+
+    private void checkRemaining(int length) {
+        if (length < 0 || length > buffer.length - position) {
+            throw new IllegalStateException("Unexpected end of event data at byte " + position);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package shopeazy.com.ecommerce_app.events.codec;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kafka value serializer that writes registered events in the binary format on the configured topics
+ * and JSON everywhere else.
+ * A topic also covers its derived retry, backoff and dead-letter topics, so a retried event keeps its format.
+ * Binary values start with {@link #MAGIC}, followed by the varint type id and schema version and the event body;
+ * JSON never starts with that byte, which lets {@link BinaryEventDeserializer} read both formats.
+ * Serialized sizes are recorded as kafka.event.serialized.bytes per topic and format.
+ */
+public class BinaryEventSerializer implements Serializer<Object> {
+
+    public static final byte MAGIC = 0;
+
+    private final EventCodecRegistry registry;
+    private final Set<String> binaryTopics;
+    private final JsonSerializer<Object> jsonSerializer;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Boolean> binaryByTopic = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> sizes = new ConcurrentHashMap<>();
+
+    public BinaryEventSerializer(EventCodecRegistry registry, Set<String> binaryTopics,
+                                 JsonSerializer<Object> jsonSerializer, MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.binaryTopics = Set.copyOf(binaryTopics);
+        this.jsonSerializer = jsonSerializer;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data == null) {
+            return null;
+        }
+        Optional<? extends EventCodec<?>> codec = isBinary(topic) ? registry.forType(data.getClass()) : Optional.empty();
+        byte[] bytes = codec.isPresent()
+                ? encode(codec.get(), data)
+                : headers != null ? jsonSerializer.serialize(topic, headers, data) : jsonSerializer.serialize(topic, data);
+        record(topic, codec.isPresent() ? "binary" : "json", bytes);
+        return bytes;
+    }
+
+    /**
+     * Encode an event with its registered codec, without the per-topic selection
+     */
+    public static byte[] encode(EventCodec<?> codec, Object event) {
+        try {
+            BinaryEventWriter writer = new BinaryEventWriter();
+            writer.writeByte(MAGIC);
+            writer.writeVarInt(codec.typeId());
+            writer.writeVarInt(codec.schemaVersion());
+            write(codec, writer, event);
+            return writer.toByteArray();
+        } catch (RuntimeException e) {
+            throw new SerializationException("Can't serialize " + codec.type().getSimpleName() + " in binary format", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void write(EventCodec<T> codec, BinaryEventWriter writer, Object event) {
+        codec.write(writer, (T) event);
+    }
+
+    private boolean isBinary(String topic) {
+        return binaryByTopic.computeIfAbsent(topic, name -> binaryTopics.stream()
+                .anyMatch(binary -> name.equals(binary) || name.startsWith(binary + "-")));
+    }
+
+    private void record(String topic, String format, byte[] bytes) {
+        if (meterRegistry == null || bytes == null) {
+            return;
+        }
+        sizes.computeIfAbsent(topic + '|' + format, key -> DistributionSummary.builder("kafka.event.serialized.bytes")
+                        .description("Size of serialized event values")
+                        .baseUnit("bytes")
+                        .tag("topic", topic)
+                        .tag("format", format)
+                        .register(meterRegistry))
+                .record(bytes.length);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
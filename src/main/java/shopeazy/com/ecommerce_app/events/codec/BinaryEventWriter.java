@@ -0,0 +1,191 @@
+package shopeazy.com.ecommerce_app.events.codec;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Appends event fields to a growable byte array.
+ * Integers are varint encoded and nullable values are prefixed with a presence marker,
+ * so small and sparse events stay small on the wire.
+ */
+public final class BinaryEventWriter {
+
+    private byte[] buffer;
+    private int position;
+
+    public BinaryEventWriter() {
+        this(256);
+    }
+
+    public BinaryEventWriter(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    public void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * Zig-zag encoded so small negative numbers stay short
+     */
+    public void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public void writeDouble(double value) {
+        long bits = Double.doubleToLongBits(value);
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (bits >>> shift);
+        }
+    }
+
+    public void writeBytes(byte[] bytes) {
+        writeVarInt(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    /**
+     * Length is written plus one, zero marks null
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    public void writeNullableInt(Integer value) {
+        if (value == null) {
+            writeBoolean(false);
+            return;
+        }
+        writeBoolean(true);
+        writeSignedVarLong(value);
+    }
+
+    public void writeInstant(Instant value) {
+        if (value == null) {
+            writeBoolean(false);
+            return;
+        }
+        writeBoolean(true);
+        writeSignedVarLong(value.getEpochSecond());
+        writeVarInt(value.getNano());
+    }
+
+    public void writeDecimal(BigDecimal value) {
+        if (value == null) {
+            writeBoolean(false);
+            return;
+        }
+        writeBoolean(true);
+        writeSignedVarLong(value.scale());
+        writeBytes(value.unscaledValue().toByteArray());
+    }
+
+    public <E extends Enum<E>> void writeEnum(E value) {
+        writeString(value == null ? null : value.name());
+    }
+
+    /**
+     * Write a loosely typed value, as found in the event data maps, with a type tag
+     */
+    public void writeValue(Object value) {
+        if (value == null) {
+            writeByte(ValueTag.NULL);
+        } else if (value instanceof String string) {
+            writeByte(ValueTag.STRING);
+            writeString(string);
+        } else if (value instanceof Integer number) {
+            writeByte(ValueTag.INT);
+            writeSignedVarLong(number);
+        } else if (value instanceof Long number) {
+            writeByte(ValueTag.LONG);
+            writeSignedVarLong(number);
+        } else if (value instanceof Double number) {
+            writeByte(ValueTag.DOUBLE);
+            writeDouble(number);
+        } else if (value instanceof Boolean bool) {
+            writeByte(ValueTag.BOOLEAN);
+            writeBoolean(bool);
+        } else if (value instanceof BigDecimal decimal) {
+            writeByte(ValueTag.DECIMAL);
+            writeDecimal(decimal);
+        } else if (value instanceof Instant instant) {
+            writeByte(ValueTag.INSTANT);
+            writeInstant(instant);
+        } else if (value instanceof Date date) {
+            // event data read back from Mongo holds dates instead of instants
+            writeByte(ValueTag.INSTANT);
+            writeInstant(Instant.ofEpochMilli(date.getTime()));
+        } else if (value instanceof Enum<?> constant) {
+            writeByte(ValueTag.STRING);
+            writeString(constant.name());
+        } else if (value instanceof Map<?, ?> map) {
+            writeByte(ValueTag.MAP);
+            writeMap(map);
+        } else if (value instanceof Collection<?> collection) {
+            writeByte(ValueTag.LIST);
+            writeVarInt(collection.size());
+            collection.forEach(this::writeValue);
+        } else {
+            throw new IllegalArgumentException("Unsupported event data value type: " + value.getClass().getName());
+        }
+    }
+
+    /**
+     * Size is written plus one, zero marks null
+     */
+    public void writeMap(Map<?, ?> map) {
+        if (map == null) {
+            writeVarInt(0);
+            return;
+        }
+        writeVarInt(map.size() + 1);
+        map.forEach((key, value) -> {
+            writeString(String.valueOf(key));
+            writeValue(value);
+        });
+    }
+
+    private void ensureCapacity(int additional) {
+        if (position + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package shopeazy.com.ecommerce_app.events.codec;
+
+/**
+ * Binary encoding of one event class.
+ * The type id and the schema version are written in front of every encoded event, so a reader
+ * can pick the codec and decode bodies written by older producers. Fields are only ever appended;
+ * when a field is added, bump {@link #schemaVersion()} and read it only when the version has it.
+ * Raise {@link #minReadableVersion()} only after no producer writes the older layout any more.
+ */
+public interface EventCodec<T> {
+
+    /**
+     * Stable id of the event type on the wire; never reuse an id
+     */
+    int typeId();
+
+    Class<T> type();
+
+    int schemaVersion();
+
+    default int minReadableVersion() {
+        return 1;
+    }
+
+    void write(BinaryEventWriter writer, T event);
+
+    T read(BinaryEventReader reader, int version);
+}
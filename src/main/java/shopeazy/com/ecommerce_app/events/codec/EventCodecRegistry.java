@@ -0,0 +1,68 @@
+package shopeazy.com.ecommerce_app.events.codec;
+
+import java.util.*;
+
+/**
+ * Binary codecs of the event classes, looked up by class when writing and by type id when reading.
+ * {@link #checkCompatibility()} runs on construction and rejects registries that could not
+ * decode their own output: duplicate type ids or classes, or version ranges that exclude the
+ * current schema version.
+ */
+public final class EventCodecRegistry {
+
+    private static final EventCodecRegistry DEFAULT = new EventCodecRegistry(List.of(
+            new OrderEventCodec(),
+            new InventoryEventCodec(),
+            new NotificationEventCodec(),
+            new ProductPriceChangedEventCodec()
+    ));
+
+    private final Map<Class<?>, EventCodec<?>> byType = new HashMap<>();
+    private final Map<Integer, EventCodec<?>> byTypeId = new HashMap<>();
+
+    public EventCodecRegistry(Collection<? extends EventCodec<?>> codecs) {
+        for (EventCodec<?> codec : codecs) {
+            EventCodec<?> sameId = byTypeId.putIfAbsent(codec.typeId(), codec);
+            if (sameId != null) {
+                throw new IllegalStateException("Type id " + codec.typeId() + " used by both "
+                        + sameId.type().getName() + " and " + codec.type().getName());
+            }
+            if (byType.putIfAbsent(codec.type(), codec) != null) {
+                throw new IllegalStateException("More than one codec for " + codec.type().getName());
+            }
+        }
+        checkCompatibility();
+    }
+
+    public static EventCodecRegistry defaultRegistry() {
+        return DEFAULT;
+    }
+
+    /**
+     * Every codec must be able to read what it writes, and the oldest readable version must exist
+     */
+    public void checkCompatibility() {
+        for (EventCodec<?> codec : byTypeId.values()) {
+            if (codec.typeId() <= 0) {
+                throw new IllegalStateException("Type id of " + codec.type().getName() + " must be positive");
+            }
+            if (codec.minReadableVersion() < 1 || codec.minReadableVersion() > codec.schemaVersion()) {
+                throw new IllegalStateException("Codec for " + codec.type().getName() + " writes version "
+                        + codec.schemaVersion() + " but reads from version " + codec.minReadableVersion());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Optional<EventCodec<T>> forType(Class<T> type) {
+        return Optional.ofNullable((EventCodec<T>) byType.get(type));
+    }
+
+    public Optional<EventCodec<?>> forTypeId(int typeId) {
+        return Optional.ofNullable(byTypeId.get(typeId));
+    }
+
+    public Collection<EventCodec<?>> codecs() {
+        return Collections.unmodifiableCollection(byTypeId.values());
+    }
+}
@@ -0,0 +1,61 @@
+package shopeazy.com.ecommerce_app.events.codec;
+
+import shopeazy.com.ecommerce_app.events.handler.InventoryEvent;
+
+/**
+ * Binary codec for {@link InventoryEvent}
+ */
+public class InventoryEventCodec implements EventCodec<InventoryEvent> {
+
+    @Override
+    public int typeId() {
+        return 2;
+    }
+
+    @Override
+    public Class<InventoryEvent> type() {
+        return InventoryEvent.class;
+    }
+
+    @Override
+    public int schemaVersion() {
+        return 2;
+    }
+
+    @Override
+    public void write(BinaryEventWriter writer, InventoryEvent event) {
+        writer.writeString(event.getEventType());
+        writer.writeString(event.getProductId());
+        writer.writeString(event.getUserId());
+        writer.writeNullableInt(event.getQuantity());
+        writer.writeNullableInt(event.getPreviousStock());
+        writer.writeNullableInt(event.getNewStock());
+        writer.writeInstant(event.getEventTimestamp());
+        writer.writeString(event.getReason());
+        writer.writeMap(event.getEventData());
+        writer.writeString(event.getSource());
+        writer.writeString(event.getCorrelationId());
+        // version 2
+        writer.writeString(event.getEventId());
+    }
+
+    @Override
+    public InventoryEvent read(BinaryEventReader reader, int version) {
+        InventoryEvent event = new InventoryEvent();
+        event.setEventType(reader.readString());
+        event.setProductId(reader.readString());
+        event.setUserId(reader.readString());
+        event.setQuantity(reader.readNullableInt());
+        event.setPreviousStock(reader.readNullableInt());
+        event.setNewStock(reader.readNullableInt());
+        event.setEventTimestamp(reader.readInstant());
+        event.setReason(reader.readString());
+        event.setEventData(reader.readMap());
+        event.setSource(reader.readString());
+        event.setCorrelationId(reader.readString());
+        if (version >= 2) {
+            event.setEventId(reader.readString());
+        }
+        return event;
+    }
+}
@@ -0,0 +1,63 @@
+package shopeazy.com.ecommerce_app.events.codec;
+
+import shopeazy.com.ecommerce_app.events.handler.NotificationEvent;
+
+/**
+ * Binary codec for {@link NotificationEvent}
+ */
+public class NotificationEventCodec implements EventCodec<NotificationEvent> {
+
+    @Override
+    public int typeId() {
+        return 3;
+    }
+
+    @Override
+    public Class<NotificationEvent> type() {
+        return NotificationEvent.class;
+    }
+
+    @Override
+    public int schemaVersion() {
+        return 2;
+    }
+
+    @Override
+    public void write(BinaryEventWriter writer, NotificationEvent event) {
+        writer.writeString(event.getEventType());
+        writer.writeString(event.getRecipientEmail());
+        writer.writeString(event.getRecipientUserId());
+        writer.writeString(event.getSubject());
+        writer.writeString(event.getTemplateName());
+        writer.writeMap(event.getTemplateData());
+        writer.writeInstant(event.getEventTimestamp());
+        writer.writeString(event.getPriority());
+        writer.writeString(event.getSource());
+        writer.writeString(event.getCorrelationId());
+        writer.writeBoolean(event.isHasAttachments());
+        writer.writeMap(event.getAttachmentData());
+        // version 2
+        writer.writeString(event.getEventId());
+    }
+
+    @Override
+    public NotificationEvent read(BinaryEventReader reader, int version) {
+        NotificationEvent event = new NotificationEvent();
+        event.setEventType(reader.readString());
+        event.setRecipientEmail(reader.readString());
+        event.setRecipientUserId(reader.readString());
+        event.setSubject(reader.readString());
+        event.setTemplateName(reader.readString());
+        event.setTemplateData(reader.readMap());
+        event.setEventTimestamp(reader.readInstant());
+        event.setPriority(reader.readString());
+        event.setSource(reader.readString());
+        event.setCorrelationId(reader.readString());
+        event.setHasAttachments(reader.readBoolean());
+        event.setAttachmentData(reader.readMap());
+        if (version >= 2) {
+            event.setEventId(reader.readString());
+        }
+        return event;
+    }
+}
@@ -0,0 +1,306 @@
+package shopeazy.com.ecommerce_app.events.codec;
+
+import shopeazy.com.ecommerce_app.common.model.Address;
+import shopeazy.com.ecommerce_app.events.handler.OrderEvent;
+import shopeazy.com.ecommerce_app.events.handler.OrderSnapshot;
+import shopeazy.com.ecommerce_app.order.enums.CancellationReason;
+import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
+import shopeazy.com.ecommerce_app.order.enums.PaymentStatus;
+import shopeazy.com.ecommerce_app.order.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary codec for {@link OrderEvent}, including the order snapshot it carries
+ */
+public class OrderEventCodec implements EventCodec<OrderEvent> {
+
+    @Override
+    public int typeId() {
+        return 1;
+    }
+
+    @Override
+    public Class<OrderEvent> type() {
+        return OrderEvent.class;
+    }
+
+    @Override
+    public int schemaVersion() {
+        return 2;
+    }
+
+    @Override
+    public void write(BinaryEventWriter writer, OrderEvent event) {
+        writer.writeString(event.getEventType());
+        writer.writeString(event.getOrderId());
+        writer.writeString(event.getOrderNumber());
+        writer.writeString(event.getUserId());
+        writer.writeString(event.getCustomerEmail());
+        writer.writeEnum(event.getOrderStatus());
+        writer.writeDecimal(event.getTotalAmount());
+        writer.writeString(event.getCurrency());
+        writer.writeInstant(event.getEventTimestamp());
+        writer.writeMap(event.getEventData());
+        writer.writeString(event.getSource());
+        writer.writeString(event.getCorrelationId());
+        writeSnapshot(writer, event.getSnapshot());
+        // version 2
+        writer.writeString(event.getEventId());
+    }
+
+    @Override
+    public OrderEvent read(BinaryEventReader reader, int version) {
+        OrderEvent event = new OrderEvent();
+        event.setEventType(reader.readString());
+        event.setOrderId(reader.readString());
+        event.setOrderNumber(reader.readString());
+        event.setUserId(reader.readString());
+        event.setCustomerEmail(reader.readString());
+        event.setOrderStatus(reader.readEnum(OrderStatus.class));
+        event.setTotalAmount(reader.readDecimal());
+        event.setCurrency(reader.readString());
+        event.setEventTimestamp(reader.readInstant());
+        event.setEventData(reader.readMap());
+        event.setSource(reader.readString());
+        event.setCorrelationId(reader.readString());
+        event.setSnapshot(readSnapshot(reader));
+        if (version >= 2) {
+            event.setEventId(reader.readString());
+        }
+        return event;
+    }
+
+    private void writeSnapshot(BinaryEventWriter writer, OrderSnapshot snapshot) {
+        writer.writeBoolean(snapshot != null);
+        if (snapshot == null) {
+            return;
+        }
+        writer.writeVarInt(snapshot.getSchemaVersion());
+        writer.writeString(snapshot.getId());
+        writer.writeString(snapshot.getOrderNumber());
+        writer.writeString(snapshot.getUserId());
+        writer.writeString(snapshot.getCustomerEmail());
+        writer.writeString(snapshot.getCustomerName());
+        writer.writeEnum(snapshot.getStatus());
+        writer.writeEnum(snapshot.getPaymentStatus());
+        writer.writeString(snapshot.getPaymentTransactionId());
+        writeItems(writer, snapshot.getOrderItems());
+        writePricing(writer, snapshot.getPricing());
+        writeAddress(writer, snapshot.getShippingAddress());
+        writeAddress(writer, snapshot.getBillingAddress());
+        writeTimestamps(writer, snapshot.getTimestamps());
+        writeTracking(writer, snapshot.getTrackingInfo());
+        writeCancellation(writer, snapshot.getCancellationInfo());
+        writer.writeInstant(snapshot.getCreatedAt());
+    }
+
+    private OrderSnapshot readSnapshot(BinaryEventReader reader) {
+        if (!reader.readBoolean()) {
+            return null;
+        }
+        OrderSnapshot snapshot = new OrderSnapshot();
+        snapshot.setSchemaVersion(reader.readVarInt());
+        snapshot.setId(reader.readString());
+        snapshot.setOrderNumber(reader.readString());
+        snapshot.setUserId(reader.readString());
+        snapshot.setCustomerEmail(reader.readString());
+        snapshot.setCustomerName(reader.readString());
+        snapshot.setStatus(reader.readEnum(OrderStatus.class));
+        snapshot.setPaymentStatus(reader.readEnum(PaymentStatus.class));
+        snapshot.setPaymentTransactionId(reader.readString());
+        snapshot.setOrderItems(readItems(reader));
+        snapshot.setPricing(readPricing(reader));
+        snapshot.setShippingAddress(readAddress(reader));
+        snapshot.setBillingAddress(readAddress(reader));
+        snapshot.setTimestamps(readTimestamps(reader));
+        snapshot.setTrackingInfo(readTracking(reader));
+        snapshot.setCancellationInfo(readCancellation(reader));
+        snapshot.setCreatedAt(reader.readInstant());
+        return snapshot;
+    }
+
+    /**
+     * Snapshots leave out the product description, so it is not encoded either
+     */
+    private void writeItems(BinaryEventWriter writer, List<OrderItem> items) {
+        if (items == null) {
+            writer.writeVarInt(0);
+            return;
+        }
+        writer.writeVarInt(items.size() + 1);
+        for (OrderItem item : items) {
+            writer.writeString(item.getProductId());
+            writer.writeString(item.getProductName());
+            writer.writeNullableInt(item.getQuantity());
+            writer.writeDecimal(item.getPriceAtTime());
+            writer.writeDecimal(item.getTotalPrice());
+            writer.writeString(item.getSellerId());
+            writer.writeString(item.getSellerName());
+        }
+    }
+
+    private List<OrderItem> readItems(BinaryEventReader reader) {
+        int size = reader.readVarInt() - 1;
+        if (size < 0) {
+            return null;
+        }
+        // each of the seven item fields takes at least one byte
+        reader.checkCount(size, 7);
+        List<OrderItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            OrderItem item = new OrderItem();
+            item.setProductId(reader.readString());
+            item.setProductName(reader.readString());
+            item.setQuantity(reader.readNullableInt());
+            item.setPriceAtTime(reader.readDecimal());
+            item.setTotalPrice(reader.readDecimal());
+            item.setSellerId(reader.readString());
+            item.setSellerName(reader.readString());
+            items.add(item);
+        }
+        return items;
+    }
+
+    private void writePricing(BinaryEventWriter writer, OrderPricing pricing) {
+        writer.writeBoolean(pricing != null);
+        if (pricing == null) {
+            return;
+        }
+        writer.writeDecimal(pricing.getSubtotal());
+        writer.writeDecimal(pricing.getTax());
+        writer.writeDecimal(pricing.getShipping());
+        writer.writeDecimal(pricing.getDiscount());
+        writer.writeDecimal(pricing.getTotal());
+        writer.writeString(pricing.getCurrency());
+    }
+
+    private OrderPricing readPricing(BinaryEventReader reader) {
+        if (!reader.readBoolean()) {
+            return null;
+        }
+        OrderPricing pricing = new OrderPricing();
+        pricing.setSubtotal(reader.readDecimal());
+        pricing.setTax(reader.readDecimal());
+        pricing.setShipping(reader.readDecimal());
+        pricing.setDiscount(reader.readDecimal());
+        pricing.setTotal(reader.readDecimal());
+        pricing.setCurrency(reader.readString());
+        return pricing;
+    }
+
+    private void writeAddress(BinaryEventWriter writer, Address address) {
+        writer.writeBoolean(address != null);
+        if (address == null) {
+            return;
+        }
+        writer.writeString(address.getStreet());
+        writer.writeString(address.getCity());
+        writer.writeString(address.getState());
+        writer.writeString(address.getZip());
+        writer.writeString(address.getCountry());
+    }
+
+    private Address readAddress(BinaryEventReader reader) {
+        if (!reader.readBoolean()) {
+            return null;
+        }
+        Address address = new Address();
+        address.setStreet(reader.readString());
+        address.setCity(reader.readString());
+        address.setState(reader.readString());
+        address.setZip(reader.readString());
+        address.setCountry(reader.readString());
+        return address;
+    }
+
+    private void writeTimestamps(BinaryEventWriter writer, OrderTimestamps timestamps) {
+        writer.writeBoolean(timestamps != null);
+        if (timestamps == null) {
+            return;
+        }
+        writer.writeInstant(timestamps.getCreated());
+        writer.writeInstant(timestamps.getConfirmed());
+        writer.writeInstant(timestamps.getProcessed());
+        writer.writeInstant(timestamps.getShipped());
+        writer.writeInstant(timestamps.getDelivered());
+        writer.writeInstant(timestamps.getCancelled());
+        writer.writeInstant(timestamps.getCompleted());
+    }
+
+    private OrderTimestamps readTimestamps(BinaryEventReader reader) {
+        if (!reader.readBoolean()) {
+            return null;
+        }
+        OrderTimestamps timestamps = new OrderTimestamps();
+        timestamps.setCreated(reader.readInstant());
+        timestamps.setConfirmed(reader.readInstant());
+        timestamps.setProcessed(reader.readInstant());
+        timestamps.setShipped(reader.readInstant());
+        timestamps.setDelivered(reader.readInstant());
+        timestamps.setCancelled(reader.readInstant());
+        timestamps.setCompleted(reader.readInstant());
+        return timestamps;
+    }
+
+    private void writeTracking(BinaryEventWriter writer, TrackingInfo tracking) {
+        writer.writeBoolean(tracking != null);
+        if (tracking == null) {
+            return;
+        }
+        writer.writeString(tracking.getTrackingNumber());
+        writer.writeString(tracking.getCarrier());
+        writer.writeInstant(tracking.getEstimatedDelivery());
+        writer.writeInstant(tracking.getActualDelivery());
+        writer.writeString(tracking.getReceivedBy());
+        writer.writeString(tracking.getNotes());
+    }
+
+    private TrackingInfo readTracking(BinaryEventReader reader) {
+        if (!reader.readBoolean()) {
+            return null;
+        }
+        TrackingInfo tracking = new TrackingInfo();
+        tracking.setTrackingNumber(reader.readString());
+        tracking.setCarrier(reader.readString());
+        tracking.setEstimatedDelivery(reader.readInstant());
+        tracking.setActualDelivery(reader.readInstant());
+        tracking.setReceivedBy(reader.readString());
+        tracking.setNotes(reader.readString());
+        return tracking;
+    }
+
+    private void writeCancellation(BinaryEventWriter writer, CancellationInfo cancellation) {
+        writer.writeBoolean(cancellation != null);
+        if (cancellation == null) {
+            return;
+        }
+        writer.writeEnum(cancellation.getReason());
+        writer.writeString(cancellation.getDetails());
+        writer.writeString(cancellation.getCancelledBy());
+        writer.writeString(cancellation.getCancelledById());
+        writer.writeInstant(cancellation.getCancelledAt());
+        writer.writeString(cancellation.getRefundStatus());
+        writer.writeDecimal(cancellation.getRefundAmount());
+        writer.writeInstant(cancellation.getRefundProcessedAt());
+        writer.writeString(cancellation.getRefundTransactionId());
+    }
+
+    private CancellationInfo readCancellation(BinaryEventReader reader) {
+        if (!reader.readBoolean()) {
+            return null;
+        }
+        CancellationInfo cancellation = new CancellationInfo();
+        cancellation.setReason(reader.readEnum(CancellationReason.class));
+        cancellation.setDetails(reader.readString());
+        cancellation.setCancelledBy(reader.readString());
+        cancellation.setCancelledById(reader.readString());
+        cancellation.setCancelledAt(reader.readInstant());
+        cancellation.setRefundStatus(reader.readString());
+        cancellation.setRefundAmount(reader.readDecimal());
+        cancellation.setRefundProcessedAt(reader.readInstant());
+        cancellation.setRefundTransactionId(reader.readString());
+        return cancellation;
+    }
+}
@@ -0,0 +1,40 @@
+package shopeazy.com.ecommerce_app.events.codec;
+
+import shopeazy.com.ecommerce_app.events.handler.ProductPriceChangedEvent;
+
+/**
+ * Binary codec for {@link ProductPriceChangedEvent}
+ */
+public class ProductPriceChangedEventCodec implements EventCodec<ProductPriceChangedEvent> {
+
+    @Override
+    public int typeId() {
+        return 4;
+    }
+
+    @Override
+    public Class<ProductPriceChangedEvent> type() {
+        return ProductPriceChangedEvent.class;
+    }
+
+    @Override
+    public int schemaVersion() {
+        return 1;
+    }
+
+    @Override
+    public void write(BinaryEventWriter writer, ProductPriceChangedEvent event) {
+        writer.writeString(event.productNumber());
+        writer.writeBoolean(event.price() != null);
+        if (event.price() != null) {
+            writer.writeDouble(event.price());
+        }
+    }
+
+    @Override
+    public ProductPriceChangedEvent read(BinaryEventReader reader, int version) {
+        String productNumber = reader.readString();
+        Double price = reader.readBoolean() ? reader.readDouble() : null;
+        return new ProductPriceChangedEvent(productNumber, price);
+    }
+}
@@ -0,0 +1,21 @@
+package shopeazy.com.ecommerce_app.events.codec;
+
+/**
+ * Type tags of loosely typed values; never renumber, only append
+ */
+final class ValueTag {
+
+    static final int NULL = 0;
+    static final int STRING = 1;
+    static final int INT = 2;
+    static final int LONG = 3;
+    static final int DOUBLE = 4;
+    static final int BOOLEAN = 5;
+    static final int DECIMAL = 6;
+    static final int INSTANT = 7;
+    static final int MAP = 8;
+    static final int LIST = 9;
+
+    private ValueTag() {
+    }
+}
@@ -2,14 +2,22 @@ package shopeazy.com.ecommerce_app.events.consumer;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.kafka.common.protocol.types.Field;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Component;
-import shopeazy.com.ecommerce_app.common.exception.ResourceNotFoundException;
 import shopeazy.com.ecommerce_app.events.handler.InventoryEvent;
+import shopeazy.com.ecommerce_app.events.idempotency.ProcessedEventStore;
+import shopeazy.com.ecommerce_app.events.retry.FailedEventPublisher;
+import shopeazy.com.ecommerce_app.events.retry.FailureHandler;
+import shopeazy.com.ecommerce_app.events.topic.EventTopic;
+import shopeazy.com.ecommerce_app.notification.mail.MailPriority;
 import shopeazy.com.ecommerce_app.notification.service.EmailNotificationService;
 import shopeazy.com.ecommerce_app.product.model.Product;
 import shopeazy.com.ecommerce_app.product.repository.ProductRepository;
@@ -18,35 +26,141 @@ import shopeazy.com.ecommerce_app.seller.repository.SellerProfileRepository;
 import shopeazy.com.ecommerce_app.user.model.User;
 import shopeazy.com.ecommerce_app.user.repository.UserRepository;
 
+import java.util.*;
+import java.util.stream.Collectors;
 
+/**
+ * Kafka consumer for inventory events.
+ * Consumes poll-sized batches and loads the products and users they refer to with one query each.
+ * Events that fail are retried through the inventory-events-retry topic with exponential backoff
+ * and end up in its dead-letter topic.
+ * Emails are queued for asynchronous delivery and awaited before the batch completes; low stock alerts go out with low priority.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class InventoryEventConsumer {
 
+    private static final String GROUP_ID = "inventory-management-group";
+
     private final ProductRepository productRepository;
     private final SellerProfileRepository sellerProfileRepository;
     private final UserRepository userRepository;
     private final EmailNotificationService emailService;
+    private final FailedEventPublisher failedEventPublisher;
+    private final ProcessedEventStore processedEvents;
 
-    @KafkaListener(topics = "inventory-events", groupId = "inventory-management-group")
-    public void handleInventoryEvent(@Payload InventoryEvent event,
-                                     @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
-        try {
-            log.info("Received Inventory Event: {} for product {} ", event, event.getProductId());
+    @Value("${app.mail.dispatch.result-timeout-ms:60000}")
+    private long deliveryTimeoutMs;
+
+    @KafkaListener(topics = EventTopic.INVENTORY_EVENTS_NAME, groupId = GROUP_ID,
+            concurrency = "${app.kafka.topics.inventory-events.concurrency:3}",
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void handleInventoryEvents(@Payload List<InventoryEvent> events) {
+        log.info("Received batch of {} inventory events", events.size());
+
+        // Redelivered events are skipped; failed events go to the retry topic so they do not hold up the rest of the partition
+        processedEvents.processOnce(GROUP_ID, events, InventoryEvent::getEventId,
+                failedEventPublisher.forwardTo(EventTopic.INVENTORY_EVENTS), this::process);
+
+        // Offsets of the whole batch are committed once this method returns
+    }
+
+    /**
+     * Retries one failed inventory event with exponential backoff; after the last attempt it goes to the dead-letter topic
+     */
+    @RetryableTopic(
+            attempts = "${app.kafka.retry.attempts:4}",
+            backoff = @Backoff(delayExpression = "${app.kafka.retry.initial-delay-ms:1000}",
+                    multiplierExpression = "${app.kafka.retry.multiplier:2.0}",
+                    maxDelayExpression = "${app.kafka.retry.max-delay-ms:60000}"),
+            numPartitions = "${app.kafka.retry.partitions:3}",
+            retryTopicSuffix = "-backoff",
+            dltTopicSuffix = EventTopic.DLT_SUFFIX,
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE)
+    @KafkaListener(topics = EventTopic.INVENTORY_EVENTS_RETRY_NAME, groupId = GROUP_ID)
+    public void retryInventoryEvent(@Payload InventoryEvent event) {
+        log.info("Retrying inventory event: {} for product {}", event.getEventType(), event.getProductId());
+        processedEvents.processOnce(GROUP_ID, List.of(event), InventoryEvent::getEventId, FailureHandler.rethrow(), this::process);
+    }
+
+    @DltHandler
+    public void handleDeadLetter(@Payload InventoryEvent event,
+                                 @Header(name = KafkaHeaders.EXCEPTION_MESSAGE, required = false) String error) {
+        log.error("Inventory event {} for product {} moved to dead-letter topic after retries: {}",
+                event.getEventType(), event.getProductId(), error);
+    }
+
+    private void process(List<InventoryEvent> events, FailureHandler<InventoryEvent> onFailure) {
+        // Load every product and user the batch refers to with one query each
+        BatchContext context = loadContext(events);
+
+        Map<String, List<InventoryEvent>> eventsByType = events.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(InventoryEvent::getEventType, LinkedHashMap::new, Collectors.toList()));
+
+        eventsByType.forEach((eventType, typedEvents) -> {
+            for (InventoryEvent event : typedEvents) {
+                try {
+                    switch (eventType) {
+                        case "INVENTORY_RESERVED" -> handleInventoryReserved(event);
+                        case "INVENTORY_RELEASED" -> handleInventoryReleased(event, context);
+                        case "STOCK_UPDATED" -> handleStockUpdated(event, context);
+                        case "LOW_STOCK_ALERT" -> handleLowStockAlert(event, context);
+                        default -> log.warn("Unknown inventory event type: {}", eventType);
+                    }
+                } catch (Exception exception) {
+                    log.error("Error while processing Inventory Event {} : {}", eventType, exception.getMessage(), exception);
+                    onFailure.onFailure(event, exception);
+                }
+            }
+        });
+
+        context.deliveries().awaitAll(deliveryTimeoutMs, onFailure);
+    }
 
+    private BatchContext loadContext(List<InventoryEvent> events) {
+        Set<String> productIds = new HashSet<>();
+        Set<String> userIds = new HashSet<>();
+        for (InventoryEvent event : events) {
+            if (event == null || event.getProductId() == null) {
+                continue;
+            }
             switch (event.getEventType()) {
-                case "INVENTORY_RESERVED" -> handleInventoryReserved(event);
-                case "INVENTORY_RELEASED" -> handleInventoryReleased(event);
-                case "STOCK_UPDATED" -> handleStockUpdated(event);
-                case "LOW_STOCK_ALERT" -> handleLowStockAlert(event);
-                default -> log.warn("Unknown inventory event type: {}", event.getEventType());
+                case "STOCK_UPDATED", "LOW_STOCK_ALERT" -> productIds.add(event.getProductId());
+                case "INVENTORY_RELEASED" -> {
+                    if ("CART_TIMEOUT".equals(event.getReason()) && event.getUserId() != null) {
+                        productIds.add(event.getProductId());
+                        userIds.add(event.getUserId());
+                    }
+                }
+                default -> {
+                }
             }
-        } catch (Exception exception) {
-            log.error("Error while processing Inventory Event {} : {}", event.getEventType(), exception.getMessage(), exception);
         }
-    }
 
+        Map<String, Product> products = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            productRepository.findAllById(productIds).forEach(product -> products.put(product.getId(), product));
+        }
+
+        Map<String, User> users = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            userRepository.findAllById(userIds).forEach(user -> users.put(user.getId(), user));
+        }
+
+        // Sellers are only needed for low stock alerts, fetch them for the loaded products in one go
+        Set<String> sellerIds = products.values().stream()
+                .map(Product::getSellerId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Seller> sellers = new HashMap<>();
+        if (!sellerIds.isEmpty()) {
+            sellerProfileRepository.findAllById(sellerIds).forEach(seller -> sellers.put(seller.getSellerId(), seller));
+        }
+
+        return new BatchContext(products, users, sellers, new PendingDeliveries<>());
+    }
 
     private void handleInventoryReserved(InventoryEvent event) {
         try {
@@ -62,13 +176,13 @@ public class InventoryEventConsumer {
         }
     }
 
-    private void handleInventoryReleased(InventoryEvent event) {
+    private void handleInventoryReleased(InventoryEvent event, BatchContext context) {
         try {
             log.info("Processing INVENTORY_RELEASED event for product {} by user {}", event.getProductId(), event.getUserId());
 
             // Check if this was due to cart timeout and potentially notify user
             if ("CART_TIMEOUT".equals(event.getReason())) {
-                handleCartTimeout(event);
+                handleCartTimeout(event, context);
             }
 
             log.debug("Inventory released: {} units of product {} for user {}, reason: {}",
@@ -81,12 +195,12 @@ public class InventoryEventConsumer {
     }
 
 
-    private void handleCartTimeout(InventoryEvent event) {
+    private void handleCartTimeout(InventoryEvent event, BatchContext context) {
         try {
             // Find user and send notification about cart timeout
             if (event.getUserId() != null) {
-                User user = userRepository.findById(event.getUserId()).orElseThrow(ResourceNotFoundException::new);
-                Product product = productRepository.findById(event.getProductId()).orElseThrow(ResourceNotFoundException::new);
+                User user = context.users().get(event.getUserId());
+                Product product = context.products().get(event.getProductId());
 
                 if (user != null && product != null) {
                     String subject = "Items Removed from Cart - Reservation Expired";
@@ -106,23 +220,24 @@ public class InventoryEventConsumer {
                             event.getQuantity()
                     );
 
-                    emailService.sendSimpleEmail(user.getEmail(), subject, message);
+                    context.deliveries().add(event, emailService.sendSimpleEmail(user.getEmail(), subject, message));
 
-                    log.info("Sent cart timeout notification to user {}", user.getEmail());
+                    log.info("Queued cart timeout notification to user {}", user.getEmail());
                 }
             }
 
         } catch (Exception e) {
             log.error("Error handling cart timeout notification: {}", e.getMessage(), e);
+            throw e;
         }
     }
 
-    private void handleStockUpdated(InventoryEvent event) {
+    private void handleStockUpdated(InventoryEvent event, BatchContext context) {
         try {
             log.info("Processing STOCK_UPDATED for product {}: {} → {}",
                     event.getProductId(), event.getPreviousStock(), event.getNewStock());
 
-            Product product = productRepository.findById(event.getProductId()).orElse(null);
+            Product product = context.products().get(event.getProductId());
             if (product == null) {
                 log.warn("Product not found for STOCK_UPDATED event: {}", event.getProductId());
                 return;
@@ -134,7 +249,7 @@ public class InventoryEventConsumer {
                     (event.getPreviousStock() == null || event.getPreviousStock() > lowStockThreshold)) {
 
                 // Trigger low stock alert
-                sendLowStockAlert(product, event.getNewStock());
+                sendLowStockAlert(event, product, context);
             }
 
             // Check if item is back in stock (for wishlist notifications)
@@ -151,17 +266,17 @@ public class InventoryEventConsumer {
     }
 
 
-    private void handleLowStockAlert(InventoryEvent event) {
+    private void handleLowStockAlert(InventoryEvent event, BatchContext context) {
         try {
             log.info("Processing LOW_STOCK_ALERT for product {}", event.getProductId());
 
-            Product product = productRepository.findById(event.getProductId()).orElseThrow(ResourceNotFoundException::new);
+            Product product = context.products().get(event.getProductId());
             if (product == null) {
                 log.warn("Product not found for LOW_STOCK_ALERT event: {}", event.getProductId());
                 return;
             }
 
-            sendLowStockAlert(product, event.getNewStock());
+            sendLowStockAlert(event, product, context);
 
         } catch (Exception e) {
             log.error("Error handling LOW_STOCK_ALERT event: {}", e.getMessage(), e);
@@ -170,10 +285,10 @@ public class InventoryEventConsumer {
     }
 
 
-    private void sendLowStockAlert(Product product, Integer currentStock) {
+    private void sendLowStockAlert(InventoryEvent event, Product product, BatchContext context) {
         try {
             // Find the seller and send low stock alert
-            Seller seller = sellerProfileRepository.findById(product.getSellerId()).orElseThrow(ResourceNotFoundException::new);
+            Seller seller = context.sellers().get(product.getSellerId());
             if (seller != null) {
                 String subject = "Low Stock Alert - " + product.getName();
                 String message = String.format(
@@ -191,19 +306,20 @@ public class InventoryEventConsumer {
                                 Best regards,
                                 ShopEazy Team""",
                         product.getName(),
-                        currentStock != null ? currentStock : 0,
+                        event.getNewStock() != null ? event.getNewStock() : 0,
                         product.getId()
                 );
 
-                emailService.sendSimpleEmail(seller.getContactEmail(), subject, message);
+                context.deliveries().add(event,
+                        emailService.sendSimpleEmail(seller.getContactEmail(), subject, message, MailPriority.LOW));
 
-                log.info("Sent low stock alert to seller {} for product {}",
+                log.info("Queued low stock alert to seller {} for product {}",
                         seller.getContactEmail(), product.getName());
             }
 
         } catch (Exception e) {
             log.error("Error sending low stock alert: {}", e.getMessage(), e);
-            // Don't re-throw here as this is a notification, not critical
+            throw e; // Re-throw so the alert is retried
         }
     }
 
@@ -227,4 +343,10 @@ public class InventoryEventConsumer {
         }
     }
 
+    /**
+     * Entities referenced by one batch, keyed by ID, and the emails queued for it
+     */
+    private record BatchContext(Map<String, Product> products, Map<String, User> users, Map<String, Seller> sellers,
+                                PendingDeliveries<InventoryEvent> deliveries) {
+    }
 }
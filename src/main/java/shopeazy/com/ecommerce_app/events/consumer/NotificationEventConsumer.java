@@ -0,0 +1,156 @@
+package shopeazy.com.ecommerce_app.events.consumer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.DltHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.stereotype.Component;
+import shopeazy.com.ecommerce_app.events.handler.NotificationEvent;
+import shopeazy.com.ecommerce_app.events.idempotency.ProcessedEventStore;
+import shopeazy.com.ecommerce_app.events.retry.FailedEventPublisher;
+import shopeazy.com.ecommerce_app.events.retry.FailureHandler;
+import shopeazy.com.ecommerce_app.events.topic.EventTopic;
+import shopeazy.com.ecommerce_app.notification.mail.MailPriority;
+import shopeazy.com.ecommerce_app.notification.service.EmailNotificationService;
+import shopeazy.com.ecommerce_app.order.model.Order;
+import shopeazy.com.ecommerce_app.order.repository.OrderRepository;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Kafka consumer for notification requests.
+ * Order emails are rendered from the referenced orders, which are loaded with one query per batch;
+ * any other notification is sent as a plain text email built from its template data, queued with the event's priority.
+ * The batch completes once all of its emails were handed to the mail server.
+ * Events that fail are retried through the notification-events-retry topic with exponential backoff
+ * and end up in its dead-letter topic.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationEventConsumer {
+
+    private static final String GROUP_ID = "notification-delivery-group";
+
+    private final EmailNotificationService emailService;
+    private final OrderRepository orderRepository;
+    private final FailedEventPublisher failedEventPublisher;
+    private final ProcessedEventStore processedEvents;
+
+    @Value("${app.mail.dispatch.result-timeout-ms:60000}")
+    private long deliveryTimeoutMs;
+
+    @KafkaListener(topics = EventTopic.NOTIFICATION_EVENTS_NAME, groupId = GROUP_ID,
+            concurrency = "${app.kafka.topics.notification-events.concurrency:3}",
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void handleNotificationEvents(@Payload List<NotificationEvent> events) {
+        log.info("Received batch of {} notification events", events.size());
+
+        // Redelivered events are skipped; failed events go to the retry topic so they do not hold up the rest of the partition
+        processedEvents.processOnce(GROUP_ID, events, NotificationEvent::getEventId,
+                failedEventPublisher.forwardTo(EventTopic.NOTIFICATION_EVENTS), this::process);
+
+        // Offsets of the whole batch are committed once this method returns
+    }
+
+    /**
+     * Retries one failed notification with exponential backoff; after the last attempt it goes to the dead-letter topic
+     */
+    @RetryableTopic(
+            attempts = "${app.kafka.retry.attempts:4}",
+            backoff = @Backoff(delayExpression = "${app.kafka.retry.initial-delay-ms:1000}",
+                    multiplierExpression = "${app.kafka.retry.multiplier:2.0}",
+                    maxDelayExpression = "${app.kafka.retry.max-delay-ms:60000}"),
+            numPartitions = "${app.kafka.retry.partitions:3}",
+            retryTopicSuffix = "-backoff",
+            dltTopicSuffix = EventTopic.DLT_SUFFIX,
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE)
+    @KafkaListener(topics = EventTopic.NOTIFICATION_EVENTS_RETRY_NAME, groupId = GROUP_ID)
+    public void retryNotificationEvent(@Payload NotificationEvent event) {
+        log.info("Retrying notification {} for {}", event.getEventType(), event.getRecipientEmail());
+        processedEvents.processOnce(GROUP_ID, List.of(event), NotificationEvent::getEventId, FailureHandler.rethrow(), this::process);
+    }
+
+    @DltHandler
+    public void handleDeadLetter(@Payload NotificationEvent event,
+                                 @Header(name = KafkaHeaders.EXCEPTION_MESSAGE, required = false) String error) {
+        log.error("Notification {} for {} moved to dead-letter topic after retries: {}",
+                event.getEventType(), event.getRecipientEmail(), error);
+    }
+
+    private void process(List<NotificationEvent> events, FailureHandler<NotificationEvent> onFailure) {
+        Map<String, Order> orders = loadOrders(events);
+
+        PendingDeliveries<NotificationEvent> deliveries = new PendingDeliveries<>();
+        for (NotificationEvent event : events) {
+            if (event == null) {
+                continue;
+            }
+            try {
+                CompletableFuture<Void> delivery = switch (event.getEventType()) {
+                    case "ORDER_CONFIRMATION_EMAIL" -> withOrder(event, orders, emailService::sendOrderConfirmationEmail);
+                    case "ORDER_SHIPPED_EMAIL" -> withOrder(event, orders, emailService::sendOrderShippedEmail);
+                    case "ORDER_CANCELLED_EMAIL" -> withOrder(event, orders, emailService::sendOrderCancelledEmail);
+                    case "ORDER_DELIVERED_EMAIL" -> withOrder(event, orders, emailService::sendOrderDeliveredEmail);
+                    default -> emailService.sendSimpleEmail(event.getRecipientEmail(), event.getSubject(), buildTextBody(event),
+                            MailPriority.of(event.getPriority()));
+                };
+                deliveries.add(event, delivery);
+            } catch (Exception e) {
+                log.error("Error sending notification {} to {}: {}", event.getEventType(), event.getRecipientEmail(), e.getMessage(), e);
+                onFailure.onFailure(event, e);
+            }
+        }
+
+        deliveries.awaitAll(deliveryTimeoutMs, onFailure);
+    }
+
+    private Map<String, Order> loadOrders(List<NotificationEvent> events) {
+        Set<String> orderIds = events.stream()
+                .filter(Objects::nonNull)
+                .map(NotificationEventConsumer::orderId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Map<String, Order> orders = new HashMap<>();
+        if (!orderIds.isEmpty()) {
+            orderRepository.findAllById(orderIds).forEach(order -> orders.put(order.getId(), order));
+        }
+        return orders;
+    }
+
+    private CompletableFuture<Void> withOrder(NotificationEvent event, Map<String, Order> orders,
+                                              Function<Order, CompletableFuture<Void>> send) {
+        String orderId = orderId(event);
+        Order order = orderId != null ? orders.get(orderId) : null;
+        if (order == null) {
+            log.warn("Order not found for {} notification: {}", event.getEventType(), orderId);
+            return CompletableFuture.completedFuture(null);
+        }
+        return send.apply(order);
+    }
+
+    private static String orderId(NotificationEvent event) {
+        Object orderId = event.getTemplateData() != null ? event.getTemplateData().get("orderId") : null;
+        return orderId != null ? orderId.toString() : null;
+    }
+
+    private String buildTextBody(NotificationEvent event) {
+        StringBuilder body = new StringBuilder();
+        if (event.getTemplateData() != null) {
+            event.getTemplateData().forEach((key, value) -> body.append(key).append(": ").append(value).append('\n'));
+        }
+        body.append("\nBest regards,\nShopEazy Team");
+        return body.toString();
+    }
+}
@@ -2,190 +2,348 @@ package shopeazy.com.ecommerce_app.events.consumer;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import shopeazy.com.ecommerce_app.events.coalescing.OrderNotificationCoalescer;
 import shopeazy.com.ecommerce_app.events.handler.OrderEvent;
+import shopeazy.com.ecommerce_app.events.handler.OrderSnapshot;
+import shopeazy.com.ecommerce_app.events.idempotency.ProcessedEventStore;
+import shopeazy.com.ecommerce_app.events.retry.FailedEventPublisher;
+import shopeazy.com.ecommerce_app.events.retry.FailureHandler;
+import shopeazy.com.ecommerce_app.events.topic.EventTopic;
 import shopeazy.com.ecommerce_app.notification.service.EmailNotificationService;
 import shopeazy.com.ecommerce_app.order.model.Order;
 import shopeazy.com.ecommerce_app.order.repository.OrderRepository;
-import shopeazy.com.ecommerce_app.pdf.service.PdfGenerationService;
+import shopeazy.com.ecommerce_app.pdf.service.OrderDocumentStore;
+
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Kafka consumer for order-related events.
- * Handles order lifecycle events and triggers appropriate actions.
+ * Sends the customer notifications of each order lifecycle event, in poll-sized batches with retries through order-events-retry.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class OrderEventConsumer {
 
+    private static final String GROUP_ID = "order-notification-group";
+    private static final String CANCELLATION_RECEIPT = "ORDER_CANCELLATION_RECEIPT";
+
     private final EmailNotificationService emailService;
-    private final PdfGenerationService pdfService;
+    private final OrderDocumentStore documentStore;
     private final OrderRepository orderRepository;
+    private final FailedEventPublisher failedEventPublisher;
+    private final ProcessedEventStore processedEvents;
+    private final OrderNotificationCoalescer coalescer;
 
-    @KafkaListener(topics = "order-events", groupId = "order-notification-group")
-    public void handleOrderEvent(@Payload OrderEvent event,
-                                 @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+    @Value("${app.mail.dispatch.result-timeout-ms:60000}")
+    private long deliveryTimeoutMs;
 
-        try {
-            log.info("Received order event: {} for order {}", event.getEventType(), event.getOrderNumber());
-
-            switch (event.getEventType()) {
-                case "ORDER_CREATED" -> handleOrderCreated(event);
-                case "ORDER_CONFIRMED" -> handleOrderConfirmed(event);
-                case "ORDER_CANCELLED" -> handleOrderCancelled(event);
-                case "ORDER_SHIPPED" -> handleOrderShipped(event);
-                case "ORDER_DELIVERED" -> handleOrderDelivered(event);
-                default -> log.warn("Unknown order event type: {}", event.getEventType());
-            }
+    @Value("${app.notifications.max-attachments-per-batch:50}")
+    private int maxAttachmentsPerBatch;
 
-            // Message automatically acknowledged on successful completion
+    @KafkaListener(topics = EventTopic.ORDER_EVENTS_NAME, groupId = GROUP_ID,
+            concurrency = "${app.kafka.topics.order-events.concurrency:3}",
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void handleOrderEvents(@Payload List<OrderEvent> events) {
+        log.info("Received batch of {} order events", events.size());
 
-        } catch (Exception e) {
-            log.error("Error processing order event {}: {}", event.getEventType(), e.getMessage(), e);
-            // Re-throw to trigger retry mechanism
-        }
+        // Redelivered events are skipped; failed events go to the retry topic so they do not hold up the rest of the partition
+        List<OrderEvent> unprocessed = processedEvents.filterUnprocessed(GROUP_ID, events, OrderEvent::getEventId);
+
+        // Held events are marked processed when their coalesced notification is flushed
+        List<OrderEvent> immediate = coalescer.hold(unprocessed);
+        processedEvents.processAndMark(GROUP_ID, immediate, OrderEvent::getEventId,
+                failedEventPublisher.forwardTo(EventTopic.ORDER_EVENTS, GROUP_ID), this::process);
+
+        // Offsets of the whole batch are committed once this method returns
     }
 
-    private void handleOrderCreated(OrderEvent event) {
+    /**
+     * Send the notifications whose coalescing window is over
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.coalescing.flush-interval-ms:1000}")
+    public void flushCoalescedNotifications() {
         try {
-            // Find the order
-            Order order = orderRepository.findById(event.getOrderId()).orElse(null);
-            if (order == null) {
-                log.warn("Order not found for ORDER_CREATED event: {}", event.getOrderId());
-                return;
-            }
-
-            log.info("Processing ORDER_CREATED for order {}", event.getOrderNumber());
+            // Only notifications that were sent are marked processed, a failed one is retried under the same event ID
+            List<OrderEvent> superseded = coalescer.flushDue(
+                    (notifications, onFailure) -> processedEvents.processAndMark(GROUP_ID, notifications,
+                            OrderEvent::getEventId, onFailure, this::process),
+                    failedEventPublisher.forwardTo(EventTopic.ORDER_EVENTS, GROUP_ID));
+            processedEvents.markProcessed(GROUP_ID, superseded, OrderEvent::getEventId);
+        } catch (Exception e) {
+            log.error("Error flushing coalesced order notifications: {}", e.getMessage(), e);
+        }
+    }
 
-            // Send order confirmation email (without PDF for pending order)
-            emailService.sendOrderConfirmationEmail(order);
+    /**
+     * Retries one failed order event with exponential backoff; after the last attempt it goes to the dead-letter topic
+     */
+    @RetryableTopic(
+            attempts = "${app.kafka.retry.attempts:4}",
+            backoff = @Backoff(delayExpression = "${app.kafka.retry.initial-delay-ms:1000}",
+                    multiplierExpression = "${app.kafka.retry.multiplier:2.0}",
+                    maxDelayExpression = "${app.kafka.retry.max-delay-ms:60000}"),
+            numPartitions = "${app.kafka.retry.partitions:3}",
+            retryTopicSuffix = "-backoff",
+            dltTopicSuffix = EventTopic.DLT_SUFFIX,
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE)
+    @KafkaListener(topics = EventTopic.ORDER_EVENTS_RETRY_NAME, groupId = GROUP_ID)
+    public void retryOrderEvent(@Payload OrderEvent event,
+                                @Header(name = FailedEventPublisher.RETRY_CONSUMER_HEADER, required = false) String consumer) {
+        if (consumer != null && !GROUP_ID.equals(consumer)) {
+            return; // failed in another group sharing the retry topic
+        }
+        log.info("Retrying order event: {} for order {}", event.getEventType(), event.getOrderNumber());
+        processedEvents.processOnce(GROUP_ID, List.of(event), OrderEvent::getEventId, FailureHandler.rethrow(), this::handleInOrder);
+    }
 
-            log.info("Successfully processed ORDER_CREATED for order {}", event.getOrderNumber());
+    @DltHandler
+    public void handleDeadLetter(@Payload OrderEvent event,
+                                 @Header(name = KafkaHeaders.EXCEPTION_MESSAGE, required = false) String error,
+                                 @Header(name = FailedEventPublisher.RETRY_CONSUMER_HEADER, required = false) String consumer) {
+        if (consumer != null && !GROUP_ID.equals(consumer)) {
+            return;
+        }
+        log.error("Order event {} for order {} moved to dead-letter topic after retries: {}",
+                event.getEventType(), event.getOrderNumber(), error);
+    }
 
-        } catch (Exception e) {
-            log.error("Error handling ORDER_CREATED event for order {}: {}", event.getOrderNumber(), e.getMessage(), e);
-            throw e; // Re-throw to prevent acknowledgment
+    /**
+     * First handling of events. The receipt of a cancellation is split off into its own event, so it
+     * succeeds or fails separately and a failed receipt is retried without resending the cancellation email.
+     */
+    private void process(List<OrderEvent> events, FailureHandler<OrderEvent> onFailure) {
+        List<OrderEvent> expanded = new ArrayList<>(events.size());
+        for (OrderEvent event : events) {
+            expanded.add(event);
+            if (event != null && "ORDER_CANCELLED".equals(event.getEventType())) {
+                expanded.add(cancellationReceipt(event));
+            }
         }
+        handleInOrder(expanded, onFailure);
     }
 
-    private void handleOrderConfirmed(OrderEvent event) {
-        try {
-            // Find the order
-            Order order = orderRepository.findById(event.getOrderId()).orElse(null);
-            if (order == null) {
-                log.warn("Order not found for ORDER_CONFIRMED event: {}", event.getOrderId());
-                return;
+    private void handleInOrder(List<OrderEvent> events, FailureHandler<OrderEvent> onFailure) {
+        // At most one round trip for the batch; a failure here fails the whole
+        // batch so it is redelivered instead of silently dropping its notifications
+        Map<String, Order> orders = loadOrders(events);
+
+        // Events are handled in arrival order, so the emails of an order are queued in the order its changes happened
+        PendingDeliveries<OrderEvent> deliveries = new PendingDeliveries<>();
+        int attachments = 0;
+        for (OrderEvent event : events) {
+            if (event == null) {
+                continue;
+            }
+            try {
+                attachments += handle(event, orders, deliveries);
+            } catch (Exception e) {
+                log.error("Error handling {} event for order {}: {}", event.getEventType(), event.getOrderNumber(), e.getMessage(), e);
+                onFailure.onFailure(event, e);
             }
 
-            log.info("Processing ORDER_CONFIRMED for order {}", event.getOrderNumber());
+            // Queued emails keep their PDFs in memory until sent, so wait for them before rendering more
+            if (attachments >= maxAttachmentsPerBatch) {
+                deliveries.awaitAll(deliveryTimeoutMs, onFailure);
+                attachments = 0;
+            }
+        }
 
-            // Generate invoice PDF
-            byte[] invoicePdf = pdfService.generateInvoicePdf(order);
+        // The dispatcher sends the queued emails in batches over pooled connections
+        deliveries.awaitAll(deliveryTimeoutMs, onFailure);
+    }
 
-            // Send confirmation email with PDF attachment
-            String subject = "Order Confirmed - " + order.getOrderNumber();
-            String htmlBody = buildOrderConfirmedEmailBody(order);
+    /**
+     * Queue the emails of one event
+     *
+     * @return number of PDF attachments queued
+     */
+    private int handle(OrderEvent event, Map<String, Order> orders, PendingDeliveries<OrderEvent> deliveries) {
+        return switch (event.getEventType()) {
+            case "ORDER_CREATED" -> handleOrderCreated(event, orders, deliveries);
+            case "ORDER_CONFIRMED" -> handleOrderConfirmed(event, orders, deliveries);
+            case "ORDER_CANCELLED" -> handleOrderCancelled(event, orders, deliveries);
+            case CANCELLATION_RECEIPT -> handleCancellationReceipt(event, orders, deliveries);
+            case "ORDER_SHIPPED" -> handleOrderShipped(event, orders, deliveries);
+            case "ORDER_DELIVERED" -> handleOrderDelivered(event, orders, deliveries);
+            case "ORDER_STATUS_CHANGED" -> {
+                log.debug("No notification for status change of order {}", event.getOrderNumber());
+                yield 0;
+            }
+            default -> {
+                log.warn("Unknown order event type: {} for order {}", event.getEventType(), event.getOrderNumber());
+                yield 0;
+            }
+        };
+    }
 
-            emailService.sendEmailWithAttachment(
-                    order.getCustomerEmail(),
-                    subject,
-                    htmlBody,
-                    invoicePdf,
-                    "invoice-" + order.getOrderNumber() + ".pdf"
-            );
+    /**
+     * Receipt-only follow-up of a cancellation event, with an ID of its own for retries and deduplication
+     */
+    private static OrderEvent cancellationReceipt(OrderEvent cancelled) {
+        return new OrderEvent(cancelled.getEventId() != null ? cancelled.getEventId() + ":receipt" : null,
+                CANCELLATION_RECEIPT,
+                cancelled.getOrderId(),
+                cancelled.getOrderNumber(),
+                cancelled.getUserId(),
+                cancelled.getCustomerEmail(),
+                cancelled.getOrderStatus(),
+                cancelled.getTotalAmount(),
+                cancelled.getCurrency(),
+                cancelled.getEventTimestamp(),
+                cancelled.getEventData(),
+                cancelled.getSource(),
+                cancelled.getCorrelationId(),
+                cancelled.getSnapshot());
+    }
 
-            log.info("Successfully processed ORDER_CONFIRMED for order {}", event.getOrderNumber());
+    /**
+     * Load the orders of events that carry no current snapshot, with one query for the whole batch
+     */
+    private Map<String, Order> loadOrders(List<OrderEvent> events) {
+        Set<String> orderIds = events.stream()
+                .filter(Objects::nonNull)
+                .filter(event -> event.getSnapshot() == null || !event.getSnapshot().isCurrent())
+                .map(OrderEvent::getOrderId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Map<String, Order> orders = new HashMap<>();
+        if (!orderIds.isEmpty()) {
+            orderRepository.findAllById(orderIds).forEach(order -> orders.put(order.getId(), order));
+        }
+        return orders;
+    }
 
-        } catch (Exception e) {
-            log.error("Error handling ORDER_CONFIRMED event for order {}: {}", event.getOrderNumber(), e.getMessage(), e);
-            throw e; // Re-throw to prevent acknowledgment
+    /**
+     * Order to render for an event: its own snapshot when current, otherwise the loaded order
+     */
+    private Order resolve(OrderEvent event, Map<String, Order> orders) {
+        OrderSnapshot snapshot = event.getSnapshot();
+        if (snapshot != null && snapshot.isCurrent()) {
+            return snapshot.toOrder();
         }
+        return orders.get(event.getOrderId());
     }
 
-    private void handleOrderCancelled(OrderEvent event) {
-        try {
-            // Find the order
-            Order order = orderRepository.findById(event.getOrderId()).orElse(null);
-            if (order == null) {
-                log.warn("Order not found for ORDER_CANCELLED event: {}", event.getOrderId());
-                return;
-            }
+    private int handleOrderCreated(OrderEvent event, Map<String, Order> orders, PendingDeliveries<OrderEvent> deliveries) {
+        Order order = resolve(event, orders);
+        if (order == null) {
+            log.warn("Order not found for ORDER_CREATED event: {}", event.getOrderId());
+            return 0;
+        }
 
-            log.info("Processing ORDER_CANCELLED for order {}", event.getOrderNumber());
+        // Send order confirmation email (without PDF for pending order)
+        deliveries.add(event, emailService.sendOrderConfirmationEmail(order));
 
-            // Send cancellation email
-            emailService.sendOrderCancelledEmail(order);
+        log.info("Queued emails for ORDER_CREATED for order {}", event.getOrderNumber());
+        return 0;
+    }
 
-            // Generate cancellation receipt PDF if needed
-            if (order.getCancellationInfo() != null && order.getCancellationInfo().getRefundAmount() != null) {
-                byte[] receiptPdf = pdfService.generateCancellationReceiptPdf(order);
+    private int handleOrderConfirmed(OrderEvent event, Map<String, Order> orders, PendingDeliveries<OrderEvent> deliveries) {
+        Order order = resolve(event, orders);
+        if (order == null) {
+            log.warn("Order not found for ORDER_CONFIRMED event: {}", event.getOrderId());
+            return 0;
+        }
 
-                String subject = "Cancellation Receipt - " + order.getOrderNumber();
-                String htmlBody = buildCancellationReceiptEmailBody(order);
+        // Send confirmation email with PDF attachment
+        byte[] invoicePdf = documentStore.getInvoicePdf(order);
+        String subject = "Order Confirmed - " + order.getOrderNumber();
+        String htmlBody = buildOrderConfirmedEmailBody(order);
+
+        deliveries.add(event, emailService.sendEmailWithAttachment(
+                order.getCustomerEmail(),
+                subject,
+                htmlBody,
+                invoicePdf,
+                "invoice-" + order.getOrderNumber() + ".pdf"
+        ));
+
+        log.info("Queued emails for ORDER_CONFIRMED for order {}", order.getOrderNumber());
+        return 1;
+    }
 
-                emailService.sendEmailWithAttachment(
-                        order.getCustomerEmail(),
-                        subject,
-                        htmlBody,
-                        receiptPdf,
-                        "cancellation-receipt-" + order.getOrderNumber() + ".pdf"
-                );
-            }
+    private int handleOrderCancelled(OrderEvent event, Map<String, Order> orders, PendingDeliveries<OrderEvent> deliveries) {
+        Order order = resolve(event, orders);
+        if (order == null) {
+            log.warn("Order not found for ORDER_CANCELLED event: {}", event.getOrderId());
+            return 0;
+        }
 
-            log.info("Successfully processed ORDER_CANCELLED for order {}", event.getOrderNumber());
+        // Send cancellation email
+        deliveries.add(event, emailService.sendOrderCancelledEmail(order));
 
-        } catch (Exception e) {
-            log.error("Error handling ORDER_CANCELLED event for order {}: {}", event.getOrderNumber(), e.getMessage(), e);
-            throw e; // Re-throw to prevent acknowledgment
-        }
+        log.info("Queued emails for ORDER_CANCELLED for order {}", event.getOrderNumber());
+        return 0;
     }
 
-    private void handleOrderShipped(OrderEvent event) {
-        try {
-            // Find the order
-            Order order = orderRepository.findById(event.getOrderId()).orElse(null);
-            if (order == null) {
-                log.warn("Order not found for ORDER_SHIPPED event: {}", event.getOrderId());
-                return;
-            }
+    private int handleCancellationReceipt(OrderEvent event, Map<String, Order> orders, PendingDeliveries<OrderEvent> deliveries) {
+        Order order = resolve(event, orders);
+        if (order == null) {
+            log.warn("Order not found for cancellation receipt: {}", event.getOrderId());
+            return 0;
+        }
 
-            log.info("Processing ORDER_SHIPPED for order {}", event.getOrderNumber());
+        // Only cancellations with a refund get a receipt
+        if (order.getCancellationInfo() == null || order.getCancellationInfo().getRefundAmount() == null) {
+            return 0;
+        }
 
-            // Send shipping notification email
-            emailService.sendOrderShippedEmail(order);
+        byte[] receiptPdf = documentStore.getCancellationReceiptPdf(order);
+        String subject = "Cancellation Receipt - " + order.getOrderNumber();
+        String htmlBody = buildCancellationReceiptEmailBody(order);
 
-            log.info("Successfully processed ORDER_SHIPPED for order {}", event.getOrderNumber());
+        deliveries.add(event, emailService.sendEmailWithAttachment(
+                order.getCustomerEmail(),
+                subject,
+                htmlBody,
+                receiptPdf,
+                "cancellation-receipt-" + order.getOrderNumber() + ".pdf"
+        ));
 
-        } catch (Exception e) {
-            log.error("Error handling ORDER_SHIPPED event for order {}: {}", event.getOrderNumber(), e.getMessage(), e);
-            throw e; // Re-throw to prevent acknowledgment
-        }
+        log.info("Queued cancellation receipt for order {}", order.getOrderNumber());
+        return 1;
     }
 
-    private void handleOrderDelivered(OrderEvent event) {
-        try {
-            // Find the order
-            Order order = orderRepository.findById(event.getOrderId()).orElse(null);
-            if (order == null) {
-                log.warn("Order not found for ORDER_DELIVERED event: {}", event.getOrderId());
-                return;
-            }
-
-            log.info("Processing ORDER_DELIVERED for order {}", event.getOrderNumber());
+    private int handleOrderShipped(OrderEvent event, Map<String, Order> orders, PendingDeliveries<OrderEvent> deliveries) {
+        Order order = resolve(event, orders);
+        if (order == null) {
+            log.warn("Order not found for ORDER_SHIPPED event: {}", event.getOrderId());
+            return 0;
+        }
 
-            // Send delivery confirmation email
-            emailService.sendOrderDeliveredEmail(order);
+        // Send shipping notification email
+        deliveries.add(event, emailService.sendOrderShippedEmail(order));
 
-            log.info("Successfully processed ORDER_DELIVERED for order {}", event.getOrderNumber());
+        log.info("Queued emails for ORDER_SHIPPED for order {}", event.getOrderNumber());
+        return 0;
+    }
 
-        } catch (Exception e) {
-            log.error("Error handling ORDER_DELIVERED event for order {}: {}", event.getOrderNumber(), e.getMessage(), e);
-            throw e; // Re-throw to prevent acknowledgment
+    private int handleOrderDelivered(OrderEvent event, Map<String, Order> orders, PendingDeliveries<OrderEvent> deliveries) {
+        Order order = resolve(event, orders);
+        if (order == null) {
+            log.warn("Order not found for ORDER_DELIVERED event: {}", event.getOrderId());
+            return 0;
         }
+
+        // Send delivery confirmation email
+        deliveries.add(event, emailService.sendOrderDeliveredEmail(order));
+
+        log.info("Queued emails for ORDER_DELIVERED for order {}", event.getOrderNumber());
+        return 0;
     }
 
     // Email template builders for specific events
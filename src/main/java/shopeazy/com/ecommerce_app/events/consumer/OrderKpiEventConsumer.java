@@ -0,0 +1,91 @@
+package shopeazy.com.ecommerce_app.events.consumer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.DltHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.stereotype.Component;
+import shopeazy.com.ecommerce_app.events.handler.OrderEvent;
+import shopeazy.com.ecommerce_app.events.retry.FailedEventPublisher;
+import shopeazy.com.ecommerce_app.events.retry.FailureHandler;
+import shopeazy.com.ecommerce_app.events.topic.EventTopic;
+import shopeazy.com.ecommerce_app.order.service.OrderKpiService;
+
+/**
+ * Kafka consumer that keeps the materialized order statistics up to date.
+ * Runs in its own consumer group so it sees every order event independently of notifications.
+ * Failed events are retried through the order-events-retry topic, which it shares with the notification group.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderKpiEventConsumer {
+
+    private static final String GROUP_ID = "order-statistics-group";
+
+    private final OrderKpiService orderKpiService;
+    private final FailedEventPublisher failedEventPublisher;
+
+    @KafkaListener(topics = EventTopic.ORDER_EVENTS_NAME, groupId = GROUP_ID,
+            concurrency = "${app.kafka.topics.order-events.concurrency:3}")
+    public void handleOrderEvent(@Payload OrderEvent event) {
+        try {
+            apply(event);
+        } catch (Exception e) {
+            failedEventPublisher.forward(EventTopic.ORDER_EVENTS, event, e, GROUP_ID);
+        }
+    }
+
+    /**
+     * Retries one failed order event with exponential backoff; after the last attempt it goes to the dead-letter topic
+     */
+    @RetryableTopic(
+            attempts = "${app.kafka.retry.attempts:4}",
+            backoff = @Backoff(delayExpression = "${app.kafka.retry.initial-delay-ms:1000}",
+                    multiplierExpression = "${app.kafka.retry.multiplier:2.0}",
+                    maxDelayExpression = "${app.kafka.retry.max-delay-ms:60000}"),
+            numPartitions = "${app.kafka.retry.partitions:3}",
+            retryTopicSuffix = "-backoff",
+            dltTopicSuffix = EventTopic.DLT_SUFFIX,
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE)
+    @KafkaListener(topics = EventTopic.ORDER_EVENTS_RETRY_NAME, groupId = GROUP_ID)
+    public void retryOrderEvent(@Payload OrderEvent event,
+                                @Header(name = FailedEventPublisher.RETRY_CONSUMER_HEADER, required = false) String consumer) {
+        if (consumer != null && !GROUP_ID.equals(consumer)) {
+            return; // failed in another group sharing the retry topic
+        }
+        log.info("Retrying statistics update for event {} of order {}", event.getEventType(), event.getOrderId());
+        try {
+            apply(event);
+        } catch (Exception e) {
+            FailureHandler.<OrderEvent>rethrow().onFailure(event, e);
+        }
+    }
+
+    @DltHandler
+    public void handleDeadLetter(@Payload OrderEvent event,
+                                 @Header(name = KafkaHeaders.EXCEPTION_MESSAGE, required = false) String error,
+                                 @Header(name = FailedEventPublisher.RETRY_CONSUMER_HEADER, required = false) String consumer) {
+        if (consumer != null && !GROUP_ID.equals(consumer)) {
+            return;
+        }
+        log.error("Statistics update for event {} of order {} moved to dead-letter topic after retries: {}",
+                event.getEventType(), event.getOrderId(), error);
+    }
+
+    private void apply(OrderEvent event) {
+        if (event.getOrderId() == null || event.getOrderStatus() == null) {
+            log.warn("Ignoring order event {} without order ID or status", event.getEventType());
+            return;
+        }
+
+        // status changes are applied in event time, so a redelivered older event cannot move the counters back
+        orderKpiService.applyStatus(event.getOrderId(), event.getOrderStatus(), event.getEventTimestamp());
+    }
+}
@@ -0,0 +1,46 @@
+package shopeazy.com.ecommerce_app.events.consumer;
+
+import shopeazy.com.ecommerce_app.events.retry.FailureHandler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Emails a consumer queued while processing a batch, by event.
+ * The consumer waits for all of them before it returns, so offsets and processed-event markers are only
+ * written once the mail server accepted the emails, and an event whose email failed is retried like before.
+ */
+class PendingDeliveries<T> {
+
+    private final Map<T, CompletableFuture<Void>> deliveries = new LinkedHashMap<>();
+
+    void add(T event, CompletableFuture<Void> delivery) {
+        deliveries.merge(event, delivery, CompletableFuture::allOf);
+    }
+
+    /**
+     * Wait up to timeoutMs in total and hand every event whose email was not sent to onFailure
+     */
+    void awaitAll(long timeoutMs, FailureHandler<T> onFailure) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        for (Map.Entry<T, CompletableFuture<Void>> delivery : deliveries.entrySet()) {
+            try {
+                delivery.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                onFailure.onFailure(delivery.getKey(), e);
+            } catch (TimeoutException e) {
+                onFailure.onFailure(delivery.getKey(), new TimeoutException("Email not sent within " + timeoutMs + " ms"));
+            } catch (ExecutionException | CompletionException e) {
+                Exception cause = e.getCause() instanceof Exception exception ? exception : e;
+                onFailure.onFailure(delivery.getKey(), cause);
+            }
+        }
+        deliveries.clear();
+    }
+}
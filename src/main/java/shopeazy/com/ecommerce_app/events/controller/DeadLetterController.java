@@ -0,0 +1,76 @@
+package shopeazy.com.ecommerce_app.events.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import shopeazy.com.ecommerce_app.common.dto.ApiResponse;
+import shopeazy.com.ecommerce_app.events.dto.DeadLetterReplayDto;
+import shopeazy.com.ecommerce_app.events.retry.DeadLetterReplayService;
+import shopeazy.com.ecommerce_app.events.topic.EventTopic;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Admin endpoints for events that exhausted their retries
+ */
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+@Slf4j
+public class DeadLetterController {
+
+    private final DeadLetterReplayService deadLetterReplayService;
+
+    /**
+     * Send up to maxMessages dead-letter messages of an event topic back to its retry topic
+     */
+    @PostMapping("/{topic}/dead-letters/replay")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<DeadLetterReplayDto>> replayDeadLetters(
+            @PathVariable String topic,
+            @RequestParam(defaultValue = "100") int maxMessages) {
+
+        Optional<EventTopic<?>> eventTopic = EventTopic.byName(topic);
+        if (eventTopic.isEmpty()) {
+            ApiResponse<DeadLetterReplayDto> response = new ApiResponse<>(
+                    false,
+                    "Unknown event topic: " + topic,
+                    null,
+                    Instant.now()
+            );
+
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+
+        try {
+            log.info("Replaying up to {} dead-letter messages of {}", maxMessages, topic);
+
+            DeadLetterReplayDto result = deadLetterReplayService.replay(eventTopic.get(), maxMessages);
+
+            ApiResponse<DeadLetterReplayDto> response = new ApiResponse<>(
+                    true,
+                    "Replayed " + result.getReplayed() + " dead-letter messages",
+                    result,
+                    Instant.now()
+            );
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Error replaying dead-letter messages of {}: {}", topic, e.getMessage(), e);
+
+            ApiResponse<DeadLetterReplayDto> response = new ApiResponse<>(
+                    false,
+                    "Failed to replay dead-letter messages: " + e.getMessage(),
+                    null,
+                    Instant.now()
+            );
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+}
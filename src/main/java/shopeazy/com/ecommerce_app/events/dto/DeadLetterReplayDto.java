@@ -0,0 +1,28 @@
+package shopeazy.com.ecommerce_app.events.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one dead-letter replay batch
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterReplayDto {
+
+    private String deadLetterTopic;
+
+    /**
+     * Topic the messages were sent back to
+     */
+    private String targetTopic;
+
+    private int replayed;
+
+    /**
+     * Dead-letter messages still waiting to be replayed after this batch
+     */
+    private long remaining;
+}
@@ -16,6 +16,11 @@ import java.util.Map;
 @AllArgsConstructor
 public class InventoryEvent {
     
+    /**
+     * Unique ID of this event, stays the same across redeliveries
+     */
+    private String eventId;
+    
     /**
      * Type of inventory event
      */
@@ -74,6 +79,7 @@ public class InventoryEvent {
     // Factory methods for common inventory events
     public static InventoryEvent stockReserved(String productId, String userId, Integer quantity, String reason, Map<String, Object> eventData) {
         return new InventoryEvent(
+                generateEventId(),
                 "INVENTORY_RESERVED",
                 productId,
                 userId,
@@ -90,6 +96,7 @@ public class InventoryEvent {
     
     public static InventoryEvent stockReleased(String productId, String userId, Integer quantity, String reason, Map<String, Object> eventData) {
         return new InventoryEvent(
+                generateEventId(),
                 "INVENTORY_RELEASED",
                 productId,
                 userId,
@@ -106,6 +113,7 @@ public class InventoryEvent {
     
     public static InventoryEvent stockUpdated(String productId, Integer previousStock, Integer newStock, String reason, Map<String, Object> eventData) {
         return new InventoryEvent(
+                generateEventId(),
                 "STOCK_UPDATED",
                 productId,
                 null,
@@ -122,6 +130,7 @@ public class InventoryEvent {
     
     public static InventoryEvent lowStockAlert(String productId, Integer currentStock, Map<String, Object> eventData) {
         return new InventoryEvent(
+                generateEventId(),
                 "LOW_STOCK_ALERT",
                 productId,
                 null,
@@ -136,6 +145,10 @@ public class InventoryEvent {
         );
     }
     
+    private static String generateEventId() {
+        return java.util.UUID.randomUUID().toString();
+    }
+    
     private static String generateCorrelationId() {
         return java.util.UUID.randomUUID().toString();
     }
@@ -16,6 +16,11 @@ import java.util.Map;
 @AllArgsConstructor
 public class NotificationEvent {
     
+    /**
+     * Unique ID of this event, stays the same across redeliveries
+     */
+    private String eventId;
+    
     /**
      * Type of notification event
      */
@@ -80,6 +85,7 @@ public class NotificationEvent {
     public static NotificationEvent orderConfirmationEmail(String recipientEmail, String recipientUserId, 
                                                           Map<String, Object> orderData, boolean attachInvoice) {
         return new NotificationEvent(
+                generateEventId(),
                 "ORDER_CONFIRMATION_EMAIL",
                 recipientEmail,
                 recipientUserId,
@@ -98,6 +104,7 @@ public class NotificationEvent {
     public static NotificationEvent orderShippedEmail(String recipientEmail, String recipientUserId, 
                                                      Map<String, Object> shippingData) {
         return new NotificationEvent(
+                generateEventId(),
                 "ORDER_SHIPPED_EMAIL",
                 recipientEmail,
                 recipientUserId,
@@ -116,6 +123,7 @@ public class NotificationEvent {
     public static NotificationEvent orderCancelledEmail(String recipientEmail, String recipientUserId, 
                                                        Map<String, Object> cancellationData) {
         return new NotificationEvent(
+                generateEventId(),
                 "ORDER_CANCELLED_EMAIL",
                 recipientEmail,
                 recipientUserId,
@@ -134,6 +142,7 @@ public class NotificationEvent {
     public static NotificationEvent orderDeliveredEmail(String recipientEmail, String recipientUserId, 
                                                        Map<String, Object> deliveryData) {
         return new NotificationEvent(
+                generateEventId(),
                 "ORDER_DELIVERED_EMAIL",
                 recipientEmail,
                 recipientUserId,
@@ -152,6 +161,7 @@ public class NotificationEvent {
     public static NotificationEvent lowStockAlert(String recipientEmail, String recipientUserId, 
                                                  Map<String, Object> stockData) {
         return new NotificationEvent(
+                generateEventId(),
                 "LOW_STOCK_ALERT",
                 recipientEmail,
                 recipientUserId,
@@ -167,6 +177,10 @@ public class NotificationEvent {
         );
     }
     
+    private static String generateEventId() {
+        return java.util.UUID.randomUUID().toString();
+    }
+    
     private static String generateCorrelationId() {
         return java.util.UUID.randomUUID().toString();
     }
@@ -18,6 +18,11 @@ import java.util.Map;
 @AllArgsConstructor
 public class OrderEvent {
     
+    /**
+     * Unique ID of this event, stays the same across redeliveries
+     */
+    private String eventId;
+    
     /**
      * Type of event (ORDER_CREATED, ORDER_CONFIRMED, etc.)
      */
@@ -77,11 +82,18 @@ public class OrderEvent {
      * Event correlation ID for tracing
      */
     private String correlationId;
+
+    /**
+     * Order state at the time of the event, lets consumers render without reading the order.
+     * Null for events published without snapshots.
+     */
+    private OrderSnapshot snapshot;
     
     // Static factory methods for common events
     public static OrderEvent orderCreated(String orderId, String orderNumber, String userId, String customerEmail, 
                                          BigDecimal totalAmount, String currency, Map<String, Object> eventData) {
         return new OrderEvent(
+                generateEventId(),
                 "ORDER_CREATED",
                 orderId,
                 orderNumber,
@@ -93,13 +105,15 @@ public class OrderEvent {
                 Instant.now(),
                 eventData,
                 "ORDER_SERVICE",
-                generateCorrelationId()
+                generateCorrelationId(),
+                null
         );
     }
     
     public static OrderEvent orderConfirmed(String orderId, String orderNumber, String userId, String customerEmail, 
                                           BigDecimal totalAmount, String currency, Map<String, Object> eventData) {
         return new OrderEvent(
+                generateEventId(),
                 "ORDER_CONFIRMED",
                 orderId,
                 orderNumber,
@@ -111,13 +125,15 @@ public class OrderEvent {
                 Instant.now(),
                 eventData,
                 "ORDER_SERVICE",
-                generateCorrelationId()
+                generateCorrelationId(),
+                null
         );
     }
     
     public static OrderEvent orderProcessing(String orderId, String orderNumber, String userId, String customerEmail, 
                                            BigDecimal totalAmount, String currency, Map<String, Object> eventData) {
         return new OrderEvent(
+                generateEventId(),
                 "ORDER_PROCESSING",
                 orderId,
                 orderNumber,
@@ -129,13 +145,15 @@ public class OrderEvent {
                 Instant.now(),
                 eventData,
                 "ORDER_SERVICE",
-                generateCorrelationId()
+                generateCorrelationId(),
+                null
         );
     }
     
     public static OrderEvent orderCancelled(String orderId, String orderNumber, String userId, String customerEmail,
                                           BigDecimal totalAmount, String currency, Map<String, Object> eventData) {
         return new OrderEvent(
+                generateEventId(),
                 "ORDER_CANCELLED",
                 orderId,
                 orderNumber,
@@ -147,13 +165,15 @@ public class OrderEvent {
                 Instant.now(),
                 eventData,
                 "ORDER_SERVICE",
-                generateCorrelationId()
+                generateCorrelationId(),
+                null
         );
     }
     
     public static OrderEvent orderShipped(String orderId, String orderNumber, String userId, String customerEmail,
                                         BigDecimal totalAmount, String currency, Map<String, Object> eventData) {
         return new OrderEvent(
+                generateEventId(),
                 "ORDER_SHIPPED",
                 orderId,
                 orderNumber,
@@ -165,13 +185,15 @@ public class OrderEvent {
                 Instant.now(),
                 eventData,
                 "ORDER_SERVICE",
-                generateCorrelationId()
+                generateCorrelationId(),
+                null
         );
     }
     
     public static OrderEvent orderDelivered(String orderId, String orderNumber, String userId, String customerEmail,
                                           BigDecimal totalAmount, String currency, Map<String, Object> eventData) {
         return new OrderEvent(
+                generateEventId(),
                 "ORDER_DELIVERED",
                 orderId,
                 orderNumber,
@@ -183,10 +205,36 @@ public class OrderEvent {
                 Instant.now(),
                 eventData,
                 "ORDER_SERVICE",
-                generateCorrelationId()
+                generateCorrelationId(),
+                null
+        );
+    }
+    
+    public static OrderEvent orderStatusChanged(String orderId, String orderNumber, String userId, String customerEmail,
+                                                OrderStatus orderStatus, BigDecimal totalAmount, String currency,
+                                                Map<String, Object> eventData) {
+        return new OrderEvent(
+                generateEventId(),
+                "ORDER_STATUS_CHANGED",
+                orderId,
+                orderNumber,
+                userId,
+                customerEmail,
+                orderStatus,
+                totalAmount,
+                currency,
+                Instant.now(),
+                eventData,
+                "ORDER_SERVICE",
+                generateCorrelationId(),
+                null
         );
     }
     
+    private static String generateEventId() {
+        return java.util.UUID.randomUUID().toString();
+    }
+    
     private static String generateCorrelationId() {
         return java.util.UUID.randomUUID().toString();
     }
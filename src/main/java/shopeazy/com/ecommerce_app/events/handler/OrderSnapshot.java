@@ -0,0 +1,110 @@
+package shopeazy.com.ecommerce_app.events.handler;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import shopeazy.com.ecommerce_app.common.model.Address;
+import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
+import shopeazy.com.ecommerce_app.order.enums.PaymentStatus;
+import shopeazy.com.ecommerce_app.order.model.*;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Copy of the order state carried by an {@link OrderEvent}.
+ * Holds everything the notification emails and PDFs render, so consumers do not have to read
+ * the order back. Product descriptions and internal bookkeeping fields are left out to keep it small.
+ * Bump {@link #CURRENT_VERSION} whenever a field consumers rely on is added; consumers treat
+ * snapshots with an older version as incomplete and load the order instead.
+ */
+@Data
+@NoArgsConstructor
+public class OrderSnapshot {
+
+    public static final int CURRENT_VERSION = 1;
+
+    private int schemaVersion;
+
+    private String id;
+    private String orderNumber;
+    private String userId;
+    private String customerEmail;
+    private String customerName;
+    private OrderStatus status;
+    private PaymentStatus paymentStatus;
+    private String paymentTransactionId;
+    private List<OrderItem> orderItems;
+    private OrderPricing pricing;
+    private Address shippingAddress;
+    private Address billingAddress;
+    private OrderTimestamps timestamps;
+    private TrackingInfo trackingInfo;
+    private CancellationInfo cancellationInfo;
+    private Instant createdAt;
+
+    public static OrderSnapshot of(Order order) {
+        OrderSnapshot snapshot = new OrderSnapshot();
+        snapshot.setSchemaVersion(CURRENT_VERSION);
+        snapshot.setId(order.getId());
+        snapshot.setOrderNumber(order.getOrderNumber());
+        snapshot.setUserId(order.getUserId());
+        snapshot.setCustomerEmail(order.getCustomerEmail());
+        snapshot.setCustomerName(order.getCustomerName());
+        snapshot.setStatus(order.getStatus());
+        snapshot.setPaymentStatus(order.getPaymentStatus());
+        snapshot.setPaymentTransactionId(order.getPaymentTransactionId());
+        snapshot.setOrderItems(order.getOrderItems() == null ? null : order.getOrderItems().stream()
+                .map(OrderSnapshot::compactItem)
+                .toList());
+        snapshot.setPricing(order.getPricing());
+        snapshot.setShippingAddress(order.getShippingAddress());
+        snapshot.setBillingAddress(order.getBillingAddress());
+        snapshot.setTimestamps(order.getTimestamps());
+        snapshot.setTrackingInfo(order.getTrackingInfo());
+        snapshot.setCancellationInfo(order.getCancellationInfo());
+        // new orders are snapshotted before their first save, when createdAt is not set yet
+        snapshot.setCreatedAt(order.getCreatedAt() != null || order.getTimestamps() == null
+                ? order.getCreatedAt() : order.getTimestamps().getCreated());
+        return snapshot;
+    }
+
+    public boolean isCurrent() {
+        return schemaVersion >= CURRENT_VERSION;
+    }
+
+    /**
+     * Order as seen by the renderers; fields that are not part of the snapshot stay null
+     */
+    public Order toOrder() {
+        Order order = new Order();
+        order.setId(id);
+        order.setOrderNumber(orderNumber);
+        order.setUserId(userId);
+        order.setCustomerEmail(customerEmail);
+        order.setCustomerName(customerName);
+        order.setStatus(status);
+        order.setPaymentStatus(paymentStatus);
+        order.setPaymentTransactionId(paymentTransactionId);
+        order.setOrderItems(orderItems);
+        order.setPricing(pricing);
+        order.setShippingAddress(shippingAddress);
+        order.setBillingAddress(billingAddress);
+        order.setTimestamps(timestamps);
+        order.setTrackingInfo(trackingInfo);
+        order.setCancellationInfo(cancellationInfo);
+        order.setCreatedAt(createdAt);
+        return order;
+    }
+
+    private static OrderItem compactItem(OrderItem item) {
+        OrderItem compact = new OrderItem();
+        compact.setProductId(item.getProductId());
+        compact.setProductName(item.getProductName());
+        compact.setQuantity(item.getQuantity());
+        compact.setPriceAtTime(item.getPriceAtTime());
+        compact.setTotalPrice(item.getTotalPrice());
+        compact.setSellerId(item.getSellerId());
+        compact.setSellerName(item.getSellerName());
+        return compact;
+    }
+}
@@ -0,0 +1,150 @@
+package shopeazy.com.ecommerce_app.events.idempotency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+import shopeazy.com.ecommerce_app.events.retry.FailureHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * IDs of events a consumer group has already handled, kept in Redis.
+ * Each processed event is one short key that expires after the TTL, so memory is bounded by
+ * the event rate times the TTL; the TTL only has to outlast the window in which Kafka can redeliver.
+ * Lookups and writes take one round trip per batch. When Redis is unavailable events are processed
+ * anyway, so delivery stays at-least-once.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProcessedEventStore {
+
+    static final String KEY_PREFIX = "processed_event:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.events.processed.ttl-hours:72}")
+    private long ttlHours;
+
+    /**
+     * Run a consumer's processing on the events it has not processed yet, then remember the ones
+     * that did not fail. Failed events are left for their retry, which goes through here again.
+     */
+    public <T> void processOnce(String consumer, List<T> events, Function<T, String> eventId,
+                                FailureHandler<T> onFailure, BiConsumer<List<T>, FailureHandler<T>> process) {
+        processAndMark(consumer, filterUnprocessed(consumer, events, eventId), eventId, onFailure, process);
+    }
+
+    /**
+     * Run a consumer's processing on events already filtered with {@link #filterUnprocessed},
+     * then remember the ones that did not fail
+     */
+    public <T> void processAndMark(String consumer, List<T> events, Function<T, String> eventId,
+                                   FailureHandler<T> onFailure, BiConsumer<List<T>, FailureHandler<T>> process) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        // events have value equality, failures are tracked per instance
+        Set<T> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        process.accept(events, (event, exception) -> {
+            failed.add(event);
+            onFailure.onFailure(event, exception);
+        });
+
+        markProcessed(consumer, events.stream().filter(event -> !failed.contains(event)).toList(), eventId);
+    }
+
+    /**
+     * Drop events the consumer already processed, and repeats of the same event within the list.
+     * Events without an ID are always kept.
+     */
+    public <T> List<T> filterUnprocessed(String consumer, List<T> events, Function<T, String> eventId) {
+        Map<String, T> firstById = new HashMap<>();
+        for (T event : events) {
+            String id = event != null ? eventId.apply(event) : null;
+            if (id != null) {
+                firstById.putIfAbsent(id, event);
+            }
+        }
+        if (firstById.isEmpty()) {
+            return events;
+        }
+
+        Set<String> processed = findProcessed(consumer, firstById.keySet());
+        List<T> kept = new ArrayList<>(events.size());
+        for (T event : events) {
+            String id = event != null ? eventId.apply(event) : null;
+            if (id == null || (firstById.get(id) == event && !processed.contains(id))) {
+                kept.add(event);
+            }
+        }
+
+        int skipped = events.size() - kept.size();
+        if (skipped > 0) {
+            log.info("Skipping {} already processed events for {}", skipped, consumer);
+            Counter.builder("events.duplicates.skipped").tag("consumer", consumer).register(meterRegistry).increment(skipped);
+        }
+        return kept;
+    }
+
+    /**
+     * Remember events as processed; events without an ID are ignored
+     */
+    public <T> void markProcessed(String consumer, Collection<T> events, Function<T, String> eventId) {
+        List<String> keys = events.stream()
+                .filter(Objects::nonNull)
+                .map(eventId)
+                .filter(Objects::nonNull)
+                .map(id -> key(consumer, id))
+                .toList();
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        Expiration ttl = Expiration.from(Duration.ofHours(ttlHours));
+        byte[] marker = "1".getBytes(StandardCharsets.UTF_8);
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                keys.forEach(key -> connection.stringCommands()
+                        .set(key.getBytes(StandardCharsets.UTF_8), marker, ttl, SetOption.upsert()));
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to record {} processed events for {}: {}", keys.size(), consumer, e.getMessage());
+        }
+    }
+
+    private Set<String> findProcessed(String consumer, Collection<String> eventIds) {
+        List<String> ids = new ArrayList<>(eventIds);
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(ids.stream().map(id -> key(consumer, id)).toList());
+            Set<String> processed = new HashSet<>();
+            for (int i = 0; values != null && i < ids.size(); i++) {
+                if (values.get(i) != null) {
+                    processed.add(ids.get(i));
+                }
+            }
+            return processed;
+        } catch (Exception e) {
+            log.warn("Failed to look up processed events for {}, processing all {}: {}", consumer, ids.size(), e.getMessage());
+            return Set.of();
+        }
+    }
+
+    static String key(String consumer, String eventId) {
+        return KEY_PREFIX + consumer + ":" + eventId;
+    }
+}
@@ -0,0 +1,87 @@
+package shopeazy.com.ecommerce_app.events.outbox;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.mapping.Document;
+import shopeazy.com.ecommerce_app.events.codec.BinaryEventDeserializer;
+import shopeazy.com.ecommerce_app.events.codec.BinaryEventSerializer;
+import shopeazy.com.ecommerce_app.events.codec.EventCodec;
+import shopeazy.com.ecommerce_app.events.codec.EventCodecRegistry;
+import shopeazy.com.ecommerce_app.events.topic.EventTopic;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Event waiting to be published to Kafka by the {@link OutboxRelay}.
+ * Order events are embedded in the order document they belong to, so they are
+ * stored with the same single-document write as the order. Events without an owning
+ * document (e.g. inventory events) are stored in the event_outbox collection.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "event_outbox")
+public class OutboxEvent {
+
+    private static final EventCodecRegistry CODECS = EventCodecRegistry.defaultRegistry();
+
+    @Id
+    private String id;
+
+    private String topic;
+
+    /**
+     * Kafka record key, events with the same key are published in order
+     */
+    private String key;
+
+    /**
+     * Payload in the binary event format, so value types such as the instants in event data
+     * survive the round trip through Mongo
+     */
+    private byte[] encodedPayload;
+
+    /**
+     * Payload of events stored before encodedPayload; nested values come back as Mongo read them
+     */
+    private Object payload;
+
+    private Instant createdAt;
+
+    /**
+     * Earliest time the relay may (re)try publishing this event
+     */
+    private Instant nextAttemptAt;
+
+    private int attempts;
+
+    private String lastError;
+
+    /**
+     * Set while the event has been added to an order in memory but not stored yet
+     */
+    @Transient
+    private boolean queued;
+
+    public static <T> OutboxEvent of(EventTopic<T> topic, T payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(UUID.randomUUID().toString());
+        event.setTopic(topic.name());
+        event.setKey(topic.key(payload));
+        EventCodec<T> codec = CODECS.forType(topic.eventType())
+                .orElseThrow(() -> new IllegalArgumentException("No binary codec for " + topic.eventType().getName()));
+        event.setEncodedPayload(BinaryEventSerializer.encode(codec, payload));
+        event.setCreatedAt(Instant.now());
+        event.setNextAttemptAt(event.getCreatedAt());
+        return event;
+    }
+
+    /**
+     * The event to publish, decoded with the type it was enqueued with
+     */
+    public Object readPayload() {
+        return encodedPayload != null ? BinaryEventDeserializer.decode(CODECS, encodedPayload) : payload;
+    }
+}
@@ -0,0 +1,310 @@
+package shopeazy.com.ecommerce_app.events.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import shopeazy.com.ecommerce_app.events.bus.EventBus;
+import shopeazy.com.ecommerce_app.order.model.Order;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes outbox events to Kafka.
+ * Runs on a fixed delay, picks up due events from order documents and from the
+ * event_outbox collection, sends them through the {@link EventBus} and waits for the
+ * acknowledgements; while Kafka is unreachable the bus acknowledges once events are spooled locally.
+ * Events sharing a key are sent in order and only the acknowledged prefix is removed;
+ * the first failed event and everything after it are retried with exponential backoff,
+ * so delivery is at-least-once and per-key ordered.
+ * Only the instance holding the relay lease publishes; the lease is renewed for every batch and
+ * taken over by another instance once it has not been renewed for app.outbox.lease-ms. A batch stops
+ * waiting for acknowledgements after half the lease and leaves the unacknowledged events for the next run.
+ * Every change to an order's outbox increments the order version, so a concurrent save of
+ * a stale order copy fails instead of restoring published events.
+ * Exposes outbox.relay.* metrics for lag, throughput and failures.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private static final String OUTBOX = "outbox";
+    private static final String LEASE_COLLECTION = "outbox_relay_lease";
+    private static final String LEASE_ID = "relay";
+
+    private final MongoTemplate mongoTemplate;
+    private final EventBus eventBus;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${app.outbox.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${app.outbox.max-retry-backoff-ms:300000}")
+    private long maxRetryBackoffMs;
+
+    @Value("${app.outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    /**
+     * Until when the current batch waits for acknowledgements, half the lease after it was taken,
+     * so the batch is recorded before another instance can take the lease over
+     */
+    private volatile Instant acknowledgeDeadline = Instant.EPOCH;
+
+    private Timer batchTimer;
+    private Counter orderEventsPublished;
+    private Counter standaloneEventsPublished;
+    private Counter failures;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("outbox.relay.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Age of the oldest outbox event seen in the last relay run")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("outbox.relay.batch").register(meterRegistry);
+        orderEventsPublished = Counter.builder("outbox.relay.published").tag("source", "order").register(meterRegistry);
+        standaloneEventsPublished = Counter.builder("outbox.relay.published").tag("source", "event_outbox").register(meterRegistry);
+        failures = Counter.builder("outbox.relay.failures").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        try {
+            mongoTemplate.indexOps(Order.class).ensureIndex(new Index()
+                    .on(OUTBOX + ".nextAttemptAt", Sort.Direction.ASC)
+                    .partial(PartialIndexFilter.of(Criteria.where(OUTBOX + ".nextAttemptAt").exists(true)))
+                    .named("outbox_nextAttemptAt"));
+            mongoTemplate.indexOps(OutboxEvent.class).ensureIndex(new Index()
+                    .on("nextAttemptAt", Sort.Direction.ASC)
+                    .named("nextAttemptAt"));
+        } catch (Exception e) {
+            log.error("Failed to ensure outbox indexes: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.relay-interval-ms:500}")
+    public void relay() {
+        if (!acquireLease()) {
+            return;
+        }
+
+        batchTimer.record(() -> {
+            Instant now = Instant.now();
+            List<Instant> oldestEvents = new ArrayList<>();
+
+            try {
+                relayOrderEvents(now).ifPresent(oldestEvents::add);
+            } catch (Exception e) {
+                log.error("Error relaying order outbox events: {}", e.getMessage(), e);
+            }
+            try {
+                // renewed per batch, so a slow order batch can't leave the next one without a lease
+                if (acquireLease()) {
+                    relayStandaloneEvents(now).ifPresent(oldestEvents::add);
+                }
+            } catch (Exception e) {
+                log.error("Error relaying outbox events: {}", e.getMessage(), e);
+            }
+
+            Instant oldest = oldestEvents.stream().min(Comparator.naturalOrder()).orElse(now);
+            lagMillis.set(Duration.between(oldest, now).toMillis());
+        });
+    }
+
+    /**
+     * Claim the relay lease, or renew it if this instance already holds it
+     *
+     * @return false while another instance holds an unexpired lease
+     */
+    boolean acquireLease() {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(LEASE_ID)
+                .orOperator(Criteria.where("owner").is(instanceId), Criteria.where("leaseUntil").lte(now)));
+        Update update = new Update().set("owner", instanceId).set("leaseUntil", now.plusMillis(leaseMs));
+        try {
+            mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    Document.class, LEASE_COLLECTION);
+            acknowledgeDeadline = now.plusMillis(leaseMs / 2);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // the lease document exists and belongs to another instance
+            return false;
+        } catch (Exception e) {
+            log.error("Failed to acquire outbox relay lease: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private Optional<Instant> relayOrderEvents(Instant now) {
+        Query query = Query.query(Criteria.where(OUTBOX + ".nextAttemptAt").lte(now)).limit(batchSize);
+        query.fields().include(OUTBOX);
+
+        List<Order> orders = mongoTemplate.find(query, Order.class);
+        if (orders.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Map<String, List<OutboxEvent>> eventsByOrder = new LinkedHashMap<>();
+        orders.forEach(order -> eventsByOrder.put(order.getId(), order.getOutbox()));
+
+        Map<String, Delivery> deliveries = publish(eventsByOrder);
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Order.class);
+        deliveries.forEach((orderId, delivery) -> {
+            Query orderQuery = Query.query(Criteria.where("_id").is(orderId));
+            if (!delivery.deliveredIds().isEmpty()) {
+                bulkOps.updateOne(orderQuery, new Update().pull(OUTBOX,
+                        new Document("_id", new Document("$in", delivery.deliveredIds()))).inc("version", 1));
+            }
+            if (delivery.failed() != null) {
+                bulkOps.updateOne(Query.query(Criteria.where("_id").is(orderId).and(OUTBOX + "._id").is(delivery.failed().getId())),
+                        new Update().inc(OUTBOX + ".$.attempts", 1).set(OUTBOX + ".$.lastError", delivery.error()).inc("version", 1));
+                bulkOps.updateOne(orderQuery,
+                        new Update().set(OUTBOX + ".$[].nextAttemptAt", nextAttempt(delivery.failed(), now)).inc("version", 1));
+            }
+        });
+        bulkOps.execute();
+
+        orderEventsPublished.increment(deliveries.values().stream().mapToInt(d -> d.deliveredIds().size()).sum());
+        return oldestEvent(eventsByOrder);
+    }
+
+    private Optional<Instant> relayStandaloneEvents(Instant now) {
+        Query query = Query.query(Criteria.where("nextAttemptAt").lte(now))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"))
+                .limit(batchSize);
+
+        List<OutboxEvent> events = mongoTemplate.find(query, OutboxEvent.class);
+        if (events.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Map<String, List<OutboxEvent>> eventsByKey = new LinkedHashMap<>();
+        events.forEach(event -> eventsByKey.computeIfAbsent(event.getKey(), key -> new ArrayList<>()).add(event));
+
+        Map<String, Delivery> deliveries = publish(eventsByKey);
+
+        List<String> deliveredIds = new ArrayList<>();
+        deliveries.forEach((key, delivery) -> {
+            deliveredIds.addAll(delivery.deliveredIds());
+            if (delivery.failed() != null) {
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(delivery.failed().getId())),
+                        new Update().inc("attempts", 1).set("lastError", delivery.error()), OutboxEvent.class);
+                // hold back later events of the same key so they cannot overtake the failed one
+                mongoTemplate.updateMulti(Query.query(Criteria.where("key").is(key).and("_id").nin(deliveredIds)),
+                        new Update().set("nextAttemptAt", nextAttempt(delivery.failed(), now)), OutboxEvent.class);
+            }
+        });
+        if (!deliveredIds.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(deliveredIds)), OutboxEvent.class);
+        }
+
+        standaloneEventsPublished.increment(deliveredIds.size());
+        return oldestEvent(eventsByKey);
+    }
+
+    /**
+     * Send all events, then wait for the acknowledgements of each key's events in order
+     */
+    private Map<String, Delivery> publish(Map<String, List<OutboxEvent>> eventsByKey) {
+        Map<String, List<CompletableFuture<?>>> sends = new LinkedHashMap<>();
+        eventsByKey.forEach((key, events) -> {
+            List<CompletableFuture<?>> futures = new ArrayList<>();
+            for (OutboxEvent event : events) {
+                try {
+                    futures.add(eventBus.publish(event.getTopic(), event.getKey(), event.readPayload()));
+                } catch (Exception e) {
+                    futures.add(CompletableFuture.failedFuture(e));
+                    break;
+                }
+            }
+            sends.put(key, futures);
+        });
+
+        Map<String, Delivery> deliveries = new LinkedHashMap<>();
+        sends.forEach((key, futures) -> {
+            List<OutboxEvent> events = eventsByKey.get(key);
+            List<String> deliveredIds = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                long leaseLeftMs = Duration.between(Instant.now(), acknowledgeDeadline).toMillis();
+                try {
+                    futures.get(i).get(Math.max(0, Math.min(sendTimeoutMs, leaseLeftMs)), TimeUnit.MILLISECONDS);
+                    deliveredIds.add(events.get(i).getId());
+                } catch (Exception e) {
+                    if (e instanceof TimeoutException && leaseLeftMs < sendTimeoutMs) {
+                        // out of lease time, not a failure; the next run publishes the rest again
+                        log.warn("Outbox relay lease running out, leaving {} events of {} for the next run",
+                                events.size() - i, key);
+                        deliveries.put(key, new Delivery(deliveredIds, null, null));
+                        return;
+                    }
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    failures.increment();
+                    String error = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                    log.warn("Failed to publish outbox event {} to {}: {}", events.get(i).getId(), events.get(i).getTopic(), error);
+                    deliveries.put(key, new Delivery(deliveredIds, events.get(i), error));
+                    return;
+                }
+            }
+            deliveries.put(key, new Delivery(deliveredIds, null, null));
+        });
+        return deliveries;
+    }
+
+    private Instant nextAttempt(OutboxEvent failed, Instant now) {
+        long backoff = retryBackoffMs << Math.min(failed.getAttempts(), 20);
+        return now.plusMillis(Math.min(backoff, maxRetryBackoffMs));
+    }
+
+    private static Optional<Instant> oldestEvent(Map<String, List<OutboxEvent>> events) {
+        return events.values().stream()
+                .flatMap(List::stream)
+                .map(OutboxEvent::getCreatedAt)
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder());
+    }
+
+    /**
+     * Outcome for one key: the acknowledged prefix and the first event that failed, if any
+     */
+    private record Delivery(List<String> deliveredIds, OutboxEvent failed, String error) {
+    }
+}
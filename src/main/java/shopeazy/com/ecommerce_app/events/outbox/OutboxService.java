@@ -0,0 +1,43 @@
+package shopeazy.com.ecommerce_app.events.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import shopeazy.com.ecommerce_app.events.topic.EventTopic;
+import shopeazy.com.ecommerce_app.order.model.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records events for asynchronous publishing by the {@link OutboxRelay}.
+ * Callers never talk to Kafka, so request latency does not depend on the broker.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Add an event to the order's outbox. It is persisted by the next save of the order,
+     * atomically with the order change it describes.
+     */
+    public <T> void enqueue(Order order, EventTopic<T> topic, T payload) {
+        if (order.getOutbox() == null) {
+            order.setOutbox(new ArrayList<>());
+        }
+        OutboxEvent event = OutboxEvent.of(topic, payload);
+        event.setQueued(true);
+        order.getOutbox().add(event);
+    }
+
+    /**
+     * Store events that do not belong to an order document in the event_outbox collection
+     */
+    public void enqueueAll(List<OutboxEvent> events) {
+        if (!events.isEmpty()) {
+            mongoTemplate.insert(events, OutboxEvent.class);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package shopeazy.com.ecommerce_app.events.retry;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import shopeazy.com.ecommerce_app.events.dto.DeadLetterReplayDto;
+import shopeazy.com.ecommerce_app.events.topic.EventTopic;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-drives dead-letter messages back into the retry topic of their event topic.
+ * Each call handles at most one bounded batch. Progress is tracked with the committed offsets of a
+ * dedicated consumer group, which are only advanced after the republished messages are acknowledged.
+ * Without Kafka, the dead letters the local event dispatcher stored in MongoDB are replayed instead.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeadLetterReplayService {
+
+    private static final String REPLAY_GROUP_ID = "dead-letter-replay";
+
+    private final ObjectProvider<ConsumerFactory<String, Object>> consumerFactoryProvider;
+    private final ObjectProvider<KafkaTemplate<String, Object>> kafkaTemplateProvider;
+    private final LocalDeadLetterStore localDeadLetters;
+
+    @Value("${app.kafka.dlt-replay.max-batch-size:500}")
+    private int maxBatchSize;
+
+    @Value("${app.kafka.dlt-replay.poll-timeout-ms:2000}")
+    private long pollTimeoutMs;
+
+    @Value("${app.kafka.dlt-replay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    public DeadLetterReplayDto replay(EventTopic<?> topic, int requested) throws Exception {
+        int limit = Math.max(1, Math.min(requested, maxBatchSize));
+        String deadLetterTopic = topic.deadLetterTopic();
+
+        ConsumerFactory<String, Object> consumerFactory = consumerFactoryProvider.getIfAvailable();
+        KafkaTemplate<String, Object> kafkaTemplate = kafkaTemplateProvider.getIfAvailable();
+        if (consumerFactory == null || kafkaTemplate == null) {
+            return localDeadLetters.replay(deadLetterTopic, topic.retryTopic(), limit);
+        }
+
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, limit);
+
+        try (Consumer<String, Object> consumer = consumerFactory.createConsumer(REPLAY_GROUP_ID, null, null, overrides)) {
+            List<PartitionInfo> partitionInfos = consumer.partitionsFor(deadLetterTopic);
+            if (partitionInfos == null || partitionInfos.isEmpty()) {
+                return new DeadLetterReplayDto(deadLetterTopic, topic.retryTopic(), 0, 0);
+            }
+            List<TopicPartition> partitions = partitionInfos.stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+
+            List<ConsumerRecord<String, Object>> records = poll(consumer, limit);
+
+            List<CompletableFuture<?>> sends = new ArrayList<>();
+            Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+            for (ConsumerRecord<String, Object> record : records) {
+                sends.add(kafkaTemplate.send(new ProducerRecord<>(topic.retryTopic(), record.key(), record.value())));
+                offsets.put(new TopicPartition(record.topic(), record.partition()), new OffsetAndMetadata(record.offset() + 1));
+            }
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+
+            if (!offsets.isEmpty()) {
+                consumer.commitSync(offsets);
+            }
+
+            long remaining = remaining(consumer, partitions);
+            log.info("Replayed {} messages from {} to {}, {} remaining", records.size(), deadLetterTopic, topic.retryTopic(), remaining);
+            return new DeadLetterReplayDto(deadLetterTopic, topic.retryTopic(), records.size(), remaining);
+        }
+    }
+
+    private List<ConsumerRecord<String, Object>> poll(Consumer<String, Object> consumer, int limit) {
+        List<ConsumerRecord<String, Object>> records = new ArrayList<>();
+        while (records.size() < limit) {
+            var polled = consumer.poll(Duration.ofMillis(pollTimeoutMs));
+            if (polled.isEmpty()) {
+                break;
+            }
+            for (ConsumerRecord<String, Object> record : polled) {
+                if (records.size() == limit) {
+                    break; // not committed, picked up by the next replay
+                }
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    private long remaining(Consumer<String, Object> consumer, List<TopicPartition> partitions) {
+        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions));
+        Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
+
+        long remaining = 0;
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata position = committed.get(partition);
+            long from = position != null ? position.offset() : beginningOffsets.getOrDefault(partition, 0L);
+            remaining += Math.max(0, endOffsets.getOrDefault(partition, 0L) - from);
+        }
+        return remaining;
+    }
+}
@@ -0,0 +1,68 @@
+package shopeazy.com.ecommerce_app.events.retry;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Component;
+import shopeazy.com.ecommerce_app.events.bus.EventBus;
+import shopeazy.com.ecommerce_app.events.topic.EventTopic;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forwards events a batch listener failed to process to the topic's retry topic.
+ * The send is acknowledged before the batch offsets are committed; if it fails the exception
+ * propagates and the whole batch is redelivered, so no event is dropped.
+ * When several consumer groups share a retry topic, the event names the group it is retried for.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FailedEventPublisher {
+
+    /**
+     * Consumer group a retried event is meant for, retry listeners of other groups skip it
+     */
+    public static final String RETRY_CONSUMER_HEADER = "retry-consumer";
+
+    private final EventBus eventBus;
+
+    @Value("${app.kafka.retry.forward-timeout-ms:10000}")
+    private long forwardTimeoutMs;
+
+    public <T> FailureHandler<T> forwardTo(EventTopic<T> topic) {
+        return (event, exception) -> forward(topic, event, exception);
+    }
+
+    public <T> FailureHandler<T> forwardTo(EventTopic<T> topic, String consumer) {
+        return (event, exception) -> forward(topic, event, exception, consumer);
+    }
+
+    public <T> void forward(EventTopic<T> topic, T event, Exception exception) {
+        forward(topic, event, exception, null);
+    }
+
+    public <T> void forward(EventTopic<T> topic, T event, Exception exception, String consumer) {
+        log.warn("Forwarding failed {} event to {}: {}", topic, topic.retryTopic(), exception.getMessage());
+
+        Map<String, String> headers = new HashMap<>();
+        if (exception.getMessage() != null) {
+            headers.put(KafkaHeaders.EXCEPTION_MESSAGE, exception.getMessage());
+        }
+        if (consumer != null) {
+            headers.put(RETRY_CONSUMER_HEADER, consumer);
+        }
+
+        try {
+            eventBus.publish(topic.retryTopic(), topic.key(event), event, headers).get(forwardTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while forwarding event to " + topic.retryTopic(), e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to forward event to " + topic.retryTopic(), e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package shopeazy.com.ecommerce_app.events.retry;
+
+/**
+ * What a consumer does with an event it failed to process.
+ * Batch listeners forward it to the retry topic so the rest of the batch is not held up;
+ * retry listeners rethrow so the retry topic machinery can back off and eventually dead-letter it.
+ */
+@FunctionalInterface
+public interface FailureHandler<T> {
+
+    void onFailure(T event, Exception exception);
+
+    static <T> FailureHandler<T> rethrow() {
+        return (event, exception) -> {
+            if (exception instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(exception.getMessage(), exception);
+        };
+    }
+}
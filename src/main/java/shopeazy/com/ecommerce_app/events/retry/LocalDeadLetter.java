@@ -0,0 +1,33 @@
+package shopeazy.com.ecommerce_app.events.retry;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Event that exhausted its local retries while Kafka is not configured, kept until it is replayed
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "local_dead_letters")
+public class LocalDeadLetter {
+
+    @Id
+    private String id;
+
+    @Indexed
+    private String deadLetterTopic;
+
+    private String key;
+
+    private Object payload;
+
+    private Map<String, String> headers;
+
+    private Instant deadLetteredAt;
+}
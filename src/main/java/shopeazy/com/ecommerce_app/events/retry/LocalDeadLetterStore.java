@@ -0,0 +1,62 @@
+package shopeazy.com.ecommerce_app.events.retry;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import shopeazy.com.ecommerce_app.events.bus.EventBus;
+import shopeazy.com.ecommerce_app.events.dto.DeadLetterReplayDto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Dead letters of the local event dispatcher, kept in MongoDB because without Kafka there is no
+ * dead-letter topic to hold them. Replays publish them to the retry topic through the {@link EventBus}
+ * and remove each one once the bus accepted it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocalDeadLetterStore {
+
+    private final MongoTemplate mongoTemplate;
+    private final EventBus eventBus;
+
+    public void save(String deadLetterTopic, String key, Object payload, Map<String, String> headers) {
+        LocalDeadLetter deadLetter = new LocalDeadLetter();
+        deadLetter.setId(UUID.randomUUID().toString());
+        deadLetter.setDeadLetterTopic(deadLetterTopic);
+        deadLetter.setKey(key);
+        deadLetter.setPayload(payload);
+        deadLetter.setHeaders(headers);
+        deadLetter.setDeadLetteredAt(Instant.now());
+        mongoTemplate.insert(deadLetter);
+    }
+
+    /**
+     * Send up to limit dead letters, oldest first, back to the retry topic
+     */
+    public DeadLetterReplayDto replay(String deadLetterTopic, String retryTopic, int limit) {
+        Query query = Query.query(Criteria.where("deadLetterTopic").is(deadLetterTopic))
+                .with(Sort.by(Sort.Direction.ASC, "deadLetteredAt"))
+                .limit(limit);
+        List<LocalDeadLetter> deadLetters = mongoTemplate.find(query, LocalDeadLetter.class);
+
+        int replayed = 0;
+        for (LocalDeadLetter deadLetter : deadLetters) {
+            eventBus.publish(retryTopic, deadLetter.getKey(), deadLetter.getPayload()).join();
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(deadLetter.getId())), LocalDeadLetter.class);
+            replayed++;
+        }
+
+        long remaining = mongoTemplate.count(Query.query(Criteria.where("deadLetterTopic").is(deadLetterTopic)), LocalDeadLetter.class);
+        log.info("Replayed {} local dead letters from {} to {}, {} remaining", replayed, deadLetterTopic, retryTopic, remaining);
+        return new DeadLetterReplayDto(deadLetterTopic, retryTopic, replayed, remaining);
+    }
+}
@@ -0,0 +1,104 @@
+package shopeazy.com.ecommerce_app.events.topic;
+
+import shopeazy.com.ecommerce_app.events.handler.InventoryEvent;
+import shopeazy.com.ecommerce_app.events.handler.NotificationEvent;
+import shopeazy.com.ecommerce_app.events.handler.OrderEvent;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Registry of the Kafka topics used by the application.
+ * Producers, listeners and topic declarations all refer to these entries, so a topic name is
+ * defined once. Each topic also fixes its record key: events with the same key land in the same
+ * partition and are consumed in order, while different keys spread over all partitions.
+ * Partition count and listener concurrency are configured per topic under app.kafka.topics.{name}.
+ */
+public final class EventTopic<T> {
+
+    // Plain names for annotation attributes such as @KafkaListener(topics = ...)
+    public static final String ORDER_EVENTS_NAME = "order-events";
+    public static final String INVENTORY_EVENTS_NAME = "inventory-events";
+    public static final String NOTIFICATION_EVENTS_NAME = "notification-events";
+
+    // Failed events are parked on {name}-retry; its backoff topics and {name}-retry-dlt are derived from it
+    public static final String RETRY_SUFFIX = "-retry";
+    public static final String ORDER_EVENTS_RETRY_NAME = ORDER_EVENTS_NAME + RETRY_SUFFIX;
+    public static final String INVENTORY_EVENTS_RETRY_NAME = INVENTORY_EVENTS_NAME + RETRY_SUFFIX;
+    public static final String NOTIFICATION_EVENTS_RETRY_NAME = NOTIFICATION_EVENTS_NAME + RETRY_SUFFIX;
+    public static final String DLT_SUFFIX = "-dlt";
+
+    /**
+     * Order lifecycle events, keyed by order ID
+     */
+    public static final EventTopic<OrderEvent> ORDER_EVENTS =
+            new EventTopic<>(ORDER_EVENTS_NAME, OrderEvent.class, OrderEvent::getOrderId);
+
+    /**
+     * Stock and reservation events, keyed by product ID
+     */
+    public static final EventTopic<InventoryEvent> INVENTORY_EVENTS =
+            new EventTopic<>(INVENTORY_EVENTS_NAME, InventoryEvent.class, InventoryEvent::getProductId);
+
+    /**
+     * Notification requests, keyed by recipient so one user's notifications stay in order
+     */
+    public static final EventTopic<NotificationEvent> NOTIFICATION_EVENTS =
+            new EventTopic<>(NOTIFICATION_EVENTS_NAME, NotificationEvent.class,
+                    event -> event.getRecipientUserId() != null ? event.getRecipientUserId() : event.getRecipientEmail());
+
+    private static final List<EventTopic<?>> ALL = List.of(ORDER_EVENTS, INVENTORY_EVENTS, NOTIFICATION_EVENTS);
+
+    private final String name;
+    private final Class<T> eventType;
+    private final Function<T, String> keyExtractor;
+
+    private EventTopic(String name, Class<T> eventType, Function<T, String> keyExtractor) {
+        this.name = name;
+        this.eventType = eventType;
+        this.keyExtractor = keyExtractor;
+    }
+
+    public static List<EventTopic<?>> all() {
+        return ALL;
+    }
+
+    public static Optional<EventTopic<?>> byName(String name) {
+        return ALL.stream().filter(topic -> topic.name.equals(name)).findFirst();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Class<T> eventType() {
+        return eventType;
+    }
+
+    /**
+     * Topic that failed events of this topic are forwarded to for non-blocking retries
+     */
+    public String retryTopic() {
+        return name + RETRY_SUFFIX;
+    }
+
+    /**
+     * Topic that events end up in once all retries are exhausted
+     */
+    public String deadLetterTopic() {
+        return retryTopic() + DLT_SUFFIX;
+    }
+
+    /**
+     * Record key for an event of this topic
+     */
+    public String key(T event) {
+        return keyExtractor.apply(event);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,65 @@
+package shopeazy.com.ecommerce_app.file.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import shopeazy.com.ecommerce_app.file.service.StoredFileService;
+import shopeazy.com.ecommerce_app.file.service.StoredFileService.StoredFile;
+
+import java.time.Duration;
+
+/**
+ * Serves uploaded files, such as product images, straight from GridFS.
+ * A file never changes under its id, so responses carry a strong ETag from the content hash and may be
+ * cached for a year as immutable. Spring MVC answers a matching If-None-Match with 304 before any chunk
+ * is read, and a Range header with 206 (or 416) by seeking to the requested chunks.
+ */
+@RestController
+@RequestMapping("/api/files")
+@RequiredArgsConstructor
+@Slf4j
+public class FileController {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    private final StoredFileService storedFileService;
+
+    /**
+     * Get a file, or the requested byte ranges of it
+     */
+    @GetMapping("/{fileId}")
+    public ResponseEntity<Resource> getFile(@PathVariable String fileId) {
+        StoredFile file = storedFileService.getPublicFile(fileId);
+        log.debug("Serving file {}", fileId);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(file.contentHash())
+                .cacheControl(IMMUTABLE)
+                .lastModified(file.resource().lastModified())
+                .contentLength(file.resource().contentLength())
+                .contentType(mediaType(file.contentType()))
+                .header("X-Content-Type-Options", "nosniff");
+        if (file.resource().getFilename() != null) {
+            response.header(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.inline().filename(file.resource().getFilename()).build().toString());
+        }
+        return response.body(file.resource());
+    }
+
+    private static MediaType mediaType(String contentType) {
+        try {
+            return contentType != null ? MediaType.parseMediaType(contentType) : MediaType.APPLICATION_OCTET_STREAM;
+        } catch (Exception e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package shopeazy.com.ecommerce_app.file.service;
+
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import org.springframework.core.io.AbstractResource;
+
+import java.io.InputStream;
+
+/**
+ * A GridFS file as a Spring resource that reads the file chunk by chunk.
+ * Every {@link #getInputStream()} opens a new download stream, so the resource can serve several ranges
+ * of one request; skipping to a range start seeks to its chunk instead of reading the chunks before it.
+ */
+public class GridFsFileResource extends AbstractResource {
+
+    private final GridFSBucket gridFSBucket;
+    private final GridFSFile file;
+
+    public GridFsFileResource(GridFSBucket gridFSBucket, GridFSFile file) {
+        this.gridFSBucket = gridFSBucket;
+        this.file = file;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return gridFSBucket.openDownloadStream(file.getObjectId());
+    }
+
+    @Override
+    public long contentLength() {
+        return file.getLength();
+    }
+
+    @Override
+    public long lastModified() {
+        return file.getUploadDate().getTime();
+    }
+
+    @Override
+    public String getFilename() {
+        return file.getFilename();
+    }
+
+    @Override
+    public String getDescription() {
+        return "GridFS file [" + file.getObjectId().toHexString() + "]";
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || (other instanceof GridFsFileResource resource
+                && file.getObjectId().equals(resource.file.getObjectId()));
+    }
+
+    @Override
+    public int hashCode() {
+        return file.getObjectId().hashCode();
+    }
+}
@@ -0,0 +1,50 @@
+package shopeazy.com.ecommerce_app.file.service;
+
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.mongodb.client.model.Filters;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Service;
+import shopeazy.com.ecommerce_app.common.exception.ResourceNotFoundException;
+
+/**
+ * Looks up the uploaded files that are served publicly under /api/files.
+ * Only uploads that carry a content hash qualify, so order documents stored in the same bucket stay private.
+ */
+@Service
+@RequiredArgsConstructor
+public class StoredFileService {
+
+    static final String FILE_HASH = "fileHash";
+    static final String CONTENT_TYPE = "contentType";
+
+    private final GridFSBucket gridFSBucket;
+
+    /**
+     * @throws ResourceNotFoundException if the id is malformed or names no public file
+     */
+    public StoredFile getPublicFile(String fileId) {
+        if (!ObjectId.isValid(fileId)) {
+            throw new ResourceNotFoundException("File not found");
+        }
+        GridFSFile file = gridFSBucket.find(Filters.and(
+                        Filters.eq("_id", new ObjectId(fileId)),
+                        Filters.exists("metadata." + FILE_HASH)))
+                .first();
+        if (file == null) {
+            throw new ResourceNotFoundException("File not found");
+        }
+
+        Document metadata = file.getMetadata();
+        return new StoredFile(new GridFsFileResource(gridFSBucket, file),
+                metadata.getString(FILE_HASH), metadata.getString(CONTENT_TYPE));
+    }
+
+    /**
+     * A stored file with the SHA-256 of its content and the content type given at upload, which may be null
+     */
+    public record StoredFile(GridFsFileResource resource, String contentHash, String contentType) {
+    }
+}
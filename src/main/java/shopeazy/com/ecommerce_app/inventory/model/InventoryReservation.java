@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.redis.core.RedisHash;
 import org.springframework.data.redis.core.TimeToLive;
+import org.springframework.data.redis.core.index.Indexed;
 
 import java.time.Instant;
 
@@ -21,16 +22,18 @@ import java.time.Instant;
 public class InventoryReservation {
 
     @Id
-    private String id; // Format: userId:productId
+    private String id; // Format: userId:productId (cart) or orderId:productId (order)
 
     /**
      * User who made the reservation
      */
+    @Indexed
     private String userId;
 
     /**
      * Product being reserved
      */
+    @Indexed
     private String productId;
 
 
@@ -58,8 +61,23 @@ public class InventoryReservation {
     /**
      * Additional context (cart ID, order ID, etc.)
      */
+    @Indexed
     private String context;
 
+    /**
+     * Whether the product stock was already decremented in MongoDB for this reservation
+     * (cart path). Such reservations are not counted as reserved and give the stock back on expiry.
+     */
+    private Boolean stockDecremented;
+
+    public boolean isHoldingStock() {
+        return Boolean.TRUE.equals(stockDecremented);
+    }
+
+    public boolean isOrderReservation() {
+        return "ORDER".equals(reservationType);
+    }
+
     /**
      * Create a cart Reservation with default TTL
      */
@@ -75,4 +93,21 @@ public class InventoryReservation {
         return inventoryReservation;
 
     }
+
+    /**
+     * Create the order reservation that takes over a cart reservation when the order is placed
+     */
+    public static InventoryReservation createOrderReservation(InventoryReservation cartReservation, String orderId, Long ttlSeconds) {
+        InventoryReservation inventoryReservation = new InventoryReservation();
+        inventoryReservation.setId(orderId + ":" + cartReservation.getProductId());
+        inventoryReservation.setUserId(cartReservation.getUserId());
+        inventoryReservation.setProductId(cartReservation.getProductId());
+        inventoryReservation.setQuantity(cartReservation.getQuantity());
+        inventoryReservation.setCreatedAt(Instant.now());
+        inventoryReservation.setTtlSeconds(ttlSeconds);
+        inventoryReservation.setReservationType("ORDER");
+        inventoryReservation.setContext(orderId);
+        inventoryReservation.setStockDecremented(cartReservation.getStockDecremented());
+        return inventoryReservation;
+    }
 }
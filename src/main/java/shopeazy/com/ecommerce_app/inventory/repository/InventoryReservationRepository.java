@@ -25,6 +25,11 @@ public interface InventoryReservationRepository extends CrudRepository<Inventory
      */
     List<InventoryReservation> findByProductId(String productId);
 
+    /**
+     * Find all reservations with the given context, e.g. the reservations of an order
+     */
+    List<InventoryReservation> findByContext(String context);
+
     /**
      * Find reservation for specific user and product
      */
@@ -0,0 +1,88 @@
+package shopeazy.com.ecommerce_app.inventory.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import shopeazy.com.ecommerce_app.inventory.model.InventoryReservation;
+import shopeazy.com.ecommerce_app.product.repository.ProductStockMirror;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Runs the reservation Lua script for cart reservations.
+ * Availability check, reservation write and reserved counter update happen in
+ * one atomic Redis call against the {@link ProductStockMirror}, which follows every
+ * stock write. Stock the cart already took out of MongoDB is recorded as a hold
+ * by the same script.
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryReservationScript {
+
+    static final String RESERVATION_KEYSPACE = "inventory_reservation";
+
+    /**
+     * Extra lifetime of the phantom copy, matching Spring Data Redis
+     */
+    private static final long PHANTOM_KEY_TTL_SECONDS = 300;
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RESERVE_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/reserve_inventory.lua"), List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public enum Status { RESERVED, INSUFFICIENT_STOCK, NO_STOCK_MIRROR }
+
+    /**
+     * @param createdAt creation time of the written reservation, null when nothing was written
+     */
+    public record Result(Status status, long additionalReserved, Instant createdAt) {
+    }
+
+    /**
+     * Reserve the given quantity for a user if the product has enough unreserved stock
+     */
+    public Result reserve(String userId, String productId, int quantity, long ttlSeconds) {
+        return execute("reserve", userId, productId, quantity, ttlSeconds);
+    }
+
+    /**
+     * Record that the user's cart holds the given quantity already taken out of stock.
+     * Units an earlier reservation of the same product counted as reserved are released.
+     */
+    public Result hold(String userId, String productId, int quantity, long ttlSeconds) {
+        return execute("hold", userId, productId, quantity, ttlSeconds);
+    }
+
+    private Result execute(String mode, String userId, String productId, int quantity, long ttlSeconds) {
+        String reservationId = userId + ":" + productId;
+        String reservationKey = RESERVATION_KEYSPACE + ":" + reservationId;
+
+        List<String> keys = List.of(
+                ProductStockMirror.key(productId),
+                ReservedStockCounter.key(productId),
+                reservationKey,
+                reservationKey + ":phantom",
+                RESERVATION_KEYSPACE,
+                RESERVATION_KEYSPACE + ":userId:" + userId,
+                RESERVATION_KEYSPACE + ":productId:" + productId,
+                reservationKey + ":idx");
+
+        List<?> reply = redisTemplate.execute(RESERVE_SCRIPT, keys,
+                reservationId, userId, productId, String.valueOf(quantity), String.valueOf(ttlSeconds),
+                Instant.now().toString(), InventoryReservation.class.getName(), String.valueOf(PHANTOM_KEY_TTL_SECONDS), mode);
+
+        long status = ((Number) reply.get(0)).longValue();
+        long additional = ((Number) reply.get(1)).longValue();
+
+        if (status < 0) {
+            return new Result(Status.NO_STOCK_MIRROR, 0, null);
+        }
+        Instant createdAt = reply.size() > 2 && reply.get(2) != null ? Instant.parse(reply.get(2).toString()) : null;
+        return new Result(status == 0 ? Status.INSUFFICIENT_STOCK : Status.RESERVED, additional, createdAt);
+    }
+}
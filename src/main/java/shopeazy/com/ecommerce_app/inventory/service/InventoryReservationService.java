@@ -3,15 +3,22 @@ package shopeazy.com.ecommerce_app.inventory.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import shopeazy.com.ecommerce_app.inventory.model.InventoryReservation;
 import shopeazy.com.ecommerce_app.inventory.repository.InventoryReservationRepository;
 import shopeazy.com.ecommerce_app.product.model.Product;
 import shopeazy.com.ecommerce_app.product.repository.ProductRepository;
+import shopeazy.com.ecommerce_app.product.repository.ProductStockMirror;
 import shopeazy.com.ecommerce_app.common.exception.ResourceNotFoundException;
 
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service for managing inventory reservations.
@@ -24,14 +31,65 @@ public class InventoryReservationService {
 
     private final InventoryReservationRepository reservationRepository;
     private final ProductRepository productRepository;
+    private final ReservedStockCounter reservedStockCounter;
+    private final InventoryReservationScript reservationScript;
+    private final ProductStockMirror stockMirror;
 
     @Value("${app.order.reservation-timeout-minutes:30}")
     private Integer reservationTimeoutMinutes;
 
+    @Value("${app.order.pending-reservation-timeout-minutes:1440}")
+    private Integer pendingOrderReservationTimeoutMinutes;
+
+    @Value("${app.inventory.atomic-reservation.enabled:true}")
+    private boolean atomicReservationEnabled;
+
     /**
      * Reserve inventory for cart items
      */
     public boolean reserveInventory(String userId, String productId, Integer quantity) {
+        return atomicReservationEnabled
+                ? reserveInventoryAtomically(userId, productId, quantity)
+                : reserveInventoryWithRepository(userId, productId, quantity);
+    }
+
+    /**
+     * Check availability and write the reservation in one Redis script call.
+     * The product is only read from MongoDB when its stock mirror is missing.
+     */
+    private boolean reserveInventoryAtomically(String userId, String productId, Integer quantity) {
+        try {
+            long ttlSeconds = (long) reservationTimeoutMinutes * 60;
+            InventoryReservationScript.Result result = reservationScript.reserve(userId, productId, quantity, ttlSeconds);
+
+            if (result.status() == InventoryReservationScript.Status.NO_STOCK_MIRROR) {
+                Product product = productRepository.findById(productId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+                stockMirror.update(product);
+                result = reservationScript.reserve(userId, productId, quantity, ttlSeconds);
+            }
+
+            if (result.status() != InventoryReservationScript.Status.RESERVED) {
+                log.warn("Insufficient stock for product {}. Requested additional: {}",
+                        productId, result.additionalReserved());
+                return false;
+            }
+
+            log.info("Reserved {} units of product {} for user {} (expires in {} minutes)",
+                    quantity, productId, userId, reservationTimeoutMinutes);
+
+            return true;
+
+        } catch (Exception e) {
+            log.error("Error reserving inventory for user {} and product {}: {}", userId, productId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Read-check-write reservation through the repository. Not atomic; kept for comparison benchmarks.
+     */
+    private boolean reserveInventoryWithRepository(String userId, String productId, Integer quantity) {
         try {
             productRepository.findById(productId)
                     .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
@@ -61,6 +119,7 @@ public class InventoryReservationService {
             reservation.setTtlSeconds((long) (reservationTimeoutMinutes * 60));
 
             reservationRepository.save(reservation);
+            reservedStockCounter.add(productId, additionalNeeded);
 
             log.info("Reserved {} units of product {} for user {} (expires in {} minutes)",
                     quantity, productId, userId, reservationTimeoutMinutes);
@@ -73,13 +132,77 @@ public class InventoryReservationService {
         }
     }
 
+    /**
+     * Track stock the cart already decremented in MongoDB with a cart reservation.
+     * The reservation only carries the TTL: reserved counters are left alone because
+     * the stock is already gone, and expiry gives the stock back to the product.
+     *
+     * @return creation time of the reservation holding the stock, which tells it apart from a later
+     * reservation of the same cart item; null if the hold failed
+     */
+    public Instant holdCartStock(String userId, String productId, Integer quantity) {
+        return atomicReservationEnabled
+                ? holdCartStockAtomically(userId, productId, quantity)
+                : holdCartStockWithRepository(userId, productId, quantity);
+    }
+
+    /**
+     * Write the hold with the reservation script in one Redis call
+     */
+    private Instant holdCartStockAtomically(String userId, String productId, Integer quantity) {
+        try {
+            long ttlSeconds = (long) reservationTimeoutMinutes * 60;
+            InventoryReservationScript.Result result = reservationScript.hold(userId, productId, quantity, ttlSeconds);
+
+            log.info("Holding {} units of product {} in cart of user {} (expires in {} minutes)",
+                    quantity, productId, userId, reservationTimeoutMinutes);
+            return result.createdAt();
+
+        } catch (Exception e) {
+            log.error("Error holding cart stock for user {} and product {}: {}", userId, productId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Read-modify-write hold through the repository. Not atomic; kept for comparison benchmarks.
+     */
+    private Instant holdCartStockWithRepository(String userId, String productId, Integer quantity) {
+        try {
+            long ttlSeconds = (long) reservationTimeoutMinutes * 60;
+            Optional<InventoryReservation> existingReservation = reservationRepository.findById(userId + ":" + productId);
+
+            existingReservation
+                    .filter(reservation -> !reservation.isHoldingStock())
+                    .ifPresent(reservation -> reservedStockCounter.add(productId, -reservation.getQuantity()));
+
+            InventoryReservation reservation = existingReservation.orElse(
+                    InventoryReservation.createCartReservation(userId, productId, 0, ttlSeconds)
+            );
+
+            reservation.setQuantity(quantity);
+            reservation.setTtlSeconds(ttlSeconds);
+            reservation.setStockDecremented(true);
+
+            reservationRepository.save(reservation);
+
+            log.info("Holding {} units of product {} in cart of user {} (expires in {} minutes)",
+                    quantity, productId, userId, reservationTimeoutMinutes);
+            return reservation.getCreatedAt();
+
+        } catch (Exception e) {
+            log.error("Error holding cart stock for user {} and product {}: {}", userId, productId, e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Release reservation for specific user and product
      */
     public void releaseReservation(String userId, String productId) {
         try {
             String reservationId = userId + ":" + productId;
-            reservationRepository.deleteById(reservationId);
+            reservationRepository.findById(reservationId).ifPresent(this::deleteReservation);
             log.info("Released reservation for user {} and product {}", userId, productId);
         } catch (Exception e) {
             log.error("Error releasing reservation for user {} and product {}: {}", userId, productId, e.getMessage());
@@ -87,20 +210,37 @@ public class InventoryReservationService {
     }
 
     /**
-     * Release all reservations for a user (when cart is cleared or order is placed)
+     * Release all cart reservations for a user (when the cart is cleared).
+     * Reservations of the user's placed orders are left alone.
      */
     public void releaseAllUserReservations(String userId) {
         try {
-            List<InventoryReservation> userReservations = reservationRepository.findByUserId(userId);
-            for (InventoryReservation reservation : userReservations) {
-                reservationRepository.delete(reservation);
-            }
-            log.info("Released {} reservations for user {}", userReservations.size(), userId);
+            List<InventoryReservation> cartReservations = reservationRepository.findByUserId(userId).stream()
+                    .filter(reservation -> !reservation.isOrderReservation())
+                    .toList();
+            cartReservations.forEach(this::deleteReservation);
+            log.info("Released {} reservations for user {}", cartReservations.size(), userId);
         } catch (Exception e) {
             log.error("Error releasing all reservations for user {}: {}", userId, e.getMessage());
         }
     }
 
+    /**
+     * Release the reservations of an order once it leaves PENDING (confirmed, cancelled or moved on by an admin).
+     * A confirmed order has taken its stock out of the products, so the units no longer need to be held.
+     */
+    public void releaseOrderReservations(String orderId) {
+        try {
+            List<InventoryReservation> orderReservations = reservationRepository.findByContext(orderId).stream()
+                    .filter(InventoryReservation::isOrderReservation)
+                    .toList();
+            orderReservations.forEach(this::deleteReservation);
+            log.info("Released {} reservations of order {}", orderReservations.size(), orderId);
+        } catch (Exception e) {
+            log.error("Error releasing reservations of order {}: {}", orderId, e.getMessage());
+        }
+    }
+
     /**
      * Get available stock for a product (actual stock minus reserved quantities)
      */
@@ -121,14 +261,11 @@ public class InventoryReservationService {
     }
 
     /**
-     * Get total reserved stock for a product
+     * Get total reserved stock for a product from its reserved counter
      */
     public int getTotalReservedStock(String productId) {
         try {
-            List<InventoryReservation> reservations = reservationRepository.findByProductId(productId);
-            return reservations.stream()
-                    .mapToInt(InventoryReservation::getQuantity)
-                    .sum();
+            return (int) reservedStockCounter.get(productId);
         } catch (Exception e) {
             log.error("Error calculating reserved stock for product {}: {}", productId, e.getMessage());
             return 0;
@@ -150,19 +287,22 @@ public class InventoryReservationService {
     }
 
     /**
-     * Convert cart reservations to order reservations (when order is placed)
+     * Convert cart reservations to order reservations (when order is placed).
+     * Order reservations are keyed by order and product, so the user's next cart cannot
+     * overwrite them, and expire after the pending order timeout unless the order leaves
+     * PENDING first.
      */
     public void convertToOrderReservations(String userId, String orderId) {
         try {
-            List<InventoryReservation> cartReservations = reservationRepository.findByUserId(userId);
+            long ttlSeconds = (long) pendingOrderReservationTimeoutMinutes * 60;
+            List<InventoryReservation> cartReservations = reservationRepository.findByUserId(userId).stream()
+                    .filter(reservation -> "CART".equals(reservation.getReservationType()))
+                    .toList();
 
             for (InventoryReservation reservation : cartReservations) {
-                if ("CART".equals(reservation.getReservationType())) {
-                    reservation.setReservationType("ORDER");
-                    reservation.setContext(orderId);
-                    reservation.setTtlSeconds(null); // Remove TTL for order reservations
-                    reservationRepository.save(reservation);
-                }
+                // Delete first: a leftover cart reservation would expire as a cart timeout and restock held units
+                reservationRepository.delete(reservation);
+                reservationRepository.save(InventoryReservation.createOrderReservation(reservation, orderId, ttlSeconds));
             }
 
             log.info("Converted {} cart reservations to order reservations for user {} and order {}",
@@ -181,31 +321,96 @@ public class InventoryReservationService {
             return false;
         }
 
+        Map<String, Integer> requestedQuantities = new HashMap<>();
         for (int i = 0; i < productIds.size(); i++) {
-            String productId = productIds.get(i);
-            Integer quantity = quantities.get(i);
+            requestedQuantities.merge(productIds.get(i), quantities.get(i), Integer::sum);
+        }
 
-            if (!canReserveQuantity(userId, productId, quantity)) {
-                return false;
+        Map<String, Product> products = productRepository.findAllById(requestedQuantities.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        return validateCartReservations(userId, requestedQuantities, products);
+    }
+
+    /**
+     * Validate that all cart items can be reserved against already loaded products.
+     * The user's own reservations are read once instead of once per product.
+     */
+    public boolean validateCartReservations(String userId, Map<String, Integer> requestedQuantities, Map<String, Product> products) {
+        try {
+            Map<String, Integer> userReserved = reservationRepository.findByUserId(userId).stream()
+                    .filter(reservation -> !reservation.isOrderReservation())
+                    .collect(Collectors.toMap(InventoryReservation::getProductId, InventoryReservation::getQuantity, Integer::sum));
+            Map<String, Long> totalReserved = reservedStockCounter.getAll(requestedQuantities.keySet());
+
+            for (Map.Entry<String, Integer> entry : requestedQuantities.entrySet()) {
+                Product product = products.get(entry.getKey());
+                if (product == null) {
+                    log.warn("Product {} not found while validating reservations for user {}", entry.getKey(), userId);
+                    return false;
+                }
+
+                if (!canReserveQuantity(product, entry.getValue(), userReserved.getOrDefault(product.getId(), 0),
+                        totalReserved.getOrDefault(product.getId(), 0L))) {
+                    return false;
+                }
             }
+
+            return true;
+
+        } catch (Exception e) {
+            log.error("Error validating cart reservations for user {}: {}", userId, e.getMessage());
+            return false;
         }
+    }
 
-        return true;
+    /**
+     * Rebuild the reserved counters from the reservation records, one product at a time.
+     * Corrects drift from missed expiry notifications or failed counter updates.
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.reserved-counter-reconcile-interval-ms:600000}",
+            initialDelayString = "${app.inventory.reserved-counter-reconcile-initial-delay-ms:60000}")
+    public void reconcileReservedCounters() {
+        try {
+            int reconciled = 0;
+            for (String productId : reservedStockCounter.trackedProductIds()) {
+                if (reservedStockCounter.reconcile(productId, () -> sumReservedQuantity(productId))) {
+                    reconciled++;
+                } else {
+                    log.warn("Reserved counter of product {} kept changing, skipped reconciliation", productId);
+                }
+            }
+            log.info("Reconciled reserved stock counters for {} products", reconciled);
+
+        } catch (Exception e) {
+            log.error("Error reconciling reserved stock counters: {}", e.getMessage());
+        }
     }
 
     /**
-     * Check if a specific quantity can be reserved for a product
+     * Sum of the reservations of a product that count as reserved (not yet taken out of stock)
      */
-    private boolean canReserveQuantity(String userId, String productId, Integer quantity) {
-        int availableStock = getAvailableStock(productId);
+    private long sumReservedQuantity(String productId) {
+        return reservationRepository.findByProductId(productId).stream()
+                .filter(reservation -> reservation != null && !reservation.isHoldingStock() && reservation.getQuantity() != null)
+                .mapToLong(InventoryReservation::getQuantity)
+                .sum();
+    }
 
-        // Check current reservation for this user
-        Optional<InventoryReservation> existingReservation =
-                reservationRepository.findByUserIdAndProductId(userId, productId);
+    private void deleteReservation(InventoryReservation reservation) {
+        reservationRepository.delete(reservation);
+        if (!reservation.isHoldingStock()) {
+            reservedStockCounter.add(reservation.getProductId(), -reservation.getQuantity());
+        }
+    }
 
-        int currentReserved = existingReservation.map(InventoryReservation::getQuantity).orElse(0);
+    /**
+     * Check if a specific quantity can be reserved for a product
+     */
+    private boolean canReserveQuantity(Product product, Integer quantity, int currentReserved, long totalReserved) {
+        int availableStock = (int) Math.max(0, product.getStockCount() - totalReserved);
         int additionalNeeded = quantity - currentReserved;
 
         return additionalNeeded <= availableStock;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,352 @@
+package shopeazy.com.ecommerce_app.inventory.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisKeyExpiredEvent;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.convert.RedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import shopeazy.com.ecommerce_app.events.handler.InventoryEvent;
+import shopeazy.com.ecommerce_app.events.outbox.OutboxEvent;
+import shopeazy.com.ecommerce_app.events.outbox.OutboxService;
+import shopeazy.com.ecommerce_app.events.topic.EventTopic;
+import shopeazy.com.ecommerce_app.inventory.model.InventoryReservation;
+import shopeazy.com.ecommerce_app.product.repository.ProductRepository;
+import shopeazy.com.ecommerce_app.shopping_cart.model.Cart;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Handles expired cart reservations in batches.
+ * Expiry notifications from Redis are queued and drained periodically: reserved
+ * counters are released, stock held by the cart path is given back to the products
+ * with one bulk write, the items are removed from the carts and one INVENTORY_RELEASED
+ * event with reason CART_TIMEOUT is published per reservation.
+ * A sweep also picks up reservations that expired while no listener was running and
+ * removes the secondary index entries Spring Data Redis leaves behind for them.
+ * Events go through the outbox so a Kafka outage does not lose them.
+ * A batch that fails part way keeps its claims and is retried from the failed step on the next drain;
+ * a reservation's phantom copy and index entries are only removed once all its steps are done.
+ * <p>
+ * Expired order reservations (orders left PENDING past their timeout) only release their
+ * reserved units: stock held for the order stays with it and no cart or event is touched.
+ * <p>
+ * The queue between notification and drain is in memory. Spring Data Redis removes an
+ * expired reservation from the keyspace set before publishing the event, so expirations
+ * still queued when the instance stops (at most one drain interval's worth) are not picked
+ * up by the sweep: their reserved counters are corrected by the next counter
+ * reconciliation, but stock held by those carts is not given back. Swept batches still waiting
+ * for a retry when the instance stops are swept again once their claims expire.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservationExpiryProcessor {
+
+    private static final String KEYSPACE = InventoryReservationScript.RESERVATION_KEYSPACE;
+    private static final String CLAIM_PREFIX = "inventory_reservation_expired:";
+    private static final Duration CLAIM_TTL = Duration.ofHours(1);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConverter redisConverter;
+    private final ReservedStockCounter reservedStockCounter;
+    private final ProductRepository productRepository;
+    private final MongoTemplate mongoTemplate;
+    private final OutboxService outboxService;
+
+    private final Queue<InventoryReservation> expiredReservations = new ConcurrentLinkedQueue<>();
+    private final Queue<ExpiryBatch> failedBatches = new ConcurrentLinkedQueue<>();
+    private final List<Consumer<ExpiryBatch>> steps = List.of(this::claim, this::releaseReservedUnits,
+            this::restoreHeldStock, this::removeCartItems, this::publishReleasedEvents, this::removeExpiredEntries);
+
+    @Value("${app.inventory.expiry.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Queue a reservation that Redis reported as expired
+     */
+    @EventListener
+    public void onReservationExpired(RedisKeyExpiredEvent<?> event) {
+        if (event.getValue() instanceof InventoryReservation reservation) {
+            expiredReservations.add(reservation);
+        }
+    }
+
+    /**
+     * Retry failed batches, then drain queued expirations in batches
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.expiry.drain-interval-ms:1000}")
+    public void drainExpiredReservations() {
+        for (int retries = failedBatches.size(); retries > 0; retries--) {
+            ExpiryBatch failed = failedBatches.poll();
+            if (failed != null) {
+                run(failed);
+            }
+        }
+
+        List<InventoryReservation> batch = new ArrayList<>();
+        InventoryReservation reservation;
+        while ((reservation = expiredReservations.poll()) != null) {
+            batch.add(reservation);
+            if (batch.size() == batchSize) {
+                processBatch(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            processBatch(batch);
+        }
+    }
+
+    /**
+     * Find reservations whose hash is gone but are still listed in the keyspace,
+     * handle them as expired and remove their stale index entries
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.expiry.sweep-interval-ms:60000}",
+            initialDelayString = "${app.inventory.expiry.sweep-initial-delay-ms:30000}")
+    public void sweepStaleReservations() {
+        try {
+            List<String> ids = new ArrayList<>();
+            try (Cursor<String> cursor = redisTemplate.opsForSet().scan(KEYSPACE, ScanOptions.scanOptions().count(500).build())) {
+                cursor.forEachRemaining(ids::add);
+            }
+
+            int stale = 0;
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                List<String> chunk = ids.subList(from, Math.min(ids.size(), from + batchSize));
+                List<String> missing = findMissingReservations(chunk);
+                if (missing.isEmpty()) {
+                    continue;
+                }
+
+                List<InventoryReservation> expired = readPhantomCopies(missing);
+                Set<String> handled = expired.stream().map(InventoryReservation::getId).collect(Collectors.toSet());
+                removeFromIndexes(missing.stream().filter(id -> !handled.contains(id)).toList());
+                processBatch(expired);
+                stale += missing.size();
+            }
+
+            if (stale > 0) {
+                log.info("Swept {} stale reservation entries", stale);
+            }
+
+        } catch (Exception e) {
+            log.error("Error sweeping stale reservations: {}", e.getMessage());
+        }
+    }
+
+    private void processBatch(List<InventoryReservation> reservations) {
+        run(new ExpiryBatch(reservations));
+    }
+
+    /**
+     * Run the remaining steps of a batch. A failed step keeps the batch and its claims for a retry
+     * from that step on the next drain, so completed steps are not applied twice.
+     */
+    private void run(ExpiryBatch batch) {
+        try {
+            while (batch.completedSteps < steps.size()) {
+                steps.get(batch.completedSteps).accept(batch);
+                batch.completedSteps++;
+                if (batch.reservations.isEmpty()) {
+                    return;
+                }
+            }
+            log.info("Processed {} expired reservations", batch.reservations.size());
+
+        } catch (Exception e) {
+            log.error("Error processing {} expired reservations, retrying from step {}: {}",
+                    batch.reservations.size(), batch.completedSteps + 1, e.getMessage());
+            failedBatches.add(batch);
+        }
+    }
+
+    /**
+     * Keep only reservations no other listener or sweep has handled yet.
+     * Claims already taken by this batch count as its own, so a retried claim step keeps them.
+     */
+    private void claim(ExpiryBatch batch) {
+        List<InventoryReservation> claimed = new ArrayList<>();
+        for (InventoryReservation reservation : batch.reservations) {
+            if (reservation.getProductId() == null || reservation.getQuantity() == null) {
+                continue;
+            }
+            String claimKey = CLAIM_PREFIX + reservation.getId() + ":" + reservation.getCreatedAt();
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(claimKey, batch.token, CLAIM_TTL))
+                    || batch.token.equals(redisTemplate.opsForValue().get(claimKey))) {
+                claimed.add(reservation);
+            }
+        }
+        batch.reservations = claimed;
+    }
+
+    /**
+     * Release the reserved counters of reservations that did not take stock out of MongoDB
+     */
+    private void releaseReservedUnits(ExpiryBatch batch) {
+        Map<String, Long> released = new HashMap<>();
+        batch.reservations.stream()
+                .filter(reservation -> !reservation.isHoldingStock())
+                .forEach(reservation -> released.merge(reservation.getProductId(), reservation.getQuantity().longValue(), Long::sum));
+        released.forEach((productId, quantity) -> reservedStockCounter.add(productId, -quantity));
+    }
+
+    /**
+     * Give stock held by carts back to the products with one bulk write
+     */
+    private void restoreHeldStock(ExpiryBatch batch) {
+        Map<String, Integer> heldStock = new HashMap<>();
+        cartReservations(batch)
+                .filter(InventoryReservation::isHoldingStock)
+                .forEach(reservation -> heldStock.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum));
+        if (!heldStock.isEmpty()) {
+            productRepository.incrementStock(heldStock);
+        }
+    }
+
+    /**
+     * Remove the items whose stock was given back. Items without reservedAt were added before it was recorded.
+     */
+    private void removeCartItems(ExpiryBatch batch) {
+        List<InventoryReservation> holding = cartReservations(batch).filter(InventoryReservation::isHoldingStock).toList();
+        if (holding.isEmpty()) {
+            return;
+        }
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Cart.class);
+        holding.forEach(reservation -> bulkOps.updateOne(
+                Query.query(Criteria.where("userId").is(reservation.getUserId())),
+                new Update().pull("items", new Document("productId", reservation.getProductId())
+                        .append("reservedAt", new Document("$in", Arrays.asList(reservedAt(reservation), null))))));
+        bulkOps.execute();
+    }
+
+    private void publishReleasedEvents(ExpiryBatch batch) {
+        List<OutboxEvent> events = new ArrayList<>();
+        cartReservations(batch).forEach(reservation -> {
+            Map<String, Object> eventData = Map.of(
+                    "reservationId", reservation.getId(),
+                    "stockRestored", reservation.isHoldingStock()
+            );
+            InventoryEvent event = InventoryEvent.stockReleased(reservation.getProductId(), reservation.getUserId(),
+                    reservation.getQuantity(), "CART_TIMEOUT", eventData);
+            events.add(OutboxEvent.of(EventTopic.INVENTORY_EVENTS, event));
+        });
+        outboxService.enqueueAll(events);
+    }
+
+    /**
+     * Remove the handled reservations' phantom copies and index entries, last, so a sweep finds them
+     * again if the instance stops before the batch is done
+     */
+    private void removeExpiredEntries(ExpiryBatch batch) {
+        removeFromIndexes(batch.reservations.stream().map(InventoryReservation::getId).toList());
+    }
+
+    private static Stream<InventoryReservation> cartReservations(ExpiryBatch batch) {
+        return batch.reservations.stream().filter(reservation -> !reservation.isOrderReservation());
+    }
+
+    private static Date reservedAt(InventoryReservation reservation) {
+        return reservation.getCreatedAt() != null ? Date.from(reservation.getCreatedAt()) : null;
+    }
+
+    private List<String> findMissingReservations(List<String> ids) {
+        List<Object> exists = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            ids.forEach(id -> connection.keyCommands().exists(bytes(KEYSPACE + ":" + id)));
+            return null;
+        });
+
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (!Boolean.TRUE.equals(exists.get(i))) {
+                missing.add(ids.get(i));
+            }
+        }
+        return missing;
+    }
+
+    private List<InventoryReservation> readPhantomCopies(List<String> ids) {
+        return redisTemplate.execute((RedisCallback<List<InventoryReservation>>) connection -> {
+            List<InventoryReservation> reservations = new ArrayList<>();
+            for (String id : ids) {
+                byte[] phantomKey = bytes(KEYSPACE + ":" + id + ":phantom");
+                Map<byte[], byte[]> hash = connection.hashCommands().hGetAll(phantomKey);
+                if (hash != null && !hash.isEmpty()) {
+                    InventoryReservation reservation = redisConverter.read(InventoryReservation.class, new RedisData(hash));
+                    if (reservation.getProductId() != null && reservation.getQuantity() != null) {
+                        reservations.add(reservation);
+                    }
+                }
+            }
+            return reservations;
+        });
+    }
+
+    /**
+     * Remove reservation ids from the keyspace set and every secondary index they were added to,
+     * and delete their phantom copies
+     */
+    private void removeFromIndexes(List<String> ids) {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            for (String id : ids) {
+                removeFromIndexes(connection, id);
+            }
+            return null;
+        });
+    }
+
+    private void removeFromIndexes(RedisConnection connection, String id) {
+        if (Boolean.TRUE.equals(connection.keyCommands().exists(bytes(KEYSPACE + ":" + id)))) {
+            return; // reservation was created again in the meantime
+        }
+
+        byte[] member = bytes(id);
+        byte[] indexTrackingKey = bytes(KEYSPACE + ":" + id + ":idx");
+
+        Set<byte[]> indexKeys = connection.setCommands().sMembers(indexTrackingKey);
+        if (indexKeys != null) {
+            indexKeys.forEach(indexKey -> connection.setCommands().sRem(indexKey, member));
+        }
+        connection.keyCommands().del(indexTrackingKey);
+        connection.keyCommands().del(bytes(KEYSPACE + ":" + id + ":phantom"));
+        connection.setCommands().sRem(bytes(KEYSPACE), member);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reservations handled together and the number of expiry steps done for them
+     */
+    private static final class ExpiryBatch {
+
+        private final String token = UUID.randomUUID().toString();
+        private List<InventoryReservation> reservations;
+        private int completedSteps;
+
+        private ExpiryBatch(List<InventoryReservation> reservations) {
+            this.reservations = reservations;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package shopeazy.com.ecommerce_app.inventory.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-product counters of reserved quantities kept in Redis.
+ * Replaces summing all reservations of a product on every availability check
+ * with a single O(1) read. Counters are moved by {@link InventoryReservationService}
+ * whenever a reservation is created, updated, released or expires.
+ * Every change is a single atomic Redis call, and reconciliation rewrites a counter
+ * under WATCH so it never overwrites a concurrent change.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservedStockCounter {
+
+    static final String KEY_PREFIX = "inventory_reserved:";
+
+    private static final String PRODUCT_INDEX_PREFIX = InventoryReservationScript.RESERVATION_KEYSPACE + ":productId:";
+    private static final int MAX_RECONCILE_ATTEMPTS = 5;
+
+    private static final RedisScript<Long> ADJUST_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/adjust_reserved_counter.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Add (or with a negative delta, remove) reserved units for a product
+     *
+     * @return reserved quantity after the change
+     */
+    public long add(String productId, long delta) {
+        if (delta == 0) {
+            return get(productId);
+        }
+
+        Long reserved = redisTemplate.execute(ADJUST_SCRIPT, List.of(key(productId)), String.valueOf(delta));
+        if (reserved != null && reserved < 0) {
+            // Releases raced with a reconciliation; the script already reset the counter to zero
+            log.warn("Reserved counter for product {} dropped below zero ({}), reset", productId, reserved);
+            return 0;
+        }
+        return reserved != null ? reserved : 0;
+    }
+
+    /**
+     * Get the reserved quantity for a product
+     */
+    public long get(String productId) {
+        return parse(redisTemplate.opsForValue().get(key(productId)));
+    }
+
+    /**
+     * Get reserved quantities for several products with one round trip
+     */
+    public Map<String, Long> getAll(Collection<String> productIds) {
+        List<String> ids = new ArrayList<>(productIds);
+        List<String> values = redisTemplate.opsForValue().multiGet(ids.stream().map(ReservedStockCounter::key).toList());
+
+        Map<String, Long> reserved = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            reserved.put(ids.get(i), values != null ? parse(values.get(i)) : 0L);
+        }
+        return reserved;
+    }
+
+    /**
+     * Products that have a reserved counter or at least one reservation index entry
+     */
+    public Set<String> trackedProductIds() {
+        Set<String> productIds = new HashSet<>();
+        scan(KEY_PREFIX, productIds);
+        scan(PRODUCT_INDEX_PREFIX, productIds);
+        return productIds;
+    }
+
+    /**
+     * Rewrite the counter of a product with the given total. The counter is watched while
+     * the total is computed, so the write is dropped and retried if any reservation change
+     * moved the counter in the meantime.
+     *
+     * @return true if the counter was written
+     */
+    public boolean reconcile(String productId, LongSupplier reservedTotal) {
+        byte[] key = bytes(key(productId));
+
+        for (int attempt = 0; attempt < MAX_RECONCILE_ATTEMPTS; attempt++) {
+            Boolean written = redisTemplate.execute((RedisCallback<Boolean>) connection -> {
+                connection.watch(key);
+                long total;
+                try {
+                    total = reservedTotal.getAsLong();
+                } catch (RuntimeException e) {
+                    connection.unwatch();
+                    throw e;
+                }
+
+                connection.multi();
+                if (total > 0) {
+                    connection.stringCommands().set(key, bytes(String.valueOf(total)));
+                } else {
+                    connection.keyCommands().del(key);
+                }
+                // exec returns null when the watched counter changed
+                return connection.exec() != null;
+            });
+
+            if (Boolean.TRUE.equals(written)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void scan(String prefix, Set<String> productIds) {
+        try (Cursor<String> cursor = redisTemplate.scan(ScanOptions.scanOptions().match(prefix + "*").count(500).build())) {
+            cursor.forEachRemaining(key -> productIds.add(key.substring(prefix.length())));
+        }
+    }
+
+    static String key(String productId) {
+        return KEY_PREFIX + productId;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long parse(String value) {
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+}
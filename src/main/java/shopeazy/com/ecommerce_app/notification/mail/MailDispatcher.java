@@ -0,0 +1,187 @@
+package shopeazy.com.ecommerce_app.notification.mail;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbound mail queue in front of the SMTP server.
+ * Callers get a future instead of waiting for SMTP. A fixed pool of workers takes the queued mails
+ * in priority order and sends up to max-messages-per-connection of them with one
+ * {@link JavaMailSender#send(MimeMessage...)} call, which delivers them over a single SMTP connection.
+ * The queue is bounded: when it is full, submitting blocks for up to offer-timeout-ms and then fails,
+ * which slows the event consumers down instead of letting the backlog grow without limit.
+ * Exposes mail.queue.depth, mail.send.latency, mail.delivery.latency and mail.sent/mail.failures/mail.rejected.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MailDispatcher {
+
+    private final JavaMailSender mailSender;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.mail.dispatch.workers:4}")
+    private int workers;
+
+    @Value("${app.mail.dispatch.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.mail.dispatch.max-messages-per-connection:50}")
+    private int maxMessagesPerConnection;
+
+    @Value("${app.mail.dispatch.offer-timeout-ms:5000}")
+    private long offerTimeoutMs;
+
+    private final PriorityBlockingQueue<OutboundMail> queue = new PriorityBlockingQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private Semaphore capacity;
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    private Timer sendLatency;
+    private Timer deliveryLatency;
+    private Counter sent;
+    private Counter failures;
+    private Counter rejected;
+
+    @PostConstruct
+    void start() {
+        capacity = new Semaphore(queueCapacity);
+        Gauge.builder("mail.queue.depth", queue, Queue::size)
+                .description("Mails waiting to be sent")
+                .register(meterRegistry);
+        sendLatency = Timer.builder("mail.send.latency")
+                .description("Time to send one batch of mails over an SMTP connection")
+                .register(meterRegistry);
+        deliveryLatency = Timer.builder("mail.delivery.latency")
+                .description("Time from queueing a mail until the mail server accepted it")
+                .register(meterRegistry);
+        sent = Counter.builder("mail.sent").register(meterRegistry);
+        failures = Counter.builder("mail.failures").register(meterRegistry);
+        rejected = Counter.builder("mail.rejected").description("Mails refused because the queue stayed full").register(meterRegistry);
+
+        running = true;
+        AtomicLong threadNumber = new AtomicLong();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "mail-dispatch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::work);
+        }
+    }
+
+    /**
+     * Queue a message; the future completes once the mail server accepted it
+     *
+     * @throws MailSendException if the queue stays full for longer than offer-timeout-ms
+     */
+    public CompletableFuture<Void> submit(MimeMessage message, MailPriority priority) {
+        try {
+            if (!capacity.tryAcquire(offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new MailSendException("Mail queue is full (" + queueCapacity + " messages)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for mail queue capacity", e);
+        }
+
+        OutboundMail mail = new OutboundMail(message, priority, sequence.incrementAndGet(), System.nanoTime(), new CompletableFuture<>());
+        queue.add(mail);
+        return mail.result();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        executor.shutdownNow();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Mail workers did not stop in time");
+        }
+        List<OutboundMail> unsent = new ArrayList<>();
+        queue.drainTo(unsent);
+        unsent.forEach(mail -> mail.result().completeExceptionally(new MailSendException("Mail dispatcher stopped")));
+    }
+
+    private void work() {
+        while (running) {
+            List<OutboundMail> batch = new ArrayList<>();
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, maxMessagesPerConnection - 1);
+                capacity.release(batch.size());
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(mail -> mail.result().completeExceptionally(new MailSendException("Mail dispatcher stopped")));
+                return;
+            } catch (Exception e) {
+                log.error("Unexpected error in mail worker: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void send(List<OutboundMail> batch) {
+        MimeMessage[] messages = batch.stream().map(OutboundMail::message).toArray(MimeMessage[]::new);
+        Map<Object, Exception> failed = new IdentityHashMap<>();
+
+        long start = System.nanoTime();
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                batch.forEach(mail -> failed.put(mail.message(), e));
+            } else {
+                failed.putAll(e.getFailedMessages());
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(mail -> failed.put(mail.message(), e));
+        }
+        long end = System.nanoTime();
+        sendLatency.record(end - start, TimeUnit.NANOSECONDS);
+
+        for (OutboundMail mail : batch) {
+            Exception error = failed.get(mail.message());
+            if (error == null) {
+                sent.increment();
+                deliveryLatency.record(end - mail.queuedAt(), TimeUnit.NANOSECONDS);
+                mail.result().complete(null);
+            } else {
+                failures.increment();
+                mail.result().completeExceptionally(error instanceof MailException
+                        ? error : new MailSendException("Failed to send mail", error));
+            }
+        }
+        if (!failed.isEmpty()) {
+            log.warn("Failed to send {} of {} mails", failed.size(), batch.size());
+        }
+    }
+
+    private record OutboundMail(MimeMessage message, MailPriority priority, long sequence, long queuedAt,
+                                CompletableFuture<Void> result) implements Comparable<OutboundMail> {
+
+        @Override
+        public int compareTo(OutboundMail other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
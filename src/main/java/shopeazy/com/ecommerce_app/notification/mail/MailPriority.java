@@ -0,0 +1,23 @@
+package shopeazy.com.ecommerce_app.notification.mail;
+
+/**
+ * Order in which queued mails are sent; mails of the same priority go out first in, first out
+ */
+public enum MailPriority {
+    HIGH,
+    NORMAL,
+    LOW;
+
+    /**
+     * Map a notification priority (HIGH, MEDIUM, LOW) to a mail priority; unknown values are NORMAL
+     */
+    public static MailPriority of(String priority) {
+        if ("HIGH".equalsIgnoreCase(priority)) {
+            return HIGH;
+        }
+        if ("LOW".equalsIgnoreCase(priority)) {
+            return LOW;
+        }
+        return NORMAL;
+    }
+}
@@ -5,18 +5,25 @@ import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import shopeazy.com.ecommerce_app.notification.enums.EmailNotificationType;
+import shopeazy.com.ecommerce_app.notification.mail.MailDispatcher;
+import shopeazy.com.ecommerce_app.notification.mail.MailPriority;
 import shopeazy.com.ecommerce_app.notification.template.EmailTemplateFactory;
 import shopeazy.com.ecommerce_app.order.model.Order;
 
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service for sending email notifications related to order.
  * Supports both simple text and HTML email templates.
+ * Messages are handed to the {@link MailDispatcher} queue; the returned futures complete once the
+ * mail server accepted the message and fail with a {@link MailException} when it did not.
+ * Invalid input is only logged and yields a completed future, because retrying would not help.
  */
 
 @Slf4j
@@ -24,65 +31,73 @@ import shopeazy.com.ecommerce_app.order.model.Order;
 @RequiredArgsConstructor
 public class EmailNotificationService {
     private final JavaMailSender mailSender;
+    private final MailDispatcher mailDispatcher;
     @Value("${app.email.from}")
     private String fromEmail;
     private final EmailTemplateFactory emailTemplateFactory;
 
 
-    public void sendOrderConfirmationEmail(Order order) {
-        sendOrderNotificationEmail(order, EmailNotificationType.ORDER_CONFIRMATION);
+    public CompletableFuture<Void> sendOrderConfirmationEmail(Order order) {
+        return sendOrderNotificationEmail(order, EmailNotificationType.ORDER_CONFIRMATION);
     }
 
-    public void sendOrderShippedEmail(Order order) {
-        sendOrderNotificationEmail(order, EmailNotificationType.ORDER_SHIPPED);
+    public CompletableFuture<Void> sendOrderShippedEmail(Order order) {
+        return sendOrderNotificationEmail(order, EmailNotificationType.ORDER_SHIPPED);
     }
 
-    public void sendOrderCancelledEmail(Order order) {
-        sendOrderNotificationEmail(order, EmailNotificationType.ORDER_CANCELLED);
+    public CompletableFuture<Void> sendOrderCancelledEmail(Order order) {
+        return sendOrderNotificationEmail(order, EmailNotificationType.ORDER_CANCELLED);
     }
 
-    public void sendOrderDeliveredEmail(Order order) {
-        sendOrderNotificationEmail(order, EmailNotificationType.ORDER_DELIVERED);
+    public CompletableFuture<Void> sendOrderDeliveredEmail(Order order) {
+        return sendOrderNotificationEmail(order, EmailNotificationType.ORDER_DELIVERED);
     }
 
     /**
      * Send simple text email with boolean validation
      */
-    public void sendSimpleEmail(String to, String subject, String text) {
+    public CompletableFuture<Void> sendSimpleEmail(String to, String subject, String text) {
+        return sendSimpleEmail(to, subject, text, MailPriority.NORMAL);
+    }
+
+    public CompletableFuture<Void> sendSimpleEmail(String to, String subject, String text, MailPriority priority) {
         try {
             if (!isValidEmailInputs(to, subject)) {
                 log.error("Cannot send simple email due to validation failures");
-                return;
+                return CompletableFuture.completedFuture(null);
             }
 
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(text);
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+
+            helper.setFrom(fromEmail);
+            helper.setTo(to);
+            helper.setSubject(subject);
+            helper.setText(text, false);
 
-            mailSender.send(message);
-            log.info("Simple email sent to {} with subject: {}", to, subject);
+            log.info("Simple email queued for {} with subject: {}", to, subject);
+            return mailDispatcher.submit(message, priority);
 
         } catch (Exception e) {
             log.error("Failed to send simple email - To: {}, Subject: {}, Error: {}", to, subject, e.getMessage(), e);
+            throw deliveryFailure("Failed to send simple email to " + to, e);
         }
     }
 
     /**
      * Send email with attachment using boolean validation
      */
-    public void sendEmailWithAttachment(String to, String subject, String htmlBody,
-                                        byte[] attachmentData, String attachmentName) {
+    public CompletableFuture<Void> sendEmailWithAttachment(String to, String subject, String htmlBody,
+                                                           byte[] attachmentData, String attachmentName) {
         try {
             if (!isValidEmailInputs(to, subject)) {
                 log.error("Cannot send email with attachment due to email input validation failures");
-                return;
+                return CompletableFuture.completedFuture(null);
             }
 
             if (!isValidAttachment(attachmentData, attachmentName)) {
                 log.error("Cannot send email with attachment due to attachment validation failures");
-                return;
+                return CompletableFuture.completedFuture(null);
             }
 
             MimeMessage message = mailSender.createMimeMessage();
@@ -95,25 +110,27 @@ public class EmailNotificationService {
 
             helper.addAttachment(attachmentName, () -> new java.io.ByteArrayInputStream(attachmentData));
 
-            mailSender.send(message);
-            log.info("Email with attachment sent to {} with subject: {}", to, subject);
+            log.info("Email with attachment queued for {} with subject: {}", to, subject);
+            return mailDispatcher.submit(message, MailPriority.HIGH);
 
         } catch (MessagingException e) {
             log.error("Failed to send email with attachment - To: {}, Error: {}", to, e.getMessage(), e);
+            throw deliveryFailure("Failed to send email with attachment to " + to, e);
         } catch (Exception e) {
             log.error("Unexpected error sending email with attachment - To: {}, Error: {}", to, e.getMessage(), e);
+            throw deliveryFailure("Failed to send email with attachment to " + to, e);
         }
     }
 
     /**
      * Send order notification - TRUE boolean validation approach
      */
-    private void sendOrderNotificationEmail(Order order, EmailNotificationType notificationType) {
+    private CompletableFuture<Void> sendOrderNotificationEmail(Order order, EmailNotificationType notificationType) {
         try {
             // Boolean validations - no exceptions thrown from validation
             if (!isValidOrder(order)) {
                 log.error("Invalid order provided for {}", notificationType.getLogName());
-                return; // Exit early, don't send email
+                return CompletableFuture.completedFuture(null); // Exit early, don't send email
             }
 
             if (!isValidOrderStatus(order, notificationType)) {
@@ -121,20 +138,24 @@ public class EmailNotificationService {
                         notificationType.getLogName(),
                         notificationType.getExpectedStatus(),
                         order.getStatus());
-                return; // Exit early
+                return CompletableFuture.completedFuture(null); // Exit early
             }
 
             // Template processing (can still throw - these are system errors, not validation)
-            String status = order.getStatus().name();
             String subject = notificationType.formatSubject(order.getOrderNumber());
-            String body = emailTemplateFactory.getTemplate(status).buildEmailBody(order);
+            String body = emailTemplateFactory.getTemplate(order.getStatus()).buildEmailBody(order);
 
             // Email sending
-            sendHtmlEmail(order.getCustomerEmail(), subject, body);
+            CompletableFuture<Void> delivery = sendHtmlEmail(order.getCustomerEmail(), subject, body, notificationType.getPriority());
 
-            log.info("{} email sent successfully - Order: {}, Customer: {}, Status: {}",
+            log.info("{} email queued - Order: {}, Customer: {}, Status: {}",
                     notificationType.getLogName(), order.getOrderNumber(),
                     order.getCustomerEmail(), order.getStatus());
+            return delivery;
+
+        } catch (MailException e) {
+            // Delivery failures are left to the caller so the notification can be retried
+            throw e;
 
         } catch (IllegalArgumentException e) {
             // Template not found or factory configuration errors
@@ -157,14 +178,19 @@ public class EmailNotificationService {
                     order != null ? order.getOrderNumber() : "NULL",
                     e.getMessage(), e);
         }
+        return CompletableFuture.completedFuture(null);
     }
 
 
-    public void sendHtmlEmail(String to, String subject, String htmlBody) {
+    public CompletableFuture<Void> sendHtmlEmail(String to, String subject, String htmlBody) {
+        return sendHtmlEmail(to, subject, htmlBody, MailPriority.NORMAL);
+    }
+
+    public CompletableFuture<Void> sendHtmlEmail(String to, String subject, String htmlBody, MailPriority priority) {
         try {
             if (!isValidEmailInputs(to, subject)) {
                 log.error("Cannot send HTML email due to validation failures");
-                return;
+                return CompletableFuture.completedFuture(null);
             }
 
             MimeMessage message = mailSender.createMimeMessage();
@@ -175,17 +201,27 @@ public class EmailNotificationService {
             helper.setSubject(subject);
             helper.setText(htmlBody, true);
 
-            mailSender.send(message);
-            log.info("HTML email sent to {} with subject: {}", to, subject);
+            log.info("HTML email queued for {} with subject: {}", to, subject);
+            return mailDispatcher.submit(message, priority);
 
         } catch (MessagingException e) {
             log.error("Failed to send HTML email - To: {}, Subject: {}, Error: {}", to, subject, e.getMessage(), e);
+            throw deliveryFailure("Failed to send HTML email to " + to, e);
         } catch (Exception e) {
             log.error("Unexpected error sending HTML email - To: {}, Subject: {}, Error: {}", to, subject, e.getMessage(), e);
+            throw deliveryFailure("Failed to send HTML email to " + to, e);
         }
     }
 
 
+    /**
+     * Failures to hand a message to the mail server propagate so that event consumers can retry them;
+     * invalid input is still only logged because retrying would not help
+     */
+    private MailException deliveryFailure(String message, Exception e) {
+        return e instanceof MailException mailException ? mailException : new MailSendException(message, e);
+    }
+
     private boolean isValidOrder(Order order) {
         if (order == null) {
             log.warn("Order validation failed: Order is null");
@@ -0,0 +1,126 @@
+package shopeazy.com.ecommerce_app.notification.template;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Email template compiled once into static text segments and typed slots.
+ * Adjacent static text is merged when the template is built, so rendering appends a few constant strings
+ * and only evaluates the per-model values, into a buffer sized from the largest email rendered so far.
+ */
+public final class CompiledTemplate<T> {
+
+    private final List<Part<T>> parts;
+    private final int staticLength;
+    private volatile int capacityHint;
+
+    private CompiledTemplate(List<Part<T>> parts, int staticLength) {
+        this.parts = List.copyOf(parts);
+        this.staticLength = staticLength;
+        this.capacityHint = staticLength + 256;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    public String render(T model) {
+        StringBuilder out = new StringBuilder(capacityHint);
+        write(model, out);
+        if (out.length() > capacityHint) {
+            capacityHint = out.length();
+        }
+        return out.toString();
+    }
+
+    void write(T model, StringBuilder out) {
+        for (Part<T> part : parts) {
+            part.write(model, out);
+        }
+    }
+
+    /**
+     * Length of the static text, not counting the text of nested sections
+     */
+    public int staticLength() {
+        return staticLength;
+    }
+
+    @FunctionalInterface
+    private interface Part<T> {
+        void write(T model, StringBuilder out);
+    }
+
+    public static final class Builder<T> {
+
+        private final List<Part<T>> parts = new ArrayList<>();
+        private final StringBuilder text = new StringBuilder();
+        private int staticLength;
+
+        private Builder() {
+        }
+
+        /**
+         * Static text, merged with the text around it
+         */
+        public Builder<T> text(String... segments) {
+            for (String segment : segments) {
+                text.append(segment);
+            }
+            return this;
+        }
+
+        /**
+         * A value of the model, written as String.valueOf would
+         */
+        public Builder<T> value(Function<? super T, ?> slot) {
+            return part((model, out) -> out.append(slot.apply(model)));
+        }
+
+        /**
+         * A section that is only written when the condition holds for the model
+         */
+        public Builder<T> when(Predicate<? super T> condition, CompiledTemplate<T> section) {
+            return part((model, out) -> {
+                if (condition.test(model)) {
+                    section.write(model, out);
+                }
+            });
+        }
+
+        /**
+         * A section written once per item; null item lists are skipped
+         */
+        public <E> Builder<T> each(Function<? super T, ? extends Iterable<E>> items, CompiledTemplate<E> item) {
+            return part((model, out) -> {
+                Iterable<E> values = items.apply(model);
+                if (values != null) {
+                    values.forEach(value -> item.write(value, out));
+                }
+            });
+        }
+
+        public CompiledTemplate<T> build() {
+            flushText();
+            return new CompiledTemplate<>(parts, staticLength);
+        }
+
+        private Builder<T> part(Part<T> part) {
+            flushText();
+            parts.add(part);
+            return this;
+        }
+
+        private void flushText() {
+            if (text.isEmpty()) {
+                return;
+            }
+            String segment = text.toString();
+            staticLength += segment.length();
+            parts.add((model, out) -> out.append(segment));
+            text.setLength(0);
+        }
+    }
+}
@@ -1,8 +1,17 @@
 package shopeazy.com.ecommerce_app.notification.template;
 
+import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
 import shopeazy.com.ecommerce_app.order.model.Order;
 
 public interface EmailTemplateBuilder {
     String buildEmailBody(Order order);
-    boolean supports(String status);
+
+    /**
+     * Order status this template is for; the factory allows one template per status
+     */
+    OrderStatus status();
+
+    default boolean supports(String status) {
+        return status().name().equalsIgnoreCase(status);
+    }
 }
@@ -1,35 +1,51 @@
 package shopeazy.com.ecommerce_app.notification.template;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
 
+import java.util.EnumMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
 
+/**
+ * Looks up the email template of an order status.
+ * The templates are indexed by status once at startup; a second template for the same status fails the startup.
+ */
 @Component
-@RequiredArgsConstructor
 public class EmailTemplateFactory {
 
-    private final List<EmailTemplateBuilder> builders;
+    private final Map<OrderStatus, EmailTemplateBuilder> templates = new EnumMap<>(OrderStatus.class);
+
+    public EmailTemplateFactory(List<EmailTemplateBuilder> builders) {
+        for (EmailTemplateBuilder builder : builders) {
+            EmailTemplateBuilder existing = templates.putIfAbsent(builder.status(), builder);
+            if (existing != null) {
+                throw new IllegalStateException(
+                        String.format("Multiple templates found for status '%s': [%s, %s]. Only one template per status is allowed.",
+                                builder.status(), existing.getClass().getSimpleName(), builder.getClass().getSimpleName()));
+            }
+        }
+    }
 
     public EmailTemplateBuilder getTemplate(String status) {
         if (status == null || status.trim().isEmpty()) {
             throw new IllegalArgumentException("Status cannot be null or empty");
         }
-        List<EmailTemplateBuilder> matchingBuilders = builders.stream()
-                .filter(builder-> builder.supports(status))
-                .toList();
-
-        if (matchingBuilders.isEmpty()) {
+        OrderStatus orderStatus;
+        try {
+            orderStatus = OrderStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("No template found for status: " + status);
         }
-        if (matchingBuilders.size() > 1) {
-            throw new IllegalStateException(
-                    String.format("Multiple templates found for status '%s': %s. Only one template per status is allowed.",
-                            status, matchingBuilders.stream().map(b -> b.getClass().getSimpleName()).collect(Collectors.toList()))
-            );
-        }
+        return getTemplate(orderStatus);
+    }
 
-        return matchingBuilders.get(0);
+    public EmailTemplateBuilder getTemplate(OrderStatus status) {
+        EmailTemplateBuilder template = templates.get(status);
+        if (template == null) {
+            throw new IllegalArgumentException("No template found for status: " + status);
+        }
+        return template;
     }
 }
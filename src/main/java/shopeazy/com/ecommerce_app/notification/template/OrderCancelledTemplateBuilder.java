@@ -5,72 +5,44 @@ import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
 import shopeazy.com.ecommerce_app.order.model.Order;
 
 import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.*;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.CANCELLATION_MESSAGE;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.CONTACT_INFO;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.DIV_CONTENT_CLOSE;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.DIV_CONTENT_OPEN;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.DIV_FOOTER_CLOSE;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.DIV_FOOTER_OPEN;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.DIV_HEADER_CLOSE;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.DIV_HEADER_OPEN;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.FOOTER_STYLE;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.GREETING;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.HTML_END;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.REFUND_INFO_SECTION;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.REFUND_INFO_STYLE;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.STRONG_ORDER_NUMBER;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.STRONG_TOTAL_AMOUNT;
 
 @Component
 public class OrderCancelledTemplateBuilder implements EmailTemplateBuilder {
-    @Override
-    public String buildEmailBody(Order order) {
-        StringBuilder html = new StringBuilder();
-        html.append(HTML_START).append("Order Cancelled</title><style>")
-                .append(FONT_STYLE)
-                .append(STYLE_RED_HEADER)
-                .append(REFUND_INFO_STYLE)
-                .append(FOOTER_STYLE)
-                .append("</style></head><body>");
-
-        html.append(DIV_HEADER_OPEN)
-                .append("<h1>Order Cancellation Notice</h1>")
-                .append(DIV_HEADER_CLOSE);
-
-        html.append(DIV_CONTENT_OPEN)
-                .append(GREETING).append(order.getCustomerName()).append(",</h2>")
-                .append(CANCELLATION_MESSAGE)
-                .append(STRONG_ORDER_NUMBER).append(order.getOrderNumber()).append("</p>")
-                .append(STRONG_TOTAL_AMOUNT).append(order.getPricing().getTotal()).append("</p>");
-
-        if (order.getCancellationInfo() != null) {
-            html.append(REFUND_INFO_SECTION)
-                    .append("<h3>Cancellation Details</h3>")
-                    .append("<p><strong>Reason:</strong> ").append(order.getCancellationInfo().getReason()).append("</p>");
-            if (order.getCancellationInfo().getDetails() != null) {
-                html.append("<p><strong>Details:</strong> ").append(order.getCancellationInfo().getDetails()).append("</p>");
-            }
-            if (order.getCancellationInfo().getRefundAmount() != null) {
-                html.append("<p><strong>Refund Amount:</strong> $").append(order.getCancellationInfo().getRefundAmount()).append("</p>")
-                        .append("<p>Your refund will be processed within 3-5 business days.</p>");
-            }
-            html.append(DIV_CONTENT_CLOSE);
-        }
 
-        html.append("<p>We apologize for any inconvenience this may have caused.</p>")
-                .append(DIV_CONTENT_CLOSE);
+    private static final CompiledTemplate<Order> CANCELLATION_DETAILS = CompiledTemplate.<Order>builder()
+            .text(REFUND_INFO_SECTION, "<h3>Cancellation Details</h3>")
+            .text("<p><strong>Reason:</strong> ").value(order -> order.getCancellationInfo().getReason()).text("</p>")
+            .when(order -> order.getCancellationInfo().getDetails() != null, CompiledTemplate.<Order>builder()
+                    .text("<p><strong>Details:</strong> ").value(order -> order.getCancellationInfo().getDetails()).text("</p>")
+                    .build())
+            .when(order -> order.getCancellationInfo().getRefundAmount() != null, CompiledTemplate.<Order>builder()
+                    .text("<p><strong>Refund Amount:</strong> $").value(order -> order.getCancellationInfo().getRefundAmount()).text("</p>")
+                    .text("<p>Your refund will be processed within 3-5 business days.</p>")
+                    .build())
+            .text(DIV_CONTENT_CLOSE)
+            .build();
+
+    private static final CompiledTemplate<Order> TEMPLATE = CompiledTemplate.<Order>builder()
+            .text(HTML_START, "Order Cancelled</title><style>",
+                    FONT_STYLE, STYLE_RED_HEADER, REFUND_INFO_STYLE, FOOTER_STYLE,
+                    "</style></head><body>")
+            .text(DIV_HEADER_OPEN, "<h1>Order Cancellation Notice</h1>", DIV_HEADER_CLOSE)
+            .text(DIV_CONTENT_OPEN, GREETING).value(Order::getCustomerName).text(",</h2>", CANCELLATION_MESSAGE)
+            .text(STRONG_ORDER_NUMBER).value(Order::getOrderNumber).text("</p>")
+            .text(STRONG_TOTAL_AMOUNT).value(order -> order.getPricing().getTotal()).text("</p>")
+            .when(order -> order.getCancellationInfo() != null, CANCELLATION_DETAILS)
+            .text("<p>We apologize for any inconvenience this may have caused.</p>", DIV_CONTENT_CLOSE)
+            .text(DIV_FOOTER_OPEN, CONTACT_INFO, DIV_FOOTER_CLOSE)
+            .text(HTML_END)
+            .build();
 
-        html.append(DIV_FOOTER_OPEN)
-                .append(CONTACT_INFO)
-                .append(DIV_FOOTER_CLOSE);
-
-        html.append(HTML_END);
-
-        return html.toString();
+    @Override
+    public String buildEmailBody(Order order) {
+        return TEMPLATE.render(order);
     }
 
     @Override
-    public boolean supports(String status) {
-        return OrderStatus.CANCELLED.name().equalsIgnoreCase(status);
+    public OrderStatus status() {
+        return OrderStatus.CANCELLED;
     }
 }
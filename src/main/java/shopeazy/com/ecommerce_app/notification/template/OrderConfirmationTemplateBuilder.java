@@ -3,82 +3,52 @@ package shopeazy.com.ecommerce_app.notification.template;
 import org.springframework.stereotype.Component;
 import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
 import shopeazy.com.ecommerce_app.order.model.Order;
+import shopeazy.com.ecommerce_app.order.model.OrderItem;
 
 import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.*;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.DIV_CONTENT_CLOSE;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.DIV_CONTENT_OPEN;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.DIV_FOOTER_CLOSE;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.DIV_FOOTER_OPEN;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.DIV_HEADER_CLOSE;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.DIV_HEADER_OPEN;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.EMAIL_FOOTER;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.FOOTER_STYLE;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.GREETING;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.HTML_END;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.STRONG_ORDER_NUMBER;
 
 @Component
 public class OrderConfirmationTemplateBuilder implements EmailTemplateBuilder {
 
+    private static final CompiledTemplate<OrderItem> ITEM = CompiledTemplate.<OrderItem>builder()
+            .text("<li>").value(OrderItem::getProductName)
+            .text(" (Qty: ").value(OrderItem::getQuantity).text(")")
+            .text(" - $").value(OrderItem::getTotalPrice)
+            .text("</li>")
+            .build();
+
+    private static final CompiledTemplate<Order> TEMPLATE = CompiledTemplate.<Order>builder()
+            .text(HTML_START, "Order Confirmation</title><style>",
+                    FONT_STYLE, STYLE_GREEN_HEADER, ORDER_DETAILS_STYLE, FOOTER_STYLE,
+                    "</style></head><body>")
+            .text(DIV_HEADER_OPEN, "<h1>Order Confirmation</h1>", DIV_HEADER_CLOSE)
+            .text(DIV_CONTENT_OPEN, GREETING).value(Order::getCustomerName).text(",</h2>", THANK_YOU_MESSAGE)
+            .text(ORDER_DETAILS_SECTION, "<h3>Order Details</h3>")
+            .text(STRONG_ORDER_NUMBER).value(Order::getOrderNumber).text("</p>")
+            .text(STRONG_ORDER_DATE).value(Order::getCreatedAt).text("</p>")
+            .text(STRONG_TOTAL_AMOUNT).value(order -> order.getPricing().getTotal()).text("</p>")
+            .text(STRONG_STATUS).value(Order::getStatus).text("</p>")
+            .text(DIV_CONTENT_CLOSE)
+            .text("<h3>Items Ordered:</h3><ul>").each(Order::getOrderItems, ITEM).text("</ul>")
+            .text("<h3>Shipping Address:</h3><p>")
+            .value(order -> order.getShippingAddress().getStreet()).text("<br>")
+            .value(order -> order.getShippingAddress().getCity()).text(", ")
+            .value(order -> order.getShippingAddress().getState()).text(" ")
+            .value(order -> order.getShippingAddress().getZip()).text("<br>")
+            .value(order -> order.getShippingAddress().getCountry()).text("</p>")
+            .text("<p>We'll send you another email when your order ships!</p>", DIV_CONTENT_CLOSE)
+            .text(DIV_FOOTER_OPEN, EMAIL_FOOTER, CONTACT_INFO, DIV_FOOTER_CLOSE)
+            .text(HTML_END)
+            .build();
+
     @Override
     public String buildEmailBody(Order order) {
-        StringBuilder html = new StringBuilder();
-        html.append(HTML_START).append("Order Confirmation</title><style>")
-                .append(FONT_STYLE)
-                .append(STYLE_GREEN_HEADER)
-                .append(ORDER_DETAILS_STYLE)
-                .append(FOOTER_STYLE)
-                .append("</style></head><body>");
-
-        html.append(DIV_HEADER_OPEN)
-                .append("<h1>Order Confirmation</h1>")
-                .append(DIV_HEADER_CLOSE);
-
-        html.append(DIV_CONTENT_OPEN)
-                .append(GREETING).append(order.getCustomerName()).append(",</h2>")
-                .append(THANK_YOU_MESSAGE);
-
-        html.append(ORDER_DETAILS_SECTION)
-                .append("<h3>Order Details</h3>")
-                .append(STRONG_ORDER_NUMBER).append(order.getOrderNumber()).append("</p>")
-                .append(STRONG_ORDER_DATE).append(order.getCreatedAt()).append("</p>")
-                .append(STRONG_TOTAL_AMOUNT).append(order.getPricing().getTotal()).append("</p>")
-                .append(STRONG_STATUS).append(order.getStatus()).append("</p>")
-                .append(DIV_CONTENT_CLOSE);
-
-        html.append("<h3>Items Ordered:</h3><ul>");
-        order.getOrderItems().forEach(item -> html.append("<li>")
-                .append(item.getProductName())
-                .append(" (Qty: ").append(item.getQuantity()).append(")")
-                .append(" - $").append(item.getTotalPrice())
-                .append("</li>")
-        );
-        html.append("</ul>");
-
-        html.append("<h3>Shipping Address:</h3><p>")
-                .append(order.getShippingAddress().getStreet()).append("<br>")
-                .append(order.getShippingAddress().getCity()).append(", ")
-                .append(order.getShippingAddress().getState()).append(" ")
-                .append(order.getShippingAddress().getZip()).append("<br>")
-                .append(order.getShippingAddress().getCountry()).append("</p>");
-
-        html.append("<p>We'll send you another email when your order ships!</p>")
-                .append(DIV_CONTENT_CLOSE);
-
-        html.append(DIV_FOOTER_OPEN)
-                .append(EMAIL_FOOTER)
-                .append(CONTACT_INFO)
-                .append(DIV_FOOTER_CLOSE);
-
-        html.append(HTML_END);
-
-        return html.toString();
-
+        return TEMPLATE.render(order);
     }
 
     @Override
-    public boolean supports(String status) {
-        return OrderStatus.CONFIRMED.name().equalsIgnoreCase(status);
+    public OrderStatus status() {
+        return OrderStatus.CONFIRMED;
     }
 
 }
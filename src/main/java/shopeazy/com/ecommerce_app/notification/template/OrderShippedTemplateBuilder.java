@@ -5,68 +5,40 @@ import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
 import shopeazy.com.ecommerce_app.order.model.Order;
 
 import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.*;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.DIV_CONTENT_CLOSE;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.DIV_CONTENT_OPEN;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.DIV_FOOTER_CLOSE;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.DIV_FOOTER_OPEN;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.DIV_HEADER_CLOSE;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.DIV_HEADER_OPEN;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.EMAIL_FOOTER;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.FOOTER_STYLE;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.GREETING;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.HTML_END;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.SHIPPED_MESSAGE;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.STRONG_ORDER_NUMBER;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.TRACKING_INFO_SECTION;
-import static shopeazy.com.ecommerce_app.notification.constant.EmailTemplateConstants.TRACKING_INFO_STYLE;
 
 @Component
 public class OrderShippedTemplateBuilder implements EmailTemplateBuilder {
-    @Override
-    public String buildEmailBody(Order order) {
-        StringBuilder html = new StringBuilder();
-
-        html.append(HTML_START).append("Order Shipped</title><style>")
-                .append(FONT_STYLE)
-                .append(STYLE_BLUE_HEADER)
-                .append(TRACKING_INFO_STYLE)
-                .append(FOOTER_STYLE)
-                .append("</style></head><body>");
-
-        html.append(DIV_HEADER_OPEN)
-                .append("<h1>Your Order Has Been Shipped!</h1>")
-                .append(DIV_HEADER_CLOSE);
-
-        html.append(DIV_CONTENT_OPEN)
-                .append(GREETING).append(order.getCustomerName()).append(",</h2>")
-                .append(SHIPPED_MESSAGE)
-                .append(STRONG_ORDER_NUMBER).append(order.getOrderNumber()).append("</p>");
 
-        if (order.getTrackingInfo() != null) {
-            html.append(TRACKING_INFO_SECTION)
-                    .append("<h3>Tracking Information</h3>")
-                    .append("<p><strong>Tracking Number:</strong> ").append(order.getTrackingInfo().getTrackingNumber()).append("</p>")
-                    .append("<p><strong>Carrier:</strong> ").append(order.getTrackingInfo().getCarrier()).append("</p>");
-            if (order.getTrackingInfo().getEstimatedDelivery() != null) {
-                html.append("<p><strong>Estimated Delivery:</strong> ").append(order.getTrackingInfo().getEstimatedDelivery()).append("</p>");
-            }
-            html.append(DIV_CONTENT_CLOSE);
-        }
+    private static final CompiledTemplate<Order> TRACKING_INFO = CompiledTemplate.<Order>builder()
+            .text(TRACKING_INFO_SECTION, "<h3>Tracking Information</h3>")
+            .text("<p><strong>Tracking Number:</strong> ").value(order -> order.getTrackingInfo().getTrackingNumber()).text("</p>")
+            .text("<p><strong>Carrier:</strong> ").value(order -> order.getTrackingInfo().getCarrier()).text("</p>")
+            .when(order -> order.getTrackingInfo().getEstimatedDelivery() != null, CompiledTemplate.<Order>builder()
+                    .text("<p><strong>Estimated Delivery:</strong> ").value(order -> order.getTrackingInfo().getEstimatedDelivery()).text("</p>")
+                    .build())
+            .text(DIV_CONTENT_CLOSE)
+            .build();
+
+    private static final CompiledTemplate<Order> TEMPLATE = CompiledTemplate.<Order>builder()
+            .text(HTML_START, "Order Shipped</title><style>",
+                    FONT_STYLE, STYLE_BLUE_HEADER, TRACKING_INFO_STYLE, FOOTER_STYLE,
+                    "</style></head><body>")
+            .text(DIV_HEADER_OPEN, "<h1>Your Order Has Been Shipped!</h1>", DIV_HEADER_CLOSE)
+            .text(DIV_CONTENT_OPEN, GREETING).value(Order::getCustomerName).text(",</h2>", SHIPPED_MESSAGE)
+            .text(STRONG_ORDER_NUMBER).value(Order::getOrderNumber).text("</p>")
+            .when(order -> order.getTrackingInfo() != null, TRACKING_INFO)
+            .text("<p>You can track your package using the tracking number provided above.</p>", DIV_CONTENT_CLOSE)
+            .text(DIV_FOOTER_OPEN, EMAIL_FOOTER, DIV_FOOTER_CLOSE)
+            .text(HTML_END)
+            .build();
 
-        html.append("<p>You can track your package using the tracking number provided above.</p>")
-                .append(DIV_CONTENT_CLOSE);
-
-        html.append(DIV_FOOTER_OPEN)
-                .append(EMAIL_FOOTER)
-                .append(DIV_FOOTER_CLOSE);
-
-        html.append(HTML_END);
-
-        return html.toString();
+    @Override
+    public String buildEmailBody(Order order) {
+        return TEMPLATE.render(order);
     }
 
     @Override
-    public boolean supports(String status) {
-        return OrderStatus.SHIPPED.name().equalsIgnoreCase(status);
+    public OrderStatus status() {
+        return OrderStatus.SHIPPED;
     }
 }
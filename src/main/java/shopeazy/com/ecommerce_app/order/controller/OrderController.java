@@ -6,18 +6,31 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import shopeazy.com.ecommerce_app.common.dto.ApiResponse;
+import shopeazy.com.ecommerce_app.common.exception.BusinessException;
 import shopeazy.com.ecommerce_app.order.dto.*;
 import shopeazy.com.ecommerce_app.order.dto.ProcessOrderRequest;
 import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
 import shopeazy.com.ecommerce_app.order.service.OrderService;
+import shopeazy.com.ecommerce_app.pdf.enums.BulkDocumentFormat;
+import shopeazy.com.ecommerce_app.pdf.enums.OrderDocumentType;
+import shopeazy.com.ecommerce_app.pdf.service.BulkDocumentService;
+import shopeazy.com.ecommerce_app.pdf.service.DocumentDownload;
+import shopeazy.com.ecommerce_app.pdf.service.OrderDocumentStore;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
 
 /**
  * REST Controller for order management operations.
@@ -30,6 +43,8 @@ import java.time.Instant;
 public class OrderController {
     
     private final OrderService orderService;
+    private final OrderDocumentStore documentStore;
+    private final BulkDocumentService bulkDocumentService;
     
     /**
      * Create a new order from user's shopping cart
@@ -114,6 +129,49 @@ public class OrderController {
         }
     }
     
+    /**
+     * Get orders for the authenticated user with cursor pagination (for infinite scroll)
+     */
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ApiResponse<OrderCursorPageDto>> getUserOrdersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            Authentication authentication) {
+        
+        try {
+            String userEmail = authentication.getName();
+            
+            OrderCursorPageDto orders = orderService.getUserOrdersByCursor(userEmail, status, cursor, size, includeTotal);
+            
+            ApiResponse<OrderCursorPageDto> response = new ApiResponse<>(
+                    true,
+                    "Orders retrieved successfully",
+                    orders,
+                    Instant.now()
+            );
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (BusinessException e) {
+            // invalid cursor or page size, answered with 400 by the global exception handler
+            throw e;
+        } catch (Exception e) {
+            log.error("Error retrieving orders by cursor: {}", e.getMessage(), e);
+            
+            ApiResponse<OrderCursorPageDto> response = new ApiResponse<>(
+                    false,
+                    "Failed to retrieve orders: " + e.getMessage(),
+                    null,
+                    Instant.now()
+            );
+            
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
     /**
      * Get order by ID
      */
@@ -152,6 +210,52 @@ public class OrderController {
         }
     }
     
+    /**
+     * Download the invoice of an order as PDF
+     */
+    @GetMapping("/{orderId}/invoice")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<StreamingResponseBody> downloadInvoice(
+            @PathVariable String orderId,
+            Authentication authentication) {
+        return downloadDocument(OrderDocumentType.INVOICE, orderId, authentication);
+    }
+
+    /**
+     * Download the summary of an order as PDF
+     */
+    @GetMapping("/{orderId}/summary")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<StreamingResponseBody> downloadOrderSummary(
+            @PathVariable String orderId,
+            Authentication authentication) {
+        return downloadDocument(OrderDocumentType.ORDER_SUMMARY, orderId, authentication);
+    }
+
+    /**
+     * Stream a document into the response: stored documents with their length, rendered ones chunked.
+     * Not found and access errors are left to the global exception handler.
+     */
+    private ResponseEntity<StreamingResponseBody> downloadDocument(
+            OrderDocumentType type, String orderId, Authentication authentication) {
+        String userEmail = authentication.getName();
+        log.info("Downloading {} of order {} for user {}", type, orderId, userEmail);
+
+        DocumentDownload download = documentStore.open(type, orderService.getAccessibleOrder(orderId, userEmail));
+        return streamDownload(download, MediaType.APPLICATION_PDF);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> streamDownload(DocumentDownload download, MediaType contentType) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(download.fileName()).build().toString());
+        if (download.contentLength() != null) {
+            response.contentLength(download.contentLength());
+        }
+        return response.body(out -> download.body().writeTo(out));
+    }
+
     /**
      * Get order by order number
      */
@@ -432,6 +536,70 @@ public class OrderController {
         }
     }
     
+    /**
+     * Download the documents of the seller's orders in one go, as a merged PDF or a ZIP of PDFs.
+     * Dates are UTC days, both inclusive.
+     */
+    @GetMapping("/seller/documents")
+    @PreAuthorize("hasRole('SELLER')")
+    public ResponseEntity<StreamingResponseBody> downloadSellerDocuments(
+            @RequestParam(defaultValue = "INVOICE") OrderDocumentType type,
+            @RequestParam(defaultValue = "PDF") BulkDocumentFormat format,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication) {
+
+        String sellerEmail = authentication.getName();
+        log.info("Downloading {} documents as {} for seller {}", type, format, sellerEmail);
+
+        DocumentDownload download = bulkDocumentService.open(sellerEmail, type, format, status, from, to);
+        return streamDownload(download, MediaType.parseMediaType(format.getContentType()));
+    }
+
+    /**
+     * Get orders for seller with cursor pagination (for infinite scroll)
+     */
+    @GetMapping("/seller/cursor")
+    @PreAuthorize("hasRole('SELLER')")
+    public ResponseEntity<ApiResponse<OrderCursorPageDto>> getSellerOrdersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            Authentication authentication) {
+        
+        try {
+            String sellerEmail = authentication.getName();
+            
+            OrderCursorPageDto orders = orderService.getSellerOrdersByCursor(sellerEmail, status, cursor, size, includeTotal);
+            
+            ApiResponse<OrderCursorPageDto> response = new ApiResponse<>(
+                    true,
+                    "Orders retrieved successfully",
+                    orders,
+                    Instant.now()
+            );
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (BusinessException e) {
+            // invalid cursor or page size, answered with 400 by the global exception handler
+            throw e;
+        } catch (Exception e) {
+            log.error("Error retrieving seller orders by cursor: {}", e.getMessage(), e);
+            
+            ApiResponse<OrderCursorPageDto> response = new ApiResponse<>(
+                    false,
+                    "Failed to retrieve orders: " + e.getMessage(),
+                    null,
+                    Instant.now()
+            );
+            
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
     /**
      * Update order status (for admins)
      */
@@ -505,4 +673,143 @@ public class OrderController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Get order statistics for a seller (for admins)
+     */
+    @GetMapping("/statistics/sellers/{sellerId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<OrderStatisticsDto>> getSellerStatistics(@PathVariable String sellerId) {
+
+        try {
+            log.info("Retrieving order statistics for seller {}", sellerId);
+
+            OrderStatisticsDto statistics = orderService.getSellerStatistics(sellerId);
+
+            ApiResponse<OrderStatisticsDto> response = new ApiResponse<>(
+                    true,
+                    "Seller order statistics retrieved successfully",
+                    statistics,
+                    Instant.now()
+            );
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Error retrieving order statistics for seller {}: {}", sellerId, e.getMessage(), e);
+
+            ApiResponse<OrderStatisticsDto> response = new ApiResponse<>(
+                    false,
+                    "Failed to retrieve seller order statistics: " + e.getMessage(),
+                    null,
+                    Instant.now()
+            );
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Get order statistics for a day, e.g. /statistics/daily/2025-01-31 (for admins)
+     */
+    @GetMapping("/statistics/daily/{day}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<OrderStatisticsDto>> getDailyStatistics(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day) {
+
+        try {
+            log.info("Retrieving order statistics for {}", day);
+
+            OrderStatisticsDto statistics = orderService.getDailyStatistics(day);
+
+            ApiResponse<OrderStatisticsDto> response = new ApiResponse<>(
+                    true,
+                    "Daily order statistics retrieved successfully",
+                    statistics,
+                    Instant.now()
+            );
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Error retrieving order statistics for {}: {}", day, e.getMessage(), e);
+
+            ApiResponse<OrderStatisticsDto> response = new ApiResponse<>(
+                    false,
+                    "Failed to retrieve daily order statistics: " + e.getMessage(),
+                    null,
+                    Instant.now()
+            );
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Rebuild the materialized order statistics from scratch (for admins)
+     */
+    @PostMapping("/statistics/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> rebuildStatistics() {
+
+        try {
+            log.info("Rebuilding order statistics");
+
+            int orderCount = orderService.rebuildOrderStatistics();
+
+            ApiResponse<Integer> response = new ApiResponse<>(
+                    true,
+                    "Order statistics rebuilt from " + orderCount + " orders",
+                    orderCount,
+                    Instant.now()
+            );
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Error rebuilding order statistics: {}", e.getMessage(), e);
+
+            ApiResponse<Integer> response = new ApiResponse<>(
+                    false,
+                    "Failed to rebuild order statistics: " + e.getMessage(),
+                    null,
+                    Instant.now()
+            );
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Compare the materialized order statistics with a full aggregation (for admins)
+     */
+    @GetMapping("/statistics/drift")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<String>>> getStatisticsDrift() {
+
+        try {
+            List<String> drift = orderService.detectOrderStatisticsDrift();
+
+            ApiResponse<List<String>> response = new ApiResponse<>(
+                    true,
+                    drift.isEmpty() ? "No drift detected" : "Drift detected in " + drift.size() + " values",
+                    drift,
+                    Instant.now()
+            );
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Error checking order statistics drift: {}", e.getMessage(), e);
+
+            ApiResponse<List<String>> response = new ApiResponse<>(
+                    false,
+                    "Failed to check order statistics drift: " + e.getMessage(),
+                    null,
+                    Instant.now()
+            );
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package shopeazy.com.ecommerce_app.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a cursor paginated order list.
+ * Pass {@code nextCursor} back to fetch the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderCursorPageDto {
+
+    private List<OrderSummaryDto> orders;
+
+    /**
+     * Cursor for the next page, null when there are no more orders
+     */
+    private String nextCursor;
+
+    private boolean hasMore;
+
+    /**
+     * Total number of matching orders, only set when requested
+     */
+    private Long totalCount;
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
+
 import java.math.BigDecimal;
 
 /**
@@ -31,4 +33,16 @@ public class OrderStatisticsDto {
     private double averageOrderValue;
     private double cancellationRate;
     private double fulfillmentRate;
-}
\ No newline at end of file
+
+    public void setStatusCount(OrderStatus status, long count) {
+        switch (status) {
+            case PENDING -> pendingOrders = count;
+            case CONFIRMED -> confirmedOrders = count;
+            case PROCESSING -> processingOrders = count;
+            case SHIPPED -> shippedOrders = count;
+            case DELIVERED -> deliveredOrders = count;
+            case CANCELLED -> cancelledOrders = count;
+            case COMPLETED -> completedOrders = count;
+        }
+    }
+}
@@ -6,9 +6,11 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import shopeazy.com.ecommerce_app.common.model.Address;
+import shopeazy.com.ecommerce_app.events.outbox.OutboxEvent;
 import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
 import shopeazy.com.ecommerce_app.order.enums.PaymentStatus;
 
@@ -29,6 +31,12 @@ public class Order {
     @Id
     private String id;
 
+    /**
+     * Optimistic lock, saves of a stale copy fail instead of overwriting concurrent changes
+     */
+    @Version
+    private Long version;
+
     /**
      * Human-readable order number
      */
@@ -48,6 +56,11 @@ public class Order {
      */
     private List<OrderItem> orderItems;
 
+    /**
+     * Distinct seller IDs of the order items, denormalized for indexed seller order queries
+     */
+    private List<String> sellerIds;
+
     /**
      * Pricing breakdown for the order
      */
@@ -72,6 +85,11 @@ public class Order {
      */
     private OrderTimestamps timestamps;
 
+    /**
+     * Events waiting to be published, stored with the order so they are written atomically with it
+     */
+    private List<OutboxEvent> outbox;
+
     /**
      * Shipping and tracking information
      */
@@ -0,0 +1,61 @@
+package shopeazy.com.ecommerce_app.order.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.Decimal128;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Materialized order counters and revenue by status for one scope
+ * (all orders, one seller or one day). Maintained with atomic $inc updates
+ * so statistics are read with a single document lookup.
+ * Amounts are stored as Decimal128 because $inc does not work on string decimals.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "order_kpi")
+public class OrderKpi {
+
+    public static final String GLOBAL_ID = "global";
+
+    /**
+     * "global", "seller:{sellerId}" or "day:{yyyy-MM-dd}"
+     */
+    @Id
+    private String id;
+
+    private long totalOrders;
+
+    private Decimal128 totalRevenue;
+
+    /**
+     * Number of orders currently in each status
+     */
+    private Map<String, Long> counts = new HashMap<>();
+
+    /**
+     * Revenue of the orders currently in each status
+     */
+    private Map<String, Decimal128> revenue = new HashMap<>();
+
+    private Instant updatedAt;
+
+    /**
+     * When the counters were last rebuilt from the orders, only set on the global document.
+     * Until then they only hold the orders whose events were consumed.
+     */
+    private Instant rebuiltAt;
+
+    public static String sellerId(String sellerId) {
+        return "seller:" + sellerId;
+    }
+
+    public static String dayId(String day) {
+        return "day:" + day;
+    }
+}
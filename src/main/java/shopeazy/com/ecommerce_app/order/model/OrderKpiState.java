@@ -0,0 +1,47 @@
+package shopeazy.com.ecommerce_app.order.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.Decimal128;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Last status counted for an order in {@link OrderKpi}.
+ * Lets a status change move the counters from the previous status to the new one
+ * and makes redelivered events a no-op.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "order_kpi_state")
+public class OrderKpiState {
+
+    /**
+     * Order ID
+     */
+    @Id
+    private String id;
+
+    private String status;
+
+    /**
+     * Time of the event that set the status; older events are not applied
+     */
+    private Instant statusAt;
+
+    private Decimal128 total;
+
+    /**
+     * Order creation day (UTC, yyyy-MM-dd)
+     */
+    private String day;
+
+    /**
+     * Item totals per seller
+     */
+    private Map<String, Decimal128> sellerRevenue = new HashMap<>();
+}
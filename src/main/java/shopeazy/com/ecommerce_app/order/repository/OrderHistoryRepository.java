@@ -0,0 +1,44 @@
+package shopeazy.com.ecommerce_app.order.repository;
+
+import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
+import shopeazy.com.ecommerce_app.order.model.Order;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Keyset (cursor) pagination over order history, newest first.
+ * Pages continue strictly after the (createdAt, _id) of the last order seen, so a page
+ * costs the same no matter how deep it is, and no count query is run.
+ * Only the fields needed for an order summary are loaded.
+ */
+public interface OrderHistoryRepository {
+
+    /**
+     * Orders of a user, optionally filtered by status
+     *
+     * @param afterCreatedAt createdAt of the last order of the previous page, null for the first page
+     *                       or when that order has no createdAt
+     * @param afterId        id of the last order of the previous page, null for the first page
+     */
+    List<Order> findUserOrderSummaries(String userId, OrderStatus status, Instant afterCreatedAt, String afterId, int limit);
+
+    /**
+     * Orders containing products of a seller, optionally filtered by status
+     */
+    List<Order> findSellerOrderSummaries(String sellerId, OrderStatus status, Instant afterCreatedAt, String afterId, int limit);
+
+    long countUserOrders(String userId, OrderStatus status);
+
+    long countSellerOrders(String sellerId, OrderStatus status);
+
+    /**
+     * Complete orders containing products of a seller, oldest first, for bulk processing.
+     * Filters are optional; createdAt is matched from inclusive to exclusive.
+     * The orders are read through a cursor, so the stream must be closed.
+     */
+    Stream<Order> streamSellerOrders(String sellerId, OrderStatus status, Instant from, Instant to);
+
+    long countSellerOrders(String sellerId, OrderStatus status, Instant from, Instant to);
+}
@@ -0,0 +1,100 @@
+package shopeazy.com.ecommerce_app.order.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
+import shopeazy.com.ecommerce_app.order.model.Order;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * MongoTemplate based implementation of {@link OrderHistoryRepository}.
+ * Picked up by Spring Data as a fragment of {@link OrderRepository}.
+ */
+@RequiredArgsConstructor
+public class OrderHistoryRepositoryImpl implements OrderHistoryRepository {
+
+    private static final String CREATED_AT = "createdAt";
+    private static final String ID = "_id";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Order> findUserOrderSummaries(String userId, OrderStatus status, Instant afterCreatedAt, String afterId, int limit) {
+        return findSummaries(ownerCriteria("userId", userId, status), afterCreatedAt, afterId, limit);
+    }
+
+    @Override
+    public List<Order> findSellerOrderSummaries(String sellerId, OrderStatus status, Instant afterCreatedAt, String afterId, int limit) {
+        return findSummaries(ownerCriteria("sellerIds", sellerId, status), afterCreatedAt, afterId, limit);
+    }
+
+    @Override
+    public long countUserOrders(String userId, OrderStatus status) {
+        return mongoTemplate.count(new Query(ownerCriteria("userId", userId, status)), Order.class);
+    }
+
+    @Override
+    public long countSellerOrders(String sellerId, OrderStatus status) {
+        return mongoTemplate.count(new Query(ownerCriteria("sellerIds", sellerId, status)), Order.class);
+    }
+
+    @Override
+    public Stream<Order> streamSellerOrders(String sellerId, OrderStatus status, Instant from, Instant to) {
+        Query query = new Query(createdBetween(ownerCriteria("sellerIds", sellerId, status), from, to))
+                .with(Sort.by(Sort.Direction.ASC, CREATED_AT, ID));
+        return mongoTemplate.stream(query, Order.class);
+    }
+
+    @Override
+    public long countSellerOrders(String sellerId, OrderStatus status, Instant from, Instant to) {
+        return mongoTemplate.count(new Query(createdBetween(ownerCriteria("sellerIds", sellerId, status), from, to)), Order.class);
+    }
+
+    private List<Order> findSummaries(Criteria owner, Instant afterCreatedAt, String afterId, int limit) {
+        Criteria criteria = owner;
+        if (afterCreatedAt != null && afterId != null) {
+            // orders without createdAt sort last, they follow every dated order
+            criteria = new Criteria().andOperator(owner, new Criteria().orOperator(
+                    Criteria.where(CREATED_AT).lt(afterCreatedAt),
+                    Criteria.where(CREATED_AT).is(afterCreatedAt).and(ID).lt(afterId),
+                    Criteria.where(CREATED_AT).is(null)));
+        } else if (afterId != null) {
+            criteria = new Criteria().andOperator(owner, Criteria.where(CREATED_AT).is(null).and(ID).lt(afterId));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, CREATED_AT, ID))
+                .limit(limit);
+        query.fields().include("orderNumber", "status", "paymentStatus", "pricing.total", "pricing.currency",
+                "orderItems.quantity", CREATED_AT, "trackingInfo.trackingNumber", "trackingInfo.estimatedDelivery");
+
+        return mongoTemplate.find(query, Order.class);
+    }
+
+    private static Criteria createdBetween(Criteria criteria, Instant from, Instant to) {
+        if (from != null && to != null) {
+            return criteria.and(CREATED_AT).gte(from).lt(to);
+        }
+        if (from != null) {
+            return criteria.and(CREATED_AT).gte(from);
+        }
+        if (to != null) {
+            return criteria.and(CREATED_AT).lt(to);
+        }
+        return criteria;
+    }
+
+    private static Criteria ownerCriteria(String ownerField, String ownerId, OrderStatus status) {
+        Criteria criteria = Criteria.where(ownerField).is(ownerId);
+        if (status != null) {
+            criteria.and("status").is(status);
+        }
+        return criteria;
+    }
+}
@@ -12,7 +12,7 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
-public interface OrderRepository extends MongoRepository<Order, String> {
+public interface OrderRepository extends MongoRepository<Order, String>, OrderStatisticsRepository, OrderHistoryRepository {
     Optional<Order> findByOrderNumber(String orderNumber);
 
     /**
@@ -44,13 +44,13 @@ public interface OrderRepository extends MongoRepository<Order, String> {
     /**
      * Find orders for a seller (contains products from this seller)
      */
-    @Query("{ 'items.sellerId': ?0 }")
+    @Query(value = "{ 'sellerIds': ?0 }", sort = "{ 'createdAt': -1 }")
     Page<Order> findOrdersContainingSellerProducts(String sellerId, Pageable pageable);
 
     /**
      * Find orders for a seller with status filter
      */
-    @Query("{ 'items.sellerId': ?0, 'status': ?1 }")
+    @Query(value = "{ 'sellerIds': ?0, 'status': ?1 }", sort = "{ 'createdAt': -1 }")
     Page<Order> findOrdersContainingSellerProductsWithStatus(String sellerId, OrderStatus status, Pageable pageable);
 
     /**
@@ -0,0 +1,16 @@
+package shopeazy.com.ecommerce_app.order.repository;
+
+import shopeazy.com.ecommerce_app.order.dto.OrderStatisticsDto;
+
+/**
+ * Server-side order statistics.
+ * Counts and revenue are computed by MongoDB, no order documents are loaded into the JVM.
+ */
+public interface OrderStatisticsRepository {
+
+    /**
+     * Aggregate order counts per status, total revenue and completed revenue in one pipeline.
+     * Derived values (average order value, rates) are left to the caller.
+     */
+    OrderStatisticsDto aggregateOrderStatistics();
+}
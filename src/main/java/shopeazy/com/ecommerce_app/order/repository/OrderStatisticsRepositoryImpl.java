@@ -0,0 +1,87 @@
+package shopeazy.com.ecommerce_app.order.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import shopeazy.com.ecommerce_app.order.dto.OrderStatisticsDto;
+import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
+import shopeazy.com.ecommerce_app.order.model.Order;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * MongoTemplate based implementation of {@link OrderStatisticsRepository}.
+ * Picked up by Spring Data as a fragment of {@link OrderRepository}.
+ */
+@RequiredArgsConstructor
+public class OrderStatisticsRepositoryImpl implements OrderStatisticsRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public OrderStatisticsDto aggregateOrderStatistics() {
+        // pricing.total may be stored as string or decimal depending on the BigDecimal mapping
+        AggregationExpression orderTotal = ConvertOperators.valueOf("pricing.total").convertToDecimal();
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.facet(
+                                Aggregation.group("status").count().as("count").sum(orderTotal).as("revenue"))
+                        .as("byStatus")
+                        .and(
+                                Aggregation.group().count().as("count").sum(orderTotal).as("revenue"))
+                        .as("totals")
+                        .and(
+                                Aggregation.match(Criteria.where("status").in(OrderStatus.COMPLETED.name(), OrderStatus.DELIVERED.name())),
+                                Aggregation.group().sum(orderTotal).as("revenue"))
+                        .as("completed")
+        );
+
+        Document result = mongoTemplate.aggregate(aggregation, Order.class, Document.class).getUniqueMappedResult();
+
+        OrderStatisticsDto stats = new OrderStatisticsDto();
+        stats.setTotalRevenue(BigDecimal.ZERO);
+        stats.setCompletedRevenue(BigDecimal.ZERO);
+        if (result == null) {
+            return stats;
+        }
+
+        for (Document row : result.getList("byStatus", Document.class, List.of())) {
+            String status = row.getString("_id");
+            if (status != null) {
+                stats.setStatusCount(OrderStatus.valueOf(status), count(row));
+            }
+        }
+
+        firstRow(result, "totals").ifPresent(row -> {
+            stats.setTotalOrders(count(row));
+            stats.setTotalRevenue(revenue(row));
+        });
+        firstRow(result, "completed").ifPresent(row -> stats.setCompletedRevenue(revenue(row)));
+
+        return stats;
+    }
+
+    private static Optional<Document> firstRow(Document result, String facet) {
+        return result.getList(facet, Document.class, List.of()).stream().findFirst();
+    }
+
+    private static long count(Document row) {
+        Number count = row.get("count", Number.class);
+        return count != null ? count.longValue() : 0L;
+    }
+
+    private static BigDecimal revenue(Document row) {
+        Object revenue = row.get("revenue");
+        if (revenue instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue();
+        }
+        return revenue instanceof Number number ? new BigDecimal(number.toString()) : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,82 @@
+package shopeazy.com.ecommerce_app.order.service;
+
+import shopeazy.com.ecommerce_app.common.exception.ResourceNotFoundException;
+import shopeazy.com.ecommerce_app.product.model.Product;
+import shopeazy.com.ecommerce_app.product.repository.ProductRepository;
+import shopeazy.com.ecommerce_app.seller.model.Seller;
+import shopeazy.com.ecommerce_app.seller.repository.SellerProfileRepository;
+import shopeazy.com.ecommerce_app.shopping_cart.model.pojo.CartItem;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory view of all products and sellers referenced by a cart.
+ * Loaded with a single query per collection so that validation, order item
+ * conversion and pricing never go back to MongoDB item by item.
+ * Also counts the store calls made during a checkout: MongoDB repository calls and
+ * inventory reservation service calls. A reservation service call counts once even
+ * though it may issue several Redis commands internally.
+ */
+final class CheckoutSnapshot {
+
+    private final Map<String, Product> products = new HashMap<>();
+    private final Map<String, Seller> sellers = new HashMap<>();
+    private int repositoryCalls;
+
+    /**
+     * Load all products of the cart with one findAllById and all their sellers with another
+     */
+    void load(List<CartItem> cartItems, ProductRepository productRepository, SellerProfileRepository sellerRepository) {
+        Set<String> productIds = cartItems.stream()
+                .map(CartItem::getProductId)
+                .collect(Collectors.toSet());
+
+        track(() -> productRepository.findAllById(productIds))
+                .forEach(product -> products.put(product.getId(), product));
+
+        Set<String> sellerIds = products.values().stream()
+                .map(Product::getSellerId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        if (!sellerIds.isEmpty()) {
+            track(() -> sellerRepository.findAllById(sellerIds))
+                    .forEach(seller -> sellers.put(seller.getSellerId(), seller));
+        }
+    }
+
+    /**
+     * Run a repository or reservation service call and count it against this checkout
+     */
+    <T> T track(Supplier<T> call) {
+        repositoryCalls++;
+        return call.get();
+    }
+
+    void track(Runnable call) {
+        repositoryCalls++;
+        call.run();
+    }
+
+    Product getProduct(String productId) {
+        Product product = products.get(productId);
+        if (product == null) {
+            throw new ResourceNotFoundException("Product not found: " + productId);
+        }
+        return product;
+    }
+
+    Optional<Seller> findSeller(String sellerId) {
+        return Optional.ofNullable(sellers.get(sellerId));
+    }
+
+    Map<String, Product> getProducts() {
+        return Collections.unmodifiableMap(products);
+    }
+
+    int getRepositoryCalls() {
+        return repositoryCalls;
+    }
+}
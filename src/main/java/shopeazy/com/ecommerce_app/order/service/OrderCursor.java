@@ -0,0 +1,54 @@
+package shopeazy.com.ecommerce_app.order.service;
+
+import org.springframework.http.HttpStatus;
+import shopeazy.com.ecommerce_app.common.exception.BusinessException;
+import shopeazy.com.ecommerce_app.common.exception.ProblemTypes;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position in an order list: the (createdAt, id) of the last order returned.
+ * Encoded as an opaque URL-safe token for clients. Orders without createdAt sort after all others
+ * and are encoded with a "-" instead of the timestamp.
+ */
+record OrderCursor(Instant createdAt, String id) {
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    private static final OrderCursor START = new OrderCursor(null, null);
+    private static final String NO_CREATED_AT = "-";
+
+    /**
+     * Reject page sizes outside 1..MAX_PAGE_SIZE
+     */
+    static int checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, ProblemTypes.BAD_REQUEST,
+                    "Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return size;
+    }
+
+    static String encode(Instant createdAt, String id) {
+        String value = (createdAt != null ? String.valueOf(createdAt.toEpochMilli()) : NO_CREATED_AT) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static OrderCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            String createdAt = value.substring(0, separator);
+            return new OrderCursor(NO_CREATED_AT.equals(createdAt) ? null : Instant.ofEpochMilli(Long.parseLong(createdAt)),
+                    value.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, ProblemTypes.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package shopeazy.com.ecommerce_app.order.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.Decimal128;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import shopeazy.com.ecommerce_app.order.dto.OrderStatisticsDto;
+import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
+import shopeazy.com.ecommerce_app.order.model.Order;
+import shopeazy.com.ecommerce_app.order.model.OrderItem;
+import shopeazy.com.ecommerce_app.order.model.OrderKpi;
+import shopeazy.com.ecommerce_app.order.model.OrderKpiState;
+import shopeazy.com.ecommerce_app.order.repository.OrderRepository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the materialized order statistics in {@link OrderKpi}.
+ * Every status change moves one order between status buckets with atomic $inc
+ * updates on the global, per-seller and per-day documents, so reads are a single lookup.
+ * The counters can be rebuilt from the orders and compared against a full aggregation.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderKpiService {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final OrderRepository orderRepository;
+
+    private volatile boolean rebuilt;
+
+    /**
+     * Count an order in the given status, moving it out of the status it was counted in before.
+     * Repeated calls with the same status and events older than the counted status are ignored.
+     *
+     * @param at time of the event that set the status, null to apply it regardless of order
+     */
+    public void applyStatus(String orderId, OrderStatus status, Instant at) {
+        Criteria criteria = Criteria.where("_id").is(orderId).and("status").ne(status.name());
+        Update update = Update.update("status", status.name());
+        if (at != null) {
+            criteria.orOperator(Criteria.where("statusAt").is(null), Criteria.where("statusAt").lt(at));
+            update.set("statusAt", at);
+        }
+
+        OrderKpiState previous = mongoTemplate.findAndModify(Query.query(criteria), update,
+                FindAndModifyOptions.options().returnNew(false), OrderKpiState.class);
+
+        if (previous != null) {
+            moveOrder(previous, OrderStatus.valueOf(previous.getStatus()), status);
+            return;
+        }
+
+        if (mongoTemplate.exists(Query.query(Criteria.where("_id").is(orderId)), OrderKpiState.class)) {
+            return; // already counted in this status or in a newer one
+        }
+
+        Order order = orderRepository.findById(orderId).orElse(null);
+        if (order == null) {
+            log.warn("Order {} not found, not counted in statistics", orderId);
+            return;
+        }
+
+        OrderKpiState state = toState(order);
+        state.setStatus(status.name());
+        state.setStatusAt(at);
+        try {
+            mongoTemplate.insert(state);
+        } catch (DuplicateKeyException e) {
+            // counted concurrently by another consumer, apply as a regular transition
+            applyStatus(orderId, status, at);
+            return;
+        }
+
+        addOrder(state, status);
+    }
+
+    /**
+     * Statistics over all orders, empty until the counters were rebuilt once.
+     * Before that they only cover the orders whose events happened to be consumed.
+     */
+    public Optional<OrderStatisticsDto> getGlobalStatistics() {
+        return isRebuilt() ? findStatistics(OrderKpi.GLOBAL_ID) : Optional.empty();
+    }
+
+    public Optional<OrderStatisticsDto> getSellerStatistics(String sellerId) {
+        return findStatistics(OrderKpi.sellerId(sellerId));
+    }
+
+    public Optional<OrderStatisticsDto> getDailyStatistics(LocalDate day) {
+        return findStatistics(OrderKpi.dayId(day.toString()));
+    }
+
+    /**
+     * Rebuild all counters from the order collection.
+     * Orders are streamed with a projection, only the aggregated counters are kept in memory.
+     * Events consumed while the rebuild runs may be counted twice; run it when order traffic is low
+     * and check for drift afterwards.
+     */
+    public int rebuild() {
+        Map<String, KpiTotals> totals = new HashMap<>();
+        List<OrderKpiState> states = new ArrayList<>();
+        int orders = 0;
+
+        mongoTemplate.remove(new Query(), OrderKpiState.class);
+
+        Query query = new Query();
+        query.fields().include("status", "pricing.total", "createdAt", "updatedAt", "orderItems.sellerId", "orderItems.totalPrice");
+
+        try (Stream<Order> stream = mongoTemplate.stream(query, Order.class)) {
+            Iterator<Order> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                Order order = iterator.next();
+                if (order.getStatus() == null) {
+                    continue;
+                }
+
+                OrderKpiState state = toState(order);
+                state.setStatus(order.getStatus().name());
+                state.setStatusAt(order.getUpdatedAt() != null ? order.getUpdatedAt() : Instant.now());
+                accumulate(totals, state);
+                states.add(state);
+                orders++;
+
+                if (states.size() == REBUILD_BATCH_SIZE) {
+                    mongoTemplate.insert(states, OrderKpiState.class);
+                    states.clear();
+                }
+            }
+        }
+        if (!states.isEmpty()) {
+            mongoTemplate.insert(states, OrderKpiState.class);
+        }
+
+        mongoTemplate.remove(new Query(), OrderKpi.class);
+        Instant now = Instant.now();
+        // the global document is written even without orders, its rebuiltAt marks the counters as complete
+        totals.computeIfAbsent(OrderKpi.GLOBAL_ID, id -> new KpiTotals());
+        List<OrderKpi> documents = totals.entrySet().stream()
+                .map(entry -> entry.getValue().toDocument(entry.getKey(), now))
+                .toList();
+        documents.stream().filter(kpi -> OrderKpi.GLOBAL_ID.equals(kpi.getId())).forEach(kpi -> kpi.setRebuiltAt(now));
+        mongoTemplate.insert(documents, OrderKpi.class);
+        rebuilt = true;
+
+        log.info("Rebuilt order statistics from {} orders ({} counter documents)", orders, documents.size());
+        return orders;
+    }
+
+    /**
+     * Compare the global counters with a full aggregation over the orders
+     *
+     * @return human-readable differences, empty if the counters match
+     */
+    public List<String> detectDrift() {
+        OrderStatisticsDto materialized = getGlobalStatistics().orElse(null);
+        if (materialized == null) {
+            return List.of("No materialized statistics, run a rebuild");
+        }
+
+        OrderStatisticsDto actual = orderRepository.aggregateOrderStatistics();
+        List<String> drift = new ArrayList<>();
+        compare(drift, "totalOrders", materialized.getTotalOrders(), actual.getTotalOrders());
+        compare(drift, "pendingOrders", materialized.getPendingOrders(), actual.getPendingOrders());
+        compare(drift, "confirmedOrders", materialized.getConfirmedOrders(), actual.getConfirmedOrders());
+        compare(drift, "processingOrders", materialized.getProcessingOrders(), actual.getProcessingOrders());
+        compare(drift, "shippedOrders", materialized.getShippedOrders(), actual.getShippedOrders());
+        compare(drift, "deliveredOrders", materialized.getDeliveredOrders(), actual.getDeliveredOrders());
+        compare(drift, "cancelledOrders", materialized.getCancelledOrders(), actual.getCancelledOrders());
+        compare(drift, "completedOrders", materialized.getCompletedOrders(), actual.getCompletedOrders());
+        compare(drift, "totalRevenue", materialized.getTotalRevenue(), actual.getTotalRevenue());
+        compare(drift, "completedRevenue", materialized.getCompletedRevenue(), actual.getCompletedRevenue());
+        return drift;
+    }
+
+    @Scheduled(fixedDelayString = "${app.order.statistics.drift-check-interval-ms:3600000}",
+            initialDelayString = "${app.order.statistics.drift-check-initial-delay-ms:300000}")
+    public void checkDrift() {
+        try {
+            List<String> drift = detectDrift();
+            if (!drift.isEmpty()) {
+                log.warn("Order statistics drift detected: {}", drift);
+            }
+        } catch (Exception e) {
+            log.error("Error checking order statistics drift: {}", e.getMessage());
+        }
+    }
+
+    private void addOrder(OrderKpiState state, OrderStatus status) {
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderKpi.class);
+
+        upsert(bulkOps, OrderKpi.GLOBAL_ID, newOrder(status, state.getTotal()));
+        upsert(bulkOps, OrderKpi.dayId(state.getDay()), newOrder(status, state.getTotal()));
+        state.getSellerRevenue().forEach((sellerId, revenue) ->
+                upsert(bulkOps, OrderKpi.sellerId(sellerId), newOrder(status, revenue)));
+
+        bulkOps.execute();
+    }
+
+    private void moveOrder(OrderKpiState state, OrderStatus from, OrderStatus to) {
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderKpi.class);
+
+        upsert(bulkOps, OrderKpi.GLOBAL_ID, statusChange(from, to, state.getTotal()));
+        upsert(bulkOps, OrderKpi.dayId(state.getDay()), statusChange(from, to, state.getTotal()));
+        state.getSellerRevenue().forEach((sellerId, revenue) ->
+                upsert(bulkOps, OrderKpi.sellerId(sellerId), statusChange(from, to, revenue)));
+
+        bulkOps.execute();
+    }
+
+    private static void upsert(BulkOperations bulkOps, String id, Update update) {
+        bulkOps.upsert(Query.query(Criteria.where("_id").is(id)), update.currentDate("updatedAt"));
+    }
+
+    private static Update newOrder(OrderStatus status, Decimal128 amount) {
+        return new Update()
+                .inc("totalOrders", 1)
+                .inc("totalRevenue", amount)
+                .inc("counts." + status.name(), 1)
+                .inc("revenue." + status.name(), amount);
+    }
+
+    private static Update statusChange(OrderStatus from, OrderStatus to, Decimal128 amount) {
+        return new Update()
+                .inc("counts." + from.name(), -1)
+                .inc("counts." + to.name(), 1)
+                .inc("revenue." + from.name(), negate(amount))
+                .inc("revenue." + to.name(), amount);
+    }
+
+    private boolean isRebuilt() {
+        if (!rebuilt) {
+            // another instance may have run the rebuild
+            rebuilt = mongoTemplate.exists(Query.query(Criteria.where("_id").is(OrderKpi.GLOBAL_ID).and("rebuiltAt").exists(true)),
+                    OrderKpi.class);
+        }
+        return rebuilt;
+    }
+
+    private Optional<OrderStatisticsDto> findStatistics(String id) {
+        return Optional.ofNullable(mongoTemplate.findById(id, OrderKpi.class)).map(OrderKpiService::toStatistics);
+    }
+
+    private static OrderStatisticsDto toStatistics(OrderKpi kpi) {
+        OrderStatisticsDto stats = new OrderStatisticsDto();
+        stats.setTotalOrders(kpi.getTotalOrders());
+        for (OrderStatus status : OrderStatus.values()) {
+            stats.setStatusCount(status, kpi.getCounts().getOrDefault(status.name(), 0L));
+        }
+
+        stats.setTotalRevenue(toBigDecimal(kpi.getTotalRevenue()));
+        stats.setCompletedRevenue(toBigDecimal(kpi.getRevenue().get(OrderStatus.COMPLETED.name()))
+                .add(toBigDecimal(kpi.getRevenue().get(OrderStatus.DELIVERED.name()))));
+        return stats;
+    }
+
+    private static OrderKpiState toState(Order order) {
+        OrderKpiState state = new OrderKpiState();
+        state.setId(order.getId());
+
+        BigDecimal total = order.getPricing() != null && order.getPricing().getTotal() != null
+                ? order.getPricing().getTotal() : BigDecimal.ZERO;
+        state.setTotal(new Decimal128(total));
+
+        Instant createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : Instant.now();
+        state.setDay(LocalDate.ofInstant(createdAt, ZoneOffset.UTC).toString());
+
+        Map<String, BigDecimal> sellerRevenue = new HashMap<>();
+        if (order.getOrderItems() != null) {
+            for (OrderItem item : order.getOrderItems()) {
+                if (item.getSellerId() != null && item.getTotalPrice() != null) {
+                    sellerRevenue.merge(item.getSellerId(), item.getTotalPrice(), BigDecimal::add);
+                }
+            }
+        }
+        sellerRevenue.forEach((sellerId, revenue) -> state.getSellerRevenue().put(sellerId, new Decimal128(revenue)));
+
+        return state;
+    }
+
+    private static void accumulate(Map<String, KpiTotals> totals, OrderKpiState state) {
+        totals.computeIfAbsent(OrderKpi.GLOBAL_ID, id -> new KpiTotals()).add(state.getStatus(), state.getTotal());
+        totals.computeIfAbsent(OrderKpi.dayId(state.getDay()), id -> new KpiTotals()).add(state.getStatus(), state.getTotal());
+        state.getSellerRevenue().forEach((sellerId, revenue) ->
+                totals.computeIfAbsent(OrderKpi.sellerId(sellerId), id -> new KpiTotals()).add(state.getStatus(), revenue));
+    }
+
+    private static void compare(List<String> drift, String field, Object materialized, Object actual) {
+        boolean equal = materialized instanceof BigDecimal m && actual instanceof BigDecimal a
+                ? m.compareTo(a) == 0
+                : Objects.equals(materialized, actual);
+        if (!equal) {
+            drift.add(field + ": materialized=" + materialized + ", actual=" + actual);
+        }
+    }
+
+    private static Decimal128 negate(Decimal128 amount) {
+        return new Decimal128(amount.bigDecimalValue().negate());
+    }
+
+    private static BigDecimal toBigDecimal(Decimal128 amount) {
+        return amount != null ? amount.bigDecimalValue() : BigDecimal.ZERO;
+    }
+
+    /**
+     * Counters for one scope collected during a rebuild
+     */
+    private static final class KpiTotals {
+        private long totalOrders;
+        private BigDecimal totalRevenue = BigDecimal.ZERO;
+        private final Map<String, Long> counts = new HashMap<>();
+        private final Map<String, BigDecimal> revenue = new HashMap<>();
+
+        void add(String status, Decimal128 amount) {
+            BigDecimal value = amount.bigDecimalValue();
+            totalOrders++;
+            totalRevenue = totalRevenue.add(value);
+            counts.merge(status, 1L, Long::sum);
+            revenue.merge(status, value, BigDecimal::add);
+        }
+
+        OrderKpi toDocument(String id, Instant updatedAt) {
+            OrderKpi kpi = new OrderKpi();
+            kpi.setId(id);
+            kpi.setTotalOrders(totalOrders);
+            kpi.setTotalRevenue(new Decimal128(totalRevenue));
+            kpi.setCounts(new HashMap<>(counts));
+            revenue.forEach((status, value) -> kpi.getRevenue().put(status, new Decimal128(value)));
+            kpi.setUpdatedAt(updatedAt);
+            return kpi;
+        }
+    }
+}
@@ -3,12 +3,16 @@ package shopeazy.com.ecommerce_app.order.service;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import shopeazy.com.ecommerce_app.order.dto.CreateOrderRequest;
+import shopeazy.com.ecommerce_app.order.dto.OrderCursorPageDto;
 import shopeazy.com.ecommerce_app.order.dto.OrderResponseDto;
 import shopeazy.com.ecommerce_app.order.dto.OrderStatisticsDto;
 import shopeazy.com.ecommerce_app.order.dto.OrderSummaryDto;
 import shopeazy.com.ecommerce_app.order.dto.ProcessOrderRequest;
 import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
+import shopeazy.com.ecommerce_app.order.model.Order;
 
+import java.time.LocalDate;
+import java.util.List;
 
 /**
  * Service interface for order management operations.
@@ -26,6 +30,12 @@ public interface OrderService {
      */
     OrderResponseDto getOrderById(String orderId, String userEmail);
 
+    /**
+     * Get the order entity for rendering its documents.
+     * Fails with not found for an unknown user or order and with forbidden when the user may not see the order.
+     */
+    Order getAccessibleOrder(String orderId, String userEmail);
+
     /**
      * Get order by order number
      */
@@ -51,6 +61,20 @@ public interface OrderService {
      */
     Page<OrderSummaryDto> getSellerOrdersByStatus(String sellerEmail, OrderStatus status, Pageable pageable);
 
+    /**
+     * Get a user's orders page by page using a cursor instead of page numbers
+     *
+     * @param cursor       nextCursor of the previous page, null for the first page
+     * @param size         orders per page, 1 to 100
+     * @param includeTotal whether to also count all matching orders
+     */
+    OrderCursorPageDto getUserOrdersByCursor(String userEmail, OrderStatus status, String cursor, int size, boolean includeTotal);
+
+    /**
+     * Get orders containing a seller's products page by page using a cursor
+     */
+    OrderCursorPageDto getSellerOrdersByCursor(String sellerEmail, OrderStatus status, String cursor, int size, boolean includeTotal);
+
     /**
      * Confirm order (move from PENDING to CONFIRMED)
      */
@@ -86,6 +110,30 @@ public interface OrderService {
      */
     OrderStatisticsDto getOrderStatistics();
 
+    /**
+     * Get order statistics for the orders containing a seller's products
+     */
+    OrderStatisticsDto getSellerStatistics(String sellerId);
+
+    /**
+     * Get order statistics for the orders created on a day (UTC)
+     */
+    OrderStatisticsDto getDailyStatistics(LocalDate day);
+
+    /**
+     * Rebuild the materialized order statistics from all orders
+     *
+     * @return number of orders counted
+     */
+    int rebuildOrderStatistics();
+
+    /**
+     * Compare the materialized order statistics with a full aggregation
+     *
+     * @return differences found, empty if none
+     */
+    List<String> detectOrderStatisticsDrift();
+
     /**
      * Process pending orders (cleanup stale orders)
      */
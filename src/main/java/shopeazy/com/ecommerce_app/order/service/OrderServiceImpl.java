@@ -2,17 +2,24 @@ package shopeazy.com.ecommerce_app.order.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import shopeazy.com.ecommerce_app.common.UniqueReadableNumberService;
 import shopeazy.com.ecommerce_app.common.exception.ResourceNotFoundException;
 import shopeazy.com.ecommerce_app.events.handler.OrderEvent;
+import shopeazy.com.ecommerce_app.events.handler.OrderSnapshot;
+import shopeazy.com.ecommerce_app.events.outbox.OutboxEvent;
+import shopeazy.com.ecommerce_app.events.outbox.OutboxService;
+import shopeazy.com.ecommerce_app.events.topic.EventTopic;
 import shopeazy.com.ecommerce_app.inventory.service.InventoryReservationService;
 import shopeazy.com.ecommerce_app.order.dto.CreateOrderRequest;
+import shopeazy.com.ecommerce_app.order.dto.OrderCursorPageDto;
 import shopeazy.com.ecommerce_app.order.dto.OrderResponseDto;
 import shopeazy.com.ecommerce_app.order.dto.OrderStatisticsDto;
 import shopeazy.com.ecommerce_app.order.dto.OrderSummaryDto;
@@ -27,6 +34,7 @@ import shopeazy.com.ecommerce_app.order.repository.OrderRepository;
 import shopeazy.com.ecommerce_app.product.model.Product;
 import shopeazy.com.ecommerce_app.product.repository.ProductRepository;
 import shopeazy.com.ecommerce_app.seller.model.Seller;
+import shopeazy.com.ecommerce_app.security.exception.ForbiddenOperationException;
 import shopeazy.com.ecommerce_app.seller.repository.SellerProfileRepository;
 import shopeazy.com.ecommerce_app.shopping_cart.model.Cart;
 import shopeazy.com.ecommerce_app.shopping_cart.model.pojo.CartItem;
@@ -35,7 +43,9 @@ import shopeazy.com.ecommerce_app.user.model.User;
 import shopeazy.com.ecommerce_app.user.repository.UserRepository;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 
@@ -44,6 +54,8 @@ import java.util.*;
 @Transactional
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
+    private static final int MAX_SAVE_ATTEMPTS = 3;
+
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final CartRepository cartRepository;
@@ -52,21 +64,43 @@ public class OrderServiceImpl implements OrderService {
     private final SellerProfileRepository sellerRepository;
     private final ModelMapper modelMapper;
     private final InventoryReservationService inventoryReservationService;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxService outboxService;
+    private final OrderKpiService orderKpiService;
+
+    @Value("${app.order.checkout.repository-call-budget:10}")
+    private int checkoutRepositoryCallBudget;
+
+    @Value("${app.order.statistics.cache-ttl-seconds:30}")
+    private long statisticsCacheTtlSeconds;
+
+    @Value("${app.order.events.snapshot.enabled:true}")
+    private boolean orderEventSnapshotsEnabled;
+
+    private volatile CachedStatistics cachedStatistics;
+
+    private record CachedStatistics(OrderStatisticsDto statistics, Instant computedAt) {
+    }
 
     @Override
     public OrderResponseDto createOrderFromCart(CreateOrderRequest request, String userEmail) {
         try {
-            User user = userRepository.findByEmail(userEmail).orElseThrow(ResourceNotFoundException::new);
+            CheckoutSnapshot snapshot = new CheckoutSnapshot();
 
-            Cart cart = cartRepository.findByUserId(user.getId()).orElseThrow(ResourceNotFoundException::new);
+            User user = snapshot.track(() -> userRepository.findByEmail(userEmail))
+                    .orElseThrow(ResourceNotFoundException::new);
+
+            Cart cart = snapshot.track(() -> cartRepository.findByUserId(user.getId()))
+                    .orElseThrow(ResourceNotFoundException::new);
 
             if (cart.getItems() == null || cart.getItems().isEmpty()) {
                 throw new IllegalStateException("Cannot create order from empty cart");
             }
 
+            // Load all products and sellers of the cart once
+            snapshot.load(cart.getItems(), productRepository, sellerRepository);
+
             // validate cart items and inventory
-            if (!validateCartForOrder(user.getId())) {
+            if (!validateCartForOrder(user.getId(), cart, snapshot)) {
                 throw new IllegalStateException("Cart validation failed - insufficient inventory");
             }
 
@@ -74,7 +108,7 @@ public class OrderServiceImpl implements OrderService {
             validatePaymentTransactionId(request.getPaymentTransactionId());
             // Create order
             Order order = new Order();
-            int orderSequence = numberService.getNextSequence("ORDER");
+            int orderSequence = snapshot.track(() -> numberService.getNextSequence("ORDER"));
             order.setOrderNumber(String.format("ORD-%06d", orderSequence));
             order.setUserId(user.getId());
             order.setCustomerEmail(user.getEmail());
@@ -90,12 +124,17 @@ public class OrderServiceImpl implements OrderService {
                     request.getShippingAddress() : request.getBillingAddress());
 
             // Convert cart items to order items
-            List<OrderItem> orderItems = convertCartItemsToOrderItems(cart.getItems());
+            List<OrderItem> orderItems = convertCartItemsToOrderItems(cart.getItems(), snapshot);
             
             // Validate inventory availability for order items
-            validateInventoryForOrder(orderItems);
+            validateInventoryForOrder(orderItems, snapshot.getProducts());
             
             order.setOrderItems(orderItems);
+            order.setSellerIds(orderItems.stream()
+                    .map(OrderItem::getSellerId)
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .toList());
 
             // Calculate pricing
             OrderPricing pricing = calculateOrderPricing(orderItems);
@@ -106,20 +145,26 @@ public class OrderServiceImpl implements OrderService {
             timestamps.setCreated(Instant.now());
             order.setTimestamps(timestamps);
 
+            // Queue order created event with the order so it is stored in the same write
+            order.setId(new ObjectId().toHexString());
+            // Same instant as timestamps.created rather than the audit time of the save
+            order.setCreatedAt(timestamps.getCreated());
+            publishOrderCreatedEvent(order);
+
             // Save order
-            order = orderRepository.save(order);
+            Order orderToSave = order;
+            order = snapshot.track(() -> orderRepository.save(orderToSave));
 
             // Convert cart reservations to order reservations
-            inventoryReservationService.convertToOrderReservations(user.getId(), order.getId());
+            String orderId = order.getId();
+            snapshot.track(() -> inventoryReservationService.convertToOrderReservations(user.getId(), orderId));
 
             // Clear the cart
             cart.getItems().clear();
-            cartRepository.save(cart);
-
-            // Publish order created event
-            publishOrderCreatedEvent(order);
+            snapshot.track(() -> cartRepository.save(cart));
 
             log.info("Created order {} for user {}", order.getOrderNumber(), userEmail);
+            reportCheckoutRepositoryCalls(order, snapshot);
 
             return mapToOrderResponseDto(order);
 
@@ -146,6 +191,20 @@ public class OrderServiceImpl implements OrderService {
         return mapToOrderResponseDto(order);
     }
 
+    @Override
+    public Order getAccessibleOrder(String orderId, String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+
+        if (!canUserAccessOrder(order, user)) {
+            throw new ForbiddenOperationException("Access denied to this order");
+        }
+        return order;
+    }
+
     @Override
     public OrderResponseDto getOrderByOrderNumber(String orderNumber, String userEmail) {
         User user = userRepository.findByEmail(userEmail)
@@ -210,6 +269,50 @@ public class OrderServiceImpl implements OrderService {
     }
 
 
+    @Override
+    public OrderCursorPageDto getUserOrdersByCursor(String userEmail, OrderStatus status, String cursor, int size, boolean includeTotal) {
+        OrderCursor.checkPageSize(size);
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        OrderCursor after = OrderCursor.decode(cursor);
+        List<Order> orders = orderRepository.findUserOrderSummaries(
+                user.getId(), status, after.createdAt(), after.id(), size + 1);
+        Long totalCount = includeTotal ? orderRepository.countUserOrders(user.getId(), status) : null;
+
+        return toCursorPage(orders, size, totalCount);
+    }
+
+    @Override
+    public OrderCursorPageDto getSellerOrdersByCursor(String sellerEmail, OrderStatus status, String cursor, int size, boolean includeTotal) {
+        OrderCursor.checkPageSize(size);
+        Seller seller = sellerRepository.findByContactEmail(sellerEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("Seller profile not found"));
+
+        OrderCursor after = OrderCursor.decode(cursor);
+        List<Order> orders = orderRepository.findSellerOrderSummaries(
+                seller.getSellerId(), status, after.createdAt(), after.id(), size + 1);
+        Long totalCount = includeTotal ? orderRepository.countSellerOrders(seller.getSellerId(), status) : null;
+
+        return toCursorPage(orders, size, totalCount);
+    }
+
+    /**
+     * Build a cursor page from up to size + 1 orders; the extra order only signals that more exist
+     */
+    private OrderCursorPageDto toCursorPage(List<Order> orders, int size, Long totalCount) {
+        boolean hasMore = orders.size() > size;
+        List<Order> page = hasMore ? orders.subList(0, size) : orders;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Order last = page.get(page.size() - 1);
+            nextCursor = OrderCursor.encode(last.getCreatedAt(), last.getId());
+        }
+
+        return new OrderCursorPageDto(page.stream().map(this::mapToOrderSummaryDto).toList(), nextCursor, hasMore, totalCount);
+    }
+
     @Override
     public OrderResponseDto confirmOrder(String orderId, String userEmail) {
         Order order = getOrderForUser(orderId, userEmail);
@@ -223,17 +326,17 @@ public class OrderServiceImpl implements OrderService {
         order.setPaymentStatus(PaymentStatus.PAID);
         order.getTimestamps().setConfirmed(Instant.now());
 
-        // Re-validate inventory before confirming (prevent race conditions)
-        validateInventoryForOrder(order.getOrderItems());
-
-        // Update product stock counts
+        // Atomically take the ordered quantities out of stock (fails without side effects if any item is short)
         updateProductStockAfterOrder(order);
 
-        order = orderRepository.save(order);
-
         // Publish order confirmed event
         publishOrderConfirmedEvent(order);
 
+        order = saveOrder(order);
+
+        // The stock is taken out of the products now, the order no longer needs its reservations
+        inventoryReservationService.releaseOrderReservations(order.getId());
+
         log.info("Confirmed order {} for user {}", order.getOrderNumber(), userEmail);
 
         return mapToOrderResponseDto(order);
@@ -278,11 +381,11 @@ public class OrderServiceImpl implements OrderService {
                     "Processing Notes: " + request.getProcessingNotes());
         }
 
-        order = orderRepository.save(order);
-
         // Publish order processing event
         publishOrderProcessingEvent(order, sellerEmail);
 
+        order = saveOrder(order);
+
         log.info("Order {} marked as processing by seller {}", order.getOrderNumber(), sellerEmail);
 
         return mapToOrderResponseDto(order);
@@ -310,19 +413,19 @@ public class OrderServiceImpl implements OrderService {
         order.setStatus(OrderStatus.CANCELLED);
         order.getTimestamps().setCancelled(Instant.now());
 
-        // Release inventory reservations
-        inventoryReservationService.releaseAllUserReservations(order.getUserId());
+        // Release the order's inventory reservations; the user's cart reservations stay
+        inventoryReservationService.releaseOrderReservations(order.getId());
 
         // Restore product stock if order was confirmed
         if (order.getPaymentStatus() == PaymentStatus.PAID) {
             restoreProductStockAfterCancellation(order);
         }
 
-        order = orderRepository.save(order);
-
         // Publish order canceled event
         publishOrderCancelledEvent(order);
 
+        order = saveOrder(order);
+
         log.info("Cancelled order {} for user {}", order.getOrderNumber(), userEmail);
 
         return mapToOrderResponseDto(order);
@@ -341,11 +444,15 @@ public class OrderServiceImpl implements OrderService {
         // Update timestamps based on new status
         updateTimestampsForStatus(order, newStatus);
 
-        order = orderRepository.save(order);
-
         // Publish appropriate event based on status change
         publishStatusChangeEvent(order, previousStatus, updatedBy);
 
+        order = saveOrder(order);
+
+        if (previousStatus == OrderStatus.PENDING) {
+            inventoryReservationService.releaseOrderReservations(order.getId());
+        }
+
         log.info("Updated order {} status from {} to {} by {}",
                 order.getOrderNumber(), previousStatus, newStatus, updatedBy);
 
@@ -371,11 +478,11 @@ public class OrderServiceImpl implements OrderService {
         order.setStatus(OrderStatus.SHIPPED);
         order.getTimestamps().setShipped(Instant.now());
 
-        order = orderRepository.save(order);
-
         // Publish order shipped event
         publishOrderShippedEvent(order);
 
+        order = saveOrder(order);
+
         log.info("Shipped order {} with tracking number {} via {}",
                 order.getOrderNumber(), trackingNumber, carrier);
 
@@ -399,11 +506,11 @@ public class OrderServiceImpl implements OrderService {
             order.getTrackingInfo().setReceivedBy(receivedBy);
         }
 
-        order = orderRepository.save(order);
-
         // Publish order delivered event
         publishOrderDeliveredEvent(order);
 
+        order = saveOrder(order);
+
         log.info("Marked order {} as delivered, received by {}", order.getOrderNumber(), receivedBy);
 
         return mapToOrderResponseDto(order);
@@ -411,34 +518,52 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public OrderStatisticsDto getOrderStatistics() {
-        OrderStatisticsDto stats = new OrderStatisticsDto();
+        // Materialized counters are a single document read; fall back to the aggregation until they were rebuilt once
+        Optional<OrderStatisticsDto> materialized = orderKpiService.getGlobalStatistics();
+        if (materialized.isPresent()) {
+            return withDerivedMetrics(materialized.get());
+        }
 
-        // Count orders by status
-        stats.setTotalOrders(orderRepository.count());
-        stats.setPendingOrders(orderRepository.countByStatus(OrderStatus.PENDING));
-        stats.setConfirmedOrders(orderRepository.countByStatus(OrderStatus.CONFIRMED));
-        stats.setProcessingOrders(orderRepository.countByStatus(OrderStatus.PROCESSING));
-        stats.setShippedOrders(orderRepository.countByStatus(OrderStatus.SHIPPED));
-        stats.setDeliveredOrders(orderRepository.countByStatus(OrderStatus.DELIVERED));
-        stats.setCancelledOrders(orderRepository.countByStatus(OrderStatus.CANCELLED));
-        stats.setCompletedOrders(orderRepository.countByStatus(OrderStatus.COMPLETED));
-
-        // Calculate revenue metrics
-        List<Order> allOrders = orderRepository.findAll();
-        BigDecimal totalRevenue = allOrders.stream()
-                .filter(order -> order.getPricing() != null)
-                .map(order -> order.getPricing().getTotal())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        CachedStatistics cached = cachedStatistics;
+        if (cached != null && cached.computedAt().plus(Duration.ofSeconds(statisticsCacheTtlSeconds)).isAfter(Instant.now())) {
+            return cached.statistics();
+        }
 
-        BigDecimal completedRevenue = allOrders.stream()
-                .filter(order -> order.getStatus() == OrderStatus.COMPLETED ||
-                        order.getStatus() == OrderStatus.DELIVERED)
-                .filter(order -> order.getPricing() != null)
-                .map(order -> order.getPricing().getTotal())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Counts and revenue come from one $facet aggregation instead of loading all orders
+        OrderStatisticsDto stats = withDerivedMetrics(orderRepository.aggregateOrderStatistics());
+        cachedStatistics = new CachedStatistics(stats, Instant.now());
+        return stats;
+    }
 
-        stats.setTotalRevenue(totalRevenue);
-        stats.setCompletedRevenue(completedRevenue);
+    @Override
+    public OrderStatisticsDto getSellerStatistics(String sellerId) {
+        return withDerivedMetrics(orderKpiService.getSellerStatistics(sellerId).orElseGet(this::emptyStatistics));
+    }
+
+    @Override
+    public OrderStatisticsDto getDailyStatistics(LocalDate day) {
+        return withDerivedMetrics(orderKpiService.getDailyStatistics(day).orElseGet(this::emptyStatistics));
+    }
+
+    @Override
+    public int rebuildOrderStatistics() {
+        return orderKpiService.rebuild();
+    }
+
+    @Override
+    public List<String> detectOrderStatisticsDrift() {
+        return orderKpiService.detectDrift();
+    }
+
+    private OrderStatisticsDto emptyStatistics() {
+        OrderStatisticsDto stats = new OrderStatisticsDto();
+        stats.setTotalRevenue(BigDecimal.ZERO);
+        stats.setCompletedRevenue(BigDecimal.ZERO);
+        return stats;
+    }
+
+    private OrderStatisticsDto withDerivedMetrics(OrderStatisticsDto stats) {
+        BigDecimal totalRevenue = stats.getTotalRevenue();
 
         // Calculate average order value
         if (stats.getTotalOrders() > 0) {
@@ -476,8 +601,8 @@ public class OrderServiceImpl implements OrderService {
                     order.setStatus(OrderStatus.CANCELLED);
                     order.getTimestamps().setCancelled(Instant.now());
 
-                    orderRepository.save(order);
                     publishOrderCancelledEvent(order);
+                    saveOrder(order);
 
                     log.info("Auto-cancelled stale order {}", order.getOrderNumber());
                 }
@@ -496,15 +621,10 @@ public class OrderServiceImpl implements OrderService {
                 return false;
             }
 
-            List<String> productIds = cart.getItems().stream()
-                    .map(CartItem::getProductId)
-                    .toList();
+            CheckoutSnapshot snapshot = new CheckoutSnapshot();
+            snapshot.load(cart.getItems(), productRepository, sellerRepository);
 
-            List<Integer> quantities = cart.getItems().stream()
-                    .map(CartItem::getProductQuantity)
-                    .toList();
-
-            return inventoryReservationService.validateCartReservations(userId, productIds, quantities);
+            return validateCartForOrder(userId, cart, snapshot);
 
         } catch (Exception exception) {
             log.error("Error validating cart for user {}: {}", userId, exception.getMessage());
@@ -515,15 +635,39 @@ public class OrderServiceImpl implements OrderService {
 
     // Helper methods
 
-    private List<OrderItem> convertCartItemsToOrderItems(List<CartItem> cartItems) {
-        List<OrderItem> orderItems = new ArrayList<>();
+    /**
+     * Validate the cart against the products already loaded into the checkout snapshot
+     */
+    private boolean validateCartForOrder(String userId, Cart cart, CheckoutSnapshot snapshot) {
+        if (cart.getItems() == null || cart.getItems().isEmpty()) {
+            return false;
+        }
+
+        Map<String, Integer> quantities = new HashMap<>();
+        cart.getItems().forEach(item -> quantities.merge(item.getProductId(), item.getProductQuantity(), Integer::sum));
+
+        return snapshot.track(() -> inventoryReservationService.validateCartReservations(userId, quantities, snapshot.getProducts()));
+    }
+
+    private void reportCheckoutRepositoryCalls(Order order, CheckoutSnapshot snapshot) {
+        int calls = snapshot.getRepositoryCalls();
+        if (calls > checkoutRepositoryCallBudget) {
+            log.warn("Checkout for order {} made {} repository calls for {} items (budget: {})",
+                    order.getOrderNumber(), calls, order.getOrderItems().size(), checkoutRepositoryCallBudget);
+        } else {
+            log.info("Checkout for order {} made {} repository calls for {} items (budget: {})",
+                    order.getOrderNumber(), calls, order.getOrderItems().size(), checkoutRepositoryCallBudget);
+        }
+    }
+
+    private List<OrderItem> convertCartItemsToOrderItems(List<CartItem> cartItems, CheckoutSnapshot snapshot) {
+        List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
 
         for (CartItem cartItem : cartItems) {
             // Get product and seller information
-            Product product = productRepository.findById(cartItem.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + cartItem.getProductId()));
+            Product product = snapshot.getProduct(cartItem.getProductId());
 
-            Seller seller = sellerRepository.findById(product.getSellerId())
+            Seller seller = snapshot.findSeller(product.getSellerId())
                     .orElse(null);
 
             OrderItem orderItem = new OrderItem();
@@ -569,6 +713,37 @@ public class OrderServiceImpl implements OrderService {
         return pricing;
     }
 
+    /**
+     * Save a changed order.
+     * The outbox relay bumps the version when it removes published events, so a version conflict
+     * where nothing but the outbox changed is merged: the stored outbox is kept and the events
+     * queued by this change are appended. Conflicts with other order changes are rethrown.
+     */
+    private Order saveOrder(Order order) {
+        Instant loadedUpdatedAt = order.getUpdatedAt();
+        List<OutboxEvent> queued = order.getOutbox() == null ? List.of() : order.getOutbox().stream()
+                .filter(OutboxEvent::isQueued)
+                .toList();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return orderRepository.save(order);
+            } catch (OptimisticLockingFailureException e) {
+                Order current = orderRepository.findById(order.getId()).orElseThrow(() -> e);
+                if (attempt >= MAX_SAVE_ATTEMPTS || !Objects.equals(current.getUpdatedAt(), loadedUpdatedAt)) {
+                    throw e;
+                }
+
+                List<OutboxEvent> outbox = new ArrayList<>(current.getOutbox() != null ? current.getOutbox() : List.of());
+                outbox.addAll(queued);
+                order.setOutbox(outbox);
+                order.setVersion(current.getVersion());
+                order.setUpdatedAt(loadedUpdatedAt);
+                log.debug("Order {} outbox changed by the relay, retrying save", order.getId());
+            }
+        }
+    }
+
     private Order getOrderForUser(String orderId, String userEmail) {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -600,24 +775,20 @@ public class OrderServiceImpl implements OrderService {
     }
 
     private void updateProductStockAfterOrder(Order order) {
-        for (OrderItem item : order.getOrderItems()) {
-            Product product = productRepository.findById(item.getProductId()).orElse(null);
-            if (product != null) {
-                int newStock = product.getStockCount() - item.getQuantity();
-                product.setStockCount(Math.max(0, newStock));
-                productRepository.save(product);
-            }
+        if (!productRepository.decrementStock(getQuantitiesByProduct(order))) {
+            throw new IllegalStateException("Insufficient stock to confirm order " + order.getOrderNumber());
         }
     }
 
     private void restoreProductStockAfterCancellation(Order order) {
-        for (OrderItem item : order.getOrderItems()) {
-            Product product = productRepository.findById(item.getProductId()).orElse(null);
-            if (product != null) {
-                product.setStockCount(product.getStockCount() + item.getQuantity());
-                productRepository.save(product);
-            }
-        }
+        int restored = productRepository.incrementStock(getQuantitiesByProduct(order));
+        log.debug("Restored stock of {} products for cancelled order {}", restored, order.getOrderNumber());
+    }
+
+    private Map<String, Integer> getQuantitiesByProduct(Order order) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        order.getOrderItems().forEach(item -> quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+        return quantities;
     }
 
     private void validateStatusTransition(OrderStatus currentStatus, OrderStatus newStatus) {
@@ -682,6 +853,16 @@ public class OrderServiceImpl implements OrderService {
 
     // Event publishing methods
 
+    /**
+     * Attach the order snapshot so consumers can render the event without reading the order
+     */
+    private OrderEvent withSnapshot(OrderEvent event, Order order) {
+        if (orderEventSnapshotsEnabled) {
+            event.setSnapshot(OrderSnapshot.of(order));
+        }
+        return event;
+    }
+
     private void publishOrderCreatedEvent(Order order) {
         try {
             Map<String, Object> eventData = Map.of(
@@ -701,11 +882,11 @@ public class OrderServiceImpl implements OrderService {
                     eventData
             );
 
-            kafkaTemplate.send("order-events", order.getId(), event);
-            log.debug("Published ORDER_CREATED event for order {}", order.getOrderNumber());
+            outboxService.enqueue(order, EventTopic.ORDER_EVENTS, withSnapshot(event, order));
+            log.debug("Queued ORDER_CREATED event for order {}", order.getOrderNumber());
 
         } catch (Exception e) {
-            log.error("Failed to publish ORDER_CREATED event for order {}: {}", order.getOrderNumber(), e.getMessage());
+            log.error("Failed to queue ORDER_CREATED event for order {}: {}", order.getOrderNumber(), e.getMessage());
         }
     }
 
@@ -727,11 +908,11 @@ public class OrderServiceImpl implements OrderService {
                     eventData
             );
 
-            kafkaTemplate.send("order-events", order.getId(), event);
-            log.debug("Published ORDER_CONFIRMED event for order {}", order.getOrderNumber());
+            outboxService.enqueue(order, EventTopic.ORDER_EVENTS, withSnapshot(event, order));
+            log.debug("Queued ORDER_CONFIRMED event for order {}", order.getOrderNumber());
 
         } catch (Exception e) {
-            log.error("Failed to publish ORDER_CONFIRMED event for order {}: {}", order.getOrderNumber(), e.getMessage());
+            log.error("Failed to queue ORDER_CONFIRMED event for order {}: {}", order.getOrderNumber(), e.getMessage());
         }
     }
 
@@ -753,11 +934,11 @@ public class OrderServiceImpl implements OrderService {
                     eventData
             );
 
-            kafkaTemplate.send("order-events", order.getId(), event);
-            log.debug("Published ORDER_PROCESSING event for order {}", order.getOrderNumber());
+            outboxService.enqueue(order, EventTopic.ORDER_EVENTS, withSnapshot(event, order));
+            log.debug("Queued ORDER_PROCESSING event for order {}", order.getOrderNumber());
 
         } catch (Exception e) {
-            log.error("Failed to publish ORDER_PROCESSING event for order {}: {}", order.getOrderNumber(), e.getMessage());
+            log.error("Failed to queue ORDER_PROCESSING event for order {}: {}", order.getOrderNumber(), e.getMessage());
         }
     }
 
@@ -783,11 +964,11 @@ public class OrderServiceImpl implements OrderService {
                     eventData
             );
 
-            kafkaTemplate.send("order-events", order.getId(), event);
-            log.debug("Published ORDER_CANCELLED event for order {}", order.getOrderNumber());
+            outboxService.enqueue(order, EventTopic.ORDER_EVENTS, withSnapshot(event, order));
+            log.debug("Queued ORDER_CANCELLED event for order {}", order.getOrderNumber());
 
         } catch (Exception e) {
-            log.error("Failed to publish ORDER_CANCELLED event for order {}: {}", order.getOrderNumber(), e.getMessage());
+            log.error("Failed to queue ORDER_CANCELLED event for order {}: {}", order.getOrderNumber(), e.getMessage());
         }
     }
 
@@ -813,11 +994,11 @@ public class OrderServiceImpl implements OrderService {
                     eventData
             );
 
-            kafkaTemplate.send("order-events", order.getId(), event);
-            log.debug("Published ORDER_SHIPPED event for order {}", order.getOrderNumber());
+            outboxService.enqueue(order, EventTopic.ORDER_EVENTS, withSnapshot(event, order));
+            log.debug("Queued ORDER_SHIPPED event for order {}", order.getOrderNumber());
 
         } catch (Exception e) {
-            log.error("Failed to publish ORDER_SHIPPED event for order {}: {}", order.getOrderNumber(), e.getMessage());
+            log.error("Failed to queue ORDER_SHIPPED event for order {}: {}", order.getOrderNumber(), e.getMessage());
         }
     }
 
@@ -842,11 +1023,11 @@ public class OrderServiceImpl implements OrderService {
                     eventData
             );
 
-            kafkaTemplate.send("order-events", order.getId(), event);
-            log.debug("Published ORDER_DELIVERED event for order {}", order.getOrderNumber());
+            outboxService.enqueue(order, EventTopic.ORDER_EVENTS, withSnapshot(event, order));
+            log.debug("Queued ORDER_DELIVERED event for order {}", order.getOrderNumber());
 
         } catch (Exception e) {
-            log.error("Failed to publish ORDER_DELIVERED event for order {}: {}", order.getOrderNumber(), e.getMessage());
+            log.error("Failed to queue ORDER_DELIVERED event for order {}: {}", order.getOrderNumber(), e.getMessage());
         }
     }
 
@@ -857,7 +1038,35 @@ public class OrderServiceImpl implements OrderService {
             case CANCELLED -> publishOrderCancelledEvent(order);
             case SHIPPED -> publishOrderShippedEvent(order);
             case DELIVERED -> publishOrderDeliveredEvent(order);
-            default -> log.debug("No specific event handler for status change to {}", order.getStatus());
+            default -> publishOrderStatusChangedEvent(order, previousStatus, updatedBy);
+        }
+    }
+
+    private void publishOrderStatusChangedEvent(Order order, OrderStatus previousStatus, String updatedBy) {
+        try {
+            Map<String, Object> eventData = Map.of(
+                    "orderId", order.getId(),
+                    "orderNumber", order.getOrderNumber(),
+                    "previousStatus", previousStatus.name(),
+                    "updatedBy", updatedBy
+            );
+
+            OrderEvent event = OrderEvent.orderStatusChanged(
+                    order.getId(),
+                    order.getOrderNumber(),
+                    order.getUserId(),
+                    order.getCustomerEmail(),
+                    order.getStatus(),
+                    order.getPricing().getTotal(),
+                    order.getPricing().getCurrency(),
+                    eventData
+            );
+
+            outboxService.enqueue(order, EventTopic.ORDER_EVENTS, withSnapshot(event, order));
+            log.debug("Queued ORDER_STATUS_CHANGED event for order {}", order.getOrderNumber());
+
+        } catch (Exception e) {
+            log.error("Failed to queue ORDER_STATUS_CHANGED event for order {}: {}", order.getOrderNumber(), e.getMessage());
         }
     }
 
@@ -879,11 +1088,11 @@ public class OrderServiceImpl implements OrderService {
     }
 
     /**
-     * Validate inventory availability for all cart items
+     * Validate inventory availability for all cart items against already loaded products
      */
-    private void validateInventoryForOrder(List<OrderItem> orderItems) {
+    private void validateInventoryForOrder(List<OrderItem> orderItems, Map<String, Product> products) {
         for (OrderItem item : orderItems) {
-            Product product = productRepository.findById(item.getProductId())
+            Product product = Optional.ofNullable(products.get(item.getProductId()))
                     .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + item.getProductId()));
             
             if (product.getStockCount() < item.getQuantity()) {
@@ -0,0 +1,24 @@
+package shopeazy.com.ecommerce_app.pdf.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * How the documents of many orders are delivered in one download
+ */
+@Getter
+@AllArgsConstructor
+public enum BulkDocumentFormat {
+    /**
+     * All documents merged into one multi-page PDF
+     */
+    PDF("application/pdf", ".pdf"),
+
+    /**
+     * A ZIP archive with one PDF per order
+     */
+    ZIP("application/zip", ".zip");
+
+    private final String contentType;
+    private final String extension;
+}
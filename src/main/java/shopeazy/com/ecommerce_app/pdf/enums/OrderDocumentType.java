@@ -0,0 +1,66 @@
+package shopeazy.com.ecommerce_app.pdf.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import shopeazy.com.ecommerce_app.order.model.Order;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * PDF documents generated for an order.
+ * Each type lists the order values its document shows; a stored document is reused as long as they are unchanged.
+ * Bump layoutRevision when the layout of a document changes, so stored copies are rendered again.
+ */
+@Getter
+@AllArgsConstructor
+public enum OrderDocumentType {
+    INVOICE("invoice", 3, order -> List.of(
+            String.valueOf(order.getOrderNumber()),
+            String.valueOf(order.getCreatedAt()),
+            String.valueOf(order.getCustomerName()),
+            String.valueOf(order.getCustomerEmail()),
+            String.valueOf(order.getBillingAddress()),
+            String.valueOf(order.getShippingAddress()),
+            items(order),
+            String.valueOf(order.getPricing()),
+            String.valueOf(order.getPaymentStatus()),
+            String.valueOf(order.getStatus()),
+            String.valueOf(order.getPaymentTransactionId()))),
+
+    CANCELLATION_RECEIPT("cancellation-receipt", 2, order -> List.of(
+            String.valueOf(order.getOrderNumber()),
+            String.valueOf(order.getCreatedAt()),
+            String.valueOf(order.getCustomerName()),
+            String.valueOf(order.getCustomerEmail()),
+            String.valueOf(order.getStatus()),
+            String.valueOf(order.getPricing() != null ? order.getPricing().getTotal() : null),
+            String.valueOf(order.getCancellationInfo()))),
+
+    ORDER_SUMMARY("order-summary", 2, order -> List.of(
+            String.valueOf(order.getOrderNumber()),
+            String.valueOf(order.getCustomerName()),
+            String.valueOf(order.getCustomerEmail()),
+            String.valueOf(order.getCreatedAt()),
+            String.valueOf(order.getStatus()),
+            String.valueOf(order.getPricing() != null ? order.getPricing().getTotal() : null),
+            items(order),
+            String.valueOf(order.getPaymentStatus()),
+            String.valueOf(order.getTimestamps()),
+            String.valueOf(order.getTrackingInfo())));
+
+    private final String filePrefix;
+    private final int layoutRevision;
+    private final Function<Order, List<String>> renderedValues;
+
+    public String fileName(Order order) {
+        return filePrefix + "-" + order.getOrderNumber() + ".pdf";
+    }
+
+    private static String items(Order order) {
+        return order.getOrderItems() == null ? "null" : order.getOrderItems().stream()
+                .map(item -> item.getProductName() + "|" + item.getQuantity() + "|" + item.getPriceAtTime() + "|" + item.getTotalPrice())
+                .toList()
+                .toString();
+    }
+}
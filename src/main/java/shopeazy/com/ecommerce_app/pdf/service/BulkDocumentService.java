@@ -0,0 +1,200 @@
+package shopeazy.com.ecommerce_app.pdf.service;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.utils.PdfMerger;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import shopeazy.com.ecommerce_app.common.exception.BusinessException;
+import shopeazy.com.ecommerce_app.common.exception.ProblemTypes;
+import shopeazy.com.ecommerce_app.common.exception.ResourceNotFoundException;
+import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
+import shopeazy.com.ecommerce_app.order.model.Order;
+import shopeazy.com.ecommerce_app.order.repository.OrderRepository;
+import shopeazy.com.ecommerce_app.pdf.enums.BulkDocumentFormat;
+import shopeazy.com.ecommerce_app.pdf.enums.OrderDocumentType;
+import shopeazy.com.ecommerce_app.seller.model.Seller;
+import shopeazy.com.ecommerce_app.seller.repository.SellerProfileRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams the documents of many seller orders as one merged PDF or as a ZIP with one PDF per order.
+ * Orders are read through a cursor and their documents taken from {@link OrderDocumentStore}, which renders
+ * and stores the missing ones, on a pool of render threads. Up to two documents per thread are prepared
+ * ahead while earlier ones are written, in order, so memory is bounded by that window and not by the order count.
+ * The merged PDF is written in smart mode: fonts and other resources the documents share are stored once,
+ * and the pages of each document are written out as soon as they were copied.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkDocumentService {
+
+    private final OrderDocumentStore documentStore;
+    private final OrderRepository orderRepository;
+    private final SellerProfileRepository sellerRepository;
+
+    /**
+     * Render threads; 0 uses one per available processor
+     */
+    @Value("${app.documents.bulk.render-threads:0}")
+    private int renderThreads;
+
+    @Value("${app.documents.bulk.max-orders:1000}")
+    private int maxOrders;
+
+    private ExecutorService executor;
+    private int prefetch;
+
+    @PostConstruct
+    void start() {
+        int threads = renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+        prefetch = threads * 2;
+        AtomicLong threadNumber = new AtomicLong();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "document-render-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The documents of the seller's orders matching the filter, oldest order first.
+     * The dates are UTC days, both inclusive; any filter may be null.
+     */
+    public DocumentDownload open(String sellerEmail, OrderDocumentType type, BulkDocumentFormat format,
+                                 OrderStatus status, LocalDate from, LocalDate to) {
+        Seller seller = sellerRepository.findByContactEmail(sellerEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("Seller profile not found"));
+        String sellerId = seller.getSellerId();
+        Instant createdFrom = from != null ? from.atStartOfDay(ZoneOffset.UTC).toInstant() : null;
+        Instant createdTo = to != null ? to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant() : null;
+
+        long count = orderRepository.countSellerOrders(sellerId, status, createdFrom, createdTo);
+        if (count == 0) {
+            throw new ResourceNotFoundException("No orders match the filter");
+        }
+        if (count > maxOrders) {
+            throw new BusinessException(HttpStatus.BAD_REQUEST, ProblemTypes.BAD_REQUEST,
+                    "The filter matches " + count + " orders, at most " + maxOrders + " can be downloaded at once");
+        }
+
+        String fileName = type.getFilePrefix() + "s-" + LocalDate.now(ZoneOffset.UTC) + format.getExtension();
+        log.info("Streaming {} {} documents of seller {} as {}", count, type, sellerId, format);
+        return new DocumentDownload(fileName, null, out -> {
+            try (Stream<Order> orders = orderRepository.streamSellerOrders(sellerId, status, createdFrom, createdTo)) {
+                switch (format) {
+                    case PDF -> writeMerged(orders, type, out);
+                    case ZIP -> writeZip(orders, type, out);
+                }
+            }
+        });
+    }
+
+    private void writeMerged(Stream<Order> orders, OrderDocumentType type, OutputStream out) throws IOException {
+        PdfWriter writer = new PdfWriter(out, new WriterProperties().useSmartMode());
+        writer.setCloseStream(false);
+        PdfDocument merged = new PdfDocument(writer);
+        PdfMerger merger = new PdfMerger(merged);
+
+        forEachDocument(orders, type, (order, pdf) -> {
+            try (PdfDocument source = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+                merger.merge(source, 1, source.getNumberOfPages());
+                merged.flushCopiedObjects(source);
+            }
+        });
+
+        if (merged.getNumberOfPages() == 0) {
+            // Every document failed; a PDF needs at least one page
+            merged.addNewPage();
+        }
+        merged.close();
+    }
+
+    private void writeZip(Stream<Order> orders, OrderDocumentType type, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // PDF content streams are compressed already
+        zip.setLevel(Deflater.BEST_SPEED);
+
+        forEachDocument(orders, type, (order, pdf) -> {
+            zip.putNextEntry(new ZipEntry(type.fileName(order)));
+            zip.write(pdf);
+            zip.closeEntry();
+        });
+        zip.finish();
+    }
+
+    /**
+     * Hand the documents to the consumer in order while the next ones are prepared on the render threads.
+     * A document that cannot be prepared is left out.
+     */
+    private void forEachDocument(Stream<Order> orders, OrderDocumentType type, DocumentConsumer consumer) throws IOException {
+        Iterator<Order> remaining = orders.iterator();
+        Deque<PendingDocument> pending = new ArrayDeque<>();
+        int skipped = 0;
+        try {
+            while (remaining.hasNext() || !pending.isEmpty()) {
+                while (remaining.hasNext() && pending.size() < prefetch) {
+                    Order order = remaining.next();
+                    pending.add(new PendingDocument(order,
+                            CompletableFuture.supplyAsync(() -> documentStore.getOrRender(type, order), executor)));
+                }
+
+                PendingDocument next = pending.poll();
+                byte[] pdf;
+                try {
+                    pdf = next.pdf().join();
+                } catch (CompletionException e) {
+                    log.warn("Leaving {} of order {} out of the bulk download: {}",
+                            type, next.order().getOrderNumber(), e.getCause().getMessage());
+                    skipped++;
+                    continue;
+                }
+                consumer.accept(next.order(), pdf);
+            }
+        } finally {
+            pending.forEach(document -> document.pdf().cancel(true));
+        }
+        if (skipped > 0) {
+            log.warn("Left {} {} documents out of a bulk download", skipped, type);
+        }
+    }
+
+    @FunctionalInterface
+    private interface DocumentConsumer {
+        void accept(Order order, byte[] pdf) throws IOException;
+    }
+
+    private record PendingDocument(Order order, CompletableFuture<byte[]> pdf) {
+    }
+}
@@ -0,0 +1,16 @@
+package shopeazy.com.ecommerce_app.pdf.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An order document ready to be written into a response.
+ * The content length is null when the document is rendered while it is written.
+ */
+public record DocumentDownload(String fileName, Long contentLength, Body body) {
+
+    @FunctionalInterface
+    public interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
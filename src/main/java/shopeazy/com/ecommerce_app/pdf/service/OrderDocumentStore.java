@@ -0,0 +1,354 @@
+package shopeazy.com.ecommerce_app.pdf.service;
+
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.gridfs.GridFSUploadStream;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.mongodb.client.gridfs.model.GridFSUploadOptions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Service;
+import shopeazy.com.ecommerce_app.order.model.Order;
+import shopeazy.com.ecommerce_app.pdf.enums.OrderDocumentType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Stores the invoices and cancellation receipts of orders in GridFS, keyed by order ID, document type and version.
+ * The version is a hash of the order values the document shows, so a document is rendered once per
+ * order change and otherwise read from GridFS; older versions are deleted when a new one is stored.
+ * GridFS is a cache here: when it fails, the document is rendered and returned anyway.
+ * Downloads go through {@link #open}, which never holds a whole document in memory.
+ * Exposes order.documents.requests (result hit/miss), order.documents.hit.ratio and order.documents.render.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderDocumentStore {
+
+    static final String CONTENT_TYPE = "application/pdf";
+
+    private final PdfGenerationService pdfService;
+    private final GridFSBucket gridFSBucket;
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<OrderDocumentType, Meters> meters = new EnumMap<>(OrderDocumentType.class);
+
+    @PostConstruct
+    void registerMetrics() {
+        for (OrderDocumentType type : OrderDocumentType.values()) {
+            meters.put(type, meters(type));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        try {
+            mongoTemplate.indexOps(gridFSBucket.getBucketName() + ".files").ensureIndex(new Index()
+                    .on("metadata.orderId", Sort.Direction.ASC)
+                    .on("metadata.documentType", Sort.Direction.ASC)
+                    .on("metadata.version", Sort.Direction.ASC)
+                    .named("order_document_version")
+                    .sparse());
+        } catch (Exception e) {
+            log.error("Failed to ensure order document indexes: {}", e.getMessage(), e);
+        }
+    }
+
+    public byte[] getInvoicePdf(Order order) {
+        return getOrRender(OrderDocumentType.INVOICE, order);
+    }
+
+    public byte[] getCancellationReceiptPdf(Order order) {
+        return getOrRender(OrderDocumentType.CANCELLATION_RECEIPT, order);
+    }
+
+    /**
+     * The stored document for the order's current version, rendered and stored first if there is none
+     */
+    public byte[] getOrRender(OrderDocumentType type, Order order) {
+        String version = version(type, order);
+        Meters typeMeters = meters.get(type);
+
+        Optional<byte[]> stored = read(type, order, version);
+        if (stored.isPresent()) {
+            typeMeters.hits().increment();
+            return stored.get();
+        }
+        typeMeters.misses().increment();
+
+        byte[] pdf = typeMeters.render().record(() -> render(type, order));
+        store(type, order, version, pdf);
+        return pdf;
+    }
+
+    /**
+     * The order's current document for download. A stored document is streamed from GridFS with its length;
+     * otherwise it is rendered straight into the response and copied into GridFS while it is written.
+     */
+    public DocumentDownload open(OrderDocumentType type, Order order) {
+        String version = version(type, order);
+        Meters typeMeters = meters.get(type);
+        String fileName = type.fileName(order);
+
+        GridFSFile stored = null;
+        try {
+            stored = gridFSBucket.find(versionFilter(type, order.getId(), version)).first();
+        } catch (Exception e) {
+            log.warn("Failed to look up stored {} of order {}, rendering it: {}", type, order.getOrderNumber(), e.getMessage());
+        }
+        if (stored != null) {
+            typeMeters.hits().increment();
+            GridFSFile file = stored;
+            return new DocumentDownload(fileName, file.getLength(), out -> gridFSBucket.downloadToStream(file.getObjectId(), out));
+        }
+
+        typeMeters.misses().increment();
+        return new DocumentDownload(fileName, null, out -> {
+            CopyingOutputStream copying = new CopyingOutputStream(out, openUpload(type, order, version));
+            try {
+                typeMeters.render().record(() -> write(type, order, copying));
+            } catch (RuntimeException e) {
+                copying.abortCopy();
+                throw e;
+            }
+            if (copying.completeCopy()) {
+                deleteOtherVersions(type, order, version);
+            }
+        });
+    }
+
+    /**
+     * GridFS entry of the order's current document version, if it was stored before
+     */
+    public Optional<GridFSFile> findStored(OrderDocumentType type, Order order) {
+        return Optional.ofNullable(gridFSBucket.find(versionFilter(type, order.getId(), version(type, order))).first());
+    }
+
+    /**
+     * Version of the document the order renders to: a hash of the values the document shows
+     */
+    public String version(OrderDocumentType type, Order order) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((type.name() + ":" + type.getLayoutRevision()).getBytes(StandardCharsets.UTF_8));
+            for (String value : type.getRenderedValues().apply(order)) {
+                digest.update((byte) 0);
+                digest.update(value.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Optional<byte[]> read(OrderDocumentType type, Order order, String version) {
+        try {
+            GridFSFile file = gridFSBucket.find(versionFilter(type, order.getId(), version)).first();
+            if (file == null) {
+                return Optional.empty();
+            }
+            ByteArrayOutputStream content = new ByteArrayOutputStream((int) file.getLength());
+            gridFSBucket.downloadToStream(file.getObjectId(), content);
+            return Optional.of(content.toByteArray());
+        } catch (Exception e) {
+            log.warn("Failed to read stored {} of order {}, rendering it: {}", type, order.getOrderNumber(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private byte[] render(OrderDocumentType type, Order order) {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        write(type, order, pdf);
+        return pdf.toByteArray();
+    }
+
+    private void write(OrderDocumentType type, Order order, OutputStream out) {
+        switch (type) {
+            case INVOICE -> pdfService.writeInvoicePdf(order, out);
+            case CANCELLATION_RECEIPT -> pdfService.writeCancellationReceiptPdf(order, out);
+            case ORDER_SUMMARY -> pdfService.writeOrderSummaryPdf(order, out);
+        }
+    }
+
+    private void store(OrderDocumentType type, Order order, String version, byte[] pdf) {
+        if (order.getId() == null) {
+            return;
+        }
+        try {
+            gridFSBucket.uploadFromStream(type.fileName(order), new ByteArrayInputStream(pdf), uploadOptions(type, order, version));
+        } catch (Exception e) {
+            log.warn("Failed to store {} of order {}: {}", type, order.getOrderNumber(), e.getMessage());
+            return;
+        }
+        deleteOtherVersions(type, order, version);
+    }
+
+    /**
+     * Upload stream for a document rendered into a response, null if it cannot be stored
+     */
+    private GridFSUploadStream openUpload(OrderDocumentType type, Order order, String version) {
+        if (order.getId() == null) {
+            return null;
+        }
+        try {
+            return gridFSBucket.openUploadStream(type.fileName(order), uploadOptions(type, order, version));
+        } catch (Exception e) {
+            log.warn("Failed to store {} of order {}: {}", type, order.getOrderNumber(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Only the current version is served; keep a single copy per order and type
+     */
+    private void deleteOtherVersions(OrderDocumentType type, Order order, String version) {
+        try {
+            gridFSBucket.find(Filters.and(
+                            Filters.eq("metadata.orderId", order.getId()),
+                            Filters.eq("metadata.documentType", type.name()),
+                            Filters.ne("metadata.version", version)))
+                    .forEach(previous -> gridFSBucket.delete(previous.getObjectId()));
+            log.debug("Stored {} version {} of order {}", type, version, order.getOrderNumber());
+        } catch (Exception e) {
+            log.warn("Failed to delete previous {} versions of order {}: {}", type, order.getOrderNumber(), e.getMessage());
+        }
+    }
+
+    private static GridFSUploadOptions uploadOptions(OrderDocumentType type, Order order, String version) {
+        return new GridFSUploadOptions().metadata(new Document()
+                .append("orderId", order.getId())
+                .append("orderNumber", order.getOrderNumber())
+                .append("documentType", type.name())
+                .append("version", version)
+                .append("contentType", CONTENT_TYPE));
+    }
+
+    private static Bson versionFilter(OrderDocumentType type, String orderId, String version) {
+        return Filters.and(
+                Filters.eq("metadata.orderId", orderId),
+                Filters.eq("metadata.documentType", type.name()),
+                Filters.eq("metadata.version", version));
+    }
+
+    private Meters meters(OrderDocumentType type) {
+        String tag = type.getFilePrefix();
+        Counter hits = Counter.builder("order.documents.requests").tag("type", tag).tag("result", "hit").register(meterRegistry);
+        Counter misses = Counter.builder("order.documents.requests").tag("type", tag).tag("result", "miss").register(meterRegistry);
+        Gauge.builder("order.documents.hit.ratio", () -> {
+                    double total = hits.count() + misses.count();
+                    return total == 0 ? 0 : hits.count() / total;
+                })
+                .description("Share of document requests served from GridFS")
+                .tag("type", tag)
+                .register(meterRegistry);
+        Timer render = Timer.builder("order.documents.render")
+                .description("Time to render a document that was not stored yet")
+                .tag("type", tag)
+                .register(meterRegistry);
+        return new Meters(hits, misses, render);
+    }
+
+    private record Meters(Counter hits, Counter misses, Timer render) {
+    }
+
+    /**
+     * Writes to the response and copies everything into a GridFS upload.
+     * A failing upload is aborted and no longer copied to; the response is written on regardless.
+     */
+    private static final class CopyingOutputStream extends OutputStream {
+
+        private final OutputStream target;
+        private GridFSUploadStream copy;
+
+        private CopyingOutputStream(OutputStream target, GridFSUploadStream copy) {
+            this.target = target;
+            this.copy = copy;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            if (copy != null) {
+                try {
+                    copy.write(b);
+                } catch (RuntimeException e) {
+                    abandonCopy(e);
+                }
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+            if (copy != null) {
+                try {
+                    copy.write(b, off, len);
+                } catch (RuntimeException e) {
+                    abandonCopy(e);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        /**
+         * Finish the upload; true if the document was stored
+         */
+        boolean completeCopy() {
+            if (copy == null) {
+                return false;
+            }
+            try {
+                copy.close();
+                return true;
+            } catch (RuntimeException e) {
+                abandonCopy(e);
+                return false;
+            }
+        }
+
+        void abortCopy() {
+            if (copy == null) {
+                return;
+            }
+            try {
+                copy.abort();
+            } catch (RuntimeException e) {
+                log.debug("Failed to abort document upload: {}", e.getMessage());
+            }
+            copy = null;
+        }
+
+        private void abandonCopy(RuntimeException e) {
+            log.warn("Failed to store rendered document, serving it without storing: {}", e.getMessage());
+            abortCopy();
+        }
+    }
+}
@@ -38,6 +38,11 @@ public class Product {
     @Min(0)
     private Integer stockCount;
 
+    /**
+     * Incremented by every atomic stock change; orders the updates of the Redis stock mirror
+     */
+    private Long stockVersion;
+
     @NotBlank
     private String category;
 
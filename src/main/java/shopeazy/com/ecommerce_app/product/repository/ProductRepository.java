@@ -6,7 +6,7 @@ import shopeazy.com.ecommerce_app.product.model.Product;
 
 import java.util.List;
 
-public interface ProductRepository extends MongoRepository<Product, String> {
+public interface ProductRepository extends MongoRepository<Product, String>, ProductStockRepository {
     long countBySellerId(String sellerId);
 
     boolean existsByNameAndSellerId(@NotBlank(message = "Product name is required") String name, @NotBlank(message = "Seller ID is required") String sellerId);
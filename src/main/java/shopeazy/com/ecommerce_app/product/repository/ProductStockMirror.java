@@ -0,0 +1,67 @@
+package shopeazy.com.ecommerce_app.product.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import shopeazy.com.ecommerce_app.product.model.Product;
+
+import java.util.List;
+
+/**
+ * Redis copy of product stock counts, read by the inventory reservation script.
+ * {@link ProductStockRepository} writes every stock change through to the mirror together
+ * with the product's stock version, so concurrent writers that reach Redis out of order
+ * cannot put an older stock count back. The TTL only bounds memory and the staleness left
+ * by whole-document product saves, which evict the mirror instead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductStockMirror {
+
+    private static final String KEY_PREFIX = "product_stock:";
+
+    private static final RedisScript<Long> UPDATE_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/update_stock_mirror.lua"), Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${app.inventory.stock-mirror-ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    /**
+     * Write the stock of a product read from MongoDB unless the mirror already holds a newer version
+     */
+    public void update(Product product) {
+        if (product.getId() == null || product.getStockCount() == null) {
+            return;
+        }
+        long version = product.getStockVersion() != null ? product.getStockVersion() : 0L;
+
+        try {
+            redisTemplate.execute(UPDATE_SCRIPT, List.of(key(product.getId())),
+                    String.valueOf(product.getStockCount()), String.valueOf(version), String.valueOf(ttlSeconds));
+        } catch (Exception e) {
+            log.warn("Failed to update stock mirror of product {}: {}", product.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Drop the mirror of a product so the next reservation reloads it from MongoDB
+     */
+    public void evict(String productId) {
+        try {
+            redisTemplate.delete(key(productId));
+        } catch (Exception e) {
+            log.warn("Failed to evict stock mirror of product {}: {}", productId, e.getMessage());
+        }
+    }
+
+    public static String key(String productId) {
+        return KEY_PREFIX + productId;
+    }
+}
@@ -0,0 +1,44 @@
+package shopeazy.com.ecommerce_app.product.repository;
+
+import java.util.Map;
+
+/**
+ * Atomic stock operations for products.
+ * Every change is a single server-side $inc, so concurrent updates cannot be lost
+ * and only the stock field is written instead of the whole product document.
+ */
+public interface ProductStockRepository {
+
+    /**
+     * Decrement stock only if at least the given quantity is left.
+     * A zero quantity is a no-op.
+     *
+     * @return true if the stock was decremented, false if the product is missing or has insufficient stock
+     */
+    boolean decrementStock(String productId, int quantity);
+
+    /**
+     * Increment stock (e.g. when items are removed from a cart or an order is cancelled).
+     * A zero quantity is a no-op.
+     *
+     * @return true if the product exists and was updated
+     */
+    boolean incrementStock(String productId, int quantity);
+
+    /**
+     * Decrement stock for all products of an order, all or nothing.
+     * If any product has insufficient stock, the decrements already applied are reverted.
+     *
+     * @param quantities quantity to decrement per product ID
+     * @return true if every product was decremented
+     */
+    boolean decrementStock(Map<String, Integer> quantities);
+
+    /**
+     * Increment stock for all products of an order with a single bulk write
+     *
+     * @param quantities quantity to increment per product ID
+     * @return number of products that were updated
+     */
+    int incrementStock(Map<String, Integer> quantities);
+}
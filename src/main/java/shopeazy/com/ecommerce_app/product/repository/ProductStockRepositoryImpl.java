@@ -0,0 +1,140 @@
+package shopeazy.com.ecommerce_app.product.repository;
+
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import shopeazy.com.ecommerce_app.product.model.Product;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * MongoTemplate based implementation of {@link ProductStockRepository}.
+ * Picked up by Spring Data as a fragment of {@link ProductRepository}.
+ * Every change also bumps the product's stock version and is written through to the
+ * {@link ProductStockMirror} used by the inventory reservation script.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    private static final String STOCK_COUNT = "stockCount";
+    private static final String STOCK_VERSION = "stockVersion";
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductStockMirror stockMirror;
+
+    @Override
+    public boolean decrementStock(String productId, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity to decrement must not be negative");
+        }
+        if (quantity == 0) {
+            return productExists(productId);
+        }
+
+        Query query = new Query(Criteria.where("_id").is(productId).and(STOCK_COUNT).gte(quantity));
+
+        return applyStockChange(query, -quantity);
+    }
+
+    @Override
+    public boolean incrementStock(String productId, int quantity) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity to increment must not be negative");
+        }
+        if (quantity == 0) {
+            return productExists(productId);
+        }
+
+        Query query = new Query(Criteria.where("_id").is(productId));
+
+        return applyStockChange(query, quantity);
+    }
+
+    @Override
+    public boolean decrementStock(Map<String, Integer> quantities) {
+        Map<String, Integer> applied = new LinkedHashMap<>();
+
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            if (entry.getValue() == 0) {
+                continue;
+            }
+            if (!decrementStock(entry.getKey(), entry.getValue())) {
+                log.warn("Insufficient stock for product {} (requested {}), reverting {} applied decrements",
+                        entry.getKey(), entry.getValue(), applied.size());
+                if (!applied.isEmpty()) {
+                    incrementStock(applied);
+                }
+                return false;
+            }
+            applied.put(entry.getKey(), entry.getValue());
+        }
+
+        return true;
+    }
+
+    @Override
+    public int incrementStock(Map<String, Integer> quantities) {
+        Map<String, Integer> changes = new LinkedHashMap<>();
+        quantities.forEach((productId, quantity) -> {
+            if (quantity != 0) {
+                changes.put(productId, quantity);
+            }
+        });
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        changes.forEach((productId, quantity) ->
+                bulkOperations.updateOne(new Query(Criteria.where("_id").is(productId)), stockChange(quantity)));
+
+        BulkWriteResult result = bulkOperations.execute();
+
+        // Bulk writes return no documents; read back the new stock of the changed products for the mirror
+        Query changed = new Query(Criteria.where("_id").in(changes.keySet()));
+        changed.fields().include(STOCK_COUNT).include(STOCK_VERSION);
+        mongoTemplate.find(changed, Product.class).forEach(stockMirror::update);
+
+        return result.getModifiedCount();
+    }
+
+    /**
+     * A zero quantity changes nothing; only report whether the product exists
+     */
+    private boolean productExists(String productId) {
+        return mongoTemplate.exists(new Query(Criteria.where("_id").is(productId)), Product.class);
+    }
+
+    /**
+     * Apply a stock change to the product matched by the query and mirror the new stock
+     *
+     * @return true if a product matched
+     */
+    private boolean applyStockChange(Query query, int delta) {
+        query.fields().include(STOCK_COUNT).include(STOCK_VERSION);
+
+        Product updated = mongoTemplate.findAndModify(query, stockChange(delta),
+                FindAndModifyOptions.options().returnNew(true), Product.class);
+        if (updated == null) {
+            return false;
+        }
+
+        stockMirror.update(updated);
+        return true;
+    }
+
+    private Update stockChange(int delta) {
+        return new Update()
+                .inc(STOCK_COUNT, delta)
+                .inc(STOCK_VERSION, 1)
+                .currentDate("updatedAt");
+    }
+}
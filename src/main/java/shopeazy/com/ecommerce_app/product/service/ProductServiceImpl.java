@@ -13,6 +13,7 @@ import shopeazy.com.ecommerce_app.common.exception.ResourceNotFoundException;
 import shopeazy.com.ecommerce_app.product.mapper.ProductMapper;
 import shopeazy.com.ecommerce_app.product.model.Product;
 import shopeazy.com.ecommerce_app.product.repository.ProductRepository;
+import shopeazy.com.ecommerce_app.product.repository.ProductStockMirror;
 import shopeazy.com.ecommerce_app.product.validator.ProductValidator;
 import shopeazy.com.ecommerce_app.seller.model.Seller;
 import shopeazy.com.ecommerce_app.seller.repository.SellerProfileRepository;
@@ -29,6 +30,7 @@ public class ProductServiceImpl implements ProductService {
     private final SellerProfileRepository sellerProfileRepository;
     private final UniqueReadableNumberService uniqueReadableNumberService;
     private final ModelMapper modelMapper;
+    private final ProductStockMirror stockMirror;
 
     @Override
     public List<Product> findAll() {
@@ -94,6 +96,8 @@ public class ProductServiceImpl implements ProductService {
         applyUpdate(product, request);
 
         Product updatedProduct = productRepository.save(product);
+        // The whole-document save may change the stock without a stock version; reservations reload it
+        stockMirror.evict(updatedProduct.getId());
 
         Seller seller = sellerProfileRepository.findById(sellerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Seller not found"));
@@ -115,6 +119,7 @@ public class ProductServiceImpl implements ProductService {
                 .filter(Objects::nonNull)
                 .toList();
         List<Product> updated = productRepository.saveAll(toUpdate);
+        updated.forEach(product -> stockMirror.evict(product.getId()));
 
         Seller seller = sellerProfileRepository.findById(sellerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Seller not found"));
@@ -238,10 +243,9 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public void restoreStock(String productId, int quantityToRestore) {
-        Product product = productRepository.findById(productId).orElseThrow(ResourceNotFoundException::new);
-        int updatedStock = product.getStockCount() + quantityToRestore;
-        product.setStockCount(updatedStock);
-        productRepository.save(product);
+        if (!productRepository.incrementStock(productId, quantityToRestore)) {
+            throw new ResourceNotFoundException();
+        }
     }
 
 
@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 
 @Data
@@ -31,6 +32,12 @@ public class CartItem {
     @NotNull(message = "Discount percentage is required")
     private BigDecimal discount;         // Percentage
 
+    /**
+     * Creation time of the reservation holding this item's stock. When the reservation expires only
+     * the item it held is removed, not one added again after it expired.
+     */
+    private Instant reservedAt;
+
     // Computed field for backward compatibility
     public BigDecimal getProductPrice() {
         return discountedPrice != null ? discountedPrice : BigDecimal.ZERO;
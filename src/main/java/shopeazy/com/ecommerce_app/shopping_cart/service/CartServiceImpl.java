@@ -20,6 +20,8 @@ import shopeazy.com.ecommerce_app.common.exception.BusinessException;
 import shopeazy.com.ecommerce_app.common.exception.ProblemTypes;
 import org.springframework.http.HttpStatus;
 import shopeazy.com.ecommerce_app.product.dto.ProductAvailabilityResponse;
+import shopeazy.com.ecommerce_app.inventory.service.InventoryReservationService;
+import shopeazy.com.ecommerce_app.product.exception.ProductOutOfStockException;
 import shopeazy.com.ecommerce_app.product.model.Product;
 import shopeazy.com.ecommerce_app.product.repository.ProductRepository;
 import shopeazy.com.ecommerce_app.product.service.ProductService;
@@ -42,6 +44,7 @@ public class CartServiceImpl implements CartService {
     private final ProductService productService;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final InventoryReservationService inventoryReservationService;
     private final ModelMapper modelMapper;
     private static final String MISSING_USER_IN_DB = "User not found";
 
@@ -57,16 +60,10 @@ public class CartServiceImpl implements CartService {
 
         ProductAvailabilityResponse response = productService.checkProductAvailability(request.getProductId());
         log.info("Product availability response and count of stock: {}, {}", response.isAvailable(), response.getProductStockCount());
-        productService.validateRequestedQuantity(request.getProductId(), request.getQuantity());
 
         // updating product stock
-        log.info("Product count before update: {}", product.getStockCount());
         log.info("Product count update request: {}", request.getQuantity());
-
-        product.setStockCount(product.getStockCount() - request.getQuantity());
-        log.info("Product count after update: {}", product.getStockCount());
-
-        productRepository.save(product);
+        decrementStock(product.getId(), request.getQuantity());
 
 
         Cart cart = cartRepository.findByUserId(user.getId()).orElseGet(() -> {
@@ -82,14 +79,16 @@ public class CartServiceImpl implements CartService {
                 .filter(item -> item.getProductId().equals(product.getId()))
                 .findFirst();
 
+        CartItem cartItem;
         if (existingItemOption.isPresent()) {
-            CartItem existingItem = existingItemOption.get();
-            existingItem.setProductQuantity(existingItem.getProductQuantity() + request.getQuantity());
+            cartItem = existingItemOption.get();
+            cartItem.setProductQuantity(cartItem.getProductQuantity() + request.getQuantity());
         } else {
-            CartItem newItem = createCartItem(product, request.getQuantity());
-            cart.getItems().add(newItem);
+            cartItem = createCartItem(product, request.getQuantity());
+            cart.getItems().add(cartItem);
         }
 
+        holdStock(user, cartItem);
         cart.setUpdatedAt(Instant.now());
         cartRepository.save(cart);
         CartResponse cartResponse = modelMapper.map(cart, CartResponse.class);
@@ -124,23 +123,23 @@ public class CartServiceImpl implements CartService {
 
         UpdatedCartInfoResponse response = new UpdatedCartInfoResponse();
         List<RemovedProductItem> removed = new ArrayList<>();
+        CartItem heldItem = null;
 
         switch (action) {
             case ADD -> {
-                productService.validateRequestedQuantity(product.getId(), request.getQuantity());
+                decrementStock(product.getId(), request.getQuantity());
 
+                CartItem item;
                 if (existingItemOpt.isPresent()) {
-                    CartItem item = existingItemOpt.get();
+                    item = existingItemOpt.get();
                     item.setProductQuantity(item.getProductQuantity() + request.getQuantity());
                     log.info("Increased quantity of product {} in cart", product.getId());
                 } else {
-                    CartItem newItem = createCartItem(product, request.getQuantity());
-                    cart.getItems().add(newItem);
+                    item = createCartItem(product, request.getQuantity());
+                    cart.getItems().add(item);
                     log.info("Added new product {} to cart", product.getId());
                 }
-
-                product.setStockCount(product.getStockCount() - request.getQuantity());
-                productRepository.save(product);
+                heldItem = item;
             }
             case REMOVE -> {
                 if (existingItemOpt.isEmpty()) {
@@ -168,6 +167,7 @@ public class CartServiceImpl implements CartService {
                     log.info("Removed product {} completely from cart", product.getId());
                 } else {
                     item.setProductQuantity(currentQty - removeQty);
+                    heldItem = item;
                     removedItem.setQuantity(removeQty);
                     productService.restoreStock(product.getId(), removeQty);
                     log.info("Reduced quantity of product {} in cart", product.getId());
@@ -178,9 +178,16 @@ public class CartServiceImpl implements CartService {
 
         }
 
+        if (heldItem != null) {
+            holdStock(user, heldItem);
+        }
         cart.setUpdatedAt(Instant.now());
         cartRepository.save(cart);
 
+        if (heldItem == null) {
+            inventoryReservationService.releaseReservation(user.getId(), product.getId());
+        }
+
         CartResponse cartResponse = modelMapper.map(cart, CartResponse.class);
         cartResponse.setUserEmail(user.getEmail());
 
@@ -213,6 +220,7 @@ public class CartServiceImpl implements CartService {
         // Restore stock
         for (CartItem item : cart.getItems()) {
             productService.restoreStock(item.getProductId(), item.getProductQuantity());
+            inventoryReservationService.releaseReservation(user.getId(), item.getProductId());
         }
 
         cart.getItems().clear(); // empty cart
@@ -226,6 +234,26 @@ public class CartServiceImpl implements CartService {
                 .orElseThrow(() -> new ResourceNotFoundException("No cart found for the authenticated user"));
     }
 
+    /**
+     * Atomically take the requested quantity out of stock, failing if not enough is left
+     */
+    private void decrementStock(String productId, int quantity) {
+        if (!productRepository.decrementStock(productId, quantity)) {
+            throw new ProductOutOfStockException("Not enough stock available");
+        }
+        log.info("Decremented stock of product {} by {}", productId, quantity);
+    }
+
+    /**
+     * Hold the item's quantity with a cart reservation and remember which reservation holds it
+     */
+    private void holdStock(User user, CartItem item) {
+        Instant reservedAt = inventoryReservationService.holdCartStock(user.getId(), item.getProductId(), item.getProductQuantity());
+        if (reservedAt != null) {
+            item.setReservedAt(reservedAt);
+        }
+    }
+
     /**
      * Helper method to create CartItem with proper pricing calculations
      */
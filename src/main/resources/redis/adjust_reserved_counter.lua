@@ -0,0 +1,13 @@
+-- Add a delta to a per-product reserved counter without letting it drop below zero.
+-- Releases can race with a reconciliation; the counter is clamped in the same call.
+--
+-- KEYS[1] reserved counter
+-- ARGV[1] delta
+--
+-- Returns the counter value after INCRBY, before clamping.
+
+local reserved = redis.call('INCRBY', KEYS[1], ARGV[1])
+if reserved < 0 then
+    redis.call('SET', KEYS[1], '0')
+end
+return reserved
@@ -0,0 +1,79 @@
+-- Atomically create or update a cart reservation.
+-- Writes the reservation in the Spring Data Redis hash layout so that the
+-- InventoryReservationRepository keeps reading it (including secondary indexes
+-- and the phantom copy used for expiry events).
+--
+-- Two modes:
+--   reserve  check the product's unreserved stock (stock mirror minus reserved
+--            counter) and count the reservation in the reserved counter
+--   hold     record stock the cart already took out of MongoDB; no availability
+--            check, the reservation is not counted as reserved and units it
+--            previously reserved are released from the counter
+--
+-- KEYS[1] stock mirror          KEYS[5] reservation keyspace set
+-- KEYS[2] reserved counter      KEYS[6] userId index set
+-- KEYS[3] reservation hash      KEYS[7] productId index set
+-- KEYS[4] reservation phantom   KEYS[8] reservation index tracking set
+--
+-- ARGV[1] reservation id   ARGV[4] quantity      ARGV[7] entity class name
+-- ARGV[2] user id          ARGV[5] ttl seconds   ARGV[8] phantom extra ttl seconds
+-- ARGV[3] product id       ARGV[6] created at    ARGV[9] mode (reserve or hold)
+--
+-- Returns {status, additional, createdAt}: status 1 = written, 0 = insufficient stock
+-- (or, in reserve mode, the cart already holds the product), -1 = stock mirror missing;
+-- additional is the change of the reserved counter; createdAt, only when written, is the
+-- creation time of the reservation, which stays the same while it is renewed.
+
+local hold = ARGV[9] == 'hold'
+local quantity = tonumber(ARGV[4])
+local current = tonumber(redis.call('HGET', KEYS[3], 'quantity') or '0')
+local holding = redis.call('HGET', KEYS[3], 'stockDecremented') == '1'
+local additional
+
+if hold then
+    additional = holding and 0 or -current
+else
+    if holding then
+        return {0, 0}
+    end
+
+    local stock = redis.call('HGET', KEYS[1], 'stock')
+    if not stock then
+        return {-1, 0}
+    end
+
+    local reserved = tonumber(redis.call('GET', KEYS[2]) or '0')
+    additional = quantity - current
+
+    if additional > tonumber(stock) - reserved then
+        return {0, additional}
+    end
+end
+
+if redis.call('EXISTS', KEYS[3]) == 0 then
+    redis.call('HSET', KEYS[3], '_class', ARGV[7], 'id', ARGV[1], 'userId', ARGV[2],
+            'productId', ARGV[3], 'createdAt', ARGV[6], 'reservationType', 'CART')
+    redis.call('SADD', KEYS[5], ARGV[1])
+    redis.call('SADD', KEYS[6], ARGV[1])
+    redis.call('SADD', KEYS[7], ARGV[1])
+    redis.call('SADD', KEYS[8], KEYS[6], KEYS[7])
+end
+
+redis.call('HSET', KEYS[3], 'quantity', ARGV[4], 'ttlSeconds', ARGV[5])
+if hold then
+    redis.call('HSET', KEYS[3], 'stockDecremented', '1')
+end
+redis.call('EXPIRE', KEYS[3], ARGV[5])
+
+redis.call('DEL', KEYS[4])
+redis.call('HSET', KEYS[4], unpack(redis.call('HGETALL', KEYS[3])))
+redis.call('EXPIRE', KEYS[4], tonumber(ARGV[5]) + tonumber(ARGV[8]))
+
+if additional ~= 0 then
+    local total = redis.call('INCRBY', KEYS[2], additional)
+    if total < 0 then
+        redis.call('SET', KEYS[2], '0')
+    end
+end
+
+return {1, additional, redis.call('HGET', KEYS[3], 'createdAt')}
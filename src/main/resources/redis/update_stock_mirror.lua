@@ -0,0 +1,17 @@
+-- Write a product's stock to its Redis mirror unless the mirror already holds
+-- the same or a newer stock version. Writers may reach Redis in any order after
+-- their MongoDB updates; the version keeps the newest stock.
+--
+-- KEYS[1] stock mirror
+-- ARGV[1] stock count   ARGV[2] stock version   ARGV[3] ttl seconds
+--
+-- Returns 1 if the mirror was written, 0 if it already held a newer version.
+
+local version = tonumber(redis.call('HGET', KEYS[1], 'version') or '-1')
+if tonumber(ARGV[2]) <= version then
+    return 0
+end
+
+redis.call('HSET', KEYS[1], 'stock', ARGV[1], 'version', ARGV[2])
+redis.call('EXPIRE', KEYS[1], ARGV[3])
+return 1
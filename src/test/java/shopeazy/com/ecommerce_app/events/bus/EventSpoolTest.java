@@ -0,0 +1,120 @@
+package shopeazy.com.ecommerce_app.events.bus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.NetworkException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.kafka.core.KafkaProducerException;
+import org.springframework.test.util.ReflectionTestUtils;
+import shopeazy.com.ecommerce_app.events.handler.OrderEvent;
+import shopeazy.com.ecommerce_app.events.outbox.OutboxEvent;
+import shopeazy.com.ecommerce_app.events.topic.EventTopic;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventSpoolTest {
+
+    private static final Instant ESTIMATED_DELIVERY = Instant.parse("2026-10-25T12:00:00.123Z");
+
+    @TempDir
+    Path directory;
+
+    private EventSpool spool;
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        spool = new EventSpool(new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(spool, "directory", directory.toString());
+        ReflectionTestUtils.setField(spool, "segmentSizeMb", 1);
+        spool.open();
+
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+    }
+
+    @Test
+    void outboxEventLoadedFromMongoIsSpooledAndReadBack() {
+        Map<String, Object> eventData = new LinkedHashMap<>();
+        eventData.put("trackingNumber", "TRK-1");
+        eventData.put("estimatedDelivery", ESTIMATED_DELIVERY);
+        OrderEvent shipped = OrderEvent.orderShipped("order1", "ORD-1", "user1", "user@example.com",
+                BigDecimal.valueOf(50), "USD", eventData);
+
+        OutboxEvent loaded = roundTripThroughMongo(OutboxEvent.of(EventTopic.ORDER_EVENTS, shipped));
+        spool.append(new SpoolRecord(loaded.getTopic(), loaded.getKey(), loaded.readPayload(), Map.of("source", "outbox")));
+
+        List<SpooledEvent> events = spool.read(spool.position("test"), 10);
+        assertEquals(1, events.size());
+        SpoolRecord record = events.get(0).record();
+        assertEquals(EventTopic.ORDER_EVENTS.name(), record.topic());
+        assertEquals("order1", record.key());
+        assertEquals(Map.of("source", "outbox"), record.headers());
+
+        OrderEvent event = assertInstanceOf(OrderEvent.class, record.payload());
+        assertEquals(shipped.getEventId(), event.getEventId());
+        assertEquals("ORDER_SHIPPED", event.getEventType());
+        assertEquals("TRK-1", event.getEventData().get("trackingNumber"));
+        assertEquals(ESTIMATED_DELIVERY, event.getEventData().get("estimatedDelivery"));
+    }
+
+    @Test
+    void legacyUntypedOutboxPayloadIsSpooledWithItsDates() {
+        Map<String, Object> eventData = new LinkedHashMap<>();
+        eventData.put("estimatedDelivery", ESTIMATED_DELIVERY);
+        OrderEvent shipped = OrderEvent.orderShipped("order1", "ORD-1", "user1", "user@example.com",
+                BigDecimal.valueOf(50), "USD", eventData);
+        OutboxEvent legacy = OutboxEvent.of(EventTopic.ORDER_EVENTS, shipped);
+        legacy.setEncodedPayload(null);
+        legacy.setPayload(shipped);
+
+        OutboxEvent loaded = roundTripThroughMongo(legacy);
+        OrderEvent stored = assertInstanceOf(OrderEvent.class, loaded.readPayload());
+        assertInstanceOf(Date.class, stored.getEventData().get("estimatedDelivery"));
+        spool.append(new SpoolRecord(loaded.getTopic(), loaded.getKey(), stored, Map.of()));
+
+        OrderEvent event = assertInstanceOf(OrderEvent.class, spool.read(spool.position("test"), 10).get(0).record().payload());
+        assertEquals(ESTIMATED_DELIVERY, event.getEventData().get("estimatedDelivery"));
+    }
+
+    @Test
+    void onlyBrokerAndTimeoutErrorsSwitchToSpooling() {
+        assertTrue(SpoolingEventBus.isBrokerUnavailable(new CompletionException(
+                new KafkaProducerException(null, "send failed", new org.apache.kafka.common.errors.TimeoutException("metadata")))));
+        assertTrue(SpoolingEventBus.isBrokerUnavailable(new NetworkException("connection lost")));
+        assertFalse(SpoolingEventBus.isBrokerUnavailable(new CompletionException(
+                new SerializationException("Can't serialize OrderEvent"))));
+        assertFalse(SpoolingEventBus.isBrokerUnavailable(new IllegalArgumentException("bad event")));
+    }
+
+    private OutboxEvent roundTripThroughMongo(OutboxEvent event) {
+        Document document = new Document();
+        converter.write(event, document);
+        return converter.read(OutboxEvent.class, document);
+    }
+}
@@ -0,0 +1,42 @@
+package shopeazy.com.ecommerce_app.events.bus;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LocalEventDispatcherTest {
+
+    private static final long NOW = 1_760_000_000_000L;
+
+    @Test
+    void retryNotDueYetOnlyHoldsBackItsOwnKey() {
+        SpooledEvent retry = event("order-events-retry", "order1", "retry",
+                Map.of(LocalEventDispatcher.NOT_BEFORE_HEADER, String.valueOf(NOW + 5000)));
+        SpooledEvent otherKey = event("order-events-retry", "order2", "other", Map.of());
+        SpooledEvent sameKey = event("order-events-retry", "order1", "later", Map.of());
+        SpooledEvent sameKeyOtherTopic = event("inventory-events", "order1", "inventory", Map.of());
+
+        LocalEventDispatcher.DueEvents due = LocalEventDispatcher.dueEvents(List.of(retry, otherKey, sameKey, sameKeyOtherTopic), NOW);
+
+        assertEquals(List.of(otherKey, sameKeyOtherTopic), due.events());
+        assertEquals(List.of(retry.record(), sameKey.record()), due.deferred());
+    }
+
+    @Test
+    void dueRetryIsDispatched() {
+        SpooledEvent retry = event("order-events-retry", "order1", "retry",
+                Map.of(LocalEventDispatcher.NOT_BEFORE_HEADER, String.valueOf(NOW - 1)));
+
+        LocalEventDispatcher.DueEvents due = LocalEventDispatcher.dueEvents(List.of(retry), NOW);
+
+        assertEquals(List.of(retry), due.events());
+        assertEquals(List.of(), due.deferred());
+    }
+
+    private static SpooledEvent event(String topic, String key, String payload, Map<String, String> headers) {
+        return new SpooledEvent(new SpoolRecord(topic, key, payload, headers), null);
+    }
+}
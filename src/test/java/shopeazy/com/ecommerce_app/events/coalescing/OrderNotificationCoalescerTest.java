@@ -0,0 +1,147 @@
+package shopeazy.com.ecommerce_app.events.coalescing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import shopeazy.com.ecommerce_app.events.handler.OrderEvent;
+import shopeazy.com.ecommerce_app.events.retry.FailureHandler;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderNotificationCoalescerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private OrderNotificationCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new OrderNotificationCoalescer(mongoTemplate, new SimpleMeterRegistry());
+        coalescer.registerMetrics();
+        ReflectionTestUtils.setField(coalescer, "enabled", true);
+        ReflectionTestUtils.setField(coalescer, "windowMs", 120000L);
+        ReflectionTestUtils.setField(coalescer, "leaseMs", 60000L);
+        ReflectionTestUtils.setField(coalescer, "batchSize", 100);
+    }
+
+    @Test
+    void holdKeepsLifecycleEventsAndPassesOthersThrough() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, PendingOrderNotification.class)).thenReturn(bulkOperations);
+        OrderEvent created = event("e1", "ORDER_CREATED", "2026-10-01T10:00:00Z");
+        OrderEvent statusChanged = event("e2", "ORDER_STATUS_CHANGED", "2026-10-01T10:01:00Z");
+
+        List<OrderEvent> immediate = coalescer.hold(List.of(created, statusChanged));
+
+        assertEquals(List.of(statusChanged), immediate);
+        verify(bulkOperations).upsert(any(Query.class), any(Update.class));
+        verify(bulkOperations).execute();
+    }
+
+    @Test
+    void flushSendsMostRelevantEventAndConfirmationAndReturnsSupersededOnes() {
+        OrderEvent created = event("e1", "ORDER_CREATED", "2026-10-01T10:00:00Z");
+        OrderEvent shipped = event("e2", "ORDER_SHIPPED", "2026-10-01T10:05:00Z");
+        OrderEvent confirmed = event("e3", "ORDER_CONFIRMED", "2026-10-01T10:02:00Z");
+        PendingOrderNotification candidate = new PendingOrderNotification();
+        candidate.setId("order1");
+        PendingOrderNotification pending = new PendingOrderNotification();
+        pending.setId("order1");
+        pending.setEvents(new ArrayList<>(List.of(created, shipped, confirmed)));
+
+        when(mongoTemplate.find(any(Query.class), eq(PendingOrderNotification.class))).thenReturn(List.of(candidate));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(PendingOrderNotification.class))).thenReturn(pending);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, PendingOrderNotification.class)).thenReturn(bulkOperations);
+
+        List<List<OrderEvent>> processed = new ArrayList<>();
+        List<OrderEvent> superseded = coalescer.flushDue((events, onFailure) -> processed.add(events), FailureHandler.rethrow());
+
+        assertEquals(List.of(List.of(confirmed, shipped)), processed);
+        assertEquals(List.of("e1"), superseded.stream().map(OrderEvent::getEventId).toList());
+        verify(bulkOperations).execute();
+    }
+
+    @Test
+    void confirmationShippedWithinTheWindowIsStillSent() {
+        OrderEvent confirmed = event("e1", "ORDER_CONFIRMED", "2026-10-01T10:00:00Z");
+        OrderEvent shipped = event("e2", "ORDER_SHIPPED", "2026-10-01T10:00:30Z");
+        PendingOrderNotification pending = new PendingOrderNotification();
+        pending.setId("order1");
+        pending.setEvents(new ArrayList<>(List.of(confirmed, shipped)));
+
+        when(mongoTemplate.find(any(Query.class), eq(PendingOrderNotification.class))).thenReturn(List.of(pending));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(PendingOrderNotification.class))).thenReturn(pending);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, PendingOrderNotification.class)).thenReturn(bulkOperations);
+
+        List<OrderEvent> sent = new ArrayList<>();
+        List<OrderEvent> superseded = coalescer.flushDue((events, onFailure) -> sent.addAll(events), FailureHandler.rethrow());
+
+        // the confirmation email carries the invoice PDF
+        assertEquals(List.of("ORDER_CONFIRMED", "ORDER_SHIPPED"), sent.stream().map(OrderEvent::getEventType).toList());
+        assertTrue(superseded.isEmpty());
+    }
+
+    @Test
+    void flushDoesNotMarkARedeliveredCopyOfTheSentEventAsSuperseded() {
+        OrderEvent shipped = event("e2", "ORDER_SHIPPED", "2026-10-01T10:05:00Z");
+        OrderEvent redelivered = event("e2", "ORDER_SHIPPED", "2026-10-01T10:05:00Z");
+        PendingOrderNotification pending = new PendingOrderNotification();
+        pending.setId("order1");
+        pending.setEvents(new ArrayList<>(List.of(shipped, redelivered)));
+
+        when(mongoTemplate.find(any(Query.class), eq(PendingOrderNotification.class))).thenReturn(List.of(pending));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(PendingOrderNotification.class))).thenReturn(pending);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, PendingOrderNotification.class)).thenReturn(bulkOperations);
+
+        List<OrderEvent> superseded = coalescer.flushDue((events, onFailure) -> { }, FailureHandler.rethrow());
+
+        assertTrue(superseded.isEmpty());
+    }
+
+    @Test
+    void disabledCoalescerHoldsNothing() {
+        ReflectionTestUtils.setField(coalescer, "enabled", false);
+        List<OrderEvent> events = List.of(event("e1", "ORDER_CREATED", "2026-10-01T10:00:00Z"));
+
+        assertEquals(events, coalescer.hold(events));
+        assertTrue(coalescer.flushDue((batch, onFailure) -> { }, FailureHandler.rethrow()).isEmpty());
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    private static OrderEvent event(String eventId, String eventType, String timestamp) {
+        OrderEvent event = OrderEvent.orderCreated("order1", "ORD-1", "user1", "customer@example.com",
+                BigDecimal.TEN, "USD", Map.of());
+        event.setEventId(eventId);
+        event.setEventType(eventType);
+        event.setEventTimestamp(Instant.parse(timestamp));
+        return event;
+    }
+}
@@ -0,0 +1,234 @@
+package shopeazy.com.ecommerce_app.events.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import shopeazy.com.ecommerce_app.common.model.Address;
+import shopeazy.com.ecommerce_app.events.handler.InventoryEvent;
+import shopeazy.com.ecommerce_app.events.handler.NotificationEvent;
+import shopeazy.com.ecommerce_app.events.handler.OrderEvent;
+import shopeazy.com.ecommerce_app.events.handler.OrderSnapshot;
+import shopeazy.com.ecommerce_app.events.handler.ProductPriceChangedEvent;
+import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
+import shopeazy.com.ecommerce_app.order.enums.PaymentStatus;
+import shopeazy.com.ecommerce_app.order.model.Order;
+import shopeazy.com.ecommerce_app.order.model.OrderItem;
+import shopeazy.com.ecommerce_app.order.model.OrderPricing;
+import shopeazy.com.ecommerce_app.order.model.OrderTimestamps;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventCodecTest {
+
+    private static final Instant TIMESTAMP = Instant.parse("2026-10-18T10:15:30.123456789Z");
+
+    private final EventCodecRegistry registry = EventCodecRegistry.defaultRegistry();
+
+    @Test
+    void orderEventWithSnapshotRoundTrips() {
+        OrderEvent event = orderEvent();
+
+        assertEquals(event, roundTrip(event));
+    }
+
+    @Test
+    void inventoryNotificationAndPriceEventsRoundTrip() {
+        InventoryEvent inventory = InventoryEvent.stockReserved("product1", "user1", 2, "Added to cart",
+                Map.of("reservationExpiresAt", TIMESTAMP));
+        NotificationEvent notification = NotificationEvent.orderConfirmationEmail("customer@example.com", "user1",
+                Map.of("orderNumber", "ORD-1", "orderId", "order1"), true);
+        ProductPriceChangedEvent price = new ProductPriceChangedEvent("P-1", 19.99);
+
+        assertEquals(inventory, roundTrip(inventory));
+        assertEquals(notification, roundTrip(notification));
+        assertEquals(price, roundTrip(price));
+    }
+
+    @Test
+    void version1RecordsAreReadWithoutEventId() {
+        OrderEvent order = orderEvent();
+        order.setEventId(null);
+        InventoryEvent inventory = InventoryEvent.stockReleased("product1", "user1", 1, "Expired", Map.of());
+        inventory.setEventId(null);
+
+        OrderEvent readOrder = (OrderEvent) BinaryEventDeserializer.decode(registry, asVersion1(order));
+        InventoryEvent readInventory = (InventoryEvent) BinaryEventDeserializer.decode(registry, asVersion1(inventory));
+
+        assertNull(readOrder.getEventId());
+        assertEquals(order, readOrder);
+        assertEquals(inventory, readInventory);
+    }
+
+    @Test
+    void everyValueTypeRoundTrips() {
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("city", "Berlin");
+        Map<String, Object> eventData = new LinkedHashMap<>();
+        eventData.put("null", null);
+        eventData.put("string", "text");
+        eventData.put("int", -42);
+        eventData.put("long", 1L << 40);
+        eventData.put("double", 2.5);
+        eventData.put("boolean", true);
+        eventData.put("decimal", new BigDecimal("-19.990"));
+        eventData.put("instant", TIMESTAMP);
+        eventData.put("map", nested);
+        eventData.put("list", Arrays.asList("a", 1, null, List.of(false)));
+        eventData.put("date", Date.from(TIMESTAMP));
+        eventData.put("enum", OrderStatus.SHIPPED);
+        OrderEvent event = orderEvent();
+        event.setEventData(eventData);
+
+        Map<String, Object> read = ((OrderEvent) roundTrip(event)).getEventData();
+
+        Map<String, Object> expected = new LinkedHashMap<>(eventData);
+        // dates come back as instants at millisecond precision, enums as their names
+        expected.put("date", Date.from(TIMESTAMP).toInstant());
+        expected.put("enum", "SHIPPED");
+        assertEquals(expected, read);
+    }
+
+    @Test
+    void truncatedRecordsAreRejected() {
+        byte[] encoded = BinaryEventSerializer.encode(registry.forType(OrderEvent.class).orElseThrow(), orderEvent());
+
+        for (int length = 1; length < encoded.length; length++) {
+            byte[] truncated = Arrays.copyOf(encoded, length);
+            assertThrows(SerializationException.class, () -> BinaryEventDeserializer.decode(registry, truncated),
+                    "truncated to " + length + " bytes");
+        }
+    }
+
+    @Test
+    void sizesLargerThanTheRemainingBytesAreRejected() {
+        BinaryEventWriter map = inventoryHeader();
+        map.writeVarInt(100_000_000);
+
+        BinaryEventWriter list = inventoryHeader();
+        list.writeVarInt(2);
+        list.writeString("items");
+        list.writeByte(ValueTag.LIST);
+        list.writeVarInt(1_000_000_000);
+
+        BinaryEventWriter items = header(1, 2);
+        for (int i = 0; i < 5; i++) {
+            items.writeString(null); // event type, order ID, number, user ID, email
+        }
+        items.writeEnum(null);
+        items.writeDecimal(null);
+        items.writeString(null);
+        items.writeInstant(null);
+        items.writeMap(null);
+        items.writeString(null);
+        items.writeString(null);
+        items.writeBoolean(true); // snapshot
+        items.writeVarInt(1);
+        for (int i = 0; i < 8; i++) {
+            items.writeString(null); // snapshot fields up to the payment transaction ID
+        }
+        items.writeVarInt(500_000_000);
+
+        assertThrows(SerializationException.class, () -> BinaryEventDeserializer.decode(registry, map.toByteArray()));
+        assertThrows(SerializationException.class, () -> BinaryEventDeserializer.decode(registry, list.toByteArray()));
+        assertThrows(SerializationException.class, () -> BinaryEventDeserializer.decode(registry, items.toByteArray()));
+    }
+
+    @Test
+    void unsupportedVersionIsRejected() {
+        assertThrows(SerializationException.class, () -> BinaryEventDeserializer.decode(registry, header(1, 3).toByteArray()));
+    }
+
+    private Object roundTrip(Object event) {
+        EventCodec<?> codec = registry.codecs().stream()
+                .filter(candidate -> candidate.type().equals(event.getClass()))
+                .findFirst()
+                .orElseThrow();
+        return BinaryEventDeserializer.decode(registry, BinaryEventSerializer.encode(codec, event));
+    }
+
+    /**
+     * Version 1 is version 2 without the trailing event ID, which a null ID writes as a single zero byte
+     */
+    private byte[] asVersion1(Object event) {
+        EventCodec<?> codec = registry.codecs().stream()
+                .filter(candidate -> candidate.type().equals(event.getClass()))
+                .findFirst()
+                .orElseThrow();
+        byte[] encoded = BinaryEventSerializer.encode(codec, event);
+        byte[] version1 = Arrays.copyOf(encoded, encoded.length - 1);
+        version1[2] = 1;
+        return version1;
+    }
+
+    private static BinaryEventWriter inventoryHeader() {
+        BinaryEventWriter writer = header(2, 2);
+        writer.writeString(null); // event type
+        writer.writeString(null); // product ID
+        writer.writeString(null); // user ID
+        writer.writeNullableInt(null);
+        writer.writeNullableInt(null);
+        writer.writeNullableInt(null);
+        writer.writeInstant(null);
+        writer.writeString(null); // reason
+        return writer;
+    }
+
+    private static BinaryEventWriter header(int typeId, int version) {
+        BinaryEventWriter writer = new BinaryEventWriter();
+        writer.writeByte(BinaryEventSerializer.MAGIC);
+        writer.writeVarInt(typeId);
+        writer.writeVarInt(version);
+        return writer;
+    }
+
+    private static OrderEvent orderEvent() {
+        Order order = new Order();
+        order.setId("order1");
+        order.setOrderNumber("ORD-1");
+        order.setUserId("user1");
+        order.setCustomerEmail("customer@example.com");
+        order.setCustomerName("Jane Doe");
+        order.setStatus(OrderStatus.CONFIRMED);
+        order.setPaymentStatus(PaymentStatus.PAID);
+
+        OrderItem item = new OrderItem();
+        item.setProductId("product1");
+        item.setProductName("Product 1");
+        item.setQuantity(2);
+        item.setPriceAtTime(new BigDecimal("19.99"));
+        item.setTotalPrice(new BigDecimal("39.98"));
+        item.setSellerId("seller1");
+        item.setSellerName("Acme Store");
+        order.setOrderItems(List.of(item));
+        order.setPricing(new OrderPricing(new BigDecimal("39.98"), new BigDecimal("7.60"), new BigDecimal("4.99"),
+                BigDecimal.ZERO, new BigDecimal("52.57"), "EUR"));
+
+        Address address = new Address();
+        address.setStreet("Hauptstrasse 1");
+        address.setCity("Berlin");
+        address.setZip("10115");
+        address.setCountry("Germany");
+        order.setShippingAddress(address);
+        order.setBillingAddress(address);
+
+        OrderTimestamps timestamps = new OrderTimestamps();
+        timestamps.setCreated(TIMESTAMP);
+        timestamps.setConfirmed(TIMESTAMP.plusSeconds(30));
+        order.setTimestamps(timestamps);
+        order.setCreatedAt(TIMESTAMP);
+
+        OrderEvent event = OrderEvent.orderConfirmed(order.getId(), order.getOrderNumber(), order.getUserId(),
+                order.getCustomerEmail(), order.getPricing().getTotal(), "EUR", Map.of("itemCount", 1));
+        event.setSnapshot(OrderSnapshot.of(order));
+        return event;
+    }
+}
@@ -0,0 +1,190 @@
+package shopeazy.com.ecommerce_app.events.consumer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mail.MailSendException;
+import org.springframework.test.util.ReflectionTestUtils;
+import shopeazy.com.ecommerce_app.events.coalescing.OrderNotificationCoalescer;
+import shopeazy.com.ecommerce_app.events.handler.OrderEvent;
+import shopeazy.com.ecommerce_app.events.idempotency.ProcessedEventStore;
+import shopeazy.com.ecommerce_app.events.retry.FailedEventPublisher;
+import shopeazy.com.ecommerce_app.events.retry.FailureHandler;
+import shopeazy.com.ecommerce_app.events.topic.EventTopic;
+import shopeazy.com.ecommerce_app.notification.service.EmailNotificationService;
+import shopeazy.com.ecommerce_app.order.model.CancellationInfo;
+import shopeazy.com.ecommerce_app.order.model.Order;
+import shopeazy.com.ecommerce_app.order.repository.OrderRepository;
+import shopeazy.com.ecommerce_app.pdf.service.OrderDocumentStore;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderEventConsumerTest {
+
+    @Mock
+    private EmailNotificationService emailService;
+
+    @Mock
+    private OrderDocumentStore documentStore;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private FailedEventPublisher failedEventPublisher;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private OrderNotificationCoalescer coalescer;
+
+    private OrderEventConsumer consumer;
+
+    private final List<OrderEvent> forwarded = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // real processed-event store on a Redis that has no event marked yet
+        ProcessedEventStore processedEvents = new ProcessedEventStore(redisTemplate, new SimpleMeterRegistry());
+        consumer = new OrderEventConsumer(emailService, documentStore, orderRepository, failedEventPublisher, processedEvents, coalescer);
+        ReflectionTestUtils.setField(consumer, "deliveryTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(consumer, "maxAttachmentsPerBatch", 50);
+
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(valueOperations.multiGet(anyList()))
+                .thenAnswer(invocation -> Arrays.asList(new String[invocation.<List<String>>getArgument(0).size()]));
+        lenient().when(failedEventPublisher.forwardTo(EventTopic.ORDER_EVENTS, "order-notification-group"))
+                .thenReturn((event, exception) -> forwarded.add(event));
+        lenient().when(coalescer.hold(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        lenient().when(orderRepository.findAllById(any())).thenReturn(List.of(cancelledOrder()));
+        lenient().when(documentStore.getCancellationReceiptPdf(any(Order.class))).thenReturn(new byte[]{1});
+    }
+
+    @Test
+    void failedCancellationReceiptIsForwardedOnItsOwn() {
+        when(emailService.sendOrderCancelledEmail(any(Order.class))).thenReturn(CompletableFuture.completedFuture(null));
+        when(emailService.sendEmailWithAttachment(anyString(), anyString(), anyString(), any(), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new MailSendException("smtp down")));
+
+        consumer.handleOrderEvents(List.of(cancelledEvent()));
+
+        assertEquals(1, forwarded.size());
+        assertEquals("ORDER_CANCELLATION_RECEIPT", forwarded.get(0).getEventType());
+        assertEquals("event1:receipt", forwarded.get(0).getEventId());
+    }
+
+    @Test
+    void retriedCancellationReceiptDoesNotResendCancellationEmail() {
+        when(emailService.sendEmailWithAttachment(eq("customer@example.com"), anyString(), anyString(), any(),
+                eq("cancellation-receipt-ORD-1.pdf"))).thenReturn(CompletableFuture.completedFuture(null));
+        OrderEvent receipt = cancelledEvent();
+        receipt.setEventId("event1:receipt");
+        receipt.setEventType("ORDER_CANCELLATION_RECEIPT");
+
+        consumer.retryOrderEvent(receipt, null);
+
+        verify(emailService, never()).sendOrderCancelledEmail(any(Order.class));
+        verify(emailService).sendEmailWithAttachment(eq("customer@example.com"), anyString(), anyString(), any(),
+                eq("cancellation-receipt-ORD-1.pdf"));
+    }
+
+    @Test
+    void retriedCancellationDoesNotResendReceipt() {
+        when(emailService.sendOrderCancelledEmail(any(Order.class)))
+                .thenReturn(CompletableFuture.failedFuture(new MailSendException("smtp down")));
+
+        assertThrows(MailSendException.class, () -> consumer.retryOrderEvent(cancelledEvent(), null));
+
+        verify(documentStore, never()).getCancellationReceiptPdf(any(Order.class));
+    }
+
+    @Test
+    void failedCoalescedNotificationIsRetried() {
+        OrderEvent created = OrderEvent.orderCreated("order1", "ORD-1", "user1", "customer@example.com",
+                BigDecimal.TEN, "USD", Map.of());
+        when(coalescer.hold(anyList())).thenReturn(List.of());
+        doAnswer(invocation -> {
+            BiConsumer<List<OrderEvent>, FailureHandler<OrderEvent>> process = invocation.getArgument(0);
+            process.accept(List.of(created), invocation.getArgument(1));
+            return List.of();
+        }).when(coalescer).flushDue(any(), any());
+        when(emailService.sendOrderConfirmationEmail(any(Order.class)))
+                .thenReturn(CompletableFuture.failedFuture(new MailSendException("smtp down")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        consumer.handleOrderEvents(List.of(created));
+        consumer.flushCoalescedNotifications();
+
+        // neither holding nor the failed flush marked the event processed
+        assertEquals(List.of(created), forwarded);
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+
+        consumer.retryOrderEvent(created, null);
+
+        verify(emailService, times(2)).sendOrderConfirmationEmail(any(Order.class));
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void supersededCoalescedEventsAreMarkedProcessed() {
+        OrderEvent created = OrderEvent.orderCreated("order1", "ORD-1", "user1", "customer@example.com",
+                BigDecimal.TEN, "USD", Map.of());
+        when(coalescer.flushDue(any(), any())).thenReturn(List.of(created));
+
+        consumer.flushCoalescedNotifications();
+
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+        assertTrue(forwarded.isEmpty());
+    }
+
+    private static OrderEvent cancelledEvent() {
+        OrderEvent event = OrderEvent.orderCancelled("order1", "ORD-1", "user1", "customer@example.com",
+                BigDecimal.TEN, "USD", Map.of());
+        event.setEventId("event1");
+        return event;
+    }
+
+    private static Order cancelledOrder() {
+        CancellationInfo cancellationInfo = new CancellationInfo();
+        cancellationInfo.setRefundAmount(BigDecimal.TEN);
+
+        Order order = new Order();
+        order.setId("order1");
+        order.setOrderNumber("ORD-1");
+        order.setCustomerEmail("customer@example.com");
+        order.setCancellationInfo(cancellationInfo);
+        return order;
+    }
+}
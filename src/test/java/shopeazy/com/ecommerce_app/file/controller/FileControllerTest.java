@@ -0,0 +1,125 @@
+package shopeazy.com.ecommerce_app.file.controller;
+
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import shopeazy.com.ecommerce_app.file.service.GridFsFileResource;
+import shopeazy.com.ecommerce_app.file.service.StoredFileService;
+import shopeazy.com.ecommerce_app.file.service.StoredFileService.StoredFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class FileControllerTest {
+
+    private static final String FILE_ID = "6710f0a1b2c3d4e5f6a7b8c9";
+    private static final String HASH = "3a6eb0790f39ac87c94f3856b2dd2c5d110e6811602261a9a923d3bb23adc8b7";
+    private static final byte[] CONTENT = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+
+    @Mock
+    private StoredFileService storedFileService;
+
+    @InjectMocks
+    private FileController fileController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(fileController).build();
+        GridFSFile file = new GridFSFile(new BsonObjectId(new ObjectId(FILE_ID)), "image.png",
+                CONTENT.length, 255 * 1024, new Date(1_760_000_000_000L), new Document());
+        when(storedFileService.getPublicFile(FILE_ID)).thenReturn(new StoredFile(new InMemoryResource(file), HASH, "image/png"));
+    }
+
+    @Test
+    void fileIsServedWithStrongETagAndImmutableCaching() throws Exception {
+        mockMvc.perform(get("/api/files/{fileId}", FILE_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void matchingIfNoneMatchIsAnsweredWithNotModified() throws Exception {
+        mockMvc.perform(get("/api/files/{fileId}", FILE_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "\""))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void staleIfNoneMatchGetsTheFile() throws Exception {
+        mockMvc.perform(get("/api/files/{fileId}", FILE_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"outdated\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void rangeIsAnsweredWithPartialContent() throws Exception {
+        mockMvc.perform(get("/api/files/{fileId}", FILE_ID)
+                        .header(HttpHeaders.RANGE, "bytes=5-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-9/20"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "\""))
+                .andExpect(content().bytes("56789".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void suffixRangeReturnsTheEndOfTheFile() throws Exception {
+        mockMvc.perform(get("/api/files/{fileId}", FILE_ID)
+                        .header(HttpHeaders.RANGE, "bytes=-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 16-19/20"))
+                .andExpect(content().bytes("ghij".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void rangeBeyondTheFileIsNotSatisfiable() throws Exception {
+        mockMvc.perform(get("/api/files/{fileId}", FILE_ID)
+                        .header(HttpHeaders.RANGE, "bytes=20-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */20"));
+    }
+
+    /**
+     * Reads the content from memory instead of a GridFS download stream
+     */
+    private static class InMemoryResource extends GridFsFileResource {
+
+        InMemoryResource(GridFSFile file) {
+            super(mock(GridFSBucket.class), file);
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(CONTENT);
+        }
+    }
+}
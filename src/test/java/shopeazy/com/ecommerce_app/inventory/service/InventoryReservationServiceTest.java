@@ -0,0 +1,113 @@
+package shopeazy.com.ecommerce_app.inventory.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import shopeazy.com.ecommerce_app.inventory.model.InventoryReservation;
+import shopeazy.com.ecommerce_app.inventory.repository.InventoryReservationRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryReservationServiceTest {
+
+    @Mock
+    private InventoryReservationRepository reservationRepository;
+
+    @Mock
+    private ReservedStockCounter reservedStockCounter;
+
+    @Mock
+    private InventoryReservationScript reservationScript;
+
+    @InjectMocks
+    private InventoryReservationService reservationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reservationService, "reservationTimeoutMinutes", 30);
+        ReflectionTestUtils.setField(reservationService, "pendingOrderReservationTimeoutMinutes", 60);
+        ReflectionTestUtils.setField(reservationService, "atomicReservationEnabled", true);
+    }
+
+    @Test
+    void cartHoldGoesThroughReservationScript() {
+        Instant createdAt = Instant.parse("2026-10-18T09:00:00Z");
+        when(reservationScript.hold("user123", "product123", 3, 1800L)).thenReturn(
+                new InventoryReservationScript.Result(InventoryReservationScript.Status.RESERVED, 0, createdAt));
+
+        assertEquals(createdAt, reservationService.holdCartStock("user123", "product123", 3));
+
+        verify(reservationScript).hold("user123", "product123", 3, 1800L);
+        verifyNoInteractions(reservationRepository);
+    }
+
+    @Test
+    void placedOrderTakesOverCartReservationsUnderItsOwnKeyWithTtl() {
+        InventoryReservation cartReservation = InventoryReservation.createCartReservation("user123", "product123", 2, 1800L);
+        InventoryReservation previousOrder = orderReservation("order1", "product456", 1, false);
+        when(reservationRepository.findByUserId("user123")).thenReturn(List.of(cartReservation, previousOrder));
+
+        reservationService.convertToOrderReservations("user123", "order2");
+
+        ArgumentCaptor<InventoryReservation> saved = ArgumentCaptor.forClass(InventoryReservation.class);
+        verify(reservationRepository).delete(cartReservation);
+        verify(reservationRepository).save(saved.capture());
+        verify(reservationRepository, never()).delete(previousOrder);
+
+        InventoryReservation orderReservation = saved.getValue();
+        assertEquals("order2:product123", orderReservation.getId());
+        assertEquals("order2", orderReservation.getContext());
+        assertEquals(2, orderReservation.getQuantity());
+        assertEquals(3600L, orderReservation.getTtlSeconds());
+        assertTrue(orderReservation.isOrderReservation());
+        verifyNoInteractions(reservedStockCounter);
+    }
+
+    @Test
+    void releasingOrderReservationsOnlyTouchesThatOrder() {
+        InventoryReservation reserved = orderReservation("order1", "product123", 2, false);
+        InventoryReservation held = orderReservation("order1", "product456", 4, true);
+        when(reservationRepository.findByContext("order1")).thenReturn(List.of(reserved, held));
+
+        reservationService.releaseOrderReservations("order1");
+
+        verify(reservationRepository).delete(reserved);
+        verify(reservationRepository).delete(held);
+        verify(reservedStockCounter).add("product123", -2);
+        verify(reservedStockCounter, never()).add("product456", -4);
+        verify(reservationRepository, never()).findByUserId(any());
+    }
+
+    @Test
+    void clearingCartKeepsOrderReservations() {
+        InventoryReservation cartReservation = InventoryReservation.createCartReservation("user123", "product123", 2, 1800L);
+        InventoryReservation pendingOrder = orderReservation("order1", "product123", 1, false);
+        when(reservationRepository.findByUserId("user123")).thenReturn(List.of(cartReservation, pendingOrder));
+
+        reservationService.releaseAllUserReservations("user123");
+
+        verify(reservationRepository).delete(cartReservation);
+        verify(reservationRepository, never()).delete(pendingOrder);
+    }
+
+    private static InventoryReservation orderReservation(String orderId, String productId, int quantity, boolean held) {
+        InventoryReservation cartReservation = InventoryReservation.createCartReservation("user123", productId, quantity, 1800L);
+        cartReservation.setStockDecremented(held);
+        return InventoryReservation.createOrderReservation(cartReservation, orderId, 3600L);
+    }
+}
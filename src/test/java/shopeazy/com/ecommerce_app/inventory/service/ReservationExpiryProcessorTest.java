@@ -0,0 +1,137 @@
+package shopeazy.com.ecommerce_app.inventory.service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.RedisKeyExpiredEvent;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.convert.RedisConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import shopeazy.com.ecommerce_app.events.outbox.OutboxService;
+import shopeazy.com.ecommerce_app.inventory.model.InventoryReservation;
+import shopeazy.com.ecommerce_app.product.repository.ProductRepository;
+import shopeazy.com.ecommerce_app.shopping_cart.model.Cart;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationExpiryProcessorTest {
+
+    private static final Instant CREATED_AT = Instant.parse("2026-10-18T09:00:00.123Z");
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private RedisConverter redisConverter;
+
+    @Mock
+    private ReservedStockCounter reservedStockCounter;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private ReservationExpiryProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(processor, "batchSize", 500);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        lenient().when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Cart.class)).thenReturn(bulkOperations);
+    }
+
+    @Test
+    void failedBatchIsRetriedFromTheFailedStep() {
+        when(bulkOperations.execute())
+                .thenThrow(new IllegalStateException("Mongo unavailable"))
+                .thenReturn(null);
+        expire(heldCartReservation());
+
+        processor.drainExpiredReservations();
+        verify(productRepository).incrementStock(Map.of("product1", 2));
+        verify(outboxService, times(0)).enqueueAll(anyList());
+
+        processor.drainExpiredReservations();
+        // the stock was already given back, only the remaining steps run again
+        verify(productRepository, times(1)).incrementStock(Map.of("product1", 2));
+        verify(bulkOperations, times(2)).execute();
+        verify(outboxService).enqueueAll(anyList());
+    }
+
+    @Test
+    void expiredReservationOnlyRemovesTheCartItemItHeld() {
+        expire(heldCartReservation());
+
+        processor.drainExpiredReservations();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).updateOne(any(Query.class), update.capture());
+        Document pulled = (Document) ((Document) update.getValue().getUpdateObject().get("$pull")).get("items");
+        assertEquals("product1", pulled.get("productId"));
+        assertEquals(new Document("$in", Arrays.asList(Date.from(CREATED_AT), null)), pulled.get("reservedAt"));
+        verify(outboxService).enqueueAll(anyList());
+    }
+
+    @Test
+    void reservationClaimedElsewhereIsSkipped() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(eq("inventory_reservation_expired:user1:product1:" + CREATED_AT))).thenReturn("other");
+        expire(heldCartReservation());
+
+        processor.drainExpiredReservations();
+
+        verify(productRepository, times(0)).incrementStock(any());
+        verify(outboxService, times(0)).enqueueAll(anyList());
+    }
+
+    private void expire(InventoryReservation reservation) {
+        processor.onReservationExpired(new RedisKeyExpiredEvent<>(
+                ("inventory_reservation:" + reservation.getId()).getBytes(StandardCharsets.UTF_8), reservation));
+    }
+
+    private static InventoryReservation heldCartReservation() {
+        InventoryReservation reservation = InventoryReservation.createCartReservation("user1", "product1", 2, 1800L);
+        reservation.setCreatedAt(CREATED_AT);
+        reservation.setStockDecremented(true);
+        return reservation;
+    }
+}
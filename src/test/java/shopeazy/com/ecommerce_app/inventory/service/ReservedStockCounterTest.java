@@ -0,0 +1,91 @@
+package shopeazy.com.ecommerce_app.inventory.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReservedStockCounterTest {
+
+    private static final byte[] COUNTER_KEY = "inventory_reserved:product123".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisStringCommands stringCommands;
+
+    @Mock
+    private RedisKeyCommands keyCommands;
+
+    @InjectMocks
+    private ReservedStockCounter counter;
+
+    @Test
+    void reconcileRecomputesTotalWhenWatchedCounterChanged() {
+        runCallbacksOnConnection();
+        when(connection.exec()).thenReturn(null).thenReturn(List.of(true));
+
+        AtomicInteger totals = new AtomicInteger();
+        boolean written = counter.reconcile("product123", () -> {
+            totals.incrementAndGet();
+            return 7;
+        });
+
+        assertTrue(written);
+        assertEquals(2, totals.get());
+        verify(connection, times(2)).watch(COUNTER_KEY);
+        verify(stringCommands, times(2)).set(COUNTER_KEY, "7".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void reconcileDeletesCounterWithoutReservations() {
+        runCallbacksOnConnection();
+        when(connection.exec()).thenReturn(List.of(1L));
+
+        assertTrue(counter.reconcile("product123", () -> 0));
+
+        verify(keyCommands).del(COUNTER_KEY);
+    }
+
+    @Test
+    void reconcileGivesUpWhenCounterKeepsChanging() {
+        runCallbacksOnConnection();
+        when(connection.exec()).thenReturn(null);
+
+        assertFalse(counter.reconcile("product123", () -> 3));
+
+        verify(connection, times(5)).multi();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runCallbacksOnConnection() {
+        lenient().when(connection.stringCommands()).thenReturn(stringCommands);
+        lenient().when(connection.keyCommands()).thenReturn(keyCommands);
+        when(redisTemplate.execute(any(RedisCallback.class)))
+                .thenAnswer(invocation -> invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection));
+    }
+}
@@ -0,0 +1,103 @@
+package shopeazy.com.ecommerce_app.order.service;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
+import shopeazy.com.ecommerce_app.order.model.OrderKpi;
+import shopeazy.com.ecommerce_app.order.model.OrderKpiState;
+import shopeazy.com.ecommerce_app.order.repository.OrderRepository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderKpiServiceTest {
+
+    private static final Instant EVENT_TIME = Instant.parse("2026-10-18T10:00:00Z");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private OrderKpiService orderKpiService;
+
+    @Test
+    void statisticsAreNotReadBeforeTheFirstRebuild() {
+        when(mongoTemplate.exists(any(Query.class), eq(OrderKpi.class))).thenReturn(false);
+
+        assertTrue(orderKpiService.getGlobalStatistics().isEmpty());
+        verify(mongoTemplate, never()).findById(OrderKpi.GLOBAL_ID, OrderKpi.class);
+    }
+
+    @Test
+    void statisticsAreReadOnceRebuilt() {
+        when(mongoTemplate.exists(any(Query.class), eq(OrderKpi.class))).thenReturn(true);
+        OrderKpi kpi = new OrderKpi();
+        kpi.setTotalOrders(3);
+        kpi.setTotalRevenue(new Decimal128(BigDecimal.TEN));
+        when(mongoTemplate.findById(OrderKpi.GLOBAL_ID, OrderKpi.class)).thenReturn(kpi);
+
+        assertEquals(3, orderKpiService.getGlobalStatistics().orElseThrow().getTotalOrders());
+    }
+
+    @Test
+    void statusIsOnlyMovedByNewerEvents() {
+        OrderKpiState previous = new OrderKpiState();
+        previous.setId("order1");
+        previous.setStatus(OrderStatus.CONFIRMED.name());
+        previous.setTotal(new Decimal128(BigDecimal.TEN));
+        previous.setDay("2026-10-18");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(OrderKpiState.class)))
+                .thenReturn(previous);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderKpi.class)).thenReturn(bulkOperations);
+
+        orderKpiService.applyStatus("order1", OrderStatus.SHIPPED, EVENT_TIME);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class), eq(OrderKpiState.class));
+        List<?> guard = (List<?>) query.getValue().getQueryObject().get("$or");
+        assertEquals(new Document("statusAt", null), guard.get(0));
+        assertEquals(new Document("statusAt", new Document("$lt", EVENT_TIME)), guard.get(1));
+        assertEquals(EVENT_TIME, ((Document) update.getValue().getUpdateObject().get("$set")).get("statusAt"));
+        verify(bulkOperations).execute();
+    }
+
+    @Test
+    void staleEventDoesNotMoveTheCounters() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(OrderKpiState.class)))
+                .thenReturn(null);
+        when(mongoTemplate.exists(any(Query.class), eq(OrderKpiState.class))).thenReturn(true);
+
+        orderKpiService.applyStatus("order1", OrderStatus.CONFIRMED, EVENT_TIME.minusSeconds(60));
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(OrderKpi.class));
+        verify(orderRepository, never()).findById(any());
+    }
+}
@@ -0,0 +1,274 @@
+package shopeazy.com.ecommerce_app.order.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.modelmapper.ModelMapper;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import shopeazy.com.ecommerce_app.common.UniqueReadableNumberService;
+import shopeazy.com.ecommerce_app.common.exception.BusinessException;
+import shopeazy.com.ecommerce_app.events.outbox.OutboxEvent;
+import shopeazy.com.ecommerce_app.events.outbox.OutboxService;
+import shopeazy.com.ecommerce_app.inventory.service.InventoryReservationService;
+import shopeazy.com.ecommerce_app.order.dto.CreateOrderRequest;
+import shopeazy.com.ecommerce_app.order.dto.OrderCursorPageDto;
+import shopeazy.com.ecommerce_app.order.dto.OrderResponseDto;
+import shopeazy.com.ecommerce_app.order.enums.OrderStatus;
+import shopeazy.com.ecommerce_app.order.model.Order;
+import shopeazy.com.ecommerce_app.order.model.OrderPricing;
+import shopeazy.com.ecommerce_app.order.model.OrderTimestamps;
+import shopeazy.com.ecommerce_app.order.repository.OrderRepository;
+import shopeazy.com.ecommerce_app.product.model.Product;
+import shopeazy.com.ecommerce_app.product.repository.ProductRepository;
+import shopeazy.com.ecommerce_app.seller.repository.SellerProfileRepository;
+import shopeazy.com.ecommerce_app.shopping_cart.model.Cart;
+import shopeazy.com.ecommerce_app.shopping_cart.model.pojo.CartItem;
+import shopeazy.com.ecommerce_app.shopping_cart.repository.CartRepository;
+import shopeazy.com.ecommerce_app.user.model.User;
+import shopeazy.com.ecommerce_app.user.repository.UserRepository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceImplTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private UniqueReadableNumberService numberService;
+
+    @Mock
+    private SellerProfileRepository sellerRepository;
+
+    @Mock
+    private ModelMapper modelMapper;
+
+    @Mock
+    private InventoryReservationService inventoryReservationService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @InjectMocks
+    private OrderServiceImpl orderService;
+
+    @Test
+    void createdOrderHasCreatedAtAlthoughIdIsPreAssigned() {
+        mockUser();
+        Product product = new Product();
+        product.setId("product123");
+        product.setSellerId("seller123");
+        product.setStockCount(10);
+
+        CartItem item = new CartItem();
+        item.setProductId("product123");
+        item.setProductName("Test Product");
+        item.setProductQuantity(2);
+        item.setDiscountedPrice(BigDecimal.valueOf(25));
+        Cart cart = new Cart();
+        cart.setUserId("user123");
+        cart.setItems(new ArrayList<>(List.of(item)));
+
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setPaymentTransactionId("txn_123456");
+        request.setUseSameAddressForBilling(true);
+
+        when(cartRepository.findByUserId("user123")).thenReturn(Optional.of(cart));
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+        when(inventoryReservationService.validateCartReservations(eq("user123"), anyMap(), anyMap())).thenReturn(true);
+        when(numberService.getNextSequence("ORDER")).thenReturn(7);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(modelMapper.map(any(Order.class), eq(OrderResponseDto.class))).thenReturn(new OrderResponseDto());
+
+        orderService.createOrderFromCart(request, "email123");
+
+        ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository).save(saved.capture());
+        Order order = saved.getValue();
+        assertNotNull(order.getId());
+        assertNotNull(order.getCreatedAt());
+        assertEquals(order.getTimestamps().getCreated(), order.getCreatedAt());
+        // a later cursor page must be able to encode this order's position
+        assertNotNull(OrderCursor.encode(order.getCreatedAt(), order.getId()));
+    }
+
+    @Test
+    void saveConflictWithRelayKeepsStoredOutboxAndAddsQueuedEvents() {
+        Instant updatedAt = Instant.parse("2026-10-01T10:00:00Z");
+        Order loaded = shippedOrder(1L, updatedAt);
+        loaded.setOutbox(new ArrayList<>(List.of(outboxEvent("published", false))));
+        // the relay published the stored event after the order was loaded
+        Order current = shippedOrder(2L, updatedAt);
+        current.setOutbox(new ArrayList<>());
+
+        OutboxEvent delivered = outboxEvent("delivered", true);
+        doAnswer(invocation -> {
+            invocation.<Order>getArgument(0).getOutbox().add(delivered);
+            return null;
+        }).when(outboxService).enqueue(any(Order.class), any(), any());
+        when(orderRepository.findById("order1")).thenReturn(Optional.of(loaded)).thenReturn(Optional.of(current));
+        when(orderRepository.save(loaded))
+                .thenThrow(new OptimisticLockingFailureException("version changed"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(modelMapper.map(any(Order.class), eq(OrderResponseDto.class))).thenReturn(new OrderResponseDto());
+
+        orderService.markOrderDelivered("order1", "customer");
+
+        verify(orderRepository, times(2)).save(loaded);
+        assertEquals(2L, loaded.getVersion());
+        assertEquals(List.of("delivered"), loaded.getOutbox().stream().map(OutboxEvent::getId).toList());
+    }
+
+    @Test
+    void saveConflictWithAnotherOrderChangeIsRethrown() {
+        Order loaded = shippedOrder(1L, Instant.parse("2026-10-01T10:00:00Z"));
+        Order current = shippedOrder(2L, Instant.parse("2026-10-01T10:05:00Z"));
+        when(orderRepository.findById("order1")).thenReturn(Optional.of(loaded)).thenReturn(Optional.of(current));
+        when(orderRepository.save(loaded)).thenThrow(new OptimisticLockingFailureException("version changed"));
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> orderService.markOrderDelivered("order1", "customer"));
+        verify(orderRepository, times(1)).save(loaded);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1, 101})
+    void cursorPageRejectsSizeOutsideLimits(int size) {
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> orderService.getUserOrdersByCursor("email123", null, null, size, false));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getHttpStatus());
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void cursorPageReturnsNextCursorFromLastOrderOfPage() {
+        mockUser();
+        Order first = order("order1", Instant.parse("2026-10-02T10:00:00Z"));
+        Order second = order("order2", Instant.parse("2026-10-01T10:00:00Z"));
+        Order extra = order("order3", Instant.parse("2026-09-30T10:00:00Z"));
+        when(orderRepository.findUserOrderSummaries(eq("user123"), isNull(), isNull(), isNull(), eq(3)))
+                .thenReturn(List.of(first, second, extra));
+
+        OrderCursorPageDto page = orderService.getUserOrdersByCursor("email123", null, null, 2, false);
+
+        assertTrue(page.isHasMore());
+        assertEquals(List.of("order1", "order2"), page.getOrders().stream().map(dto -> dto.getId()).toList());
+
+        OrderCursor next = OrderCursor.decode(page.getNextCursor());
+        assertEquals(second.getCreatedAt(), next.createdAt());
+        assertEquals("order2", next.id());
+    }
+
+    @Test
+    void cursorOfOrderWithoutCreatedAtContinuesAfterIt() {
+        mockUser();
+        Order first = order("order2", null);
+        Order extra = order("order1", null);
+        when(orderRepository.findUserOrderSummaries(eq("user123"), isNull(), isNull(), isNull(), eq(2)))
+                .thenReturn(List.of(first, extra));
+
+        OrderCursorPageDto page = orderService.getUserOrdersByCursor("email123", null, null, 1, false);
+
+        OrderCursor next = OrderCursor.decode(page.getNextCursor());
+        assertNull(next.createdAt());
+        assertEquals("order2", next.id());
+    }
+
+    @Test
+    void lastCursorPageHasNoNextCursor() {
+        mockUser();
+        when(orderRepository.findUserOrderSummaries(eq("user123"), eq(OrderStatus.PENDING), any(), any(), anyInt()))
+                .thenReturn(List.of(order("order1", Instant.parse("2026-10-02T10:00:00Z"))));
+
+        OrderCursorPageDto page = orderService.getUserOrdersByCursor("email123", OrderStatus.PENDING,
+                OrderCursor.encode(Instant.parse("2026-10-03T10:00:00Z"), "order0"), 2, false);
+
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        assertEquals(1, page.getOrders().size());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        mockUser();
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> orderService.getUserOrdersByCursor("email123", null, "not-a-cursor", 10, false));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getHttpStatus());
+    }
+
+    private void mockUser() {
+        User user = new User();
+        user.setId("user123");
+        user.setEmail("email123");
+        when(userRepository.findByEmail("email123")).thenReturn(Optional.of(user));
+    }
+
+    private static Order shippedOrder(Long version, Instant updatedAt) {
+        OrderPricing pricing = new OrderPricing();
+        pricing.setTotal(BigDecimal.valueOf(50));
+        pricing.setCurrency("USD");
+
+        Order order = order("order1", Instant.parse("2026-09-30T10:00:00Z"));
+        order.setStatus(OrderStatus.SHIPPED);
+        order.setPricing(pricing);
+        order.setTimestamps(new OrderTimestamps());
+        order.setVersion(version);
+        order.setUpdatedAt(updatedAt);
+        return order;
+    }
+
+    private static OutboxEvent outboxEvent(String id, boolean queued) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setQueued(queued);
+        return event;
+    }
+
+    private static Order order(String id, Instant createdAt) {
+        Order order = new Order();
+        order.setId(id);
+        order.setStatus(OrderStatus.PENDING);
+        order.setCreatedAt(createdAt);
+        return order;
+    }
+}
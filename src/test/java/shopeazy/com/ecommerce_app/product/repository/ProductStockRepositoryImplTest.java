@@ -0,0 +1,68 @@
+package shopeazy.com.ecommerce_app.product.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import shopeazy.com.ecommerce_app.product.model.Product;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductStockRepositoryImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ProductStockMirror stockMirror;
+
+    @InjectMocks
+    private ProductStockRepositoryImpl stockRepository;
+
+    @Test
+    void decrementWritesNewStockThroughToMirror() {
+        Product updated = new Product();
+        updated.setId("product123");
+        updated.setStockCount(8);
+        updated.setStockVersion(3L);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Product.class)))
+                .thenReturn(updated);
+
+        assertTrue(stockRepository.decrementStock("product123", 2));
+
+        verify(stockMirror).update(updated);
+    }
+
+    @Test
+    void decrementWithInsufficientStockLeavesMirrorAlone() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Product.class)))
+                .thenReturn(null);
+
+        assertFalse(stockRepository.decrementStock("product123", 2));
+
+        verifyNoInteractions(stockMirror);
+    }
+
+    @Test
+    void zeroQuantityOnlyChecksThatProductExists() {
+        when(mongoTemplate.exists(any(Query.class), eq(Product.class))).thenReturn(true);
+
+        assertTrue(stockRepository.incrementStock("product123", 0));
+
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Product.class));
+        verifyNoInteractions(stockMirror);
+    }
+}
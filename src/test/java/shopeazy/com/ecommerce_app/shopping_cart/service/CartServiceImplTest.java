@@ -6,6 +6,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.modelmapper.ModelMapper;
+import shopeazy.com.ecommerce_app.inventory.service.InventoryReservationService;
 import shopeazy.com.ecommerce_app.shopping_cart.dto.AddProductsToCartRequest;
 import shopeazy.com.ecommerce_app.shopping_cart.dto.CartResponse;
 import shopeazy.com.ecommerce_app.shopping_cart.model.Cart;
@@ -23,7 +24,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +42,9 @@ class CartServiceImplTest {
     @Mock
     private CartRepository cartRepository;
 
+    @Mock
+    private InventoryReservationService inventoryReservationService;
+
     @Mock
     private ModelMapper modelMapper;
 
@@ -55,6 +59,7 @@ class CartServiceImplTest {
         product.setName("Test Product");
         product.setStockCount(10);
         product.setPrice(500.00);
+        product.setDiscount(0.0);
 
         User user = new User();
         user.setId("user123");
@@ -77,11 +82,10 @@ class CartServiceImplTest {
 
         // Stubbing
         when(productRepository.findById("product123")).thenReturn(Optional.of(product));
-        when(userRepository.findById("user123")).thenReturn(Optional.of(user));
+        when(userRepository.findByEmail("email123")).thenReturn(Optional.of(user));
         when(productService.checkProductAvailability("product123")).thenReturn(mockResponse);
-        doNothing().when(productService).validateRequestedQuantity("product123", 2);
+        when(productRepository.decrementStock("product123", 2)).thenReturn(true);
         when(cartRepository.findByUserId("user123")).thenReturn(Optional.of(cart));
-        when(productRepository.save(any())).thenReturn(product);
         when(cartRepository.save(any())).thenReturn(cart);
         when(modelMapper.map(any(Cart.class), eq(CartResponse.class))).thenReturn(expectedResponse);
 
@@ -90,5 +94,6 @@ class CartServiceImplTest {
 
         // Assert
         assertEquals(expectedResponse, actualResponse);
+        verify(inventoryReservationService).holdCartStock("user123", "product123", 2);
     }
 }